@@ -0,0 +1,59 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream that ends after a fixed number of bytes have been read from the underlying stream.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+	private long remaining;
+
+	public BoundedInputStream(InputStream in, long length) {
+		super(in);
+		this.remaining = length;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int b = super.read();
+		if (b != -1) {
+			remaining--;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int read = super.read(b, off, (int) Math.min(len, remaining));
+		if (read != -1) {
+			remaining -= read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(Math.min(n, remaining));
+		remaining -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(super.available(), remaining);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
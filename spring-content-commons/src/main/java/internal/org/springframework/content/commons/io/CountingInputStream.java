@@ -0,0 +1,49 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream that counts the bytes read through it, letting a store record the length of
+ * content as it is written rather than asking the backend afterwards.  Bytes skipped over
+ * are not delivered to the reader and so are not counted.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private long count;
+
+	public CountingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b != -1) {
+			count++;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int read = super.read(b, off, len);
+		if (read != -1) {
+			count += read;
+		}
+		return read;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * @return the number of bytes read so far, excluding any that were skipped
+	 */
+	public long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,58 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Moves content between streams and {@link FileChannel}s with {@code transferFrom} and
+ * {@code transferTo}.  When both ends are files the kernel copies the bytes directly.
+ */
+public final class FileChannels {
+
+	/** the most transferred per call, so a single transfer never maps a huge region */
+	static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+	private FileChannels() {}
+
+	/**
+	 * Transfers a stream, until it ends, into the channel at its current position.
+	 *
+	 * @return the number of bytes transferred
+	 */
+	public static long transferFrom(InputStream in, FileChannel out) throws IOException {
+		ReadableByteChannel source = (in instanceof FileInputStream ? ((FileInputStream)in).getChannel() : Channels.newChannel(in));
+		long start = out.position();
+		long position = start;
+		long transferred;
+		while ((transferred = out.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+			position += transferred;
+		}
+		out.position(position);
+		return position - start;
+	}
+
+	/**
+	 * Transfers part of a channel's content to a stream.  The stream is not closed.
+	 *
+	 * @return the number of bytes transferred, less than count if the content ends first
+	 */
+	public static long transferTo(FileChannel in, long position, long count, OutputStream out) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+		long remaining = count;
+		while (remaining > 0) {
+			long transferred = in.transferTo(position, Math.min(remaining, TRANSFER_CHUNK), target);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+			remaining -= transferred;
+		}
+		return count - remaining;
+	}
+}
@@ -0,0 +1,125 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Blocking {@link InputStream} view of a publisher of buffers.  Buffers are requested one
+ * at a time as the stream is read so at most one buffer is held in memory.
+ */
+public class PublisherInputStream extends InputStream implements Subscriber<ByteBuffer> {
+
+	private static final Object COMPLETE = new Object();
+
+	private final Publisher<ByteBuffer> publisher;
+	private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+	private volatile Subscription subscription;
+	private boolean subscribed = false;
+	private boolean done = false;
+	private ByteBuffer current;
+
+	public PublisherInputStream(Publisher<ByteBuffer> publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureCurrent()) {
+			return -1;
+		}
+		return current.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!ensureCurrent()) {
+			return -1;
+		}
+		int read = Math.min(len, current.remaining());
+		current.get(b, off, read);
+		return read;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (current != null ? current.remaining() : 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!done) {
+			done = true;
+			if (subscription != null) {
+				subscription.cancel();
+			}
+		}
+	}
+
+	private boolean ensureCurrent() throws IOException {
+		if (!subscribed) {
+			subscribed = true;
+			publisher.subscribe(this);
+		}
+
+		while (current == null || !current.hasRemaining()) {
+			if (done) {
+				return false;
+			}
+			if (current != null) {
+				current = null;
+				subscription.request(1);
+			}
+
+			Object signal;
+			try {
+				signal = signals.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for content");
+			}
+
+			if (signal == COMPLETE) {
+				done = true;
+				return false;
+			} else if (signal instanceof Throwable) {
+				done = true;
+				throw new IOException("Content publisher failed", (Throwable) signal);
+			}
+			current = (ByteBuffer) signal;
+		}
+		return true;
+	}
+
+	@Override
+	public void onSubscribe(Subscription s) {
+		subscription = s;
+		s.request(1);
+	}
+
+	@Override
+	public void onNext(ByteBuffer buffer) {
+		signals.add(buffer);
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		signals.add(t);
+	}
+
+	@Override
+	public void onComplete() {
+		signals.add(COMPLETE);
+	}
+}
@@ -1,13 +1,20 @@
 package internal.org.springframework.content.commons.repository;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.content.commons.annotations.HandleAfterGetContent;
 import org.springframework.content.commons.annotations.HandleAfterSetContent;
@@ -17,14 +24,13 @@ import org.springframework.content.commons.annotations.HandleBeforeSetContent;
 import org.springframework.content.commons.annotations.HandleBeforeUnsetContent;
 import org.springframework.content.commons.annotations.StoreEventHandler;
 import org.springframework.content.commons.repository.StoreEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventExecutor;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
-import org.springframework.content.commons.utils.ReflectionService;
-import org.springframework.content.commons.utils.ReflectionServiceImpl;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.ClassUtils;
@@ -37,18 +43,35 @@ public class AnnotatedStoreEventInvoker
 
 	private static final Log logger = LogFactory.getLog(AnnotatedStoreEventInvoker.class);
 
+	private static final EventHandlerMethod[] NO_HANDLERS = new EventHandlerMethod[0];
+
 	private final MultiValueMap<Class<? extends StoreEvent>, EventHandlerMethod> handlerMethods = new LinkedMultiValueMap<Class<? extends StoreEvent>, EventHandlerMethod>();
 
-	private ReflectionService reflectionService;
+	// handlers resolved per event type and per event source type
+	private final Map<Class<? extends StoreEvent>, Map<Class<?>, EventHandlerMethod[]>> resolvedHandlers = new ConcurrentHashMap<>();
+
+	private StoreEventListenerRegistry listenerRegistry;
+
+	private Executor asyncExecutor;
 
 	public AnnotatedStoreEventInvoker() {
-		reflectionService = new ReflectionServiceImpl();
 	}
-	
-	public AnnotatedStoreEventInvoker(ReflectionService reflectionService) {
-		this.reflectionService = reflectionService;
+
+	@Autowired(required=false)
+	public void setStoreEventListenerRegistry(StoreEventListenerRegistry listenerRegistry) {
+		this.listenerRegistry = listenerRegistry;
+		for (Class<? extends StoreEvent> eventType : handlerMethods.keySet()) {
+			for (EventHandlerMethod handlerMethod : handlerMethods.get(eventType)) {
+				listenerRegistry.register(eventType, handlerMethod.targetType);
+			}
+		}
 	}
-	
+
+	@Autowired(required=false)
+	public void setAsyncStoreEventExecutor(AsyncStoreEventExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
 	MultiValueMap<Class<? extends StoreEvent>, EventHandlerMethod> getHandlers() {
 		return handlerMethods;
 	}
@@ -90,29 +113,45 @@ public class AnnotatedStoreEventInvoker
 
 	@Override
 	public void onApplicationEvent(StoreEvent event) {
-		Class<? extends StoreEvent> eventType = event.getClass();
-
-		if (!handlerMethods.containsKey(eventType)) {
+		Map<Class<?>, EventHandlerMethod[]> handlersBySource = resolvedHandlers.get(event.getClass());
+		if (handlersBySource == null) {
 			return;
 		}
 
-		for (EventHandlerMethod handlerMethod : handlerMethods.get(eventType)) {
+		Object src = event.getSource();
 
-			Object src = event.getSource();
+		EventHandlerMethod[] handlers = handlersBySource.get(src.getClass());
+		if (handlers == null) {
+			handlers = resolveHandlers(event.getClass(), src.getClass());
+			handlersBySource.put(src.getClass(), handlers);
+		}
 
-			if (!ClassUtils.isAssignable(handlerMethod.targetType, src.getClass())) {
-				continue;
-			}
+		if (handlers.length > 0 && logger.isDebugEnabled()) {
+			logger.debug(String.format("Invoking %s handlers for %s.", event.getClass().getSimpleName(), src));
+		}
 
-			List<Object> parameters = new ArrayList<Object>();
-			parameters.add(src);
-			
-			if (logger.isDebugEnabled()) {
-				logger.debug(String.format("Invoking {} handler for {}.", event.getClass().getSimpleName(), event.getSource()));
+		for (EventHandlerMethod handler : handlers) {
+			if (handler.async && asyncExecutor != null) {
+				asyncExecutor.execute(() -> handler.invoke(src));
+			} else {
+				handler.invoke(src);
 			}
+		}
+	}
+
+	private EventHandlerMethod[] resolveHandlers(Class<? extends StoreEvent> eventType, Class<?> srcType) {
+		List<EventHandlerMethod> candidates = handlerMethods.get(eventType);
+		if (candidates == null) {
+			return NO_HANDLERS;
+		}
 
-			reflectionService.invokeMethod(handlerMethod.method, handlerMethod.handler, parameters.toArray());
+		List<EventHandlerMethod> handlers = new ArrayList<>();
+		for (EventHandlerMethod handlerMethod : candidates) {
+			if (ClassUtils.isAssignable(handlerMethod.targetType, srcType)) {
+				handlers.add(handlerMethod);
+			}
 		}
+		return (handlers.isEmpty() ? NO_HANDLERS : handlers.toArray(new EventHandlerMethod[handlers.size()]));
 	}
 	
 	<H extends Annotation, E> void findHandler(Object bean, Method method, Class<H> handler, Class<? extends StoreEvent>  eventType) {
@@ -124,35 +163,68 @@ public class AnnotatedStoreEventInvoker
 
 		Class<?>[] parameterTypes = method.getParameterTypes();
 
-		if (parameterTypes.length == 0) {
+		if (parameterTypes.length != 1) {
 			throw new IllegalStateException(String.format("Event handler method %s must have a content object argument", method.getName()));
 		}
 
-		EventHandlerMethod handlerMethod = new EventHandlerMethod(parameterTypes[0], bean, method);
+		// only after event annotations carry an async attribute
+		boolean async = Boolean.TRUE.equals(AnnotationUtils.getValue(annotation, "async"));
+
+		EventHandlerMethod handlerMethod = new EventHandlerMethod(parameterTypes[0], bean, method, async);
 
 		logger.debug(String.format("Annotated handler method found: {%s}", handlerMethod));
 
 		handlerMethods.add(eventType, handlerMethod);
+
+		Map<Class<?>, EventHandlerMethod[]> handlersBySource = resolvedHandlers.get(eventType);
+		if (handlersBySource != null) {
+			handlersBySource.clear();
+		} else {
+			resolvedHandlers.put(eventType, new ConcurrentHashMap<>());
+		}
+
+		if (listenerRegistry != null) {
+			listenerRegistry.register(eventType, handlerMethod.targetType);
+		}
 	}
 
 	static class EventHandlerMethod {
 
+		private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
 		final Class<?> targetType;
 		final Method method;
 		final Object handler;
+		final MethodHandle handle;
+		final boolean async;
 
-		private EventHandlerMethod(Class<?> targetType, Object handler, Method method) {
+		private EventHandlerMethod(Class<?> targetType, Object handler, Method method, boolean async) {
 
 			this.targetType = targetType;
 			this.method = method;
 			this.handler = handler;
+			this.async = async;
 
 			ReflectionUtils.makeAccessible(this.method);
+
+			try {
+				this.handle = MethodHandles.lookup().unreflect(method).bindTo(handler).asType(HANDLER_TYPE);
+			} catch (IllegalAccessException iae) {
+				throw new IllegalStateException(String.format("Unable to access event handler method %s", method), iae);
+			}
+		}
+
+		void invoke(Object src) {
+			try {
+				handle.invokeExact(src);
+			} catch (Throwable t) {
+				ReflectionUtils.rethrowRuntimeException(t);
+			}
 		}
 
 		@Override
 		public String toString() {
-			return String.format("EventHandlerMethod{ targetType=%s, method=%s, handler=%s }", targetType, method, handler);
+			return String.format("EventHandlerMethod{ targetType=%s, method=%s, handler=%s, async=%s }", targetType, method, handler, async);
 		}
 	}
 }
@@ -0,0 +1,86 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.commons.io.PublisherInputStream;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Adapts a blocking {@link ContentStore} to {@link ReactiveContentStore} by running each
+ * operation on a bounded elastic scheduler, keeping blocking I/O off the caller's threads.
+ */
+public class BlockingContentStoreAdapter<S, SID extends Serializable> implements ReactiveContentStore<S, SID> {
+
+	static final int BUFFER_SIZE = 8192;
+
+	private final ContentStore<S, SID> store;
+	private final Scheduler scheduler;
+
+	public BlockingContentStoreAdapter(ContentStore<S, SID> store) {
+		this(store, Schedulers.boundedElastic());
+	}
+
+	public BlockingContentStoreAdapter(ContentStore<S, SID> store, Scheduler scheduler) {
+		Assert.notNull(store, "store must not be null");
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.store = store;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<S> setContent(S property, Publisher<ByteBuffer> content) {
+		return Mono.fromCallable(() -> {
+			try (InputStream stream = new PublisherInputStream(content)) {
+				store.setContent(property, stream);
+			}
+			return property;
+		}).subscribeOn(scheduler);
+	}
+
+	@Override
+	public Mono<Void> unsetContent(S property) {
+		return Mono.<Void>fromRunnable(() -> store.unsetContent(property)).subscribeOn(scheduler);
+	}
+
+	@Override
+	public Flux<ByteBuffer> getContent(S property) {
+		return Flux.defer(() -> {
+			InputStream stream = store.getContent(property);
+			if (stream == null) {
+				return Flux.<ByteBuffer>empty();
+			}
+			return Flux.<ByteBuffer>generate(sink -> {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				try {
+					int read = stream.read(buffer);
+					if (read == -1) {
+						sink.complete();
+					} else {
+						sink.next(ByteBuffer.wrap(buffer, 0, read));
+					}
+				} catch (IOException e) {
+					sink.error(e);
+				}
+			}).doFinally(signal -> closeQuietly(stream));
+		}).subscribeOn(scheduler);
+	}
+
+	private static void closeQuietly(InputStream stream) {
+		try {
+			stream.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+}
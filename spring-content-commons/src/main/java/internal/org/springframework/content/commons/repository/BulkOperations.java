@@ -0,0 +1,86 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Helpers for implementing {@link org.springframework.content.commons.repository.BulkContentStore}
+ * one entity at a time, either in order or in parallel on a shared bounded pool.
+ */
+public final class BulkOperations {
+
+	private static final Log logger = LogFactory.getLog(BulkOperations.class);
+
+	private static final int PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	private static volatile ExecutorService executor;
+
+	private BulkOperations() {}
+
+	@FunctionalInterface
+	public interface ItemOperation<S> {
+		BulkContentResult<S> apply(S entity) throws Exception;
+	}
+
+	public static <S> List<BulkContentResult<S>> forEach(Collection<S> entities, ItemOperation<S> operation) {
+		List<BulkContentResult<S>> results = new ArrayList<>(entities.size());
+		for (S entity : entities) {
+			results.add(apply(entity, operation));
+		}
+		return results;
+	}
+
+	public static <S> List<BulkContentResult<S>> forEachParallel(Collection<S> entities, ItemOperation<S> operation) {
+		if (entities.size() < 2) {
+			return forEach(entities, operation);
+		}
+
+		ExecutorService pool = executor();
+		List<CompletableFuture<BulkContentResult<S>>> futures = new ArrayList<>(entities.size());
+		for (S entity : entities) {
+			futures.add(CompletableFuture.supplyAsync(() -> apply(entity, operation), pool));
+		}
+
+		List<BulkContentResult<S>> results = new ArrayList<>(futures.size());
+		for (CompletableFuture<BulkContentResult<S>> future : futures) {
+			results.add(future.join());
+		}
+		return results;
+	}
+
+	private static <S> BulkContentResult<S> apply(S entity, ItemOperation<S> operation) {
+		try {
+			return operation.apply(entity);
+		} catch (Exception e) {
+			logger.error(String.format("Unexpected error in bulk content operation for %s", entity), e);
+			return BulkContentResult.failure(entity, e);
+		}
+	}
+
+	private static ExecutorService executor() {
+		if (executor == null) {
+			synchronized (BulkOperations.class) {
+				if (executor == null) {
+					CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("store-bulk-");
+					threadFactory.setDaemon(true);
+					ThreadPoolExecutor pool = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(), threadFactory);
+					pool.allowCoreThreadTimeOut(true);
+					executor = pool;
+				}
+			}
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,288 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.content.commons.repository.StoreEvent;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.repository.events.AfterGetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Keeps track of which store event types have subscribers for which domain types so that
+ * the store proxy can skip creating and publishing events that nobody listens to.
+ * <p>
+ * {@link AnnotatedStoreEventInvoker} registers its annotated handler methods and
+ * {@link AbstractStoreEventListener} beans are registered as they are initialized.  Any other
+ * application listener that is able to receive store events is registered for every domain type
+ * so that it keeps receiving all events.
+ * <p>
+ * Eliding events is opt-in, with the {@value #ELIDE_UNOBSERVED_EVENTS_PROPERTY} property,
+ * and even then events are only elided when every listener the application context would
+ * deliver them to is known.  Events are published whenever that is in doubt: when the context
+ * has a parent, whose listeners receive them too, or when it defines listener beans that have
+ * not been initialized yet.  Listeners added to the context directly, including those the
+ * context adapts {@code @EventListener} methods into, are registered as they are found.
+ */
+public class StoreEventListenerRegistry implements BeanPostProcessor, ApplicationContextAware, EnvironmentAware {
+
+	public static final String ELIDE_UNOBSERVED_EVENTS_PROPERTY = "spring.content.events.elide-unobserved";
+
+	private static final Log logger = LogFactory.getLog(StoreEventListenerRegistry.class);
+
+	static final List<Class<? extends StoreEvent>> STORE_EVENT_TYPES = Collections.unmodifiableList(Arrays.asList(
+			BeforeGetContentEvent.class, AfterGetContentEvent.class,
+			BeforeSetContentEvent.class, AfterSetContentEvent.class,
+			BeforeUnsetContentEvent.class, AfterUnsetContentEvent.class));
+
+	private final Map<Class<? extends StoreEvent>, Set<Class<?>>> listenerTypes = new ConcurrentHashMap<>();
+	private final Map<Class<? extends StoreEvent>, Map<Class<?>, Boolean>> resolved = new ConcurrentHashMap<>();
+
+	private final Set<String> listenerBeanNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private final LongAdder elided = new LongAdder();
+
+	private boolean elideUnobservedEvents = false;
+	private ApplicationContext context;
+	private volatile int contextListenerCount = 0;
+
+	public void setElideUnobservedEvents(boolean elideUnobservedEvents) {
+		this.elideUnobservedEvents = elideUnobservedEvents;
+	}
+
+	// post processors are created before placeholders in @Value can be resolved
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.elideUnobservedEvents = environment.getProperty(ELIDE_UNOBSERVED_EVENTS_PROPERTY, Boolean.class, false);
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext context) {
+		this.context = context;
+	}
+
+	public void register(Class<? extends StoreEvent> eventType, Class<?> domainType) {
+		Set<Class<?>> domainTypes = listenerTypes.get(eventType);
+		if (domainTypes == null) {
+			domainTypes = new CopyOnWriteArraySet<>();
+			Set<Class<?>> existing = listenerTypes.putIfAbsent(eventType, domainTypes);
+			if (existing != null) {
+				domainTypes = existing;
+			}
+		}
+		domainTypes.add(domainType != null ? domainType : Object.class);
+		resolved.clear();
+	}
+
+	public void register(AbstractStoreEventListener<?> listener) {
+		Class<?> domainType = GenericTypeResolver.resolveTypeArgument(listener.getClass(), AbstractStoreEventListener.class);
+		for (Class<? extends StoreEvent> eventType : STORE_EVENT_TYPES) {
+			register(eventType, domainType);
+		}
+	}
+
+	/**
+	 * Returns true if at least one listener is registered for events of the given type
+	 * raised for entities of the given domain class, or if that cannot be known for sure.
+	 * Always true unless eliding unobserved events is enabled.
+	 *
+	 * @param eventType
+	 * 					the store event type
+	 * @param domainClass
+	 * 					the class of the entity the event would be raised for
+	 * @return true if the event would be observed
+	 */
+	public boolean hasListeners(Class<? extends StoreEvent> eventType, Class<?> domainClass) {
+		if (!elideUnobservedEvents) {
+			return true;
+		}
+		registerContextListeners();
+
+		Map<Class<?>, Boolean> resolvedForEvent = resolved.get(eventType);
+		if (resolvedForEvent == null) {
+			resolvedForEvent = new ConcurrentHashMap<>();
+			Map<Class<?>, Boolean> existing = resolved.putIfAbsent(eventType, resolvedForEvent);
+			if (existing != null) {
+				resolvedForEvent = existing;
+			}
+		}
+
+		Boolean hasListeners = resolvedForEvent.get(domainClass);
+		if (hasListeners == null) {
+			hasListeners = hasUnknownListeners();
+			Set<Class<?>> domainTypes = listenerTypes.get(eventType);
+			if (!hasListeners && domainTypes != null) {
+				for (Class<?> domainType : domainTypes) {
+					if (ClassUtils.isAssignable(domainType, domainClass)) {
+						hasListeners = true;
+						break;
+					}
+				}
+			}
+			resolvedForEvent.put(domainClass, hasListeners);
+		}
+		return hasListeners;
+	}
+
+	// listeners added to the context, rather than defined as beans, never pass through the
+	// post processor; the context keeps them in a set that only grows
+	private void registerContextListeners() {
+		if (!(context instanceof AbstractApplicationContext)) {
+			return;
+		}
+		Collection<ApplicationListener<?>> listeners = ((AbstractApplicationContext) context).getApplicationListeners();
+		if (listeners.size() == contextListenerCount) {
+			return;
+		}
+		synchronized (this) {
+			ApplicationListener<?>[] snapshot = listeners.toArray(new ApplicationListener<?>[0]);
+			for (ApplicationListener<?> listener : snapshot) {
+				if (listener instanceof AnnotatedStoreEventInvoker) {
+					// registers its own handlers
+					continue;
+				} else if (listener instanceof AbstractStoreEventListener) {
+					register((AbstractStoreEventListener<?>) listener);
+				} else {
+					registerApplicationListener(listener, listener.toString());
+				}
+			}
+			contextListenerCount = snapshot.length;
+			resolved.clear();
+		}
+	}
+
+	private boolean hasUnknownListeners() {
+		if (context == null) {
+			return false;
+		}
+		if (context.getParent() != null) {
+			return true;
+		}
+		for (String beanName : context.getBeanNamesForType(ApplicationListener.class, true, false)) {
+			if (!listenerBeanNames.contains(beanName) && !isAnnotatedStoreEventInvoker(beanName)) {
+				logger.debug(String.format("Application listener %s is not initialized, publishing store events", beanName));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isAnnotatedStoreEventInvoker(String beanName) {
+		Class<?> beanType = context.getType(beanName);
+		return beanType != null && AnnotatedStoreEventInvoker.class.isAssignableFrom(beanType);
+	}
+
+	public void eventElided() {
+		elided.increment();
+	}
+
+	/**
+	 * @return the number of store events that were not created because nothing was listening for them
+	 */
+	public long getElidedEventCount() {
+		return elided.sum();
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof AnnotatedStoreEventInvoker) {
+			// registers its own handlers
+			return bean;
+		}
+
+		if (bean instanceof ApplicationListener && listenerBeanNames.add(beanName)) {
+			resolved.clear();
+		}
+
+		if (bean instanceof AbstractStoreEventListener) {
+			register((AbstractStoreEventListener<?>) bean);
+		} else if (bean instanceof ApplicationListener) {
+			registerApplicationListener((ApplicationListener<?>) bean, beanName);
+		}
+
+		registerEventListenerMethods(bean, beanName);
+
+		return bean;
+	}
+
+	private void registerApplicationListener(ApplicationListener<?> listener, String beanName) {
+		for (Class<? extends StoreEvent> eventType : STORE_EVENT_TYPES) {
+			boolean supported;
+			if (listener instanceof GenericApplicationListener) {
+				supported = ((GenericApplicationListener) listener).supportsEventType(ResolvableType.forClass(eventType));
+			} else if (listener instanceof SmartApplicationListener) {
+				supported = ((SmartApplicationListener) listener).supportsEventType(eventType);
+			} else {
+				Class<?> listenedType = GenericTypeResolver.resolveTypeArgument(ClassUtils.getUserClass(listener), ApplicationListener.class);
+				supported = (listenedType == null || listenedType.isAssignableFrom(eventType));
+			}
+
+			if (supported) {
+				logger.debug(String.format("Application listener %s receives %s", beanName, eventType.getSimpleName()));
+				register(eventType, Object.class);
+			}
+		}
+	}
+
+	private void registerEventListenerMethods(Object bean, String beanName) {
+		ReflectionUtils.doWithMethods(ClassUtils.getUserClass(bean), new ReflectionUtils.MethodCallback() {
+
+			@Override
+			public void doWith(Method method) throws IllegalArgumentException, IllegalAccessException {
+				EventListener annotation = AnnotationUtils.findAnnotation(method, EventListener.class);
+				if (annotation == null) {
+					return;
+				}
+
+				Class<?>[] listenedTypes = annotation.classes();
+				if (listenedTypes.length == 0) {
+					listenedTypes = method.getParameterTypes();
+				}
+
+				for (Class<? extends StoreEvent> eventType : STORE_EVENT_TYPES) {
+					for (Class<?> listenedType : listenedTypes) {
+						if (listenedType.isAssignableFrom(eventType)) {
+							logger.debug(String.format("Event listener method %s on %s receives %s", method.getName(), beanName, eventType.getSimpleName()));
+							register(eventType, Object.class);
+						}
+					}
+				}
+			}
+		});
+	}
+}
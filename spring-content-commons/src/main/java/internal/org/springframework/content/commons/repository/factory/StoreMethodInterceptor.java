@@ -3,13 +3,24 @@ package internal.org.springframework.content.commons.repository.factory;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
 import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
+import org.springframework.content.commons.repository.ContentCopies;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.repository.StoreEvent;
@@ -22,25 +33,40 @@ import org.springframework.content.commons.repository.events.BeforeSetContentEve
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
+import internal.org.springframework.content.commons.repository.BlockingContentStoreAdapter;
+import internal.org.springframework.content.commons.repository.BulkOperations;
+import internal.org.springframework.content.commons.repository.StoreEventListenerRegistry;
 import internal.org.springframework.content.commons.repository.StoreInvokerImpl;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class StoreMethodInterceptor implements MethodInterceptor {
 
-	private Map<Method,StoreExtension> extensions;
+	private static final boolean reactorPresent = ClassUtils.isPresent("reactor.core.publisher.Flux", StoreMethodInterceptor.class.getClassLoader());
+
 	private ContentStore<Object, Serializable> store = null;
 	private ApplicationEventPublisher publisher;
-	
-	private static Method getContentMethod; 
-	private static Method setContentMethod; 
+	private StoreEventListenerRegistry listenerRegistry;
+
+	private static Method getContentMethod;
+	private static Method setContentMethod;
 	private static Method unsetContentMethod;
 	private static Method getResourceMethod;
 	private static Method associateResourceMethod;
 	private static Method unassociateResourceMethod;
+	private static Method setContentsMethod;
+	private static Method unsetContentsMethod;
+	private static Method getContentsMethod;
+	private static Method copyContentMethod;
+	private static Method moveContentMethod;
     private Class<?> domainClass = null;
     private Class<? extends Serializable> contentIdClass = null;
-	
+
+	private final Map<Method, StoreMethodHandler> handlers;
+
 	static {
 		getContentMethod = ReflectionUtils.findMethod(ContentStore.class, "getContent", Object.class);
 		Assert.notNull(getContentMethod);
@@ -51,80 +77,348 @@ public class StoreMethodInterceptor implements MethodInterceptor {
 		getResourceMethod = ReflectionUtils.findMethod(Store.class, "getResource", Serializable.class);
 		Assert.notNull(getResourceMethod);
 		associateResourceMethod = ReflectionUtils.findMethod(AssociativeStore.class, "associate", Object.class, Serializable.class);
-		Assert.notNull(getResourceMethod);
+		Assert.notNull(associateResourceMethod);
 		unassociateResourceMethod = ReflectionUtils.findMethod(AssociativeStore.class, "unassociate", Object.class);
-		Assert.notNull(getResourceMethod);
+		Assert.notNull(unassociateResourceMethod);
+		setContentsMethod = ReflectionUtils.findMethod(BulkContentStore.class, "setContents", Map.class);
+		Assert.notNull(setContentsMethod);
+		unsetContentsMethod = ReflectionUtils.findMethod(BulkContentStore.class, "unsetContents", Collection.class);
+		Assert.notNull(unsetContentsMethod);
+		getContentsMethod = ReflectionUtils.findMethod(BulkContentStore.class, "getContents", Collection.class);
+		Assert.notNull(getContentsMethod);
+		copyContentMethod = ReflectionUtils.findMethod(CopyableContentStore.class, "copyContent", Object.class, Object.class);
+		Assert.notNull(copyContentMethod);
+		moveContentMethod = ReflectionUtils.findMethod(CopyableContentStore.class, "moveContent", Object.class, Object.class);
+		Assert.notNull(moveContentMethod);
 	}
-	
+
 	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher) {
+		this(store, domainClass, contentIdClass, extensions, publisher, null);
+	}
+
+	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher, StoreEventListenerRegistry listenerRegistry) {
 		if (extensions == null) {
 			extensions = Collections.<Method, StoreExtension>emptyMap();
 		}
 		this.store = store;
         this.domainClass = domainClass;
         this.contentIdClass = contentIdClass;
-		this.extensions = extensions;
 		this.publisher = publisher;
+		this.listenerRegistry = listenerRegistry;
+		this.handlers = buildHandlers(extensions);
+	}
+
+	/**
+	 * Resolves, up front, how each method of the store proxy is handled so that
+	 * an invocation costs a single map lookup.
+	 */
+	private Map<Method, StoreMethodHandler> buildHandlers(Map<Method, StoreExtension> extensions) {
+		Map<Method, StoreMethodHandler> handlers = new HashMap<>();
+
+		handlers.put(getContentMethod, new EventPublishingHandler(
+				BeforeGetContentEvent.class, BeforeGetContentEvent::new,
+				AfterGetContentEvent.class, AfterGetContentEvent::new));
+		handlers.put(setContentMethod, new EventPublishingHandler(
+				BeforeSetContentEvent.class, BeforeSetContentEvent::new,
+				AfterSetContentEvent.class, AfterSetContentEvent::new));
+		handlers.put(unsetContentMethod, new EventPublishingHandler(
+				BeforeUnsetContentEvent.class, BeforeUnsetContentEvent::new,
+				AfterUnsetContentEvent.class, AfterUnsetContentEvent::new));
+		handlers.put(getResourceMethod, MethodInvocation::proceed);
+		handlers.put(associateResourceMethod, MethodInvocation::proceed);
+		handlers.put(unassociateResourceMethod, MethodInvocation::proceed);
+
+		addBulkHandlers(handlers);
+		addCopyHandlers(handlers);
+		if (reactorPresent) {
+			addReactiveHandlers(handlers);
+		}
+
+		for (Map.Entry<Method, StoreExtension> extension : extensions.entrySet()) {
+			handlers.put(extension.getKey(), new ExtensionHandler(extension.getValue()));
+		}
+
+		return Collections.unmodifiableMap(handlers);
+	}
+
+	/**
+	 * Bulk methods are served by the target when it implements {@link BulkContentStore}
+	 * and otherwise entity by entity through the target's {@link ContentStore}.
+	 */
+	@SuppressWarnings("unchecked")
+	private void addBulkHandlers(Map<Method, StoreMethodHandler> handlers) {
+		StoreMethodHandler setContents = MethodInvocation::proceed;
+		StoreMethodHandler unsetContents = MethodInvocation::proceed;
+		StoreMethodHandler getContents = MethodInvocation::proceed;
+
+		if (store != null && !(store instanceof BulkContentStore)) {
+			setContents = (invocation) -> {
+				Map<Object, InputStream> contents = (Map<Object, InputStream>) invocation.getArguments()[0];
+				return BulkOperations.forEach(contents.keySet(), (entity) -> {
+					store.setContent(entity, contents.get(entity));
+					return BulkContentResult.success(entity);
+				});
+			};
+			unsetContents = (invocation) -> BulkOperations.forEach((Collection<Object>) invocation.getArguments()[0], (entity) -> {
+				store.unsetContent(entity);
+				return BulkContentResult.success(entity);
+			});
+			getContents = (invocation) -> BulkOperations.forEach((Collection<Object>) invocation.getArguments()[0],
+					(entity) -> BulkContentResult.success(entity, store.getContent(entity)));
+		}
+
+		handlers.put(setContentsMethod, new BulkEventPublishingHandler(
+				BeforeSetContentEvent.class, BeforeSetContentEvent::new,
+				AfterSetContentEvent.class, AfterSetContentEvent::new, setContents));
+		handlers.put(unsetContentsMethod, new BulkEventPublishingHandler(
+				BeforeUnsetContentEvent.class, BeforeUnsetContentEvent::new,
+				AfterUnsetContentEvent.class, AfterUnsetContentEvent::new, unsetContents));
+		handlers.put(getContentsMethod, new BulkEventPublishingHandler(
+				BeforeGetContentEvent.class, BeforeGetContentEvent::new,
+				AfterGetContentEvent.class, AfterGetContentEvent::new, getContents));
+	}
+
+	/**
+	 * Copies and moves are served by the target when it implements {@link CopyableContentStore}
+	 * and otherwise by streaming the content through the target's {@link ContentStore}.
+	 */
+	private void addCopyHandlers(Map<Method, StoreMethodHandler> handlers) {
+		StoreMethodHandler copyContent = MethodInvocation::proceed;
+		StoreMethodHandler moveContent = MethodInvocation::proceed;
+
+		if (store != null && !(store instanceof CopyableContentStore)) {
+			copyContent = (invocation) -> ContentCopies.copy(store, invocation.getArguments()[0], store, invocation.getArguments()[1]);
+			moveContent = (invocation) -> ContentCopies.move(store, invocation.getArguments()[0], store, invocation.getArguments()[1]);
+		}
+
+		handlers.put(copyContentMethod, new CopyEventPublishingHandler(false, copyContent));
+		handlers.put(moveContentMethod, new CopyEventPublishingHandler(true, moveContent));
+	}
+
+	/**
+	 * Reactive methods are served by the target when it implements {@link ReactiveContentStore}
+	 * natively and otherwise by adapting the target's blocking {@link ContentStore}.
+	 */
+	private void addReactiveHandlers(Map<Method, StoreMethodHandler> handlers) {
+		StoreMethodHandler getContent = MethodInvocation::proceed;
+		StoreMethodHandler setContent = MethodInvocation::proceed;
+		StoreMethodHandler unsetContent = MethodInvocation::proceed;
+
+		if (store != null) {
+			BlockingContentStoreAdapter<Object, Serializable> adapter = new BlockingContentStoreAdapter<>(store);
+			getContent = (invocation) -> adapter.getContent(invocation.getArguments()[0]);
+			setContent = (invocation) -> adapter.setContent(invocation.getArguments()[0], reactiveContent(invocation.getArguments()[1]));
+			unsetContent = (invocation) -> adapter.unsetContent(invocation.getArguments()[0]);
+		}
+
+		handlers.put(ReactiveMethods.getContentMethod, new ReactiveEventPublishingHandler(
+				BeforeGetContentEvent.class, BeforeGetContentEvent::new,
+				AfterGetContentEvent.class, AfterGetContentEvent::new, getContent));
+		handlers.put(ReactiveMethods.setContentMethod, new ReactiveEventPublishingHandler(
+				BeforeSetContentEvent.class, BeforeSetContentEvent::new,
+				AfterSetContentEvent.class, AfterSetContentEvent::new, setContent));
+		handlers.put(ReactiveMethods.unsetContentMethod, new ReactiveEventPublishingHandler(
+				BeforeUnsetContentEvent.class, BeforeUnsetContentEvent::new,
+				AfterUnsetContentEvent.class, AfterUnsetContentEvent::new, unsetContent));
 	}
-	
+
+	@SuppressWarnings("unchecked")
+	private static Publisher<ByteBuffer> reactiveContent(Object content) {
+		return (Publisher<ByteBuffer>) content;
+	}
+
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
-		Method method = invocation.getMethod();
-		StoreExtension extension = extensions.get(method);
-		if (extension != null) {
+		StoreMethodHandler handler = handlers.get(invocation.getMethod());
+		if (handler == null) {
+			throw new StoreAccessException(String.format("No implementation found for %s", invocation.getMethod().getName()));
+		}
+		return handler.invoke(invocation);
+	}
+
+	@FunctionalInterface
+	interface StoreMethodHandler {
+		Object invoke(MethodInvocation invocation) throws Throwable;
+	}
+
+	private class ExtensionHandler implements StoreMethodHandler {
+
+		private final StoreExtension extension;
+
+		private ExtensionHandler(StoreExtension extension) {
+			this.extension = extension;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
 			return extension.invoke(invocation, new StoreInvokerImpl(domainClass, contentIdClass, invocation));
-		} else {
-			if (!isStoreMethod(invocation)) {
-				throw new StoreAccessException(String.format("No implementation found for %s", method.getName()));
+		}
+	}
+
+	private class EventPublishingHandler implements StoreMethodHandler {
+
+		final Class<? extends StoreEvent> beforeType;
+		final BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> before;
+		final Class<? extends StoreEvent> afterType;
+		final BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> after;
+
+		private EventPublishingHandler(Class<? extends StoreEvent> beforeType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> before,
+									   Class<? extends StoreEvent> afterType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> after) {
+			this.beforeType = beforeType;
+			this.before = before;
+			this.afterType = afterType;
+			this.after = after;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			if (args.length == 0 || args[0] == null) {
+				return invocation.proceed();
 			}
+
+			Object entity = args[0];
+			publish(beforeType, before, entity);
+			Object result = invocation.proceed();
+			publish(afterType, after, entity);
+			return result;
 		}
-		
-		StoreEvent before = null;
-		StoreEvent after = null;
-		
-		if (getContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0) {
-				before = new BeforeGetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterGetContentEvent(invocation.getArguments()[0], store);
+
+		void publish(Class<? extends StoreEvent> eventType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> factory, Object entity) {
+			if (listenerRegistry != null && !listenerRegistry.hasListeners(eventType, entity.getClass())) {
+				listenerRegistry.eventElided();
+				return;
 			}
-		} else if (setContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0) {
-				before = new BeforeSetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterSetContentEvent(invocation.getArguments()[0], store);
+			publisher.publishEvent(factory.apply(entity, store));
+		}
+	}
+
+	/**
+	 * Publishes the before events for every entity of the batch, then hands the batch to the
+	 * target and publishes the after events for the entities that succeeded.
+	 */
+	private class BulkEventPublishingHandler extends EventPublishingHandler {
+
+		private final StoreMethodHandler target;
+
+		private BulkEventPublishingHandler(Class<? extends StoreEvent> beforeType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> before,
+										   Class<? extends StoreEvent> afterType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> after,
+										   StoreMethodHandler target) {
+			super(beforeType, before, afterType, after);
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			if (args.length == 0 || args[0] == null) {
+				return target.invoke(invocation);
 			}
-		} else if (unsetContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0 && invocation.getArguments()[0] != null) {
-				before = new BeforeUnsetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterUnsetContentEvent(invocation.getArguments()[0], store);
+
+			Collection<?> entities = (args[0] instanceof Map ? ((Map<?, ?>) args[0]).keySet() : (Collection<?>) args[0]);
+			for (Object entity : entities) {
+				if (entity != null) {
+					publish(beforeType, before, entity);
+				}
 			}
-		}
 
-		if (before != null) {
-			publisher.publishEvent(before);
+			Object results = target.invoke(invocation);
+
+			if (results != null) {
+				for (Object result : (List<?>) results) {
+					BulkContentResult<?> itemResult = (BulkContentResult<?>) result;
+					if (itemResult.isSuccess() && itemResult.getEntity() != null) {
+						publish(afterType, after, itemResult.getEntity());
+					}
+				}
+			}
+			return results;
 		}
-		Object result;
-		try {
-			result = invocation.proceed();
-		} catch (Exception e) {
-			throw e;
+	}
+
+	/**
+	 * Publishes set content events for the target of a copy or move and, for a move, unset
+	 * content events for its source.  The after events are only published when content was
+	 * actually copied.
+	 */
+	private class CopyEventPublishingHandler extends EventPublishingHandler {
+
+		private final boolean move;
+		private final StoreMethodHandler target;
+
+		private CopyEventPublishingHandler(boolean move, StoreMethodHandler target) {
+			super(BeforeSetContentEvent.class, BeforeSetContentEvent::new,
+					AfterSetContentEvent.class, AfterSetContentEvent::new);
+			this.move = move;
+			this.target = target;
 		}
 
-		if (after != null) {
-			publisher.publishEvent(after);
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			if (args.length < 2 || args[0] == null || args[1] == null) {
+				return target.invoke(invocation);
+			}
+
+			Object source = args[0];
+			Object destination = args[1];
+			if (move) {
+				publish(BeforeUnsetContentEvent.class, BeforeUnsetContentEvent::new, source);
+			}
+			publish(beforeType, before, destination);
+			Object result = target.invoke(invocation);
+			if (Boolean.TRUE.equals(result)) {
+				publish(afterType, after, destination);
+				if (move) {
+					publish(AfterUnsetContentEvent.class, AfterUnsetContentEvent::new, source);
+				}
+			}
+			return result;
 		}
-		return result;
 	}
 
-	private boolean isStoreMethod(MethodInvocation invocation) {
-		if (getContentMethod.equals(invocation.getMethod()) || 
-			setContentMethod.equals(invocation.getMethod()) || 
-			unsetContentMethod.equals(invocation.getMethod()) || 
-			getResourceMethod.equals(invocation.getMethod()) ||
-			associateResourceMethod.equals(invocation.getMethod()) || 
-			unassociateResourceMethod.equals(invocation.getMethod())) {
-			return true;
+	/**
+	 * Publishes the before event when the returned publisher is subscribed to and the after
+	 * event when it completes, since that is when the content is actually transferred.
+	 */
+	private class ReactiveEventPublishingHandler extends EventPublishingHandler {
+
+		private final StoreMethodHandler target;
+
+		private ReactiveEventPublishingHandler(Class<? extends StoreEvent> beforeType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> before,
+											   Class<? extends StoreEvent> afterType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> after,
+											   StoreMethodHandler target) {
+			super(beforeType, before, afterType, after);
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			if (args.length == 0 || args[0] == null) {
+				return target.invoke(invocation);
+			}
+
+			Object entity = args[0];
+			Object result = target.invoke(invocation);
+			if (result instanceof Mono) {
+				return Mono.defer(() -> {
+					publish(beforeType, before, entity);
+					return (Mono<?>) result;
+				}).doOnSuccess((value) -> publish(afterType, after, entity));
+			}
+			return Flux.defer(() -> {
+				publish(beforeType, before, entity);
+				return (Publisher<?>) result;
+			}).doOnComplete(() -> publish(afterType, after, entity));
 		}
-		return false;
 	}
-}
 
+	// resolved on first use so that reactor is only needed when reactive stores are
+	private static class ReactiveMethods {
+
+		private static final Method getContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "getContent", Object.class);
+		private static final Method setContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "setContent", Object.class, Publisher.class);
+		private static final Method unsetContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "unsetContent", Object.class);
+	}
+}
@@ -3,21 +3,38 @@ package internal.org.springframework.content.commons.storeservice;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.factory.StoreFactory;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.content.commons.storeservice.StorePathResolver;
 
 public class ContentStoreServiceImpl implements ContentStoreService {
 
+	private static final ContentStoreInfo[] NO_STORES = new ContentStoreInfo[] {};
+
 	private Set<ContentStoreInfo> contentStoreInfos = new HashSet<>();
-	
+	private StorePathResolver pathResolver;
+
+	// immutable once built; rebuilt whenever the stores or the path resolver change
+	private volatile Map<Class<?>, ContentStoreInfo> storesByInterface = Collections.emptyMap();
+	private volatile Map<Class<?>, ContentStoreInfo[]> storesByDomainClass = Collections.emptyMap();
+	private volatile Map<String, ContentStoreInfo[]> storesByPath = Collections.emptyMap();
+	private volatile Map<Class<?>, ContentStoreInfo[]> storesByType = new ConcurrentHashMap<>();
+
 	public ContentStoreServiceImpl() {
 	}
 
@@ -33,13 +50,21 @@ public class ContentStoreServiceImpl implements ContentStoreService {
 				contentStoreInfos.add(info);
 			}
 		}
+		buildIndexes();
 	}
-	
+
+	@Autowired(required=false)
+	public void setStorePathResolver(StorePathResolver pathResolver) {
+		this.pathResolver = pathResolver;
+		buildIndexes();
+	}
+
 	private Class<?> getDomainObjectClass(Class<?> contentStoreInterface) {
 		Type[] genericInterfaces = contentStoreInterface.getGenericInterfaces();
 		for (Type genericInterface : genericInterfaces) {
 			if (genericInterface instanceof ParameterizedType) {
-				if (((ParameterizedType)genericInterface).getRawType().equals(ContentStore.class)) {
+				Type rawType = ((ParameterizedType)genericInterface).getRawType();
+				if (rawType.equals(ContentStore.class) || rawType.equals(ReactiveContentStore.class)) {
 					Type t = ((ParameterizedType)genericInterface).getActualTypeArguments()[0];
 					return (Class<?>)t;
 				}
@@ -48,12 +73,43 @@ public class ContentStoreServiceImpl implements ContentStoreService {
 		return null;
 	}
 
+	private void buildIndexes() {
+		Map<Class<?>, ContentStoreInfo> byInterface = new HashMap<>();
+		Map<Class<?>, List<ContentStoreInfo>> byDomainClass = new LinkedHashMap<>();
+		Map<String, List<ContentStoreInfo>> byPath = new LinkedHashMap<>();
+
+		for (ContentStoreInfo info : contentStoreInfos) {
+			byInterface.put(info.getInterface(), info);
+			if (info.getDomainObjectClass() != null) {
+				byDomainClass.computeIfAbsent(info.getDomainObjectClass(), k -> new ArrayList<>()).add(info);
+			}
+			String path = (pathResolver != null ? pathResolver.resolvePath(info) : null);
+			if (path != null) {
+				byPath.computeIfAbsent(path, k -> new ArrayList<>()).add(info);
+			}
+		}
+
+		storesByInterface = Collections.unmodifiableMap(byInterface);
+		storesByDomainClass = Collections.unmodifiableMap(toArrays(byDomainClass));
+		storesByPath = Collections.unmodifiableMap(toArrays(byPath));
+		storesByType = new ConcurrentHashMap<>();
+	}
+
+	private static <K> Map<K, ContentStoreInfo[]> toArrays(Map<K, List<ContentStoreInfo>> lists) {
+		Map<K, ContentStoreInfo[]> arrays = new HashMap<>(lists.size());
+		for (Map.Entry<K, List<ContentStoreInfo>> entry : lists.entrySet()) {
+			arrays.put(entry.getKey(), entry.getValue().toArray(NO_STORES));
+		}
+		return arrays;
+	}
+
 	public Set<ContentStoreInfo> getContentStoreInfos() {
 		return contentStoreInfos;
 	}
 
 	public void setContentStoreInfos(Set<ContentStoreInfo> contentStoreInfos) {
 		this.contentStoreInfos = contentStoreInfos;
+		buildIndexes();
 	}
 
 	public ContentStoreInfo[] getContentStores() {
@@ -62,12 +118,50 @@ public class ContentStoreServiceImpl implements ContentStoreService {
 
 	@Override
 	public ContentStoreInfo[] getStores(Class<?> storeType) {
-		Set<ContentStoreInfo> storeInfos = new HashSet<>();
-		for (ContentStoreInfo info : contentStoreInfos) {
+		return storesOfType(storeType).clone();
+	}
+
+	private ContentStoreInfo[] storesOfType(Class<?> storeType) {
+		return storesByType.computeIfAbsent(storeType, type -> {
+			List<ContentStoreInfo> storeInfos = new ArrayList<>();
+			for (ContentStoreInfo info : contentStoreInfos) {
+				if (info.getImplementation(type) != null) {
+					storeInfos.add(info);
+				}
+			}
+			return storeInfos.toArray(NO_STORES);
+		});
+	}
+
+	@Override
+	public ContentStoreInfo getStoreByInterface(Class<?> storeInterface) {
+		return storesByInterface.get(storeInterface);
+	}
+
+	@Override
+	public ContentStoreInfo[] getStoresByDomainClass(Class<?> domainClass) {
+		ContentStoreInfo[] infos = storesByDomainClass.get(domainClass);
+		return (infos != null ? infos.clone() : NO_STORES);
+	}
+
+	/**
+	 * Served from the path index when the given resolver is the one the stores were indexed
+	 * with, and otherwise by resolving the path of every store.
+	 */
+	@Override
+	public ContentStoreInfo getStoreByPath(Class<?> storeType, String path, StorePathResolver pathResolver) {
+		if (pathResolver != this.pathResolver) {
+			return ContentStoreService.super.getStoreByPath(storeType, path, pathResolver);
+		}
+		ContentStoreInfo[] infos = storesByPath.get(path);
+		if (infos == null) {
+			return null;
+		}
+		for (ContentStoreInfo info : infos) {
 			if (info.getImplementation(storeType) != null) {
-				storeInfos.add(info);
+				return info;
 			}
 		}
-		return storeInfos.toArray(new ContentStoreInfo[] {});
+		return null;
 	}
 }
@@ -0,0 +1,92 @@
+package internal.org.springframework.content.commons.utils;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.springframework.content.commons.annotations.ContentDigest;
+import org.springframework.content.commons.utils.BeanUtils;
+
+/**
+ * Computes {@link ContentDigest} values as content streams into a store.
+ */
+public final class ContentDigests {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private ContentDigests() {}
+
+	/**
+	 * Wraps content so that it is digested as it is read.
+	 *
+	 * @param entity the entity whose content is being written
+	 * @param content the content
+	 * @return a digesting stream, or content itself if the entity has no {@link ContentDigest} field
+	 */
+	public static InputStream digesting(Object entity, InputStream content) {
+		MessageDigest digest = newDigest(entity);
+		return (digest != null ? new DigestInputStream(content, digest) : content);
+	}
+
+	/**
+	 * Creates a digest for content that is not written as a stream.
+	 *
+	 * @param entity the entity whose content is being written
+	 * @return a digest of the entity's {@link ContentDigest} algorithm, or null if the entity has no such field
+	 */
+	public static MessageDigest newDigest(Object entity) {
+		ContentDigest annotation = BeanUtils.getFieldAnnotation(entity, ContentDigest.class);
+		if (annotation == null) {
+			return null;
+		}
+		try {
+			return MessageDigest.getInstance(annotation.algorithm());
+		} catch (NoSuchAlgorithmException nsae) {
+			throw new IllegalStateException(String.format("Unsupported content digest algorithm %s on %s", annotation.algorithm(), entity.getClass().getName()), nsae);
+		}
+	}
+
+	/**
+	 * Sets the entity's {@link ContentDigest} field from a stream, once fully read, that was
+	 * returned by {@link #digesting(Object, InputStream)}.
+	 */
+	public static void setDigest(Object entity, InputStream digesting) {
+		if (digesting instanceof DigestInputStream) {
+			setDigest(entity, ((DigestInputStream)digesting).getMessageDigest());
+		}
+	}
+
+	/**
+	 * Sets the entity's {@link ContentDigest} field from a digest, returned by
+	 * {@link #newDigest(Object)}, that has been updated with all of the content.
+	 */
+	public static void setDigest(Object entity, MessageDigest digest) {
+		if (digest != null) {
+			BeanUtils.setFieldWithAnnotation(entity, ContentDigest.class, toHex(digest.digest()));
+		}
+	}
+
+	/**
+	 * Clears the entity's {@link ContentDigest} field.
+	 */
+	public static void unsetDigest(Object entity) {
+		BeanUtils.setFieldWithAnnotation(entity, ContentDigest.class, null);
+	}
+
+	/**
+	 * Sets the target's {@link ContentDigest} field to the source's, for content copied unchanged.
+	 */
+	public static void copyDigest(Object source, Object target) {
+		BeanUtils.setFieldWithAnnotation(target, ContentDigest.class, BeanUtils.getFieldWithAnnotation(source, ContentDigest.class));
+	}
+
+	static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,25 @@
+package org.springframework.content.commons.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the field that holds a hex encoded digest of the entity's content.  Stores
+ * compute the digest while content is written and the REST layer uses it as the
+ * content's entity tag.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(value = { FIELD, METHOD })
+public @interface ContentDigest {
+
+	/**
+	 * The {@link java.security.MessageDigest} algorithm to use, for example SHA-256 or MD5.
+	 *
+	 * @return the algorithm name
+	 */
+	String algorithm() default "SHA-256";
+}
@@ -11,4 +11,11 @@ import java.lang.annotation.Target;
 @Inherited
 public @interface HandleAfterGetContent {
 
+	/**
+	 * Whether the handler is invoked asynchronously, on the store event executor, rather than
+	 * on the thread that fetched the content.
+	 *
+	 * @return true to handle the event asynchronously
+	 */
+	boolean async() default false;
 }
@@ -11,4 +11,11 @@ import java.lang.annotation.Target;
 @Target({ TYPE, METHOD })
 public @interface HandleAfterUnsetContent {
 
+	/**
+	 * Whether the handler is invoked asynchronously, on the store event executor, rather than
+	 * on the thread that unset the content.
+	 *
+	 * @return true to handle the event asynchronously
+	 */
+	boolean async() default false;
 }
@@ -12,6 +12,7 @@ import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.content.commons.repository.events.AsyncStoreEventExecutor;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.core.annotation.AnnotationAttributes;
@@ -22,6 +23,7 @@ import org.springframework.util.ClassUtils;
 
 import internal.org.springframework.content.commons.renditions.RenditionServiceImpl;
 import internal.org.springframework.content.commons.repository.AnnotatedStoreEventInvoker;
+import internal.org.springframework.content.commons.repository.StoreEventListenerRegistry;
 import internal.org.springframework.content.commons.storeservice.ContentStoreServiceImpl;
 import internal.org.springframework.content.commons.utils.StoreUtils;
 
@@ -73,6 +75,15 @@ public abstract class AbstractStoreBeanDefinitionRegistrar implements ImportBean
 		BeanDefinition storeServiceBeanDef = createBeanDefinition(ContentStoreServiceImpl.class);
 		registry.registerBeanDefinition("contentStoreService", storeServiceBeanDef);
 
+		BeanDefinition storeEventListenerRegistryDef = createBeanDefinition(StoreEventListenerRegistry.class);
+		registry.registerBeanDefinition("storeEventListenerRegistry", storeEventListenerRegistryDef);
+
+		// may be defined by the application to configure asynchronous event delivery
+		if (!registry.containsBeanDefinition("asyncStoreEventExecutor")) {
+			BeanDefinition asyncStoreEventExecutorDef = createBeanDefinition(AsyncStoreEventExecutor.class);
+			registry.registerBeanDefinition("asyncStoreEventExecutor", asyncStoreEventExecutorDef);
+		}
+
 		BeanDefinition annotatedStoreEventHandlerDef = createBeanDefinition(AnnotatedStoreEventInvoker.class);
 		registry.registerBeanDefinition("annotatedStoreEventHandler", annotatedStoreEventHandlerDef);
 
@@ -98,6 +109,7 @@ public abstract class AbstractStoreBeanDefinitionRegistrar implements ImportBean
 
 			builder.getRawBeanDefinition().setSource(importingClassMetadata);
 			builder.addPropertyValue(STORE_INTERFACE_PROPERTY, definition.getBeanClassName());
+			customizeStoreBeanDefinition(builder, attributes);
 			
 			registry.registerBeanDefinition(StoreUtils.getStoreBeanName(definition), builder.getBeanDefinition());
 		}
@@ -119,6 +131,15 @@ public abstract class AbstractStoreBeanDefinitionRegistrar implements ImportBean
 	}
 
 	protected void createOperationsBean(BeanDefinitionRegistry registry) { return; }
+
+	/**
+	 * Lets implementations pass attributes of their configuration annotation on to each
+	 * store's factory bean.
+	 *
+	 * @param builder the store factory bean's definition
+	 * @param attributes the configuration annotation's attributes
+	 */
+	protected void customizeStoreBeanDefinition(BeanDefinitionBuilder builder, AnnotationAttributes attributes) { return; }
 	
 	/**
 	 * Return the annotation to obtain configuration information from
@@ -0,0 +1,31 @@
+package org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A {@link Resource} backed by a file that can be read and written through a
+ * {@link FileChannel}, letting callers move content with {@code transferTo} and
+ * {@code transferFrom} instead of copying it through heap buffers.
+ */
+public interface FileChannelResource extends Resource {
+
+	/**
+	 * Opens a channel for reading the resource's content.  The caller closes it.
+	 *
+	 * @return the channel, positioned at the start of the content
+	 * @throws IOException if the content cannot be opened
+	 */
+	FileChannel readableChannel() throws IOException;
+
+	/**
+	 * Opens a channel for replacing the resource's content, creating it if necessary.
+	 * The caller closes it.
+	 *
+	 * @return the channel, over truncated content
+	 * @throws IOException if the content cannot be opened
+	 */
+	FileChannel writableChannel() throws IOException;
+}
@@ -0,0 +1,39 @@
+package org.springframework.content.commons.io;
+
+import java.net.URL;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A {@link Resource} whose content clients can transfer directly to and from its backing
+ * storage over short-lived, presigned URLs, so that the bytes do not pass through the
+ * application.
+ */
+public interface PresignableResource extends Resource {
+
+	/**
+	 * @return a URL that reads the resource's content with a GET until it expires
+	 */
+	default URL getPresignedGetUrl() {
+		return getPresignedGetUrl(null, null);
+	}
+
+	/**
+	 * @param contentType the Content-Type the GET should answer with, or null for the one
+	 * the content was stored with
+	 * @param filename the name the client should save the content under, or null
+	 * @return a URL that reads the resource's content with a GET until it expires
+	 */
+	URL getPresignedGetUrl(String contentType, String filename);
+
+	/**
+	 * @return a URL that replaces the resource's content with a PUT until it expires
+	 */
+	URL getPresignedPutUrl();
+
+	/**
+	 * Forgets anything the resource has cached about its content, so that it is read afresh.
+	 * Called once a client's PUT to a presigned URL, which the store does not see, is done.
+	 */
+	void refresh();
+}
@@ -0,0 +1,23 @@
+package org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A {@link Resource} that can read a range of its content without first reading, or
+ * transferring, the bytes that precede it.
+ */
+public interface RangeableResource extends Resource {
+
+	/**
+	 * Returns a stream over part of the resource's content.
+	 *
+	 * @param offset the position of the first byte to read
+	 * @param length the number of bytes to read; the stream ends early if the content does
+	 * @return the content stream
+	 * @throws IOException if the content cannot be read
+	 */
+	InputStream getInputStream(long offset, long length) throws IOException;
+}
@@ -0,0 +1,55 @@
+package org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+
+/**
+ * The outcome of one entity in a {@link BulkContentStore} operation.
+ */
+public final class BulkContentResult<S> {
+
+	private final S entity;
+	private final InputStream content;
+	private final Throwable failure;
+
+	private BulkContentResult(S entity, InputStream content, Throwable failure) {
+		this.entity = entity;
+		this.content = content;
+		this.failure = failure;
+	}
+
+	public static <S> BulkContentResult<S> success(S entity) {
+		return new BulkContentResult<>(entity, null, null);
+	}
+
+	public static <S> BulkContentResult<S> success(S entity, InputStream content) {
+		return new BulkContentResult<>(entity, content, null);
+	}
+
+	public static <S> BulkContentResult<S> failure(S entity, Throwable failure) {
+		return new BulkContentResult<>(entity, null, failure);
+	}
+
+	public S getEntity() {
+		return entity;
+	}
+
+	/**
+	 * Returns the entity's content
+	 *
+	 * @return the content read by {@link BulkContentStore#getContents}, or null
+	 */
+	public InputStream getContent() {
+		return content;
+	}
+
+	/**
+	 * @return the reason the operation failed for this entity, or null
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	public boolean isSuccess() {
+		return failure == null;
+	}
+}
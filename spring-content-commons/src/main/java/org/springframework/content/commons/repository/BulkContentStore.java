@@ -0,0 +1,23 @@
+package org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch counterpart of {@link ContentStore} for callers that handle many entities at once.
+ * Backends implement these natively where the underlying storage supports it.
+ * <p>
+ * Every entity gets a result, in iteration order; a failure affects only its own result.
+ * Before events are published for the whole batch before it is stored and after events
+ * for each entity that succeeded once it has been.
+ */
+public interface BulkContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
+
+	List<BulkContentResult<S>> setContents(Map<S, InputStream> contents);
+	List<BulkContentResult<S>> unsetContents(Collection<S> properties);
+	List<BulkContentResult<S>> getContents(Collection<S> properties);
+
+}
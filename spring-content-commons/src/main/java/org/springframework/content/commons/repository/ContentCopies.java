@@ -0,0 +1,133 @@
+package org.springframework.content.commons.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.utils.BeanUtils;
+
+import internal.org.springframework.content.commons.io.CountingInputStream;
+
+/**
+ * Copies and moves content between entities that may belong to different stores.  Within a
+ * {@link CopyableContentStore} the store's native copy is used, otherwise the content is
+ * streamed from the source store into the target store.
+ */
+public final class ContentCopies {
+
+	private ContentCopies() {}
+
+	/**
+	 * @return true if the source had content that was copied
+	 * @throws StoreAccessException if the content could not be copied
+	 */
+	public static <S, T> boolean copy(ContentStore<S, ?> sourceStore, S source, ContentStore<T, ?> targetStore, T target) {
+		if (sourceStore == targetStore && sourceStore instanceof CopyableContentStore) {
+			@SuppressWarnings("unchecked")
+			CopyableContentStore<Object, ?> store = (CopyableContentStore<Object, ?>) sourceStore;
+			return store.copyContent(source, target);
+		}
+		return stream(sourceStore, source, targetStore, target);
+	}
+
+	/**
+	 * Unsets the source's content only once it has been copied to the target.
+	 *
+	 * @return true if the source had content that was moved
+	 * @throws StoreAccessException if the content could not be copied, leaving the source's
+	 * content in place
+	 */
+	public static <S, T> boolean move(ContentStore<S, ?> sourceStore, S source, ContentStore<T, ?> targetStore, T target) {
+		if (sourceStore == targetStore && sourceStore instanceof CopyableContentStore) {
+			@SuppressWarnings("unchecked")
+			CopyableContentStore<Object, ?> store = (CopyableContentStore<Object, ?>) sourceStore;
+			return store.moveContent(source, target);
+		}
+		if (stream(sourceStore, source, targetStore, target)) {
+			sourceStore.unsetContent(source);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copies the content by reading it from the source store and writing it to the target
+	 * store.  As {@link ContentStore#setContent(Object, InputStream)} reports no failure, the
+	 * copy is then verified: the whole of the source's content must have been read, the
+	 * target must have content and, where it records one, the target's content length must
+	 * be the number of bytes read.
+	 *
+	 * @return true if the source had content that was copied
+	 * @throws StoreAccessException if the content could not be copied
+	 */
+	public static <S, T> boolean stream(ContentStore<S, ?> sourceStore, S source, ContentStore<T, ?> targetStore, T target) {
+		InputStream content = sourceStore.getContent(source);
+		if (content == null) {
+			return false;
+		}
+		CopiedInputStream copied = new CopiedInputStream(content);
+		try {
+			targetStore.setContent(target, copied);
+		} finally {
+			close(content);
+		}
+
+		if (!copied.isExhausted()) {
+			throw new StoreAccessException(String.format("Only %d bytes of the content were written", copied.getCount()));
+		}
+		Long length = lengthOf(target);
+		if (length != null && length != copied.getCount()) {
+			throw new StoreAccessException(String.format("Content of length %d was written as length %d", copied.getCount(), length));
+		}
+		InputStream written = targetStore.getContent(target);
+		if (written == null) {
+			throw new StoreAccessException("Content was not written");
+		}
+		close(written);
+		return true;
+	}
+
+	private static Long lengthOf(Object entity) {
+		if (!BeanUtils.hasFieldWithAnnotation(entity, ContentLength.class)) {
+			return null;
+		}
+		Object length = BeanUtils.getFieldWithAnnotation(entity, ContentLength.class);
+		return (length instanceof Number ? ((Number) length).longValue() : null);
+	}
+
+	private static void close(InputStream content) {
+		try {
+			content.close();
+		} catch (IOException ioe) {
+			// ignore
+		}
+	}
+
+	// records whether the content was read to its end
+	private static class CopiedInputStream extends CountingInputStream {
+
+		private boolean exhausted;
+
+		private CopiedInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			exhausted |= (b == -1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			exhausted |= (read == -1);
+			return read;
+		}
+
+		private boolean isExhausted() {
+			return exhausted;
+		}
+	}
+}
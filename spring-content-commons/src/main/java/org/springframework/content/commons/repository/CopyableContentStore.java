@@ -0,0 +1,29 @@
+package org.springframework.content.commons.repository;
+
+import java.io.Serializable;
+
+/**
+ * Copies and moves content between entities of a store.  Backends implement these natively,
+ * so that the content does not pass through the application, where the underlying storage
+ * supports it.  Stores that do not implement the interface copy by reading the source's
+ * content and writing it to the target.
+ * <p>
+ * The target is given a content id if it has none, and the source's content length and
+ * digest.  Moving also unsets the source's content, once it has been copied.  A source
+ * without content leaves the target unchanged.  A copy that fails throws a
+ * {@link StoreAccessException} and leaves the source's content in place.  To copy between
+ * stores see {@link ContentCopies}.
+ */
+public interface CopyableContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
+
+	/**
+	 * @return true if the source had content that was copied
+	 */
+	boolean copyContent(S source, S target);
+
+	/**
+	 * @return true if the source had content that was moved
+	 */
+	boolean moveContent(S source, S target);
+
+}
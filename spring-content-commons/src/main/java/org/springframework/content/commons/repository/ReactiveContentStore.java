@@ -0,0 +1,24 @@
+package org.springframework.content.commons.repository;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ContentStore}.  Content is streamed as a sequence of
+ * buffers and nothing happens until the returned publisher is subscribed to.
+ * <p>
+ * Requires reactor-core on the classpath.  Backends without a native non-blocking
+ * implementation are adapted from their {@link ContentStore} on a bounded elastic scheduler.
+ */
+public interface ReactiveContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
+
+	Mono<S> setContent(S property, Publisher<ByteBuffer> content);
+	Mono<Void> unsetContent(S property);
+	Flux<ByteBuffer> getContent(S property);
+
+}
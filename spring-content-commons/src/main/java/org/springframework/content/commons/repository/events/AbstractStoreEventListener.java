@@ -2,6 +2,9 @@ package org.springframework.content.commons.repository.events;
 
 import static org.springframework.core.GenericTypeResolver.resolveTypeArgument;
 
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.StoreEvent;
 import org.springframework.context.ApplicationListener;
 
@@ -10,10 +13,31 @@ public abstract class AbstractStoreEventListener<T>
 
 	private final Class<?> INTERESTED_TYPE = resolveTypeArgument(getClass(), AbstractStoreEventListener.class);
 
+	private boolean async = false;
+	private Executor asyncExecutor;
+
+	/**
+	 * Set whether {@literal after} events are handled asynchronously on the store event executor.
+	 * {@literal before} events are always handled on the calling thread.
+	 *
+	 * @param async true to handle {@literal after} events asynchronously
+	 */
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public boolean isAsync() {
+		return async;
+	}
+
+	@Autowired(required=false)
+	public void setAsyncStoreEventExecutor(AsyncStoreEventExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public final void onApplicationEvent(StoreEvent event) {
 
@@ -23,6 +47,19 @@ public abstract class AbstractStoreEventListener<T>
 			return;
 		}
 
+		if (async && asyncExecutor != null && isAfterEvent(event)) {
+			asyncExecutor.execute(() -> dispatch(event));
+		} else {
+			dispatch(event);
+		}
+	}
+
+	private static boolean isAfterEvent(StoreEvent event) {
+		return event instanceof AfterGetContentEvent || event instanceof AfterSetContentEvent || event instanceof AfterUnsetContentEvent;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void dispatch(StoreEvent event) {
 		if (event instanceof BeforeGetContentEvent) {
 			onBeforeGetContent((BeforeGetContentEvent) event);
 			onBeforeGetContent((T) event.getSource());
@@ -0,0 +1,183 @@
+package org.springframework.content.commons.repository.events;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded executor used to deliver {@literal after} store events to handlers that opted in
+ * to asynchronous delivery.
+ * <p>
+ * When the queue is full the configured {@link RejectionPolicy} applies.  The default,
+ * {@link RejectionPolicy#CALLER_RUNS}, runs the handler on the thread that raised the event
+ * which slows producers down rather than growing the queue.
+ */
+public class AsyncStoreEventExecutor implements Executor, InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(AsyncStoreEventExecutor.class);
+
+	public enum RejectionPolicy {
+		/** run the handler on the calling thread */
+		CALLER_RUNS,
+		/** drop the event, logging a warning */
+		DISCARD,
+		/** throw a {@link RejectedExecutionException} to the calling thread */
+		ABORT
+	}
+
+	private int corePoolSize = 1;
+	private int maxPoolSize = 4;
+	private int queueCapacity = 1000;
+	private int keepAliveSeconds = 60;
+	private int awaitTerminationSeconds = 30;
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+	private volatile ThreadPoolExecutor executor;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	public void setCorePoolSize(int corePoolSize) {
+		this.corePoolSize = corePoolSize;
+	}
+
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public void setKeepAliveSeconds(int keepAliveSeconds) {
+		this.keepAliveSeconds = keepAliveSeconds;
+	}
+
+	public void setAwaitTerminationSeconds(int awaitTerminationSeconds) {
+		this.awaitTerminationSeconds = awaitTerminationSeconds;
+	}
+
+	public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+		Assert.notNull(rejectionPolicy, "rejectionPolicy must not be null");
+		this.rejectionPolicy = rejectionPolicy;
+	}
+
+	@Override
+	public synchronized void afterPropertiesSet() {
+		if (executor != null) {
+			return;
+		}
+
+		Assert.isTrue(corePoolSize > 0 && maxPoolSize >= corePoolSize, "pool sizes must be positive and maxPoolSize must not be less than corePoolSize");
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("store-event-");
+		threadFactory.setDaemon(true);
+
+		BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+		executor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, keepAliveSeconds, TimeUnit.SECONDS, queue,
+				threadFactory, new CountingRejectionHandler());
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		if (executor == null) {
+			afterPropertiesSet();
+		}
+		submitted.increment();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					failed.increment();
+					logger.error("Asynchronous store event handler failed", e);
+				}
+			}
+		});
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		if (executor != null) {
+			executor.shutdown();
+			if (!executor.awaitTermination(awaitTerminationSeconds, TimeUnit.SECONDS)) {
+				logger.warn(String.format("%d store events were still queued at shutdown", executor.getQueue().size()));
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of events waiting to be delivered
+	 */
+	public int getQueueDepth() {
+		return (executor != null ? executor.getQueue().size() : 0);
+	}
+
+	/**
+	 * @return the number of threads currently delivering events
+	 */
+	public int getActiveCount() {
+		return (executor != null ? executor.getActiveCount() : 0);
+	}
+
+	/**
+	 * @return the number of events submitted for asynchronous delivery
+	 */
+	public long getSubmittedCount() {
+		return submitted.sum();
+	}
+
+	/**
+	 * @return the number of events that found the queue full and were handled by the rejection policy
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return the number of asynchronous handler invocations that threw
+	 */
+	public long getFailedCount() {
+		return failed.sum();
+	}
+
+	private class CountingRejectionHandler implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			rejected.increment();
+
+			if (executor.isShutdown()) {
+				logger.warn("Store event dropped, executor is shut down");
+				return;
+			}
+
+			switch (rejectionPolicy) {
+			case CALLER_RUNS:
+				task.run();
+				break;
+			case DISCARD:
+				logger.warn(String.format("Store event dropped, queue of %d is full", queueCapacity));
+				break;
+			case ABORT:
+				throw new RejectedExecutionException(String.format("Store event rejected, queue of %d is full", queueCapacity));
+			}
+		}
+	}
+}
@@ -16,12 +16,14 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.util.Assert;
 
+import internal.org.springframework.content.commons.repository.StoreEventListenerRegistry;
 import internal.org.springframework.content.commons.repository.factory.StoreMethodInterceptor;
 
 public abstract class AbstractStoreFactoryBean
@@ -38,6 +40,9 @@ public abstract class AbstractStoreFactoryBean
     @Autowired(required=false)
     private Set<StoreExtension> extensions;
 
+    @Autowired(required=false)
+    private StoreEventListenerRegistry listenerRegistry;
+
 	@Autowired
 	public void setStoreInterface(Class<? extends Store<Serializable>> storeInterface) {
 		Assert.notNull(storeInterface);
@@ -122,23 +127,31 @@ public abstract class AbstractStoreFactoryBean
 		// Create proxy
 		ProxyFactory result = new ProxyFactory();
 		result.setTarget(target);
-		result.setInterfaces(new Class[] { storeInterface, Store.class, ContentStore.class });
+		if (ReactiveContentStore.class.isAssignableFrom(storeInterface)) {
+			// ContentStore's blocking methods clash with the reactive ones
+			result.setInterfaces(new Class[] { storeInterface, Store.class });
+		} else {
+			result.setInterfaces(new Class[] { storeInterface, Store.class, ContentStore.class });
+		}
 		
 		Map<Method, StoreExtension> extensionsMap = new HashMap<>();
-		try {
-            for (StoreExtension extension : extensions) {
-                for (Method method : extension.getMethods()) {
-                    extensionsMap.put(method, extension);
-                }
-            }
-		} catch (Exception e) {
-			logger.error("Failed to setup extensions", e);
+		if (extensions != null) {
+			try {
+	            for (StoreExtension extension : extensions) {
+	                for (Method method : extension.getMethods()) {
+	                    extensionsMap.put(method, extension);
+	                }
+	            }
+			} catch (Exception e) {
+				logger.error("Failed to setup extensions", e);
+			}
 		}
-		StoreMethodInterceptor intercepter = new StoreMethodInterceptor((ContentStore<Object,Serializable>)target, 
+		StoreMethodInterceptor intercepter = new StoreMethodInterceptor(target instanceof ContentStore ? (ContentStore<Object,Serializable>)target : null, 
 																								getDomainClass(storeInterface), 
 																								getContentIdClass(storeInterface), 
 																								extensionsMap, 
-																								publisher);
+																								publisher,
+																								listenerRegistry);
 		result.addAdvice(intercepter);
 
 		return (Store<? extends Serializable>)result.getProxy(classLoader);
@@ -159,7 +172,8 @@ public abstract class AbstractStoreFactoryBean
         for ( Type t : types ) {
             if (t instanceof ParameterizedType) {
                 ParameterizedType pt = (ParameterizedType) t;
-                if (pt.getRawType().getTypeName().equals(ContentStore.class.getCanonicalName())) {
+                String rawType = pt.getRawType().getTypeName();
+                if (rawType.equals(ContentStore.class.getCanonicalName()) || rawType.equals(ReactiveContentStore.class.getCanonicalName())) {
                     types = pt.getActualTypeArguments();
                     if (types.length != 2) {
                         throw new IllegalStateException(String.format("ContentRepository class %s must have domain and contentId types", repositoryClass.getCanonicalName()));
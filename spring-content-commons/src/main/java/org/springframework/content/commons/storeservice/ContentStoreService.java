@@ -1,9 +1,64 @@
 package org.springframework.content.commons.storeservice;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface ContentStoreService {
 	
 	public ContentStoreInfo[] getStores(Class<?> storeType);
 
 	@Deprecated
 	public ContentStoreInfo[] getContentStores();
+
+	/**
+	 * Returns the store declared by the given interface.  The default implementation
+	 * searches every store; implementations may index them.
+	 *
+	 * @param storeInterface the store's interface class
+	 * @return the store, or null
+	 */
+	default ContentStoreInfo getStoreByInterface(Class<?> storeInterface) {
+		for (ContentStoreInfo info : getStores(Object.class)) {
+			if (info.getInterface().equals(storeInterface)) {
+				return info;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the stores whose domain object class is the given class.  The default
+	 * implementation searches every store; implementations may index them.
+	 *
+	 * @param domainClass the domain object class
+	 * @return the stores, possibly empty
+	 */
+	default ContentStoreInfo[] getStoresByDomainClass(Class<?> domainClass) {
+		List<ContentStoreInfo> infos = new ArrayList<>();
+		for (ContentStoreInfo info : getStores(Object.class)) {
+			if (domainClass.equals(info.getDomainObjectClass())) {
+				infos.add(info);
+			}
+		}
+		return infos.toArray(new ContentStoreInfo[infos.size()]);
+	}
+
+	/**
+	 * Returns the store of the given type that is exported under the given path, as
+	 * resolved by the given {@link StorePathResolver}.  The default implementation
+	 * resolves the path of every store; implementations may index them.
+	 *
+	 * @param storeType the type the store's implementation must have
+	 * @param path the path the store is exported under
+	 * @param pathResolver resolves the path each store is exported under
+	 * @return the store, or null
+	 */
+	default ContentStoreInfo getStoreByPath(Class<?> storeType, String path, StorePathResolver pathResolver) {
+		for (ContentStoreInfo info : getStores(storeType)) {
+			if (path.equals(pathResolver.resolvePath(info))) {
+				return info;
+			}
+		}
+		return null;
+	}
 }
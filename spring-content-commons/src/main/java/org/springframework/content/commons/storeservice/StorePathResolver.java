@@ -0,0 +1,17 @@
+package org.springframework.content.commons.storeservice;
+
+/**
+ * Strategy used by {@link ContentStoreService} to index stores by the path they are
+ * exported under.
+ */
+@FunctionalInterface
+public interface StorePathResolver {
+
+	/**
+	 * Returns the path the store is exported under
+	 *
+	 * @param info the store
+	 * @return the path, or null if the store is not exported
+	 */
+	String resolvePath(ContentStoreInfo info);
+}
@@ -0,0 +1,165 @@
+package org.springframework.content.commons.utils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Resolves, once per domain class, the field annotated with a given annotation and
+ * holds pre-bound method handles for reading and writing it.  Property accessors are
+ * preferred over direct field access when they exist.  Resolution walks the whole
+ * class hierarchy so that annotated fields declared on superclasses are found too.
+ */
+final class AnnotatedFieldAccessor {
+
+	private static final AnnotatedFieldAccessor NONE = new AnnotatedFieldAccessor(null, null, null);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final Map<Class<?>, Map<Class<? extends Annotation>, AnnotatedFieldAccessor>> cache = new ConcurrentReferenceHashMap<>();
+
+	private final Field field;
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+
+	private AnnotatedFieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+		this.field = field;
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	static AnnotatedFieldAccessor forClass(Class<?> domainClass, Class<? extends Annotation> annotationClass) {
+		Map<Class<? extends Annotation>, AnnotatedFieldAccessor> accessors = cache.get(domainClass);
+		if (accessors == null) {
+			accessors = new ConcurrentHashMap<>(4);
+			Map<Class<? extends Annotation>, AnnotatedFieldAccessor> existing = cache.putIfAbsent(domainClass, accessors);
+			if (existing != null) {
+				accessors = existing;
+			}
+		}
+
+		AnnotatedFieldAccessor accessor = accessors.get(annotationClass);
+		if (accessor == null) {
+			accessor = resolve(domainClass, annotationClass);
+			accessors.put(annotationClass, accessor);
+		}
+		return accessor;
+	}
+
+	boolean isPresent() {
+		return field != null;
+	}
+
+	Class<?> getType() {
+		return (field != null ? field.getType() : null);
+	}
+
+	<A extends Annotation> A getAnnotation(Class<A> annotationClass) {
+		return (field != null ? field.getAnnotation(annotationClass) : null);
+	}
+
+	Object get(Object domainObj) {
+		if (getter == null) {
+			return null;
+		}
+		try {
+			return (Object) getter.invokeExact(domainObj);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(String.format("Unable to read field %s", field), t);
+		}
+	}
+
+	void set(Object domainObj, Object value) {
+		if (setter == null) {
+			return;
+		}
+
+		if (value == null && field.getType().isPrimitive()) {
+			return;
+		}
+		Class<?> targetType = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+		if (value != null && !targetType.isInstance(value)) {
+			value = Conversion.service.convert(value, targetType);
+		}
+
+		try {
+			setter.invokeExact(domainObj, value);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(String.format("Unable to write field %s", field), t);
+		}
+	}
+
+	private static AnnotatedFieldAccessor resolve(Class<?> domainClass, Class<? extends Annotation> annotationClass) {
+		Field field = findAnnotatedField(domainClass, annotationClass);
+		if (field == null) {
+			return NONE;
+		}
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		PropertyDescriptor descriptor = org.springframework.beans.BeanUtils.getPropertyDescriptor(domainClass, field.getName());
+		try {
+			MethodHandle getter = null;
+			MethodHandle setter = null;
+
+			Method readMethod = (descriptor != null ? descriptor.getReadMethod() : null);
+			if (readMethod != null) {
+				ReflectionUtils.makeAccessible(readMethod);
+				getter = lookup.unreflect(readMethod);
+			} else {
+				ReflectionUtils.makeAccessible(field);
+				getter = lookup.unreflectGetter(field);
+			}
+
+			Method writeMethod = (descriptor != null ? descriptor.getWriteMethod() : null);
+			if (writeMethod != null) {
+				ReflectionUtils.makeAccessible(writeMethod);
+				setter = lookup.unreflect(writeMethod);
+			} else if (!Modifier.isFinal(field.getModifiers())) {
+				ReflectionUtils.makeAccessible(field);
+				setter = lookup.unreflectSetter(field);
+			}
+
+			return new AnnotatedFieldAccessor(field,
+					getter.asType(GETTER_TYPE),
+					(setter != null ? setter.asType(SETTER_TYPE) : null));
+		} catch (IllegalAccessException iae) {
+			throw new IllegalStateException(String.format("Unable to access field %s", field), iae);
+		}
+	}
+
+	private static Field findAnnotatedField(Class<?> domainClass, Class<? extends Annotation> annotationClass) {
+		Class<?> clazz = domainClass;
+		while (clazz != null && clazz != Object.class) {
+			for (Field candidate : clazz.getDeclaredFields()) {
+				if (candidate.getAnnotation(annotationClass) != null) {
+					return candidate;
+				}
+			}
+			clazz = clazz.getSuperclass();
+		}
+		return null;
+	}
+
+	/* lazily initialized so that the conversion service is only built when a conversion is actually needed */
+	private static final class Conversion {
+		private static final ConversionService service = new DefaultConversionService();
+	}
+}
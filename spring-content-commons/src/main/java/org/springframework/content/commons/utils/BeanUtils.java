@@ -1,13 +1,8 @@
 package org.springframework.content.commons.utils;
 
-import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.BeansException;
-import org.springframework.util.ReflectionUtils;
 
 public final class BeanUtils {
 
@@ -16,94 +11,25 @@ public final class BeanUtils {
 	public static boolean hasFieldWithAnnotation(Object domainObj, Class<? extends Annotation> annotationClass)
 			throws SecurityException, BeansException {
 
-		BeanWrapper wrapper = new BeanWrapperImpl(domainObj);
-		PropertyDescriptor[] descriptors = wrapper.getPropertyDescriptors();
-		for (PropertyDescriptor descriptor : descriptors) {
-			String prop = descriptor.getName();
-			try {
-				Field candidate = domainObj.getClass().getDeclaredField(prop);
-				if (candidate != null) {
-					if (candidate.getAnnotation(annotationClass) != null) {
-						return true;
-					}
-				}
-			} catch (NoSuchFieldException ex) {
-				continue;
-			}
-		}
-		
-		for (Field field : domainObj.getClass().getFields()) {
-			if (field.getAnnotation(annotationClass) != null) {
-				return true;
-			}
-		}
-		
-		return false;
+		return AnnotatedFieldAccessor.forClass(domainObj.getClass(), annotationClass).isPresent();
 	}
 
 	public static Class<?> getFieldWithAnnotationType(Object domainObj, Class<? extends Annotation> annotationClass)
 			throws SecurityException, BeansException {
-		Class<?> type = null;
-		BeanWrapper wrapper = new BeanWrapperImpl(domainObj);
-		PropertyDescriptor[] descriptors = wrapper.getPropertyDescriptors();
-		for (PropertyDescriptor descriptor : descriptors) {
-			String prop = descriptor.getName();
-			Field theField = null;
-			try {
-				theField = domainObj.getClass().getDeclaredField(prop);
-				if (theField != null && theField.getAnnotation(annotationClass) != null) {
-					type = theField.getType();
-					break;
-				}
-			} catch (NoSuchFieldException ex) {
-				continue;
-			}
-		}
 
-		if (type == null) {
-			for (Field field : domainObj.getClass().getFields()) {
-				if (field.getAnnotation(annotationClass) != null) {
-					try {
-						type = field.getType();
-					} catch (IllegalArgumentException iae) {}
-				}
-			}
-		}
-		
-		return type;
+		return AnnotatedFieldAccessor.forClass(domainObj.getClass(), annotationClass).getType();
+	}
+
+	public static <A extends Annotation> A getFieldAnnotation(Object domainObj, Class<A> annotationClass)
+			throws SecurityException, BeansException {
+
+		return AnnotatedFieldAccessor.forClass(domainObj.getClass(), annotationClass).getAnnotation(annotationClass);
 	}
 
 	public static Object getFieldWithAnnotation(Object domainObj, Class<? extends Annotation> annotationClass)
 			throws SecurityException, BeansException {
-		Object value = null;
-		BeanWrapper wrapper = new BeanWrapperImpl(domainObj);
-		PropertyDescriptor[] descriptors = wrapper.getPropertyDescriptors();
-		for (PropertyDescriptor descriptor : descriptors) {
-			String prop = descriptor.getName();
-			Field theField = null;
-			try {
-				theField = domainObj.getClass().getDeclaredField(prop);
-				if (theField != null) {
-					if (theField.getAnnotation(annotationClass) != null) {
-						value = wrapper.getPropertyValue(prop);
-					}
-				}
-			} catch (NoSuchFieldException ex) {
-				continue;
-			}
-		}
 
-		if (value == null) {
-			for (Field field : domainObj.getClass().getFields()) {
-				if (field.getAnnotation(annotationClass) != null) {
-					try {
-						value = ReflectionUtils.getField(field, domainObj);
-					} catch (IllegalArgumentException iae) {}
-				}
-			}
-		}
-		
-		return value;
+		return AnnotatedFieldAccessor.forClass(domainObj.getClass(), annotationClass).get(domainObj);
 	}
 
 	/**
@@ -118,30 +44,6 @@ public final class BeanUtils {
 	 */
 	public static void setFieldWithAnnotation(Object domainObj, Class<? extends Annotation> annotationClass, Object value) {
 
-		BeanWrapper wrapper = new BeanWrapperImpl(domainObj);
-
-		for (Field field : domainObj.getClass().getFields()) {
-			if (field.getAnnotation(annotationClass) != null) {
-				try {
-					ReflectionUtils.setField(field, domainObj, value);
-				} catch (IllegalArgumentException iae) {}
-			}
-		}
-
-		PropertyDescriptor[] descriptors = wrapper.getPropertyDescriptors();
-		for (PropertyDescriptor descriptor : descriptors) {
-			String prop = descriptor.getName();
-			Field theField = null;
-			try {
-				theField = domainObj.getClass().getDeclaredField(prop);
-				if (theField != null) {
-					if (theField.getAnnotation(annotationClass) != null) {
-						wrapper.setPropertyValue(prop, value);
-					}
-				}
-			} catch (NoSuchFieldException ex) {
-				continue;
-			}
-		}
+		AnnotatedFieldAccessor.forClass(domainObj.getClass(), annotationClass).set(domainObj, value);
 	}
 }
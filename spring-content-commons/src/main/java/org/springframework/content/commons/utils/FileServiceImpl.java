@@ -5,14 +5,41 @@ import org.springframework.util.Assert;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Remembers the directories it has made, or found, so that writing many files into the
+ * same directories does not repeat the {@code mkdirs} system calls.  Directories are
+ * assumed not to be removed from under it.  The cache holds at most
+ * {@value #DEFAULT_MAX_KNOWN_DIRECTORIES} directories by default and is cleared when full.
+ */
 public class FileServiceImpl implements FileService {
+
+    public static final int DEFAULT_MAX_KNOWN_DIRECTORIES = 100000;
+
+    private final Set<File> knownDirectories = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final int maxKnownDirectories;
+
     public FileServiceImpl() {
+        this(DEFAULT_MAX_KNOWN_DIRECTORIES);
+    }
+
+    public FileServiceImpl(int maxKnownDirectories) {
+        this.maxKnownDirectories = maxKnownDirectories;
     }
 
     @Override
     public void mkdirs(File file) throws IOException {
         Assert.notNull(file, "file must not be null");
+        if (knownDirectories.contains(file)) {
+            return;
+        }
         FileUtils.forceMkdir(file);
+        if (knownDirectories.size() >= maxKnownDirectories) {
+            knownDirectories.clear();
+        }
+        knownDirectories.add(file);
     }
 }
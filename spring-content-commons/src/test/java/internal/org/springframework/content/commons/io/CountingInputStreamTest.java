@@ -0,0 +1,42 @@
+package internal.org.springframework.content.commons.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class CountingInputStreamTest {
+
+	private CountingInputStream in;
+
+	{
+		Describe("CountingInputStream", () -> {
+			BeforeEach(() -> {
+				in = new CountingInputStream(new ByteArrayInputStream("Hello content world!".getBytes()));
+			});
+			Context("#getCount", () -> {
+				It("should count the bytes read", () -> {
+					IOUtils.toByteArray(in);
+					assertThat(in.getCount(), is(20L));
+				});
+				It("should not count the bytes skipped", () -> {
+					assertThat(in.skip(6), is(6L));
+					assertThat(IOUtils.toString(in), is("content world!"));
+					assertThat(in.getCount(), is(14L));
+				});
+			});
+		});
+	}
+}
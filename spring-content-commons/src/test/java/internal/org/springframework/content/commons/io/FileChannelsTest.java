@@ -0,0 +1,81 @@
+package internal.org.springframework.content.commons.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class FileChannelsTest {
+
+	private File file;
+
+	{
+		Describe("FileChannels", () -> {
+			BeforeEach(() -> {
+				file = File.createTempFile("channels", ".txt");
+			});
+			AfterEach(() -> {
+				file.delete();
+			});
+			Context("#transferFrom", () -> {
+				It("should transfer a stream into the channel", () -> {
+					try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+						assertThat(FileChannels.transferFrom(new ByteArrayInputStream("Hello content world!".getBytes()), channel), is(20L));
+					}
+					assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+				});
+				It("should transfer a file stream from its current position", () -> {
+					File source = File.createTempFile("source", ".txt");
+					try {
+						FileUtils.writeStringToFile(source, "Hello content world!");
+						try (FileInputStream in = new FileInputStream(source);
+							 FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+							in.skip(6);
+							assertThat(FileChannels.transferFrom(in, channel), is(14L));
+						}
+						assertThat(FileUtils.readFileToString(file), is("content world!"));
+					} finally {
+						source.delete();
+					}
+				});
+			});
+			Context("#transferTo", () -> {
+				BeforeEach(() -> {
+					FileUtils.writeStringToFile(file, "Hello content world!");
+				});
+				It("should transfer part of the channel to the stream", () -> {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+						assertThat(FileChannels.transferTo(channel, 6, 7, out), is(7L));
+					}
+					assertThat(new String(out.toByteArray()), is("content"));
+				});
+				It("should stop at the end of the content", () -> {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+						assertThat(FileChannels.transferTo(channel, 14, 100, out), is(6L));
+					}
+					assertThat(new String(out.toByteArray()), is("world!"));
+				});
+			});
+		});
+	}
+}
@@ -6,19 +6,12 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
 import static org.hamcrest.CoreMatchers.is;
-import static org.hamcrest.CoreMatchers.isA;
-import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
-import static org.mockito.Matchers.anyObject;
-import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.verify;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -37,8 +30,6 @@ import org.springframework.content.commons.repository.events.AfterUnsetContentEv
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
-import org.springframework.content.commons.utils.ReflectionService;
-import org.springframework.util.ReflectionUtils;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
@@ -52,8 +43,9 @@ public class AnnotatedStoreEventInvokerTest {
 	
 	private StoreEvent event;
 	
+	private CustomEventHandler handler;
+
 	// mocks
-	private ReflectionService reflectionService;
 	private ContentStore<Object,Serializable> store;
 	
 	{
@@ -63,8 +55,7 @@ public class AnnotatedStoreEventInvokerTest {
 					store = mock(ContentStore.class);
 				});
 				JustBeforeEach(() -> {
-					reflectionService = mock(ReflectionService.class);
-					invoker = new AnnotatedStoreEventInvoker(reflectionService);
+					invoker = new AnnotatedStoreEventInvoker();
 					invoker.postProcessAfterInitialization(new CustomEventHandler(), "custom-bean");
 				});
 				It("register the handlers", () -> {
@@ -80,11 +71,11 @@ public class AnnotatedStoreEventInvokerTest {
 		
 		Describe("#onApplicationEvent", () -> {
 			BeforeEach(() -> {
-				reflectionService = mock(ReflectionService.class);
-				invoker = new AnnotatedStoreEventInvoker(reflectionService);
+				invoker = new AnnotatedStoreEventInvoker();
+				handler = new CustomEventHandler();
 			});
 			JustBeforeEach(() -> {
-				invoker.postProcessAfterInitialization(new CustomEventHandler(), "custom-bean");
+				invoker.postProcessAfterInitialization(handler, "custom-bean");
 				invoker.onApplicationEvent(event);
 			});
 			Context("given an event handler and a BeforeGetContent event", () -> {
@@ -93,10 +84,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new BeforeGetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "beforeGetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("beforeGetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and a AfterGetContent event", () -> {
@@ -105,10 +94,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new AfterGetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "afterGetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("afterGetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and a BeforeSetContent event", () -> {
@@ -117,10 +104,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new BeforeSetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "beforeSetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("beforeSetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and a BeforeSetContent event", () -> {
@@ -129,10 +114,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new AfterSetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "afterSetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("afterSetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and a BeforeUnsetContent event", () -> {
@@ -141,10 +124,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new BeforeUnsetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "beforeUnsetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("beforeUnsetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and a AfterUnsetContent event", () -> {
@@ -153,10 +134,8 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new AfterUnsetContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "afterUnsetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
+					assertThat(handler.invoked, is("afterUnsetContent"));
+					assertThat(handler.invokedWith, is(event.getSource()));
 				});
 			});
 			Context("given an event handler and an unknown event", () -> {
@@ -165,10 +144,36 @@ public class AnnotatedStoreEventInvokerTest {
 					event = new UnknownContentEvent(source, store);
 				});	
 				It("should call that correct handler method", () -> {
-					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "afterUnsetContent", Object.class);
-					assertThat(handler, is(not(nullValue())));
-					
-					verify(reflectionService, never()).invokeMethod(anyObject(), anyObject(), anyObject());
+					assertThat(handler.invoked, is(nullValue()));
+				});
+			});
+		});
+
+		Describe("#onApplicationEvent with typed handlers", () -> {
+			Context("given a handler for a specific content type", () -> {
+				It("should only invoke the handler for sources of that type", () -> {
+					invoker = new AnnotatedStoreEventInvoker();
+					TypedEventHandler typedHandler = new TypedEventHandler();
+					invoker.postProcessAfterInitialization(typedHandler, "typed-bean");
+
+					invoker.onApplicationEvent(new AfterSetContentEvent(new Object(), store));
+					assertThat(typedHandler.invokedWith, is(nullValue()));
+
+					EventSource source = new EventSource();
+					invoker.onApplicationEvent(new AfterSetContentEvent(source, store));
+					assertThat(typedHandler.invokedWith, is(source));
+				});
+			});
+			Context("given a handler that throws", () -> {
+				It("should propagate the exception", () -> {
+					invoker = new AnnotatedStoreEventInvoker();
+					invoker.postProcessAfterInitialization(new FailingEventHandler(), "failing-bean");
+					try {
+						invoker.onApplicationEvent(new BeforeSetContentEvent(new EventSource(), store));
+						fail("expected exception");
+					} catch (IllegalStateException ise) {
+						assertThat(ise.getMessage(), is("vetoed"));
+					}
 				});
 			});
 		});
@@ -176,24 +181,65 @@ public class AnnotatedStoreEventInvokerTest {
 	
 	@StoreEventHandler
 	public class CustomEventHandler {
-		
+
+		private String invoked;
+		private Object invokedWith;
+
 		@HandleBeforeGetContent
-		public void beforeGetContent(Object contentObject) {}
+		public void beforeGetContent(Object contentObject) {
+			invoked("beforeGetContent", contentObject);
+		}
 
 		@HandleAfterGetContent
-		public void afterGetContent(Object contentObject) {}
+		public void afterGetContent(Object contentObject) {
+			invoked("afterGetContent", contentObject);
+		}
 
 		@HandleBeforeSetContent
-		public void beforeSetContent(Object contentObject) {}
+		public void beforeSetContent(Object contentObject) {
+			invoked("beforeSetContent", contentObject);
+		}
 
 		@HandleAfterSetContent
-		public void afterSetContent(Object contentObject) {}
+		public void afterSetContent(Object contentObject) {
+			invoked("afterSetContent", contentObject);
+		}
 
 		@HandleBeforeUnsetContent
-		public void beforeUnsetContent(Object contentObject) {}
+		public void beforeUnsetContent(Object contentObject) {
+			invoked("beforeUnsetContent", contentObject);
+		}
 
 		@HandleAfterUnsetContent
-		public void afterUnsetContent(Object contentObject) {}
+		public void afterUnsetContent(Object contentObject) {
+			invoked("afterUnsetContent", contentObject);
+		}
+
+		private void invoked(String method, Object contentObject) {
+			assertThat(invoked, is(nullValue()));
+			invoked = method;
+			invokedWith = contentObject;
+		}
+	}
+
+	@StoreEventHandler
+	public class TypedEventHandler {
+
+		private Object invokedWith;
+
+		@HandleAfterSetContent
+		public void afterSetContent(EventSource contentObject) {
+			invokedWith = contentObject;
+		}
+	}
+
+	@StoreEventHandler
+	public class FailingEventHandler {
+
+		@HandleBeforeSetContent
+		public void beforeSetContent(Object contentObject) {
+			throw new IllegalStateException("vetoed");
+		}
 	}
 	
 	public class EventSource {
@@ -0,0 +1,116 @@
+package internal.org.springframework.content.commons.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.ContentStore;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import reactor.core.publisher.Flux;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class BlockingContentStoreAdapterTest {
+
+	private InMemoryContentStore store;
+	private BlockingContentStoreAdapter<Object, String> adapter;
+
+	{
+		Describe("BlockingContentStoreAdapter", () -> {
+			BeforeEach(() -> {
+				store = new InMemoryContentStore();
+				adapter = new BlockingContentStoreAdapter<>(store);
+			});
+			Context("#setContent", () -> {
+				It("should stream the buffers to the store off the calling thread", () -> {
+					Object entity = new Object();
+					Object result = adapter.setContent(entity, Flux.just("Hello ", "", "World")
+							.map(s -> ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)))).block();
+
+					assertThat(result, is(entity));
+					assertThat(new String(store.content, StandardCharsets.UTF_8), is("Hello World"));
+					assertThat(store.thread, is(not(Thread.currentThread())));
+				});
+				It("should fail when the content fails", () -> {
+					try {
+						adapter.setContent(new Object(), Flux.error(new IllegalStateException("boom"))).block();
+						assertThat("expected exception", false);
+					} catch (RuntimeException e) {
+						assertThat(e.getCause() instanceof IOException, is(true));
+					}
+				});
+			});
+			Context("#getContent", () -> {
+				Context("given content larger than a buffer", () -> {
+					BeforeEach(() -> {
+						store.content = new byte[BlockingContentStoreAdapter.BUFFER_SIZE * 2 + 1];
+						store.content[store.content.length - 1] = 42;
+					});
+					It("should stream it in buffers", () -> {
+						List<ByteBuffer> buffers = adapter.getContent(new Object()).collectList().block();
+						assertThat(buffers.size(), is(3));
+						ByteBuffer last = buffers.get(2);
+						assertThat(last.remaining(), is(1));
+						assertThat(last.get(), is((byte) 42));
+					});
+				});
+				Context("given no content", () -> {
+					It("should be empty", () -> {
+						assertThat(adapter.getContent(new Object()).collectList().block().isEmpty(), is(true));
+					});
+				});
+			});
+			Context("#unsetContent", () -> {
+				BeforeEach(() -> {
+					store.content = new byte[] {1};
+				});
+				It("should unset the content", () -> {
+					adapter.unsetContent(new Object()).block();
+					assertThat(store.content == null, is(true));
+				});
+			});
+		});
+	}
+
+	public static class InMemoryContentStore implements ContentStore<Object, String> {
+
+		private byte[] content;
+		private Thread thread;
+
+		@Override
+		public void setContent(Object property, InputStream content) {
+			thread = Thread.currentThread();
+			try {
+				this.content = IOUtils.toByteArray(content);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public void unsetContent(Object property) {
+			content = null;
+		}
+
+		@Override
+		public InputStream getContent(Object property) {
+			return (content != null ? new ByteArrayInputStream(content) : null);
+		}
+	}
+}
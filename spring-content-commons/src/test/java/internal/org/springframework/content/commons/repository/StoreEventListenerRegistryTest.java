@@ -0,0 +1,180 @@
+package internal.org.springframework.content.commons.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.HandleAfterSetContent;
+import org.springframework.content.commons.annotations.StoreEventHandler;
+import org.springframework.content.commons.repository.StoreEvent;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.repository.events.AfterGetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class StoreEventListenerRegistryTest {
+
+	private StoreEventListenerRegistry registry;
+	private StaticApplicationContext context;
+
+	{
+		Describe("StoreEventListenerRegistry", () -> {
+			BeforeEach(() -> {
+				registry = new StoreEventListenerRegistry();
+				registry.setElideUnobservedEvents(true);
+			});
+			Context("given eliding unobserved events is not enabled", () -> {
+				BeforeEach(() -> {
+					registry = new StoreEventListenerRegistry();
+				});
+				It("should report listeners for every event", () -> {
+					for (Class<? extends StoreEvent> eventType : StoreEventListenerRegistry.STORE_EVENT_TYPES) {
+						assertThat(registry.hasListeners(eventType, Object.class), is(true));
+					}
+				});
+				It("should be enabled by the environment", () -> {
+					registry.setEnvironment(new MockEnvironment().withProperty(StoreEventListenerRegistry.ELIDE_UNOBSERVED_EVENTS_PROPERTY, "true"));
+
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(false));
+				});
+			});
+			Context("given no listeners", () -> {
+				It("should report no listeners", () -> {
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(false));
+				});
+			});
+			Context("given an annotated store event handler", () -> {
+				BeforeEach(() -> {
+					AnnotatedStoreEventInvoker invoker = new AnnotatedStoreEventInvoker();
+					invoker.setStoreEventListenerRegistry(registry);
+					invoker.postProcessAfterInitialization(new DocumentEventHandler(), "handler");
+				});
+				It("should report listeners for the handled event and domain type only", () -> {
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(true));
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, SpecialDocument.class), is(true));
+					assertThat(registry.hasListeners(BeforeSetContentEvent.class, Document.class), is(false));
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Object.class), is(false));
+				});
+			});
+			Context("given a typed store event listener", () -> {
+				BeforeEach(() -> {
+					registry.postProcessAfterInitialization(new DocumentListener(), "listener");
+				});
+				It("should report listeners for every event on that domain type", () -> {
+					for (Class<? extends StoreEvent> eventType : StoreEventListenerRegistry.STORE_EVENT_TYPES) {
+						assertThat(registry.hasListeners(eventType, Document.class), is(true));
+						assertThat(registry.hasListeners(eventType, Object.class), is(false));
+					}
+				});
+			});
+			Context("given a plain application listener for store events", () -> {
+				BeforeEach(() -> {
+					registry.postProcessAfterInitialization(new AfterGetListener(), "listener");
+				});
+				It("should report listeners for that event on every domain type", () -> {
+					assertThat(registry.hasListeners(AfterGetContentEvent.class, Object.class), is(true));
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Object.class), is(false));
+				});
+			});
+			Context("given an application listener for unrelated events", () -> {
+				BeforeEach(() -> {
+					registry.postProcessAfterInitialization(new RefreshListener(), "listener");
+				});
+				It("should report no listeners", () -> {
+					for (Class<? extends StoreEvent> eventType : StoreEventListenerRegistry.STORE_EVENT_TYPES) {
+						assertThat(registry.hasListeners(eventType, Object.class), is(false));
+					}
+				});
+			});
+			Context("given an @EventListener method for store events", () -> {
+				BeforeEach(() -> {
+					registry.postProcessAfterInitialization(new AnyStoreEventListener(), "listener");
+				});
+				It("should report listeners for every event on every domain type", () -> {
+					for (Class<? extends StoreEvent> eventType : StoreEventListenerRegistry.STORE_EVENT_TYPES) {
+						assertThat(registry.hasListeners(eventType, Object.class), is(true));
+					}
+				});
+			});
+			Context("given an application context", () -> {
+				BeforeEach(() -> {
+					context = new StaticApplicationContext();
+					registry.setApplicationContext(context);
+				});
+				It("should report no listeners", () -> {
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(false));
+				});
+				It("should register listeners added to the context", () -> {
+					assertThat(registry.hasListeners(AfterGetContentEvent.class, Object.class), is(false));
+
+					context.addApplicationListener(new AfterGetListener());
+
+					assertThat(registry.hasListeners(AfterGetContentEvent.class, Object.class), is(true));
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Object.class), is(false));
+				});
+				It("should report listeners while a listener bean has not been initialized", () -> {
+					context.registerSingleton("listener", RefreshListener.class);
+
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(true));
+
+					registry.postProcessAfterInitialization(context.getBean("listener"), "listener");
+
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(false));
+				});
+				It("should report listeners when the context has a parent", () -> {
+					context.setParent(new StaticApplicationContext());
+
+					assertThat(registry.hasListeners(AfterSetContentEvent.class, Document.class), is(true));
+				});
+			});
+			Context("when events are elided", () -> {
+				It("should count them", () -> {
+					registry.eventElided();
+					registry.eventElided();
+					assertThat(registry.getElidedEventCount(), is(2L));
+				});
+			});
+		});
+	}
+
+	public static class Document {}
+
+	public static class SpecialDocument extends Document {}
+
+	@StoreEventHandler
+	public static class DocumentEventHandler {
+		@HandleAfterSetContent
+		public void afterSetContent(Document document) {}
+	}
+
+	public static class DocumentListener extends AbstractStoreEventListener<Document> {}
+
+	public static class AfterGetListener implements ApplicationListener<AfterGetContentEvent> {
+		@Override
+		public void onApplicationEvent(AfterGetContentEvent event) {}
+	}
+
+	public static class RefreshListener implements ApplicationListener<ContextRefreshedEvent> {
+		@Override
+		public void onApplicationEvent(ContextRefreshedEvent event) {}
+	}
+
+	public static class AnyStoreEventListener {
+		@EventListener
+		public void onStoreEvent(StoreEvent event) {}
+	}
+}
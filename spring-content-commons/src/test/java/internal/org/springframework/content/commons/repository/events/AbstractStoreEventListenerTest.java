@@ -8,7 +8,9 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.io.Serializable;
@@ -22,6 +24,7 @@ import org.springframework.content.commons.repository.events.AbstractStoreEventL
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventExecutor;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
@@ -40,6 +43,7 @@ public class AbstractStoreEventListenerTest {
 	//mocks
 	private TestContentEventConsumer consumer;
 	private ContentStore<Object,Serializable> store;
+	private AsyncStoreEventExecutor executor;
 	{
 		Describe("#onApplicationEvent", () -> {
 			Context("given a content event listener", () -> {
@@ -143,6 +147,42 @@ public class AbstractStoreEventListenerTest {
 					});
 				});
 			});
+			Context("given an asynchronous content event listener", () -> {
+				BeforeEach(() -> {
+					consumer = mock(TestContentEventConsumer.class);
+					store = (ContentStore<Object,Serializable>)mock(ContentStore.class);
+					executor = mock(AsyncStoreEventExecutor.class);
+
+					listener = new TestContentEventListener(consumer);
+					listener.setAsync(true);
+					listener.setAsyncStoreEventExecutor(executor);
+				});
+				JustBeforeEach(() -> {
+					listener.onApplicationEvent(event);
+				});
+				Context("given a before set content event", () -> {
+					BeforeEach(() -> {
+						event = new BeforeSetContentEvent(new EventSource(), store);
+					});
+					It("should call the event consumer on the calling thread", () -> {
+						verify(executor, never()).execute(any(Runnable.class));
+						verify(consumer).onBeforeSetContent(argThat(is(event.getSource())));
+					});
+				});
+				Context("given an after set content event", () -> {
+					BeforeEach(() -> {
+						event = new AfterSetContentEvent(new EventSource(), store);
+					});
+					It("should hand the event to the executor", () -> {
+						ArgumentCaptor<Runnable> argumentCaptor = ArgumentCaptor.forClass(Runnable.class);
+						verify(executor).execute(argumentCaptor.capture());
+						verify(consumer, never()).onAfterSetContent(argThat(is(event.getSource())));
+
+						argumentCaptor.getValue().run();
+						verify(consumer).onAfterSetContent(argThat(is(event.getSource())));
+					});
+				});
+			});
 		});
 	}
 	
@@ -0,0 +1,141 @@
+package internal.org.springframework.content.commons.repository.events;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.events.AsyncStoreEventExecutor;
+import org.springframework.content.commons.repository.events.AsyncStoreEventExecutor.RejectionPolicy;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class AsyncStoreEventExecutorTest {
+
+	private AsyncStoreEventExecutor executor;
+
+	private CountDownLatch release;
+
+	{
+		Describe("AsyncStoreEventExecutor", () -> {
+			BeforeEach(() -> {
+				executor = new AsyncStoreEventExecutor();
+				executor.setCorePoolSize(1);
+				executor.setMaxPoolSize(1);
+				executor.setQueueCapacity(1);
+				release = new CountDownLatch(1);
+			});
+			AfterEach(() -> {
+				release.countDown();
+				executor.destroy();
+			});
+			Context("given a task", () -> {
+				It("should run it on another thread", () -> {
+					executor.afterPropertiesSet();
+
+					AtomicReference<Thread> thread = new AtomicReference<>();
+					CountDownLatch done = new CountDownLatch(1);
+					executor.execute(() -> {
+						thread.set(Thread.currentThread());
+						done.countDown();
+					});
+
+					assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+					assertThat(thread.get(), is(not(Thread.currentThread())));
+					assertThat(executor.getSubmittedCount(), is(1L));
+				});
+			});
+			Context("given a task that throws", () -> {
+				It("should count the failure", () -> {
+					executor.afterPropertiesSet();
+
+					CountDownLatch done = new CountDownLatch(1);
+					executor.execute(() -> {
+						done.countDown();
+						throw new IllegalStateException("handler failure");
+					});
+
+					assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+					for (int i = 0; i < 50 && executor.getFailedCount() == 0; i++) {
+						Thread.sleep(10);
+					}
+					assertThat(executor.getFailedCount(), is(1L));
+				});
+			});
+			Context("given a full queue and the caller runs policy", () -> {
+				It("should run the task on the calling thread", () -> {
+					executor.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+					executor.afterPropertiesSet();
+					fill();
+
+					AtomicReference<Thread> thread = new AtomicReference<>();
+					executor.execute(() -> thread.set(Thread.currentThread()));
+
+					assertThat(thread.get(), is(Thread.currentThread()));
+					assertThat(executor.getQueueDepth(), is(1));
+					assertThat(executor.getRejectedCount(), is(1L));
+				});
+			});
+			Context("given a full queue and the discard policy", () -> {
+				It("should drop the task", () -> {
+					executor.setRejectionPolicy(RejectionPolicy.DISCARD);
+					executor.afterPropertiesSet();
+					fill();
+
+					AtomicReference<Thread> thread = new AtomicReference<>();
+					executor.execute(() -> thread.set(Thread.currentThread()));
+
+					assertThat(thread.get() == null, is(true));
+					assertThat(executor.getRejectedCount(), is(1L));
+				});
+			});
+			Context("given a full queue and the abort policy", () -> {
+				It("should throw", () -> {
+					executor.setRejectionPolicy(RejectionPolicy.ABORT);
+					executor.afterPropertiesSet();
+					fill();
+
+					try {
+						executor.execute(() -> {});
+						fail("expected exception");
+					} catch (RejectedExecutionException ree) {
+						assertThat(executor.getRejectedCount(), is(1L));
+					}
+				});
+			});
+		});
+	}
+
+	// occupies the only thread and the only queue slot
+	private void fill() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+		executor.execute(() -> await(release));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -5,6 +5,8 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -13,24 +15,36 @@ import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
 import org.springframework.content.commons.annotations.MimeType;
 import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
@@ -43,6 +57,10 @@ import org.springframework.context.ApplicationEventPublisher;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import internal.org.springframework.content.commons.repository.StoreEventListenerRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @SuppressWarnings("unchecked")
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads = 1)
@@ -55,8 +73,11 @@ public class StoreMethodInterceptorTest {
 	private MethodInvocation invocation;
 	private StoreExtension extension;
 	private ApplicationEventPublisher publisher;
+	private StoreEventListenerRegistry listenerRegistry;
 
 	private Exception e;
+	private Object result;
+	private String written;
 	
 	private Map<Method, StoreExtension> extensions = null;
 	
@@ -65,11 +86,12 @@ public class StoreMethodInterceptorTest {
 			BeforeEach(() -> {
 				store = mock(ContentStore.class);
 				publisher = mock(ApplicationEventPublisher.class);
+				listenerRegistry = null;
 			});
 			JustBeforeEach(() -> {
-				interceptor = new StoreMethodInterceptor(store, Object.class, String.class, extensions, publisher);
+				interceptor = new StoreMethodInterceptor(store, Object.class, String.class, extensions, publisher, listenerRegistry);
 				try {
-				    interceptor.invoke(invocation);
+				    result = interceptor.invoke(invocation);
                 } catch (Exception invokeException) {
 				    e = invokeException;
                 }
@@ -92,6 +114,31 @@ public class StoreMethodInterceptorTest {
 					inOrder.verify(publisher).publishEvent(argThat(isA(AfterGetContentEvent.class)));
 				});
 			});
+			Context("when getContent is invoked and only after get events are listened to", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					Class<?> storeClazz = ContentStore.class;
+					final Method getContentMethod = storeClazz.getMethod("getContent", Object.class);
+
+					when(invocation.getMethod()).thenReturn(getContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+
+					listenerRegistry = new StoreEventListenerRegistry();
+					listenerRegistry.setElideUnobservedEvents(true);
+					listenerRegistry.register(AfterGetContentEvent.class, ContentObject.class);
+				});
+				It("should only publish the after get event", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+					inOrder.verify(invocation).proceed();
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterGetContentEvent.class)));
+					verify(publisher, never()).publishEvent(argThat(isA(BeforeGetContentEvent.class)));
+				});
+				It("should count the elided before get event", () -> {
+					assertThat(listenerRegistry.getElidedEventCount(), is(1L));
+				});
+			});
 			Context("when getContent is invoked with illegal arguments", () -> {
 				BeforeEach(() -> {
 					invocation = mock(MethodInvocation.class);
@@ -112,6 +159,33 @@ public class StoreMethodInterceptorTest {
 					inOrder.verify(publisher, never()).publishEvent(argThat(isA(AfterGetContentEvent.class)));
 				});
 			});
+			Context("when getContent is invoked with a null entity", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					Class<?> storeClazz = ContentStore.class;
+					final Method getContentMethod = storeClazz.getMethod("getContent", Object.class);
+
+					when(invocation.getMethod()).thenReturn(getContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{null});
+				});
+				It("should proceed without publishing events", () -> {
+					verify(publisher, never()).publishEvent(anyObject());
+					verify(invocation).proceed();
+				});
+			});
+			Context("when a method that is neither a store nor an extension method is invoked", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+					when(invocation.getArguments()).thenReturn(new Object[]{});
+				});
+				It("should throw a Missing Extension error", () -> {
+					assertThat(e.getMessage(), startsWith("No implementation found for"));
+					verify(invocation, never()).proceed();
+				});
+			});
 			Context("when setContent is invoked", () -> {
 				BeforeEach(() -> {
 					invocation = mock(MethodInvocation.class);
@@ -130,6 +204,139 @@ public class StoreMethodInterceptorTest {
 					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
 				});
 			});
+			Context("when reactive setContent is invoked on a blocking store", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					final Method setContentMethod = ReactiveContentStore.class.getMethod("setContent", Object.class, Publisher.class);
+
+					when(invocation.getMethod()).thenReturn(setContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text"), Flux.just(ByteBuffer.wrap("Hello ".getBytes()), ByteBuffer.wrap("World".getBytes()))});
+					Mockito.doAnswer((storeInvocation) -> {
+						written = IOUtils.toString((InputStream) storeInvocation.getArguments()[1]);
+						return null;
+					}).when(store).setContent(anyObject(), anyObject());
+				});
+				It("should not publish events until subscribed to", () -> {
+					verify(publisher, never()).publishEvent(anyObject());
+					verify(store, never()).setContent(anyObject(), anyObject());
+				});
+				It("should adapt the blocking store and publish events around it", () -> {
+					((Mono<?>) result).block();
+
+					InOrder inOrder = Mockito.inOrder(publisher, store);
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(store).setContent(anyObject(), anyObject());
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					verify(invocation, never()).proceed();
+					assertThat(written, is("Hello World"));
+				});
+			});
+			Context("when setContents is invoked on a store without bulk support", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					final Method setContentsMethod = BulkContentStore.class.getMethod("setContents", Map.class);
+
+					Map<Object, InputStream> contents = new LinkedHashMap<>();
+					contents.put(new ContentObject("plain/text"), new ByteArrayInputStream(new byte[0]));
+					ContentObject failing = new ContentObject("failing/text");
+					contents.put(failing, new ByteArrayInputStream(new byte[0]));
+
+					when(invocation.getMethod()).thenReturn(setContentsMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{contents});
+					Mockito.doThrow(new IllegalStateException("boom")).when(store).setContent(eq(failing), anyObject());
+				});
+				It("should publish before events for the batch and after events for each success", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, store);
+					inOrder.verify(publisher, times(2)).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(store, times(2)).setContent(anyObject(), anyObject());
+					inOrder.verify(publisher, times(1)).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					verify(invocation, never()).proceed();
+				});
+				It("should return a result per entity", () -> {
+					List<BulkContentResult<Object>> results = (List<BulkContentResult<Object>>) result;
+					assertThat(results.size(), is(2));
+					assertThat(results.get(0).isSuccess(), is(true));
+					assertThat(results.get(1).isSuccess(), is(false));
+					assertThat(results.get(1).getFailure().getMessage(), is("boom"));
+				});
+			});
+			Context("when moveContent is invoked on a store without copy support", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					final Method moveContentMethod = CopyableContentStore.class.getMethod("moveContent", Object.class, Object.class);
+
+					ContentObject source = new ContentObject("plain/text");
+					ContentObject target = new ContentObject("plain/text");
+					InputStream content = new ByteArrayInputStream("hello".getBytes());
+
+					when(invocation.getMethod()).thenReturn(moveContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{source, target});
+					when(store.getContent(source)).thenReturn(content);
+					when(store.getContent(target)).thenReturn(new ByteArrayInputStream("hello".getBytes()));
+					Mockito.doAnswer((storeInvocation) -> {
+						written = IOUtils.toString((InputStream) storeInvocation.getArguments()[1]);
+						return null;
+					}).when(store).setContent(eq(target), anyObject());
+				});
+				It("should stream the content to the target and unset the source", () -> {
+					Object[] args = invocation.getArguments();
+					InOrder inOrder = Mockito.inOrder(publisher, store);
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeUnsetContentEvent.class)));
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(store).getContent(args[0]);
+					inOrder.verify(store).setContent(eq(args[1]), anyObject());
+					inOrder.verify(store).unsetContent(args[0]);
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterUnsetContentEvent.class)));
+					verify(invocation, never()).proceed();
+					assertThat(written, is("hello"));
+					assertThat(result, is(true));
+				});
+			});
+			Context("when moveContent is invoked on a store that fails to write the target", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					final Method moveContentMethod = CopyableContentStore.class.getMethod("moveContent", Object.class, Object.class);
+
+					ContentObject source = new ContentObject("plain/text");
+					ContentObject target = new ContentObject("plain/text");
+
+					when(invocation.getMethod()).thenReturn(moveContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{source, target});
+					when(store.getContent(source)).thenReturn(new ByteArrayInputStream("hello".getBytes()));
+				});
+				It("should fail and leave the source's content in place", () -> {
+					assertThat(e, is(instanceOf(StoreAccessException.class)));
+					verify(store).setContent(anyObject(), anyObject());
+					verify(store, never()).unsetContent(anyObject());
+					verify(publisher, never()).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					verify(publisher, never()).publishEvent(argThat(isA(AfterUnsetContentEvent.class)));
+				});
+			});
+			Context("when copyContent is invoked with a source that has no content", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					final Method copyContentMethod = CopyableContentStore.class.getMethod("copyContent", Object.class, Object.class);
+
+					when(invocation.getMethod()).thenReturn(copyContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text"), new ContentObject("plain/text")});
+				});
+				It("should leave the target unchanged", () -> {
+					verify(store).getContent(anyObject());
+					verify(store, never()).setContent(anyObject(), anyObject());
+					verify(store, never()).unsetContent(anyObject());
+					assertThat(result, is(false));
+				});
+				It("should not publish after set content events", () -> {
+					verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					verify(publisher, never()).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+				});
+			});
 			Context("when setContent is invoked with illegal arguments", () -> {
 				BeforeEach(() -> {
 					invocation = mock(MethodInvocation.class);
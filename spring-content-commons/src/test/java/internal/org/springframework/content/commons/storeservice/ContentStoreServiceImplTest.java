@@ -5,6 +5,7 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -21,6 +22,7 @@ import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.factory.StoreFactory;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.StorePathResolver;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
@@ -31,6 +33,7 @@ public class ContentStoreServiceImplTest {
 
 	private ContentStoreServiceImpl contentRepoService; 
 	private StoreFactory mockFactory;
+	private StorePathResolver pathResolver = (info) -> "contents";
 	{
 		Describe("ContentStoreServiceImpl", () -> {
 			BeforeEach(() -> {
@@ -125,6 +128,45 @@ public class ContentStoreServiceImplTest {
 					assertThat(infos.length, is(1));
 				});
 			});
+			Context("given a ContentStore factory and a path resolver", () -> {
+				BeforeEach(() -> {
+					mockFactory = mock(StoreFactory.class);
+					when(mockFactory.getStore()).thenReturn(mock(ContentStore.class));
+					when(mockFactory.getStoreInterface()).thenAnswer(new Answer<Object>() {
+						@Override
+						public Object answer(InvocationOnMock invocation)
+								throws Throwable {
+							return ContentRepositoryInterface.class;
+						}
+					});
+					List<StoreFactory> factories = new ArrayList<>();
+					factories.add(mockFactory);
+					contentRepoService.setFactories(factories);
+					contentRepoService.setStorePathResolver(pathResolver);
+				});
+				It("should find the store by interface", () -> {
+					ContentStoreInfo info = contentRepoService.getStoreByInterface(ContentRepositoryInterface.class);
+					assertThat(info.getInterface(), is((Object) ContentRepositoryInterface.class));
+					assertThat(contentRepoService.getStoreByInterface(StoreInterface.class), is(nullValue()));
+				});
+				It("should find the store by domain class", () -> {
+					ContentStoreInfo[] infos = contentRepoService.getStoresByDomainClass(Object.class);
+					assertThat(infos.length, is(1));
+					assertThat(infos[0].getInterface(), is((Object) ContentRepositoryInterface.class));
+					assertThat(contentRepoService.getStoresByDomainClass(String.class).length, is(0));
+				});
+				It("should find the store by path and type", () -> {
+					ContentStoreInfo info = contentRepoService.getStoreByPath(ContentStore.class, "contents", pathResolver);
+					assertThat(info.getInterface(), is((Object) ContentRepositoryInterface.class));
+					assertThat(contentRepoService.getStoreByPath(Store.class, "contents", pathResolver), is(nullValue()));
+					assertThat(contentRepoService.getStoreByPath(ContentStore.class, "others", pathResolver), is(nullValue()));
+				});
+				It("should find the store by a path from another resolver", () -> {
+					ContentStoreInfo info = contentRepoService.getStoreByPath(ContentStore.class, "others", (i) -> "others");
+					assertThat(info.getInterface(), is((Object) ContentRepositoryInterface.class));
+					assertThat(contentRepoService.getStoreByPath(ContentStore.class, "contents", (i) -> "others"), is(nullValue()));
+				});
+			});
 		});
 	}
 	
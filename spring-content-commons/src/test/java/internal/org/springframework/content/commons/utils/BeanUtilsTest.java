@@ -21,6 +21,7 @@ import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 public class BeanUtilsTest {
 
 	private TestEntity testEntity;
+	private TestSubEntity testSubEntity;
 	{
 		Describe("BeanUtils", () -> {
 			Context("setFieldWithAnnotation",  () -> {
@@ -35,6 +36,10 @@ public class BeanUtilsTest {
 					BeanUtils.setFieldWithAnnotation(testEntity, ContentLength.class, "b value");
 					assertThat(testEntity.getFieldWithGetterSetter(), is("b value"));
 				});
+				It("should convert the value to the field's type", () -> {
+					BeanUtils.setFieldWithAnnotation(testEntity, ContentLength.class, 10L);
+					assertThat(testEntity.getFieldWithGetterSetter(), is("10"));
+				});
 			});
 
 			Context("getFieldWithAnnotation",  () -> {
@@ -76,9 +81,39 @@ public class BeanUtilsTest {
 					assertThat(BeanUtils.getFieldWithAnnotationType(testEntity, ContentLength.class), is(CoreMatchers.<Class<?>>equalTo(String.class)));
 				});
 			});
+
+			Context("given an annotated field declared on a superclass", () -> {
+				BeforeEach(() -> {
+					testSubEntity = new TestSubEntity();
+				});
+				It("should find the field", () -> {
+					assertThat(BeanUtils.hasFieldWithAnnotation(testSubEntity, ContentId.class), is(true));
+					assertThat(BeanUtils.getFieldWithAnnotationType(testSubEntity, ContentLength.class), is(CoreMatchers.<Class<?>>equalTo(String.class)));
+				});
+				It("should set and get the field", () -> {
+					BeanUtils.setFieldWithAnnotation(testSubEntity, ContentId.class, "a value");
+					BeanUtils.setFieldWithAnnotation(testSubEntity, ContentLength.class, "b value");
+					assertThat(testSubEntity.fieldOnly, is("a value"));
+					assertThat(BeanUtils.getFieldWithAnnotation(testSubEntity, ContentId.class), is("a value"));
+					assertThat(BeanUtils.getFieldWithAnnotation(testSubEntity, ContentLength.class), is("b value"));
+				});
+			});
+
+			Context("given no annotated field", () -> {
+				It("should return false, null and ignore sets", () -> {
+					Object obj = new Object();
+					assertThat(BeanUtils.hasFieldWithAnnotation(obj, ContentId.class), is(false));
+					assertThat(BeanUtils.getFieldWithAnnotation(obj, ContentId.class), is(CoreMatchers.nullValue()));
+					BeanUtils.setFieldWithAnnotation(obj, ContentId.class, "a value");
+				});
+			});
 		});
 	}
 	
+	public class TestSubEntity extends TestEntity {
+		public String otherField;
+	}
+
 	public class TestEntity {
 		@ContentId public String fieldOnly;
 		@ContentLength private String fieldWithGetterSetter;
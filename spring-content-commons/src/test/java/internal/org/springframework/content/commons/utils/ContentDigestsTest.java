@@ -0,0 +1,91 @@
+package internal.org.springframework.content.commons.utils;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentDigest;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class ContentDigestsTest {
+
+	private InputStream content;
+
+	{
+		Describe("ContentDigests", () -> {
+			BeforeEach(() -> {
+				content = new ByteArrayInputStream("abc".getBytes());
+			});
+			Context("given an entity with a @ContentDigest field", () -> {
+				It("should digest the content as it is read", () -> {
+					DigestedEntity entity = new DigestedEntity();
+					InputStream in = ContentDigests.digesting(entity, content);
+					IOUtils.toByteArray(in);
+					ContentDigests.setDigest(entity, in);
+					assertThat(entity.digest, is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+				});
+				It("should use the configured algorithm", () -> {
+					Md5Entity entity = new Md5Entity();
+					InputStream in = ContentDigests.digesting(entity, content);
+					IOUtils.toByteArray(in);
+					ContentDigests.setDigest(entity, in);
+					assertThat(entity.digest, is("900150983cd24fb0d6963f7d28e17f72"));
+				});
+				It("should digest content written without a stream", () -> {
+					DigestedEntity entity = new DigestedEntity();
+					MessageDigest digest = ContentDigests.newDigest(entity);
+					digest.update("ab".getBytes());
+					digest.update("c".getBytes());
+					ContentDigests.setDigest(entity, digest);
+					assertThat(entity.digest, is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+				});
+				It("should clear the digest", () -> {
+					DigestedEntity entity = new DigestedEntity();
+					entity.digest = "something";
+					ContentDigests.unsetDigest(entity);
+					assertThat(entity.digest, is(nullValue()));
+				});
+				It("should copy the digest", () -> {
+					DigestedEntity source = new DigestedEntity();
+					source.digest = "something";
+					DigestedEntity target = new DigestedEntity();
+					ContentDigests.copyDigest(source, target);
+					assertThat(target.digest, is("something"));
+				});
+			});
+			Context("given an entity without a @ContentDigest field", () -> {
+				It("should not wrap the content", () -> {
+					assertThat(ContentDigests.digesting(new Object(), content), is(sameInstance(content)));
+				});
+				It("should not create a digest", () -> {
+					assertThat(ContentDigests.newDigest(new Object()), is(nullValue()));
+				});
+			});
+		});
+	}
+
+	public static class DigestedEntity {
+		@ContentDigest
+		public String digest;
+	}
+
+	public static class Md5Entity {
+		@ContentDigest(algorithm = "MD5")
+		public String digest;
+	}
+}
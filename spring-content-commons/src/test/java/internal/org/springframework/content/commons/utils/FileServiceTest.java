@@ -115,6 +115,24 @@ public class FileServiceTest {
 
             });
 
+            Context("when passed in a directory it has already made", () -> {
+                BeforeEach(() -> {
+                    file = new File(parent, "something");
+                    new FileServiceImpl().mkdirs(file);
+                });
+                AfterEach(() -> {
+                    file.delete();
+                });
+                It("should not make it again", () -> {
+                    FileService cached = new FileServiceImpl();
+                    cached.mkdirs(file);
+                    file.delete();
+
+                    cached.mkdirs(file);
+                    assertThat(file.exists(), is(false));
+                });
+            });
+
             Context("when passed null", () -> {
                 BeforeEach(() -> {
                     file = null;
@@ -36,9 +36,8 @@ public class ElasticsearchIndexer extends AbstractStoreEventListener<Object> {
 	@Override
 	protected void onAfterSetContent(AfterSetContentEvent event) {
 		String id = BeanUtils.getFieldWithAnnotation(event.getSource(), ContentId.class).toString();
-		InputStream stream = event.getStore().getContent(event.getSource());
 		byte[] bytes = null;
-		try {
+		try (InputStream stream = event.getStore().getContent(event.getSource())) {
 			bytes = streamConverter.convert(stream);
 		} catch (IOException e) {
 			throw new StoreAccessException(String.format("IOException error while converting stream to byte array for content ID:%s", id), e.getCause());
@@ -8,6 +8,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 
 import org.hamcrest.CoreMatchers;
@@ -45,6 +46,7 @@ public class ElasticsearchIndexerTest {
 	private RestOperations template;
 	private StreamConverter streamConverter;
 	private ContentStore<Object,Serializable> store;
+	private InputStream stream;
 	{
 		Describe("ElasticsearchIndexer", () -> {
 			BeforeEach(() -> {
@@ -63,7 +65,8 @@ public class ElasticsearchIndexerTest {
 					store = mock(ContentStore.class);
 					setEvent = new AfterSetContentEvent(source, store);
 					
-					when(store.getContent(eq(source))).thenReturn(new ByteArrayInputStream(content));
+					stream = spy(new ByteArrayInputStream(content));
+					when(store.getContent(eq(source))).thenReturn(stream);
 				});
 				JustBeforeEach(() -> {
 					try {
@@ -80,6 +83,9 @@ public class ElasticsearchIndexerTest {
 						assertThat(result, is(instanceOf(StoreAccessException.class)));
 					});
 				});
+				It("should close the content stream", () -> {
+					verify(stream).close();
+				});
 				Context("when elasticsearch is available", () -> {
 					It("should send the content for indexing", () -> {
 						ArgumentCaptor<HttpEntity> argument = ArgumentCaptor.forClass(HttpEntity.class);
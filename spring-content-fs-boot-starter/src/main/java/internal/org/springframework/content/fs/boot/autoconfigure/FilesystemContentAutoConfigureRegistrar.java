@@ -36,6 +36,7 @@ public class FilesystemContentAutoConfigureRegistrar extends FilesystemStoreRegi
 
 			builder.getRawBeanDefinition().setSource(importingClassMetadata);
 			builder.addPropertyValue(AbstractStoreBeanDefinitionRegistrar.STORE_INTERFACE_PROPERTY, definition.getBeanClassName());
+			customizeStoreBeanDefinition(builder, attributes);
 
 			registry.registerBeanDefinition(StoreUtils.getStoreBeanName(definition), builder.getBeanDefinition());
 		}
@@ -1,12 +1,19 @@
 package internal.org.springframework.content.fs.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
 import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.config.FilesystemPlacementStrategy;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.content.fs.config.HashedPlacementStrategy;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedRegionCache;
+import org.springframework.content.fs.io.PackedSegmentStorage;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.util.Assert;
 
+import internal.org.springframework.content.fs.repository.DefaultFilesystemReactiveStoreImpl;
 import internal.org.springframework.content.fs.repository.DefaultFilesystemStoreImpl;
 
 @SuppressWarnings("rawtypes")
@@ -17,6 +24,26 @@ public class FilesystemStoreFactoryBean extends AbstractStoreFactoryBean {
 	
 	@Autowired
 	ConversionService filesystemStoreConverter;
+
+	@Autowired(required=false)
+	FilesystemPlacementStrategy placementStrategy;
+
+	@Autowired(required=false)
+	MappedRegionCache mappedRegionCache;
+
+	@Autowired(required=false)
+	PackedSegmentStorage packedSegmentStorage;
+
+	private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+	private int directoryLevels = 0;
+
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	public void setDirectoryLevels(int directoryLevels) {
+		this.directoryLevels = directoryLevels;
+	}
 	
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -28,7 +55,28 @@ public class FilesystemStoreFactoryBean extends AbstractStoreFactoryBean {
 
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultFilesystemStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
+		if (ReactiveContentStore.class.isAssignableFrom(getStoreInterface())) {
+			DefaultFilesystemReactiveStoreImpl store = new DefaultFilesystemReactiveStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
+			store.setFsyncPolicy(fsyncPolicy);
+			store.setPlacementStrategy(getPlacementStrategy());
+			store.setMappedRegionCache(mappedRegionCache);
+			store.setPackedSegmentStorage(packedSegmentStorage);
+			return store;
+		}
+		DefaultFilesystemStoreImpl store = new DefaultFilesystemStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
+		store.setFsyncPolicy(fsyncPolicy);
+		store.setPlacementStrategy(getPlacementStrategy());
+		store.setMappedRegionCache(mappedRegionCache);
+		store.setPackedSegmentStorage(packedSegmentStorage);
+		return store;
+	}
+
+	// an application defined strategy takes precedence over the configured directory levels
+	private FilesystemPlacementStrategy getPlacementStrategy() {
+		if (placementStrategy != null) {
+			return placementStrategy;
+		}
+		return (directoryLevels > 0 ? new HashedPlacementStrategy(directoryLevels) : null);
 	}
 
 }
@@ -3,10 +3,12 @@ package internal.org.springframework.content.fs.config;
 import java.lang.annotation.Annotation;
 
 import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.content.commons.config.AbstractStoreBeanDefinitionRegistrar;
 import org.springframework.content.fs.config.EnableFilesystemStores;
+import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.type.AnnotationMetadata;
 
 public class FilesystemStoreRegistrar extends AbstractStoreBeanDefinitionRegistrar {
@@ -20,6 +22,16 @@ public class FilesystemStoreRegistrar extends AbstractStoreBeanDefinitionRegistr
 	protected void createOperationsBean(BeanDefinitionRegistry registry) {
 	}
 
+	@Override
+	protected void customizeStoreBeanDefinition(BeanDefinitionBuilder builder, AnnotationAttributes attributes) {
+		if (attributes.containsKey("fsync")) {
+			builder.addPropertyValue("fsyncPolicy", attributes.getEnum("fsync"));
+		}
+		if (attributes.containsKey("directoryLevels")) {
+			builder.addPropertyValue("directoryLevels", attributes.getNumber("directoryLevels"));
+		}
+	}
+
 	@Override
 	protected Class<? extends Annotation> getAnnotation() {
 		return EnableFilesystemStores.class;
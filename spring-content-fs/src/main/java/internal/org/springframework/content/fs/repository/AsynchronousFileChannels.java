@@ -0,0 +1,135 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads and writes files with {@link AsynchronousFileChannel} so that no thread waits on
+ * the disk.  Reads honour downstream demand, issuing at most one read at a time.
+ */
+final class AsynchronousFileChannels {
+
+	private AsynchronousFileChannels() {}
+
+	static Flux<ByteBuffer> read(Path path, int bufferSize) {
+		return Flux.using(
+				() -> AsynchronousFileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.<ByteBuffer>create(sink -> {
+					ReadHandler handler = new ReadHandler(channel, sink, bufferSize);
+					sink.onRequest(n -> handler.read());
+				}),
+				AsynchronousFileChannels::closeQuietly);
+	}
+
+	/**
+	 * @param digest updated with each buffer, in order, as it is written, or null
+	 * @return the number of bytes written
+	 */
+	static Mono<Long> write(Path path, Publisher<ByteBuffer> content, MessageDigest digest) {
+		return Mono.using(
+				() -> AsynchronousFileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+				channel -> {
+					AtomicLong position = new AtomicLong();
+					return Flux.from(content)
+							.doOnNext(buffer -> {
+								if (digest != null) {
+									digest.update(buffer.duplicate());
+								}
+							})
+							.concatMap(buffer -> write(channel, buffer, position.getAndAdd(buffer.remaining())))
+							.then(Mono.fromCallable(position::get));
+				},
+				AsynchronousFileChannels::closeQuietly);
+	}
+
+	private static Mono<Void> write(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+		return Mono.create(sink -> channel.write(buffer, position, null, new CompletionHandler<Integer, Void>() {
+
+			private long offset = position;
+
+			@Override
+			public void completed(Integer written, Void attachment) {
+				offset += written;
+				if (buffer.hasRemaining()) {
+					channel.write(buffer, offset, null, this);
+				} else {
+					sink.success();
+				}
+			}
+
+			@Override
+			public void failed(Throwable exc, Void attachment) {
+				sink.error(exc);
+			}
+		}));
+	}
+
+	private static void closeQuietly(AsynchronousFileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	private static class ReadHandler implements CompletionHandler<Integer, ByteBuffer> {
+
+		private final AsynchronousFileChannel channel;
+		private final FluxSink<ByteBuffer> sink;
+		private final int bufferSize;
+
+		private final AtomicBoolean reading = new AtomicBoolean();
+		private volatile long position = 0;
+
+		private ReadHandler(AsynchronousFileChannel channel, FluxSink<ByteBuffer> sink, int bufferSize) {
+			this.channel = channel;
+			this.sink = sink;
+			this.bufferSize = bufferSize;
+		}
+
+		void read() {
+			if (sink.isCancelled() || sink.requestedFromDownstream() == 0) {
+				return;
+			}
+			if (reading.compareAndSet(false, true)) {
+				ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+				channel.read(buffer, position, buffer, this);
+			}
+		}
+
+		@Override
+		public void completed(Integer read, ByteBuffer buffer) {
+			if (read == -1) {
+				sink.complete();
+				return;
+			}
+
+			position += read;
+			buffer.flip();
+			reading.set(false);
+			sink.next(buffer);
+			read();
+		}
+
+		@Override
+		public void failed(Throwable exc, ByteBuffer buffer) {
+			// a cancelled read fails as the channel is closed underneath it
+			if (!sink.isCancelled()) {
+				sink.error(exc);
+			}
+		}
+	}
+}
@@ -0,0 +1,319 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.fs.config.FsyncPolicy;
+
+import internal.org.springframework.content.commons.io.FileChannels;
+
+/**
+ * Writes content to a temporary sibling of the target file and renames it over the
+ * target once complete, so readers see either the old or the new content, never a
+ * mixture, and concurrent writers do not interleave.
+ */
+final class AtomicFileWriter {
+
+	private static Log logger = LogFactory.getLog(AtomicFileWriter.class);
+
+	private AtomicFileWriter() {}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	static long write(File target, InputStream content, FsyncPolicy fsync) throws IOException {
+		return replace(target, (channel) -> FileChannels.transferFrom(content, channel), fsync);
+	}
+
+	/**
+	 * Copies the source file with {@link FileChannel#transferTo}, which lets the kernel copy
+	 * the bytes without them passing through the JVM's heap.
+	 *
+	 * @return the number of bytes copied
+	 */
+	static long copy(File source, File target, FsyncPolicy fsync) throws IOException {
+		try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+			return replace(target, (channel) -> {
+				long size = in.size();
+				long position = 0;
+				while (position < size) {
+					position += in.transferTo(position, size - position, channel);
+				}
+				return size;
+			}, fsync);
+		}
+	}
+
+	/**
+	 * Opens a channel over a temporary sibling of the target file that replaces the target
+	 * when the channel is closed.  If any write to the channel fails the temporary file is
+	 * discarded on close instead, leaving the target as it was.
+	 *
+	 * @param onReplace run once the target has been replaced
+	 */
+	static FileChannel open(File target, FsyncPolicy fsync, Runnable onReplace) throws IOException {
+		Path path = target.toPath();
+		Path temp = tempFor(path);
+		return new ReplacingFileChannel(FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW), temp, path, fsync, onReplace);
+	}
+
+	/**
+	 * Replaces the target file with a temporary file, from {@link #tempFor(Path)}, whose
+	 * content has been written elsewhere.  The temporary file is deleted if it cannot be.
+	 */
+	static void replace(Path temp, File target, FsyncPolicy fsync) throws IOException {
+		Path path = target.toPath();
+		try {
+			if (fsync != FsyncPolicy.NONE) {
+				try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+					channel.force(true);
+				}
+			}
+			move(temp, path);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		if (fsync == FsyncPolicy.FILE_AND_DIRECTORY) {
+			forceDirectory(path.getParent());
+		}
+	}
+
+	/**
+	 * Renames the source file over the target file.
+	 */
+	static void move(File source, File target, FsyncPolicy fsync) throws IOException {
+		Path path = target.toPath();
+		move(source.toPath(), path);
+		if (fsync == FsyncPolicy.FILE_AND_DIRECTORY) {
+			forceDirectory(path.getParent());
+			forceDirectory(source.toPath().getParent());
+		}
+	}
+
+	private static long replace(File target, ChannelWriter writer, FsyncPolicy fsync) throws IOException {
+		Path path = target.toPath();
+		Path temp = tempFor(path);
+
+		long length;
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+				length = writer.write(channel);
+				if (fsync != FsyncPolicy.NONE) {
+					channel.force(true);
+				}
+			}
+			move(temp, path);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		if (fsync == FsyncPolicy.FILE_AND_DIRECTORY) {
+			forceDirectory(path.getParent());
+		}
+		return length;
+	}
+
+	/**
+	 * @return a new temporary sibling of the target file, in the same directory so that it
+	 * can be renamed over the target
+	 */
+	static Path tempFor(Path target) {
+		return target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+	}
+
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void forceDirectory(Path directory) {
+		// not every platform allows a directory to be opened, or forced
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ioe) {
+			logger.debug(String.format("Unable to force directory %s", directory), ioe);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChannelWriter {
+		long write(FileChannel channel) throws IOException;
+	}
+
+	/**
+	 * Delegates to the channel over the temporary file, remembering whether any write
+	 * failed, and renames the temporary file over the target on close.
+	 */
+	private static class ReplacingFileChannel extends FileChannel {
+
+		private final FileChannel delegate;
+		private final Path temp;
+		private final Path target;
+		private final FsyncPolicy fsync;
+		private final Runnable onReplace;
+
+		private volatile boolean failed;
+
+		private ReplacingFileChannel(FileChannel delegate, Path temp, Path target, FsyncPolicy fsync, Runnable onReplace) {
+			this.delegate = delegate;
+			this.temp = temp;
+			this.target = target;
+			this.fsync = fsync;
+			this.onReplace = onReplace;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return delegate.read(dst);
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return delegate.read(dsts, offset, length);
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return delegate.read(dst, position);
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			try {
+				return delegate.write(src);
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			try {
+				return delegate.write(srcs, offset, length);
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			try {
+				return delegate.write(src, position);
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		// a failure reading the source, such as a client disconnecting, also fails the write
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			try {
+				return delegate.transferFrom(src, position, count);
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return delegate.transferTo(position, count, target);
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			delegate.force(metaData);
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return delegate.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return delegate.lock(position, size, shared);
+		}
+
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return delegate.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			try {
+				try {
+					if (!failed && fsync != FsyncPolicy.NONE) {
+						delegate.force(true);
+					}
+				} finally {
+					delegate.close();
+				}
+				if (!failed) {
+					move(temp, target);
+				}
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			} finally {
+				if (failed) {
+					Files.deleteIfExists(temp);
+				}
+			}
+			if (failed) {
+				return;
+			}
+			if (fsync == FsyncPolicy.FILE_AND_DIRECTORY) {
+				forceDirectory(target.getParent());
+			}
+			onReplace.run();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.fs.config.FilesystemPlacementStrategy;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedRegionCache;
+import org.springframework.content.fs.io.PackedSegmentStorage;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.Resource;
+
+import internal.org.springframework.content.commons.utils.ContentDigests;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking filesystem store.  Content is transferred with asynchronous file channels;
+ * the steps that block, checking for and creating a file's directory, checking a file
+ * exists, replacing a file once its new content is written, reading packed content and the
+ * deletion done by {@link #unsetContent(Object)}, are offloaded to a bounded elastic
+ * scheduler.
+ * <p>
+ * Content is written as the blocking store writes it: to a temporary file that atomically
+ * replaces the content once complete, setting its length and digest, and dropping any
+ * packed copy of the content it replaces.
+ */
+public class DefaultFilesystemReactiveStoreImpl<S, SID extends Serializable> implements Store<SID>, AssociativeStore<S, SID>, ReactiveContentStore<S, SID> {
+
+	static final int BUFFER_SIZE = 8192;
+
+	private FileSystemResourceLoader loader;
+	private FileService fileService;
+
+	private DefaultFilesystemStoreImpl<S, SID> blockingStore;
+
+	public DefaultFilesystemReactiveStoreImpl(FileSystemResourceLoader loader, ConversionService conversion, FileService fileService) {
+		this.loader = loader;
+		this.fileService = fileService;
+		this.blockingStore = new DefaultFilesystemStoreImpl<>(loader, conversion, fileService);
+	}
+
+	public void setPlacementStrategy(FilesystemPlacementStrategy placementStrategy) {
+		blockingStore.setPlacementStrategy(placementStrategy);
+	}
+
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		blockingStore.setFsyncPolicy(fsyncPolicy);
+	}
+
+	public void setMappedRegionCache(MappedRegionCache mappedRegions) {
+		blockingStore.setMappedRegionCache(mappedRegions);
+	}
+
+	public void setPackedSegmentStorage(PackedSegmentStorage packedSegments) {
+		blockingStore.setPackedSegmentStorage(packedSegments);
+	}
+
+	@Override
+	public Resource getResource(SID id) {
+		return blockingStore.getResource(id);
+	}
+
+	@Override
+	public void associate(S entity, SID id) {
+		blockingStore.associate(entity, id);
+	}
+
+	@Override
+	public void unassociate(S entity) {
+		blockingStore.unassociate(entity);
+	}
+
+	@Override
+	public Mono<S> setContent(S property, Publisher<ByteBuffer> content) {
+		return Mono.defer(() -> {
+			Object contentId = blockingStore.getOrCreateContentId(property);
+
+			String location = blockingStore.locationOf(contentId);
+			Resource resource = loader.getResource(location);
+			MessageDigest digest = ContentDigests.newDigest(property);
+			return Mono.fromCallable(() -> {
+						File file = resource.getFile();
+						if (!file.getParentFile().exists()) {
+							fileService.mkdirs(file.getParentFile());
+						}
+						return AtomicFileWriter.tempFor(file.toPath());
+					})
+					.subscribeOn(Schedulers.boundedElastic())
+					.flatMap(temp -> AsynchronousFileChannels.write(temp, content, digest)
+							.flatMap(length -> Mono.fromCallable(() -> {
+										blockingStore.replaceContent(location, resource, temp);
+										return length;
+									})
+									.subscribeOn(Schedulers.boundedElastic()))
+							.doOnError(e -> deleteQuietly(temp))
+							.doOnCancel(() -> deleteQuietly(temp)))
+					.map(length -> {
+						BeanUtils.setFieldWithAnnotation(property, ContentLength.class, length);
+						ContentDigests.setDigest(property, digest);
+						return property;
+					});
+		});
+	}
+
+	@Override
+	public Flux<ByteBuffer> getContent(S property) {
+		return Flux.defer(() -> {
+			if (property == null)
+				return Flux.empty();
+			Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+			if (contentId == null)
+				return Flux.empty();
+
+			String location = blockingStore.locationOf(contentId);
+			Resource resource = loader.getResource(location);
+			return Mono.<Flux<ByteBuffer>>fromCallable(() -> {
+						if (resource.exists()) {
+							return AsynchronousFileChannels.read(resource.getFile().toPath(), BUFFER_SIZE);
+						}
+						byte[] packed = blockingStore.getPackedContent(location);
+						return (packed != null ? Flux.just(ByteBuffer.wrap(packed)) : null);
+					})
+					.subscribeOn(Schedulers.boundedElastic())
+					.flatMapMany(Function.identity());
+		});
+	}
+
+	@Override
+	public Mono<Void> unsetContent(S property) {
+		return Mono.<Void>fromRunnable(() -> blockingStore.unsetContent(property))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static void deleteQuietly(Path temp) {
+		try {
+			Files.deleteIfExists(temp);
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+}
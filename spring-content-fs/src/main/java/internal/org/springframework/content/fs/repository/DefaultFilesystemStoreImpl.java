@@ -1,10 +1,19 @@
 package internal.org.springframework.content.fs.repository;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
@@ -13,25 +22,44 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.FileChannelResource;
 import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
 import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.fs.config.FilesystemPlacementStrategy;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.content.fs.io.FileSystemDeletableResource;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedRegionCache;
+import org.springframework.content.fs.io.PackedSegmentStorage;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
 
-public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements Store<SID>, AssociativeStore<S, SID>, ContentStore<S,SID> {
+import internal.org.springframework.content.commons.io.CountingInputStream;
+import internal.org.springframework.content.commons.repository.BulkOperations;
+import internal.org.springframework.content.commons.utils.ContentDigests;
+
+public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements Store<SID>, AssociativeStore<S, SID>, ContentStore<S,SID>, BulkContentStore<S,SID>, CopyableContentStore<S,SID> {
 
 	private static Log logger = LogFactory.getLog(DefaultFilesystemStoreImpl.class);
 
 	private FileSystemResourceLoader loader;
 	private ConversionService conversion;
 	private FileService fileService;
-
+	private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+	private FilesystemPlacementStrategy placementStrategy;
+	private MappedRegionCache mappedRegions;
+	private PackedSegmentStorage packedSegments;
 
 	public DefaultFilesystemStoreImpl(FileSystemResourceLoader loader, ConversionService conversion, FileService fileService) {
 		this.loader = loader;
@@ -39,18 +67,42 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		this.fileService = fileService;
 	}
 
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		Assert.notNull(fsyncPolicy, "fsyncPolicy must not be null");
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	public void setPlacementStrategy(FilesystemPlacementStrategy placementStrategy) {
+		this.placementStrategy = placementStrategy;
+	}
+
+	/**
+	 * Serves {@link #getContent(Object)} from memory-mapped regions held in the given cache.
+	 */
+	public void setMappedRegionCache(MappedRegionCache mappedRegions) {
+		this.mappedRegions = mappedRegions;
+	}
+
+	/**
+	 * Packs content no larger than the storage's threshold into its segments rather than
+	 * writing a file for each.
+	 */
+	public void setPackedSegmentStorage(PackedSegmentStorage packedSegments) {
+		this.packedSegments = packedSegments;
+	}
+
 	@Override
 	public Resource getResource(SID id) {
-		String location = conversion.convert(id, String.class);
-		Resource resource = loader.getResource(location);
+		String location = locationOf(id);
+		Resource resource = resourceAt(location);
 		return resource;
 	}
 	
 	@Override
 	public void associate(S entity, SID id) {
 		BeanUtils.setFieldWithAnnotation(entity, ContentId.class, id.toString());
-		String location = conversion.convert(id, String.class);
-		Resource resource = loader.getResource(location);
+		String location = locationOf(id);
+		Resource resource = resourceAt(location);
 		try {
 			BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, resource.contentLength());
 		} catch (IOException e) {
@@ -62,19 +114,56 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 	public void unassociate(S entity) {
 		BeanUtils.setFieldWithAnnotation(entity, ContentId.class, null);
 		BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, 0L);
+		ContentDigests.unsetDigest(entity);
 	}
 
 	@Override
 	public void setContent(S property, InputStream content) {
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
-		if (contentId == null) {
-			contentId = UUID.randomUUID();
-			contentId = convertToExternalContentIdType(property, contentId);
-			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId);
-		}
+		Object contentId = getOrCreateContentId(property);
 
-		String location = conversion.convert(contentId, String.class);
+		String location = locationOf(contentId);
 		Resource resource = loader.getResource(location);
+		try {
+			writeContent(property, location, resource, content);
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
+		}
+	}
+
+	/**
+	 * Writes content to the resource, then sets the property's length and digest from what was written.
+	 * File backed resources are written to a temporary file, with {@link FileChannel#transferFrom},
+	 * that atomically replaces the resource once complete.  Content small enough to be packed is
+	 * written to the packed segments instead, while they have room for it.
+	 */
+	private void writeContent(S property, String location, Resource resource, InputStream content) throws IOException {
+		InputStream digesting = ContentDigests.digesting(property, content);
+		long length;
+		if (packedSegments != null) {
+			byte[] head = new byte[packedSegments.getThreshold() + 1];
+			int read = readFully(digesting, head);
+			if (read <= packedSegments.getThreshold() && packedSegments.put(location, head, read)) {
+				if (resource.exists() && resource instanceof DeletableResource) {
+					((DeletableResource)resource).delete();
+				}
+				invalidate(resource);
+				length = read;
+			} else {
+				length = writeResource(resource, new SequenceInputStream(new ByteArrayInputStream(head, 0, read), digesting));
+				packedSegments.remove(location);
+			}
+		} else {
+			length = writeResource(resource, digesting);
+		}
+		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, length);
+		ContentDigests.setDigest(property, digesting);
+	}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	private long writeResource(Resource resource, InputStream content) throws IOException {
+		long length = 0;
 		OutputStream os = null;
 		try {
 		    if (resource.exists() == false) {
@@ -82,12 +171,15 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		        File parent = resourceFile.getParentFile();
 		        this.fileService.mkdirs(parent);
             }
-			if (resource instanceof WritableResource) {
+			if (resource instanceof FileChannelResource) {
+				length = AtomicFileWriter.write(resource.getFile(), content, fsyncPolicy);
+				invalidate(resource);
+			} else if (resource instanceof WritableResource) {
+				CountingInputStream in = new CountingInputStream(content);
 				os = ((WritableResource)resource).getOutputStream();
-				IOUtils.copy(content, os);
+				IOUtils.copy(in, os);
+				length = in.getCount();
 			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
 		} finally {
 	        try {
 	            if (os != null) {
@@ -97,12 +189,50 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 	            // ignore
 	        }
 		}
-			
-		try {
-			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, resource.contentLength());
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error setting content length for content %s", contentId.toString()), e);
+		return length;
+	}
+
+	private static int readFully(InputStream in, byte[] buffer) throws IOException {
+		int read = 0;
+		while (read < buffer.length) {
+			int n = in.read(buffer, read, buffer.length - read);
+			if (n == -1) {
+				break;
+			}
+			read += n;
+		}
+		return read;
+	}
+
+	@Override
+	public List<BulkContentResult<S>> setContents(Map<S, InputStream> contents) {
+		// assigning a content id may change an entity's hash code, so entities are not looked up in the given map
+		List<S> properties = new ArrayList<>(contents.size());
+		Map<S, InputStream> streams = new IdentityHashMap<>(contents.size());
+		for (Map.Entry<S, InputStream> entry : contents.entrySet()) {
+			properties.add(entry.getKey());
+			streams.put(entry.getKey(), entry.getValue());
 		}
+		return BulkOperations.forEachParallel(properties, (property) -> {
+			InputStream content = streams.get(property);
+			Object contentId = getOrCreateContentId(property);
+			String location = locationOf(contentId);
+			writeContent(property, location, loader.getResource(location), content);
+			return BulkContentResult.success(property);
+		});
+	}
+
+	@Override
+	public List<BulkContentResult<S>> unsetContents(Collection<S> properties) {
+		return BulkOperations.forEachParallel(properties, (property) -> {
+			unsetContent(property);
+			return BulkContentResult.success(property);
+		});
+	}
+
+	@Override
+	public List<BulkContentResult<S>> getContents(Collection<S> properties) {
+		return BulkOperations.forEach(properties, (property) -> BulkContentResult.success(property, getContent(property)));
 	}
 
 	@Override
@@ -113,10 +243,22 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		if (contentId == null)
 			return null;
 
-		String location = conversion.convert(contentId, String.class);
+		String location = locationOf(contentId);
 		Resource resource = loader.getResource(location);
 		
 		try {
+			if (packedSegments != null) {
+				InputStream packed = packedSegments.getInputStream(location);
+				if (packed != null) {
+					return packed;
+				}
+			}
+			if (mappedRegions != null && resource instanceof FileChannelResource) {
+				InputStream mapped = mappedRegions.getInputStream(resource.getFile());
+				if (mapped != null) {
+					return mapped;
+				}
+			}
 			if (resource.exists()) {
 				return resource.getInputStream();
 			}
@@ -136,18 +278,198 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 			return;
 	
 		// delete any existing content object	
-		String location = conversion.convert(contentId, String.class);
+		String location = locationOf(contentId);
 		Resource resource = loader.getResource(location);
 
+		if (packedSegments != null) {
+			try {
+				packedSegments.remove(location);
+			} catch (IOException e) {
+				logger.error(String.format("Unexpected error unsetting packed content %s", contentId.toString()), e);
+			}
+		}
 		if (resource.exists() && resource instanceof DeletableResource) {
 			((DeletableResource)resource).delete();
 		}
+		invalidate(resource);
 
 		// reset content fields
 		BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
 		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+		ContentDigests.unsetDigest(property);
 	}
 	
+	/**
+	 * Copies the source's file with {@link AtomicFileWriter#copy}, or its packed content
+	 * within the packed segments, without reading the content into the application.
+	 */
+	@Override
+	public boolean copyContent(S source, S target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null || !hasContent(locationOf(sourceId))) {
+			return false;
+		}
+		Object targetId = getOrCreateContentId(target);
+		String from = locationOf(sourceId);
+		String to = locationOf(targetId);
+		if (from.equals(to)) {
+			return false;
+		}
+
+		try {
+			long length;
+			Resource resource = loader.getResource(to);
+			byte[] packed = (packedSegments != null ? packedSegments.get(from) : null);
+			if (packed != null && packedSegments.put(to, packed, packed.length)) {
+				if (resource.exists() && resource instanceof DeletableResource) {
+					((DeletableResource)resource).delete();
+				}
+				length = packed.length;
+			} else if (packed != null) {
+				// the packed segments are full
+				length = writeResource(resource, new ByteArrayInputStream(packed));
+				packedSegments.remove(to);
+			} else {
+				Resource file = loader.getResource(from);
+				if (file instanceof FileChannelResource && resource instanceof FileChannelResource) {
+					this.fileService.mkdirs(resource.getFile().getParentFile());
+					length = AtomicFileWriter.copy(file.getFile(), resource.getFile(), fsyncPolicy);
+				} else {
+					try (InputStream content = file.getInputStream()) {
+						length = writeResource(resource, content);
+					}
+				}
+				if (packedSegments != null) {
+					packedSegments.remove(to);
+				}
+			}
+			invalidate(resource);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, length);
+			ContentDigests.copyDigest(source, target);
+			return true;
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to copy content %s to %s", sourceId.toString(), targetId.toString()), e);
+		}
+	}
+
+	/**
+	 * Hands the source's content id to a target without one, so that the move costs no I/O,
+	 * and otherwise renames the source's file over the target's.
+	 */
+	@Override
+	public boolean moveContent(S source, S target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null || !hasContent(locationOf(sourceId))) {
+			return false;
+		}
+		Object targetId = BeanUtils.getFieldWithAnnotation(target, ContentId.class);
+		if (targetId == null) {
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, sourceId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+			ContentDigests.copyDigest(source, target);
+			unassociate(source);
+			return true;
+		}
+		String from = locationOf(sourceId);
+		String to = locationOf(targetId);
+		if (from.equals(to)) {
+			return false;
+		}
+
+		Resource file = loader.getResource(from);
+		if ((packedSegments != null && packedSegments.contains(from)) || !(file instanceof FileChannelResource)) {
+			if (!copyContent(source, target)) {
+				return false;
+			}
+			if (!hasContent(to)) {
+				throw new StoreAccessException(String.format("Unable to move content %s to %s", sourceId.toString(), targetId.toString()));
+			}
+			unsetContent(source);
+			return true;
+		}
+		try {
+			Resource resource = loader.getResource(to);
+			this.fileService.mkdirs(resource.getFile().getParentFile());
+			AtomicFileWriter.move(file.getFile(), resource.getFile(), fsyncPolicy);
+			if (packedSegments != null) {
+				packedSegments.remove(to);
+			}
+			invalidate(file);
+			invalidate(resource);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, resource.contentLength());
+			ContentDigests.copyDigest(source, target);
+			unassociate(source);
+			return true;
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to move content %s to %s", sourceId.toString(), targetId.toString()), e);
+		}
+	}
+
+	/**
+	 * @return the content packed at the location, or null if there is none
+	 */
+	/* package */ byte[] getPackedContent(String location) throws IOException {
+		return (packedSegments != null ? packedSegments.get(location) : null);
+	}
+
+	/**
+	 * Replaces the content at the location with a temporary file, from
+	 * {@link AtomicFileWriter#tempFor(Path)}, whose content was written elsewhere, and drops
+	 * any packed copy and mapped region of the content it replaces.
+	 */
+	/* package */ void replaceContent(String location, Resource resource, Path written) throws IOException {
+		AtomicFileWriter.replace(written, resource.getFile(), fsyncPolicy);
+		invalidate(resource);
+		if (packedSegments != null) {
+			packedSegments.remove(location);
+		}
+	}
+
+	private boolean hasContent(String location) {
+		return (packedSegments != null && packedSegments.contains(location)) || loader.getResource(location).exists();
+	}
+
+	// packed content is read through a resource that falls back to the file
+	private Resource resourceAt(String location) {
+		Resource resource = loader.getResource(location);
+		if (resource instanceof FileSystemDeletableResource) {
+			Resource file = resource;
+			resource = new StoreFileResource(new FileSystemResource(((FileSystemDeletableResource)file).getFile()), fileService, fsyncPolicy, () -> invalidate(file));
+		}
+		if (packedSegments != null && packedSegments.contains(location)) {
+			return new PackedSegmentResource(packedSegments, location, resource);
+		}
+		return resource;
+	}
+
+	private void invalidate(Resource resource) {
+		if (mappedRegions != null && resource instanceof FileChannelResource) {
+			try {
+				mappedRegions.invalidate(resource.getFile());
+			} catch (IOException e) {
+				logger.debug(String.format("Unexpected error invalidating mapped region for %s", resource), e);
+			}
+		}
+	}
+
+	/**
+	 * @return the location of the content with the given id, relative to the filesystem root
+	 */
+	/* package */ String locationOf(Object contentId) {
+		String location = conversion.convert(contentId, String.class);
+		return (placementStrategy != null ? placementStrategy.getLocation(location) : location);
+	}
+
+	/* package */ Object getOrCreateContentId(S property) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		if (contentId == null) {
+			contentId = UUID.randomUUID();
+			contentId = convertToExternalContentIdType(property, contentId);
+			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId);
+		}
+		return contentId;
+	}
+
 	private Object convertToExternalContentIdType(S property, Object contentId) {
 		if (conversion.canConvert(TypeDescriptor.forObject(contentId), TypeDescriptor.valueOf(BeanUtils.getFieldWithAnnotationType(property, ContentId.class)))) {
 			contentId = conversion.convert(contentId, TypeDescriptor.forObject(contentId), TypeDescriptor.valueOf(BeanUtils.getFieldWithAnnotationType(property, ContentId.class)));
@@ -0,0 +1,116 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.content.fs.io.PackedSegmentStorage;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
+
+/**
+ * Resource for content packed in a {@link PackedSegmentStorage}.  Writing through the
+ * resource replaces the packed content with a standalone file.
+ */
+class PackedSegmentResource extends AbstractResource implements WritableResource, DeletableResource, RangeableResource {
+
+	private final PackedSegmentStorage segments;
+	private final String location;
+	private final Resource file;
+
+	PackedSegmentResource(PackedSegmentStorage segments, String location, Resource file) {
+		this.segments = segments;
+		this.location = location;
+		this.file = file;
+	}
+
+	@Override
+	public boolean exists() {
+		return segments.contains(location) || file.exists();
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		InputStream packed = segments.getInputStream(location);
+		if (packed != null) {
+			return packed;
+		}
+		return file.getInputStream();
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		byte[] packed = segments.get(location);
+		if (packed == null && file instanceof RangeableResource) {
+			return ((RangeableResource) file).getInputStream(offset, length);
+		} else if (packed == null) {
+			throw new FileNotFoundException(String.format("%s does not exist", getDescription()));
+		}
+		int from = (int) Math.min(offset, packed.length);
+		return new ByteArrayInputStream(packed, from, (int) Math.min(length, packed.length - from));
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		long length = segments.length(location);
+		return (length != -1 ? length : file.contentLength());
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		long lastModified = segments.lastModified(location);
+		return (lastModified != 0 ? lastModified : file.lastModified());
+	}
+
+	@Override
+	public String getFilename() {
+		return file.getFilename();
+	}
+
+	@Override
+	public boolean isWritable() {
+		return (file instanceof WritableResource);
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException {
+		if (!(file instanceof WritableResource)) {
+			throw new FileNotFoundException(String.format("%s is not writable", getDescription()));
+		}
+		return new FilterOutputStream(((WritableResource) file).getOutputStream()) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				super.close();
+				segments.remove(location);
+			}
+		};
+	}
+
+	@Override
+	public void delete() {
+		try {
+			segments.remove(location);
+		} catch (IOException ioe) {
+			throw new IllegalStateException(String.format("Unable to remove packed content %s", location), ioe);
+		}
+		if (file instanceof DeletableResource && file.exists()) {
+			((DeletableResource) file).delete();
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return String.format("packed content [%s]", location);
+	}
+}
@@ -0,0 +1,45 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.content.fs.io.FileSystemDeletableResource;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * File resource handed out by the filesystem store.  Writes through it create the file's
+ * directory and atomically replace the file, as the store's own writes do, so content
+ * written through the REST layer is never seen half written.
+ */
+class StoreFileResource extends FileSystemDeletableResource {
+
+	private final FileService fileService;
+	private final FsyncPolicy fsync;
+	private final Runnable onReplace;
+
+	StoreFileResource(FileSystemResource resource, FileService fileService, FsyncPolicy fsync, Runnable onReplace) {
+		super(resource);
+		this.fileService = fileService;
+		this.fsync = fsync;
+		this.onReplace = onReplace;
+	}
+
+	/**
+	 * @return a channel over a temporary file that replaces this one when the channel is
+	 * closed, unless a write to it failed
+	 */
+	@Override
+	public FileChannel writableChannel() throws IOException {
+		fileService.mkdirs(getFile().getParentFile());
+		return AtomicFileWriter.open(getFile(), fsync, onReplace);
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException {
+		return Channels.newOutputStream(writableChannel());
+	}
+}
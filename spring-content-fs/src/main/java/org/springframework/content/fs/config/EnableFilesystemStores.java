@@ -55,4 +55,23 @@ public @interface EnableFilesystemStores {
 	 */
 	Class<?> storeFactoryBeanClass() default FilesystemStoreFactoryBean.class;
 
+	/**
+	 * How far the stores force content to disk before a write completes.  Content is always
+	 * written to a temporary file that atomically replaces the old content.  Defaults to
+	 * {@link FsyncPolicy#NONE}.
+	 *
+	 * @return the fsync policy
+	 */
+	FsyncPolicy fsync() default FsyncPolicy.NONE;
+
+	/**
+	 * The number of directory levels, named by a hash of each content id, that the stores
+	 * spread content across; see {@link HashedPlacementStrategy}.  Defaults to 0, placing
+	 * content directly under the filesystem root.  Ignored when the application defines a
+	 * {@link FilesystemPlacementStrategy} bean.
+	 *
+	 * @return the number of directory levels
+	 */
+	int directoryLevels() default 0;
+
 }
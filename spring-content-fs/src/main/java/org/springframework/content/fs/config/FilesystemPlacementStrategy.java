@@ -0,0 +1,17 @@
+package org.springframework.content.fs.config;
+
+/**
+ * Decides where, relative to the filesystem root, content is placed.  Applied to the
+ * location the {@link FilesystemStoreConverter}s produce for a content id.
+ * <p>
+ * Changing the strategy of a store that already holds content leaves that content
+ * where the old strategy placed it.
+ */
+public interface FilesystemPlacementStrategy {
+
+	/**
+	 * @param location the location converted from a content id
+	 * @return the location to store the content at
+	 */
+	String getLocation(String location);
+}
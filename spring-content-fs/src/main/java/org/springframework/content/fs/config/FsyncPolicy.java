@@ -0,0 +1,17 @@
+package org.springframework.content.fs.config;
+
+/**
+ * How far a filesystem store forces content to disk before a write completes.  Each
+ * step trades throughput for durability across a crash or power loss.
+ */
+public enum FsyncPolicy {
+
+	/** leave flushing to the operating system */
+	NONE,
+
+	/** force the written file to disk before it replaces the old content */
+	FILE,
+
+	/** as {@link #FILE}, then also force the directory so that the rename itself is durable */
+	FILE_AND_DIRECTORY
+}
@@ -0,0 +1,38 @@
+package org.springframework.content.fs.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Spreads content across directory levels named by successive pairs of hex digits of an
+ * MD5 hash of its location.  With two levels, for example, {@code 12345-67890} is placed at
+ * {@code d3/2f/12345-67890}, giving 256 directories per level.
+ */
+public class HashedPlacementStrategy implements FilesystemPlacementStrategy {
+
+	/** more levels than this do not fit in an MD5 hash */
+	public static final int MAX_LEVELS = 16;
+
+	private final int levels;
+
+	public HashedPlacementStrategy(int levels) {
+		Assert.isTrue(levels >= 0 && levels <= MAX_LEVELS, String.format("levels must be between 0 and %d", MAX_LEVELS));
+		this.levels = levels;
+	}
+
+	@Override
+	public String getLocation(String location) {
+		if (levels == 0) {
+			return location;
+		}
+
+		String hash = DigestUtils.md5DigestAsHex(location.getBytes(StandardCharsets.UTF_8));
+		StringBuilder placed = new StringBuilder(levels * 3 + location.length());
+		for (int i = 0; i < levels; i++) {
+			placed.append(hash, i * 2, i * 2 + 2).append('/');
+		}
+		return placed.append(location.startsWith("/") ? location.substring(1) : location).toString();
+	}
+}
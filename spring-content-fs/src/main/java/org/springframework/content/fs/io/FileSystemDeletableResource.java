@@ -6,16 +6,23 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.FileChannelResource;
+import org.springframework.content.commons.io.RangeableResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 
-public class FileSystemDeletableResource implements WritableResource, DeletableResource {
+import internal.org.springframework.content.commons.io.BoundedInputStream;
+
+public class FileSystemDeletableResource implements WritableResource, DeletableResource, RangeableResource, FileChannelResource {
 
 	private static Log logger = LogFactory.getLog(FileSystemDeletableResource.class);
 
@@ -54,6 +61,33 @@ public class FileSystemDeletableResource implements WritableResource, DeletableR
 		return resource.getInputStream();
 	}
 
+	/**
+	 * Reads the range through a file channel positioned at the offset, so the bytes
+	 * before it are never read.
+	 */
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		FileChannel channel = readableChannel();
+		try {
+			channel.position(offset);
+		} catch (IOException ioe) {
+			channel.close();
+			throw ioe;
+		}
+		return new BoundedInputStream(Channels.newInputStream(channel), length);
+	}
+
+	@Override
+	public FileChannel readableChannel() throws IOException {
+		return FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+	}
+
+	@Override
+	public FileChannel writableChannel() throws IOException {
+		mkdirs();
+		return FileChannel.open(getFile().toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
 	public boolean isWritable() {
 		return resource.isWritable();
 	}
@@ -64,11 +98,19 @@ public class FileSystemDeletableResource implements WritableResource, DeletableR
 
 	public OutputStream getOutputStream() throws IOException {
 		if (!exists()) {
+			mkdirs();
 			FileUtils.touch(this.getFile());
 		}
 		return resource.getOutputStream();
 	}
 
+	private void mkdirs() throws IOException {
+		File parent = getFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			FileUtils.forceMkdir(parent);
+		}
+	}
+
 	public URL getURL() throws IOException {
 		return resource.getURL();
 	}
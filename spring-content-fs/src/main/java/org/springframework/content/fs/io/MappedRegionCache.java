@@ -0,0 +1,250 @@
+package org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Size-bounded, least recently used cache of memory-mapped file content.
+ * <p>
+ * Define one as a bean and filesystem stores serve {@code getContent} from mapped regions
+ * rather than opening a new stream for every read.  A region is remapped when the file's size
+ * or modification time changes and is dropped when the store sets or unsets the content.
+ * Files larger than the maximum region size are not mapped.
+ * <p>
+ * Evicted regions are unmapped by the garbage collector, not immediately.  On Windows a
+ * mapped file cannot be replaced or deleted, so this cache is not suitable there.
+ */
+public class MappedRegionCache {
+
+	private static final Log logger = LogFactory.getLog(MappedRegionCache.class);
+
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+	public static final long DEFAULT_MAX_REGION_SIZE = 16L * 1024 * 1024;
+
+	private final long maxBytes;
+	private final long maxRegionSize;
+
+	// guarded by itself; iteration order is least recently used first
+	private final LinkedHashMap<File, Region> regions = new LinkedHashMap<>(16, 0.75f, true);
+	private long mappedBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public MappedRegionCache() {
+		this(DEFAULT_MAX_BYTES, DEFAULT_MAX_REGION_SIZE);
+	}
+
+	public MappedRegionCache(long maxBytes, long maxRegionSize) {
+		Assert.isTrue(maxBytes > 0, "maxBytes must be positive");
+		Assert.isTrue(maxRegionSize > 0 && maxRegionSize <= Integer.MAX_VALUE, "maxRegionSize must be positive and no more than Integer.MAX_VALUE");
+		this.maxBytes = maxBytes;
+		this.maxRegionSize = maxRegionSize;
+	}
+
+	/**
+	 * @return a stream over the file's mapped content, or null if the file does not exist or
+	 * is too large to map
+	 */
+	public InputStream getInputStream(File file) throws IOException {
+		ByteBuffer region = getRegion(file);
+		return (region != null ? new ByteBufferInputStream(region) : null);
+	}
+
+	/**
+	 * @return a read only view of the file's mapped content, positioned at zero, or null if the
+	 * file does not exist or is too large to map
+	 */
+	public ByteBuffer getRegion(File file) throws IOException {
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException nsfe) {
+			invalidate(file);
+			return null;
+		}
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+
+		synchronized (regions) {
+			Region region = regions.get(file);
+			if (region != null && region.size == size && region.lastModified == lastModified) {
+				hits.increment();
+				return region.buffer.duplicate();
+			}
+			if (region != null) {
+				remove(file);
+			}
+		}
+
+		misses.increment();
+		if (!attributes.isRegularFile() || size > maxRegionSize || size > maxBytes) {
+			return null;
+		}
+
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long mapped = channel.size();
+			if (mapped > maxRegionSize || mapped > maxBytes) {
+				return null;
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, mapped);
+		} catch (NoSuchFileException nsfe) {
+			return null;
+		}
+
+		synchronized (regions) {
+			Region previous = regions.put(file, new Region(buffer, size, lastModified));
+			if (previous != null) {
+				mappedBytes -= previous.buffer.capacity();
+			}
+			mappedBytes += buffer.capacity();
+			evict();
+		}
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Drops the file's mapped region, if any, so the next read maps the file afresh.
+	 */
+	public void invalidate(File file) {
+		synchronized (regions) {
+			remove(file);
+		}
+	}
+
+	public void clear() {
+		synchronized (regions) {
+			regions.clear();
+			mappedBytes = 0;
+		}
+	}
+
+	private void remove(File file) {
+		Region region = regions.remove(file);
+		if (region != null) {
+			mappedBytes -= region.buffer.capacity();
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<File, Region>> eldest = regions.entrySet().iterator();
+		while (mappedBytes > maxBytes && eldest.hasNext()) {
+			Map.Entry<File, Region> entry = eldest.next();
+			mappedBytes -= entry.getValue().buffer.capacity();
+			eldest.remove();
+			evictions.increment();
+			if (logger.isTraceEnabled()) {
+				logger.trace(String.format("Evicted mapped region for %s", entry.getKey()));
+			}
+		}
+	}
+
+	/**
+	 * @return the number of reads served from an existing mapped region
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of reads that found no current mapped region
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of regions dropped to stay within the maximum size
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the number of bytes currently mapped
+	 */
+	public long getMappedBytes() {
+		synchronized (regions) {
+			return mappedBytes;
+		}
+	}
+
+	/**
+	 * @return the number of files currently mapped
+	 */
+	public int getRegionCount() {
+		synchronized (regions) {
+			return regions.size();
+		}
+	}
+
+	private static class Region {
+
+		private final MappedByteBuffer buffer;
+		private final long size;
+		private final long lastModified;
+
+		private Region(MappedByteBuffer buffer, long size, long lastModified) {
+			this.buffer = buffer;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (buffer.hasRemaining() ? buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int read = Math.min(len, buffer.remaining());
+			buffer.get(b, off, read);
+			return read;
+		}
+
+		@Override
+		public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
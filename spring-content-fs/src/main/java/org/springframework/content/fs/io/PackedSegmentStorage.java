@@ -0,0 +1,698 @@
+package org.springframework.content.fs.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Packs small contents into large, append-only segment files rather than giving each its
+ * own file.
+ * <p>
+ * Define one as a bean and filesystem stores write any content no larger than the
+ * {@link #setThreshold(int) threshold} here, keyed by its location, and larger content to
+ * standalone files as before.  An index of location to segment, offset and length is kept in
+ * memory and journaled to an append-only file in the storage directory that is replayed on
+ * start up.
+ * <p>
+ * Replacing or removing content leaves dead space behind in its segment, and a record in
+ * the index journal.  Sealed segments whose dead space reaches the
+ * {@link #setCompactionThreshold(double) compaction threshold} are compacted by copying their
+ * live contents to the active segment, deleting them, and rewriting the journal as one
+ * record per live content.  The journal is also rewritten whenever it holds more than twice
+ * as many records as there are live contents.
+ * <p>
+ * Compaction runs in the background, as soon as a write takes a segment or the journal past
+ * its limit, and every {@link #setCompactionIntervalSeconds(long) compaction interval}
+ * besides.  When the interval is set to 0 nothing is compacted in the background and the
+ * application must call {@link #compact()} itself, or the segments and journal grow without
+ * bound.
+ * <p>
+ * The index is held in the heap, at roughly 200 bytes per content for locations the length
+ * of a UUID, and is rebuilt from the journal on start up.  It is therefore capped at
+ * {@link #setMaxEntries(int) max entries}, 1,000,000 by default, or some 200MB of heap.  Once
+ * full, {@link #put(String, byte[], int) put} packs nothing new and filesystem stores write
+ * small content to standalone files instead.  This storage is meant for up to a few million
+ * small contents; beyond that, leave packing off.
+ */
+public class PackedSegmentStorage implements InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(PackedSegmentStorage.class);
+
+	public static final int DEFAULT_THRESHOLD = 8 * 1024;
+	public static final long DEFAULT_MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+	public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+	public static final long DEFAULT_COMPACTION_INTERVAL_SECONDS = 60;
+	public static final int DEFAULT_MAX_ENTRIES = 1000000;
+
+	static final String INDEX = "index";
+	static final String SEGMENT_PREFIX = "segment-";
+	static final String SEGMENT_SUFFIX = ".dat";
+
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+
+	private static final int MAX_READ_ATTEMPTS = 3;
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+	// the journal is left alone until it holds at least this many records
+	private static final long MIN_JOURNAL_RECORDS = 1024;
+
+	private final File directory;
+
+	private int threshold = DEFAULT_THRESHOLD;
+	private long maxSegmentSize = DEFAULT_MAX_SEGMENT_SIZE;
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+	private long compactionIntervalSeconds = DEFAULT_COMPACTION_INTERVAL_SECONDS;
+	private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+
+	private final Map<String, Entry> index = new ConcurrentHashMap<>();
+	private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+	// serializes appends, removals, compaction and journal writes
+	private final Object appendLock = new Object();
+	// serializes compactions
+	private final Object compactionLock = new Object();
+	// held for reading while a segment is read, for writing while one is deleted
+	private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+
+	private Segment active;
+	private FileChannel journal;
+	private ScheduledExecutorService compactor;
+	private final AtomicBoolean compactionRequested = new AtomicBoolean();
+	private volatile boolean open;
+
+	private long compactions;
+	private long journalRecords;
+	private boolean full;
+
+	public PackedSegmentStorage(File directory) {
+		Assert.notNull(directory, "directory must not be null");
+		this.directory = directory;
+	}
+
+	public void setThreshold(int threshold) {
+		Assert.isTrue(threshold > 0, "threshold must be positive");
+		this.threshold = threshold;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public void setMaxSegmentSize(long maxSegmentSize) {
+		Assert.isTrue(maxSegmentSize > 0, "maxSegmentSize must be positive");
+		this.maxSegmentSize = maxSegmentSize;
+	}
+
+	/**
+	 * @param maxEntries the most contents to pack, which bounds the heap taken by the index
+	 */
+	public void setMaxEntries(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		this.maxEntries = maxEntries;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setCompactionThreshold(double compactionThreshold) {
+		Assert.isTrue(compactionThreshold > 0 && compactionThreshold <= 1, "compactionThreshold must be greater than 0 and at most 1");
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * @param compactionIntervalSeconds seconds between background compactions, on top of
+	 * those writes trigger, or 0 to only compact when {@link #compact()} is called
+	 */
+	public void setCompactionIntervalSeconds(long compactionIntervalSeconds) {
+		this.compactionIntervalSeconds = compactionIntervalSeconds;
+	}
+
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		Assert.notNull(fsyncPolicy, "fsyncPolicy must not be null");
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws IOException {
+		synchronized (appendLock) {
+			if (open) {
+				return;
+			}
+			FileUtils.forceMkdir(directory);
+			openSegments();
+			replayIndex();
+			open = true;
+		}
+
+		if (compactionIntervalSeconds > 0) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("segment-compaction-");
+			threadFactory.setDaemon(true);
+			compactor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			compactor.scheduleWithFixedDelay(() -> {
+				try {
+					compact();
+				} catch (Exception e) {
+					logger.error(String.format("Unexpected error compacting segments in %s", directory), e);
+				}
+			}, compactionIntervalSeconds, compactionIntervalSeconds, TimeUnit.SECONDS);
+			// catch up on anything left to compact when last closed
+			requestCompaction();
+		}
+	}
+
+	// compacts in the background, once, however many writes ask for it before it starts
+	private void requestCompaction() {
+		if (compactor == null || !compactionRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			compactor.execute(() -> {
+				compactionRequested.set(false);
+				try {
+					compact();
+				} catch (Exception e) {
+					logger.error(String.format("Unexpected error compacting segments in %s", directory), e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// shutting down
+			compactionRequested.set(false);
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		if (compactor != null) {
+			// lets a compaction in progress finish, interrupting it would close the channels
+			// it is using
+			compactor.shutdown();
+			try {
+				if (!compactor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					logger.warn(String.format("Compaction of segments in %s did not finish in time", directory));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (appendLock) {
+			open = false;
+			if (journal != null) {
+				journal.close();
+			}
+			for (Segment segment : segments.values()) {
+				segment.channel.close();
+			}
+			segments.clear();
+			index.clear();
+			active = null;
+			full = false;
+		}
+	}
+
+	/**
+	 * @return whether content is packed at the location
+	 */
+	public boolean contains(String location) {
+		return index.containsKey(location);
+	}
+
+	/**
+	 * @return the length of the content packed at the location, or -1 if there is none
+	 */
+	public long length(String location) {
+		Entry entry = index.get(location);
+		return (entry != null ? entry.length : -1);
+	}
+
+	/**
+	 * @return when the content packed at the location was written, or 0 if there is none
+	 */
+	public long lastModified(String location) {
+		Entry entry = index.get(location);
+		return (entry != null ? entry.lastModified : 0);
+	}
+
+	/**
+	 * @return the content packed at the location, or null if there is none
+	 */
+	public byte[] get(String location) throws IOException {
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+			Entry entry = index.get(location);
+			if (entry == null) {
+				return null;
+			}
+			segmentsLock.readLock().lock();
+			try {
+				Segment segment = segments.get(entry.segment);
+				if (segment != null) {
+					return segment.read(entry.offset, entry.length);
+				}
+			} finally {
+				segmentsLock.readLock().unlock();
+			}
+			// the segment was compacted away while we looked, the index now points elsewhere
+		}
+		throw new IOException(String.format("Unable to read packed content %s", location));
+	}
+
+	/**
+	 * @return a stream over the content packed at the location, or null if there is none
+	 */
+	public InputStream getInputStream(String location) throws IOException {
+		byte[] content = get(location);
+		return (content != null ? new ByteArrayInputStream(content) : null);
+	}
+
+	/**
+	 * Packs the content at the location, replacing any content already packed there.
+	 *
+	 * @return false if the index already holds {@link #setMaxEntries(int) max entries} and
+	 * the content was not packed
+	 */
+	public boolean put(String location, byte[] content, int length) throws IOException {
+		Assert.isTrue(length <= threshold, String.format("content of %d bytes is larger than the threshold of %d", length, threshold));
+		synchronized (appendLock) {
+			assertOpen();
+			if (index.size() >= maxEntries && !index.containsKey(location)) {
+				if (!full) {
+					logger.warn(String.format("Packed segments in %s hold %d contents, packing no more", directory, index.size()));
+					full = true;
+				}
+				return false;
+			}
+			Entry entry = append(content, length);
+			if (fsyncPolicy != FsyncPolicy.NONE) {
+				active.channel.force(false);
+			}
+			journal(PUT, location, entry);
+			release(index.put(location, entry));
+			return true;
+		}
+	}
+
+	/**
+	 * Removes the content packed at the location.
+	 *
+	 * @return whether there was content to remove
+	 */
+	public boolean remove(String location) throws IOException {
+		synchronized (appendLock) {
+			assertOpen();
+			Entry previous = index.remove(location);
+			if (previous == null) {
+				return false;
+			}
+			journal(REMOVE, location, null);
+			release(previous);
+			full = false;
+			return true;
+		}
+	}
+
+	/**
+	 * Compacts every sealed segment whose dead space has reached the compaction threshold,
+	 * and rewrites the index journal if it has outgrown the index.
+	 *
+	 * @return the number of segments compacted
+	 */
+	public int compact() throws IOException {
+		synchronized (compactionLock) {
+			return compactSegments();
+		}
+	}
+
+	private int compactSegments() throws IOException {
+		List<Segment> candidates = new ArrayList<>();
+		synchronized (appendLock) {
+			if (!open) {
+				return 0;
+			}
+			for (Segment segment : segments.values()) {
+				if (segment != active && needsCompaction(segment)) {
+					candidates.add(segment);
+				}
+			}
+			if (candidates.isEmpty()) {
+				if (needsIndexRewrite()) {
+					rewriteIndex();
+					logger.debug(String.format("Rewrote the index journal in %s", directory));
+				}
+				return 0;
+			}
+		}
+
+		// segments are sealed so no new entries will point at them while we relocate
+		Map<Integer, Segment> compacting = new ConcurrentHashMap<>();
+		for (Segment candidate : candidates) {
+			compacting.put(candidate.id, candidate);
+		}
+		for (Map.Entry<String, Entry> indexed : index.entrySet()) {
+			Entry entry = indexed.getValue();
+			Segment segment = compacting.get(entry.segment);
+			if (segment != null) {
+				relocate(indexed.getKey(), entry, segment);
+			}
+		}
+
+		synchronized (appendLock) {
+			if (active != null) {
+				active.channel.force(false);
+			}
+			journal.force(false);
+		}
+		for (Segment segment : candidates) {
+			segmentsLock.writeLock().lock();
+			try {
+				segments.remove(segment.id);
+				segment.channel.close();
+			} finally {
+				segmentsLock.writeLock().unlock();
+			}
+			Files.deleteIfExists(segment.file.toPath());
+		}
+
+		synchronized (appendLock) {
+			rewriteIndex();
+			compactions += candidates.size();
+		}
+		logger.debug(String.format("Compacted %d segments in %s", candidates.size(), directory));
+		return candidates.size();
+	}
+
+	private void relocate(String location, Entry entry, Segment from) throws IOException {
+		byte[] content = from.read(entry.offset, entry.length);
+		synchronized (appendLock) {
+			if (index.get(location) != entry) {
+				// replaced or removed since we looked
+				return;
+			}
+			Entry relocated = append(content, content.length);
+			relocated = new Entry(relocated.segment, relocated.offset, relocated.length, entry.lastModified);
+			journal(PUT, location, relocated);
+			release(index.put(location, relocated));
+		}
+	}
+
+	/**
+	 * @return the number of packed contents
+	 */
+	public int getEntryCount() {
+		return index.size();
+	}
+
+	/**
+	 * @return the number of segment files
+	 */
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * @return the number of bytes in segment files that belong to replaced or removed content
+	 */
+	public long getDeadBytes() {
+		synchronized (appendLock) {
+			long dead = 0;
+			for (Segment segment : segments.values()) {
+				dead += segment.dead;
+			}
+			return dead;
+		}
+	}
+
+	/**
+	 * @return the number of segments compacted since start up
+	 */
+	public long getCompactionCount() {
+		synchronized (appendLock) {
+			return compactions;
+		}
+	}
+
+	// all of the following are called holding the append lock
+
+	private void assertOpen() {
+		Assert.state(open, "packed segment storage is not open");
+	}
+
+	private boolean needsCompaction(Segment segment) {
+		return segment.size > 0 && segment.dead >= segment.size * compactionThreshold;
+	}
+
+	private boolean needsIndexRewrite() {
+		return journalRecords > Math.max(MIN_JOURNAL_RECORDS, 2L * index.size());
+	}
+
+	private Entry append(byte[] content, int length) throws IOException {
+		if (active == null || (active.size > 0 && active.size + length > maxSegmentSize)) {
+			Segment sealed = active;
+			active = createSegment();
+			if (sealed != null && needsCompaction(sealed)) {
+				requestCompaction();
+			}
+		}
+		long offset = active.size;
+		ByteBuffer buffer = ByteBuffer.wrap(content, 0, length);
+		while (buffer.hasRemaining()) {
+			active.channel.write(buffer, offset + buffer.position());
+		}
+		active.size += length;
+		return new Entry(active.id, offset, length, System.currentTimeMillis());
+	}
+
+	private void release(Entry entry) {
+		if (entry != null) {
+			Segment segment = segments.get(entry.segment);
+			if (segment != null) {
+				segment.dead += entry.length;
+				if (segment != active && needsCompaction(segment)) {
+					requestCompaction();
+				}
+			}
+		}
+	}
+
+	private Segment createSegment() throws IOException {
+		int id = 0;
+		for (Integer existing : segments.keySet()) {
+			id = Math.max(id, existing);
+		}
+		Segment segment = new Segment(id + 1, new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, id + 1, SEGMENT_SUFFIX)));
+		segments.put(segment.id, segment);
+		forceDirectory();
+		return segment;
+	}
+
+	private void journal(byte op, String location, Entry entry) throws IOException {
+		ByteBuffer record = encode(op, location, entry);
+		while (record.hasRemaining()) {
+			journal.write(record);
+		}
+		if (fsyncPolicy != FsyncPolicy.NONE) {
+			journal.force(false);
+		}
+		journalRecords++;
+		if (needsIndexRewrite()) {
+			requestCompaction();
+		}
+	}
+
+	private static ByteBuffer encode(byte op, String location, Entry entry) {
+		byte[] key = location.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(1 + 2 + key.length + (entry != null ? 24 : 0));
+		record.put(op);
+		record.putShort((short) key.length);
+		record.put(key);
+		if (entry != null) {
+			record.putInt(entry.segment);
+			record.putLong(entry.offset);
+			record.putInt(entry.length);
+			record.putLong(entry.lastModified);
+		}
+		record.flip();
+		return record;
+	}
+
+	private void openSegments() throws IOException {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+					int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+					Segment segment = new Segment(id, file);
+					segments.put(id, segment);
+					if (active == null || id > active.id) {
+						active = segment;
+					}
+				}
+			}
+		}
+	}
+
+	private void replayIndex() throws IOException {
+		File file = new File(directory, INDEX);
+		long valid = 0;
+		if (file.exists()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				while (true) {
+					byte op = in.readByte();
+					byte[] key = new byte[in.readUnsignedShort()];
+					in.readFully(key);
+					String location = new String(key, StandardCharsets.UTF_8);
+					if (op == PUT) {
+						Entry entry = new Entry(in.readInt(), in.readLong(), in.readInt(), in.readLong());
+						index.put(location, entry);
+						valid += 1 + 2 + key.length + 24;
+					} else if (op == REMOVE) {
+						index.remove(location);
+						valid += 1 + 2 + key.length;
+					} else {
+						throw new IOException(String.format("Corrupt index %s at %d", file, valid));
+					}
+					journalRecords++;
+				}
+			} catch (EOFException eof) {
+				// a torn final record from a crash, truncated below
+			}
+		}
+
+		for (Segment segment : segments.values()) {
+			segment.dead = segment.size;
+		}
+		for (Map.Entry<String, Entry> indexed : index.entrySet()) {
+			Segment segment = segments.get(indexed.getValue().segment);
+			if (segment == null || indexed.getValue().offset + indexed.getValue().length > segment.size) {
+				logger.warn(String.format("Dropping packed content %s, its segment is missing or short", indexed.getKey()));
+				index.remove(indexed.getKey());
+				continue;
+			}
+			segment.dead -= indexed.getValue().length;
+		}
+
+		boolean created = !file.exists();
+		journal = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		journal.truncate(valid);
+		journal.position(valid);
+		if (created) {
+			forceDirectory();
+		}
+	}
+
+	private void rewriteIndex() throws IOException {
+		File file = new File(directory, INDEX);
+		File temp = new File(directory, INDEX + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(temp);
+			 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+			for (Map.Entry<String, Entry> indexed : index.entrySet()) {
+				ByteBuffer record = encode(PUT, indexed.getKey(), indexed.getValue());
+				out.write(record.array(), 0, record.limit());
+			}
+			out.flush();
+			fos.getChannel().force(false);
+		}
+		journal.close();
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		forceDirectory();
+		journal = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		journalRecords = index.size();
+	}
+
+	// makes the creation or renaming of a file in the storage directory durable
+	private void forceDirectory() {
+		if (fsyncPolicy != FsyncPolicy.FILE_AND_DIRECTORY) {
+			return;
+		}
+		// not every platform allows a directory to be opened, or forced
+		try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ioe) {
+			logger.debug(String.format("Unable to force directory %s", directory), ioe);
+		}
+	}
+
+	private static class Entry {
+
+		private final int segment;
+		private final long offset;
+		private final int length;
+		private final long lastModified;
+
+		private Entry(int segment, long offset, int length, long lastModified) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+	}
+
+	private static class Segment {
+
+		private final int id;
+		private final File file;
+		private final FileChannel channel;
+
+		// guarded by the append lock
+		private long size;
+		private long dead;
+
+		private Segment(int id, File file) throws IOException {
+			this.id = id;
+			this.file = file;
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.size = channel.size();
+		}
+
+		private byte[] read(long offset, int length) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(length);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, offset + buffer.position()) == -1) {
+					throw new EOFException(String.format("Segment %s ends before %d", file, offset + length));
+				}
+			}
+			return buffer.array();
+		}
+	}
+}
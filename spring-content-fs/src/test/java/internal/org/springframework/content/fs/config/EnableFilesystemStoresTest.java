@@ -2,6 +2,8 @@ package internal.org.springframework.content.fs.config;
 
 import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -11,10 +13,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.fs.config.EnableFilesystemContentRepositories;
 import org.springframework.content.fs.config.EnableFilesystemStores;
 import org.springframework.content.fs.config.FilesystemStoreConfigurer;
 import org.springframework.content.fs.config.FilesystemStoreConverter;
+import org.springframework.content.fs.config.FsyncPolicy;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -24,6 +28,8 @@ import org.springframework.context.annotation.PropertySource;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import reactor.core.publisher.Flux;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -70,6 +76,20 @@ public class EnableFilesystemStoresTest {
 				It("should have a FileSystemResourceLoader bean", () -> {
 					assertThat(context.getBean("fileSystemResourceLoader"), is(not(nullValue())));
 				});
+				It("should have a reactive store bean that streams content", () -> {
+					TestEntityReactiveStore store = context.getBean(TestEntityReactiveStore.class);
+					ReactiveEntity entity = new ReactiveEntity();
+
+					store.setContent(entity, Flux.just(ByteBuffer.wrap("Hello reactive world".getBytes()))).block();
+					assertThat(entity.contentId, is(not(nullValue())));
+
+					StringBuilder content = new StringBuilder();
+					store.getContent(entity).toIterable().forEach(buffer -> content.append(StandardCharsets.UTF_8.decode(buffer)));
+					assertThat(content.toString(), is("Hello reactive world"));
+
+					store.unsetContent(entity).block();
+					assertThat(entity.contentId, is(nullValue()));
+				});
 			});
 
 			Context("given a context with a configurer", () -> {
@@ -88,6 +108,25 @@ public class EnableFilesystemStoresTest {
 				});
 			});
 			
+			Context("given a context with an fsync policy and directory levels", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(FsyncConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should pass the policy to each store", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					assertThat(context.getBeanDefinition(name).getPropertyValues().getPropertyValue("fsyncPolicy").getValue(), is(FsyncPolicy.FILE_AND_DIRECTORY));
+				});
+				It("should pass the directory levels to each store", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					assertThat(context.getBeanDefinition(name).getPropertyValues().getPropertyValue("directoryLevels").getValue(), is(2));
+				});
+			});
+
 			Context("given a context with an empty configuration", () -> {
 				BeforeEach(() -> {
 					context = new AnnotationConfigApplicationContext();
@@ -182,6 +221,20 @@ public class EnableFilesystemStoresTest {
 		}
 	}
 
+	@Configuration
+	@EnableFilesystemStores(fsync=FsyncPolicy.FILE_AND_DIRECTORY, directoryLevels=2)
+	@PropertySource("classpath:/test.properties")
+	public static class FsyncConfig {
+
+		@Value("${spring.content.fs.filesystemRoot:#{null}}")
+		private String filesystemRoot;
+
+		@Bean
+		FileSystemResourceLoader fileSystemResourceLoader() {
+			return new FileSystemResourceLoader(filesystemRoot);
+		}
+	}
+
 	@EnableFilesystemContentRepositories
 	@PropertySource("classpath:/test.properties")
 	public static class BackwardCompatibilityConfig {
@@ -204,4 +257,12 @@ public class EnableFilesystemStoresTest {
 
 	public interface TestEntityContentRepository extends ContentStore<TestEntity, String> {
 	}
+
+	public static class ReactiveEntity {
+		@ContentId
+		private String contentId;
+	}
+
+	public interface TestEntityReactiveStore extends ReactiveContentStore<ReactiveEntity, String> {
+	}
 }
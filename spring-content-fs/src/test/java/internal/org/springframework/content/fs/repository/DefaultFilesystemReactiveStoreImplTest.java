@@ -0,0 +1,232 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentDigest;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.PackedSegmentStorage;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.FileSystemUtils;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.fs.repository.DefaultFilesystemStoresImplTest.TestEntity;
+import reactor.core.publisher.Flux;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class DefaultFilesystemReactiveStoreImplTest {
+    private DefaultFilesystemReactiveStoreImpl<TestEntity, String> store;
+    private File root;
+    private TestEntity entity;
+
+    private String content;
+    private PackedSegmentStorage segments;
+    private Thread mkdirsThread;
+
+    {
+        Describe("DefaultFilesystemReactiveStoreImpl", () -> {
+            BeforeEach(() -> {
+                root = Files.createTempDirectory("reactive-store").toFile();
+                store = new DefaultFilesystemReactiveStoreImpl<TestEntity, String>(new FileSystemResourceLoader(root.getAbsolutePath()), new DefaultConversionService(), new FileServiceImpl());
+                entity = new TestEntity();
+                mkdirsThread = null;
+            });
+            AfterEach(() -> {
+                FileSystemUtils.deleteRecursively(root);
+            });
+            Context("#setContent", () -> {
+                BeforeEach(() -> {
+                    content = "Hello reactive content world!";
+                });
+                JustBeforeEach(() -> {
+                    store.setContent(entity, chunks(content, 4)).block();
+                });
+                It("should assign a content id", () -> {
+                    assertThat(entity.getContentId(), is(not(nullValue())));
+                });
+                It("should write the content and set its length", () -> {
+                    File file = new File(root, entity.getContentId());
+                    assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is(content));
+                    assertThat(entity.getContentLen(), is((long) content.length()));
+                });
+                It("should leave no temporary file behind", () -> {
+                    assertThat(root.list().length, is(1));
+                });
+                Context("given content in a directory that does not exist yet", () -> {
+                    BeforeEach(() -> {
+                        entity.setContentId("new/content");
+                        store = new DefaultFilesystemReactiveStoreImpl<TestEntity, String>(new FileSystemResourceLoader(root.getAbsolutePath()), new DefaultConversionService(), new FileServiceImpl() {
+                            @Override
+                            public void mkdirs(File file) throws IOException {
+                                mkdirsThread = Thread.currentThread();
+                                super.mkdirs(file);
+                            }
+                        });
+                    });
+                    It("should create the directory off the subscriber's thread", () -> {
+                        assertThat(new File(root, "new/content").exists(), is(true));
+                        assertThat(mkdirsThread, is(not(nullValue())));
+                        assertThat(mkdirsThread, is(not(Thread.currentThread())));
+                    });
+                });
+                Context("given existing longer content", () -> {
+                    BeforeEach(() -> {
+                        entity.setContentId("existing");
+                        Files.write(new File(root, "existing").toPath(), "this content is longer than the new content".getBytes(StandardCharsets.UTF_8));
+                        content = "short";
+                    });
+                    It("should replace the content", () -> {
+                        File file = new File(root, "existing");
+                        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is("short"));
+                    });
+                });
+            });
+            Context("#setContent given an entity with a content digest", () -> {
+                It("should set the digest of the content written", () -> {
+                    DigestedEntity digested = new DigestedEntity();
+                    digestedStore().setContent(digested, chunks("abc", 2)).block();
+                    assertThat(digested.digest, is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+                });
+            });
+            Context("#setContent given content that fails part way", () -> {
+                BeforeEach(() -> {
+                    entity.setContentId("existing");
+                    Files.write(new File(root, "existing").toPath(), "Old content".getBytes(StandardCharsets.UTF_8));
+                });
+                It("should keep the old content and leave no temporary file behind", () -> {
+                    Flux<ByteBuffer> failing = chunks("New content", 4).concatWith(Flux.error(new IOException("badness")));
+                    try {
+                        store.setContent(entity, failing).block();
+                        fail("expected the write to fail");
+                    } catch (RuntimeException e) {
+                        // expected
+                    }
+
+                    assertThat(new String(Files.readAllBytes(new File(root, "existing").toPath()), StandardCharsets.UTF_8), is("Old content"));
+                    assertThat(root.list().length, is(1));
+                });
+            });
+            Context("#setContent given packed segment storage", () -> {
+                BeforeEach(() -> {
+                    segments = new PackedSegmentStorage(new File(root, ".segments"));
+                    segments.setCompactionIntervalSeconds(0);
+                    segments.afterPropertiesSet();
+                    store.setPackedSegmentStorage(segments);
+
+                    entity.setContentId("packed");
+                    segments.put("packed", "Old".getBytes(StandardCharsets.UTF_8), 3);
+                });
+                AfterEach(() -> {
+                    segments.destroy();
+                });
+                It("should read the packed content", () -> {
+                    assertThat(asString(store.getContent(entity).collectList().block()), is("Old"));
+                });
+                It("should drop the packed copy of the content it replaces", () -> {
+                    store.setContent(entity, chunks("New content", 4)).block();
+
+                    assertThat(segments.contains("packed"), is(false));
+                    assertThat(asString(store.getContent(entity).collectList().block()), is("New content"));
+                });
+            });
+            Context("#getContent", () -> {
+                Context("given content larger than the read buffer", () -> {
+                    BeforeEach(() -> {
+                        StringBuilder builder = new StringBuilder();
+                        for (int i = 0; builder.length() < DefaultFilesystemReactiveStoreImpl.BUFFER_SIZE * 3; i++) {
+                            builder.append(i).append(',');
+                        }
+                        content = builder.toString();
+                        entity.setContentId("large");
+                        Files.write(new File(root, "large").toPath(), content.getBytes(StandardCharsets.UTF_8));
+                    });
+                    It("should stream it in buffers", () -> {
+                        List<ByteBuffer> buffers = store.getContent(entity).collectList().block();
+                        assertThat(buffers.size() > 1, is(true));
+                        assertThat(asString(buffers), is(content));
+                    });
+                    It("should honour a limited demand", () -> {
+                        List<ByteBuffer> buffers = store.getContent(entity).limitRequest(1).collectList().block();
+                        assertThat(buffers.size(), is(1));
+                    });
+                });
+                Context("given no content", () -> {
+                    BeforeEach(() -> {
+                        entity.setContentId("missing");
+                    });
+                    It("should be empty", () -> {
+                        assertThat(store.getContent(entity).collectList().block().isEmpty(), is(true));
+                    });
+                });
+            });
+            Context("#unsetContent", () -> {
+                BeforeEach(() -> {
+                    entity.setContentId("existing");
+                    entity.setContentLen(7L);
+                    Files.write(new File(root, "existing").toPath(), "content".getBytes(StandardCharsets.UTF_8));
+                });
+                JustBeforeEach(() -> {
+                    store.unsetContent(entity).block();
+                });
+                It("should delete the content and reset the content fields", () -> {
+                    assertThat(new File(root, "existing").exists(), is(false));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(entity.getContentLen(), is(0L));
+                });
+            });
+        });
+    }
+
+    private DefaultFilesystemReactiveStoreImpl<DigestedEntity, String> digestedStore() {
+        return new DefaultFilesystemReactiveStoreImpl<DigestedEntity, String>(new FileSystemResourceLoader(root.getAbsolutePath()), new DefaultConversionService(), new FileServiceImpl());
+    }
+
+    private static Flux<ByteBuffer> chunks(String content, int size) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> ByteBuffer.wrap(bytes, i * size, Math.min(size, bytes.length - i * size)));
+    }
+
+    private static String asString(List<ByteBuffer> buffers) {
+        StringBuilder builder = new StringBuilder();
+        for (ByteBuffer buffer : buffers) {
+            builder.append(StandardCharsets.UTF_8.decode(buffer));
+        }
+        return builder.toString();
+    }
+
+    public static class DigestedEntity {
+        @ContentId
+        public String contentId;
+
+        @ContentLength
+        public long contentLen;
+
+        @ContentDigest
+        public String digest;
+    }
+}
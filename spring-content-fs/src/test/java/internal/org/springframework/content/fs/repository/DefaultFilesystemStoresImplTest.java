@@ -1,10 +1,22 @@
 package internal.org.springframework.content.fs.repository;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.Matchers;
@@ -12,9 +24,19 @@ import org.mockito.Mockito;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.FileChannelResource;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.config.FsyncPolicy;
+import org.springframework.content.fs.config.HashedPlacementStrategy;
+import org.springframework.content.fs.io.FileSystemDeletableResource;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedRegionCache;
+import org.springframework.content.fs.io.PackedSegmentStorage;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 
@@ -25,8 +47,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -34,6 +58,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
@@ -58,11 +83,19 @@ public class DefaultFilesystemStoresImplTest {
     private OutputStream output;
 
     private File parent;
+    private File directory;
+    private File file;
     
     private String id;
 
     private InputStream result;
 
+    private TestEntity other;
+
+    private MappedRegionCache mappedRegions;
+    private PackedSegmentStorage segments;
+    private List<BulkContentResult<TestEntity>> results;
+
     {
         Describe("DefaultFilesystemContentRepositoryImpl", () -> {
     		
@@ -92,6 +125,43 @@ public class DefaultFilesystemStoresImplTest {
     					verify(conversion).convert(eq("12345-67890"), eq(String.class));
     					verify(loader).getResource(eq("12345-67890"));
     				});
+        			Context("given a placement strategy", () -> {
+        				BeforeEach(() -> {
+        					filesystemContentRepoImpl.setPlacementStrategy(new HashedPlacementStrategy(2));
+        				});
+        				It("should place the resource path", () -> {
+        					verify(loader).getResource(eq("d3/2f/12345-67890"));
+        				});
+        			});
+        			Context("given a file backed resource in a directory that does not exist", () -> {
+        				BeforeEach(() -> {
+        					directory = Files.createTempDirectory("store").toFile();
+        					file = new File(directory, "a/b/12345-67890");
+        					when(loader.getResource(eq("12345-67890"))).thenReturn(new FileSystemDeletableResource(new FileSystemResource(file)));
+
+        					filesystemContentRepoImpl = new DefaultFilesystemStoreImpl<TestEntity, String>(loader, conversion, new FileServiceImpl());
+        				});
+        				AfterEach(() -> {
+        					FileUtils.deleteDirectory(directory);
+        				});
+        				It("should create the directory and replace the file when the written channel is closed", () -> {
+        					try (FileChannel channel = ((FileChannelResource)resource).writableChannel()) {
+        						channel.write(ByteBuffer.wrap("Hello content world!".getBytes()));
+        						assertThat(file.exists(), is(false));
+        					}
+
+        					assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        					assertThat(file.getParentFile().list().length, is(1));
+        				});
+        				It("should replace the file when the written output stream is closed", () -> {
+        					try (OutputStream out = ((WritableResource)resource).getOutputStream()) {
+        						out.write("Hello content world!".getBytes());
+        					}
+
+        					assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        					assertThat(file.getParentFile().list().length, is(1));
+        				});
+        			});
         		});
         		Context("#associate", () -> {
         			BeforeEach(() -> {
@@ -152,7 +222,6 @@ public class DefaultFilesystemStoresImplTest {
         				output = mock(OutputStream.class);
         				when(writeableResource.getOutputStream()).thenReturn(output);
         				
-        				when(writeableResource.contentLength()).thenReturn(20L);
         			});
         			
         			JustBeforeEach(() -> {
@@ -171,8 +240,9 @@ public class DefaultFilesystemStoresImplTest {
         					verify(loader).getResource(eq("12345-67890"));
         				});
         				
-        				It("should change the content length", () -> {
+        				It("should change the content length from the bytes written", () -> {
         					assertThat(entity.getContentLen(), is(20L));
+        					verify(writeableResource, never()).contentLength();
         				});
         				
         				It("should write to the resource's outputstream", () -> {
@@ -209,6 +279,117 @@ public class DefaultFilesystemStoresImplTest {
         			});
         		});
         		
+        		Context("#setContent given a file backed resource", () -> {
+        			BeforeEach(() -> {
+        				directory = Files.createTempDirectory("store").toFile();
+        				file = new File(directory, "12345-67890");
+        				FileUtils.writeStringToFile(file, "Old content");
+
+        				entity = new TestEntity();
+        				entity.setContentId("12345-67890");
+
+        				when(conversion.convert(anyObject(), eq(String.class))).thenReturn("12345-67890");
+        				when(loader.getResource(eq("12345-67890"))).thenReturn(new FileSystemDeletableResource(new FileSystemResource(file)));
+
+        				filesystemContentRepoImpl.setFsyncPolicy(FsyncPolicy.FILE_AND_DIRECTORY);
+        			});
+        			AfterEach(() -> {
+        				FileUtils.deleteDirectory(directory);
+        			});
+        			It("should replace the content and leave no temporary file behind", () -> {
+        				filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+        				assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        				assertThat(entity.getContentLen(), is(20L));
+        				assertThat(directory.list().length, is(1));
+        			});
+        			It("should keep the old content when the write fails", () -> {
+        				InputStream failing = mock(InputStream.class);
+        				when(failing.read(Matchers.<byte[]>any(), Matchers.anyInt(), Matchers.anyInt())).thenThrow(new IOException("badness"));
+
+        				filesystemContentRepoImpl.setContent(entity, failing);
+
+        				assertThat(FileUtils.readFileToString(file), is("Old content"));
+        				assertThat(directory.list().length, is(1));
+        			});
+        			Context("given a mapped region cache", () -> {
+        				BeforeEach(() -> {
+        					mappedRegions = new MappedRegionCache();
+        					filesystemContentRepoImpl.setMappedRegionCache(mappedRegions);
+        				});
+        				It("should serve reads from the mapped region", () -> {
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(entity)), is("Old content"));
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(entity)), is("Old content"));
+        					assertThat(mappedRegions.getHitCount(), is(1L));
+        				});
+        				It("should drop the mapped region when the content is set", () -> {
+        					filesystemContentRepoImpl.getContent(entity).close();
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+        					assertThat(mappedRegions.getRegionCount(), is(0));
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(entity)), is("Hello content world!"));
+        				});
+        				It("should drop the mapped region when the content is unset", () -> {
+        					filesystemContentRepoImpl.getContent(entity).close();
+        					filesystemContentRepoImpl.unsetContent(entity);
+
+        					assertThat(mappedRegions.getRegionCount(), is(0));
+        					assertThat(file.exists(), is(false));
+        				});
+        			});
+        			It("should fail when the file can't be copied", () -> {
+        				Mockito.doThrow(new IOException("badness")).when(fileService).mkdirs(anyObject());
+
+        				try {
+        					filesystemContentRepoImpl.copyContent(entity, other);
+        					fail("expected exception");
+        				} catch (StoreAccessException sae) {
+        					assertThat(new File(directory, "efgh").exists(), is(false));
+        					assertThat(other.getContentLen(), is(0L));
+        				}
+        			});
+        			Context("given packed segment storage", () -> {
+        				BeforeEach(() -> {
+        					segments = new PackedSegmentStorage(new File(directory, ".segments"));
+        					segments.setThreshold(16);
+        					segments.setCompactionIntervalSeconds(0);
+        					segments.afterPropertiesSet();
+        					filesystemContentRepoImpl.setPackedSegmentStorage(segments);
+        				});
+        				AfterEach(() -> {
+        					segments.destroy();
+        				});
+        				It("should pack small content in place of the file", () -> {
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Small content".getBytes()));
+
+        					assertThat(file.exists(), is(false));
+        					assertThat(entity.getContentLen(), is(13L));
+        					assertThat(segments.contains("12345-67890"), is(true));
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(entity)), is("Small content"));
+
+        					Resource packed = filesystemContentRepoImpl.getResource("12345-67890");
+        					assertThat(packed.exists(), is(true));
+        					assertThat(packed.contentLength(), is(13L));
+        					assertThat(IOUtils.toString(packed.getInputStream()), is("Small content"));
+        				});
+        				It("should write large content to a file and drop any packed content", () -> {
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Small content".getBytes()));
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+        					assertThat(segments.contains("12345-67890"), is(false));
+        					assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        					assertThat(entity.getContentLen(), is(20L));
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(entity)), is("Hello content world!"));
+        				});
+        				It("should remove packed content when the content is unset", () -> {
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Small content".getBytes()));
+        					filesystemContentRepoImpl.unsetContent(entity);
+
+        					assertThat(segments.contains("12345-67890"), is(false));
+        				});
+        			});
+        		});
+
         		Context("#getContent", () -> {
         			BeforeEach(() -> {
         				entity = new TestEntity();
@@ -325,6 +506,176 @@ public class DefaultFilesystemStoresImplTest {
         			});
         		});
         	});
+
+        	Describe("CopyableContentStore", () -> {
+        		BeforeEach(() -> {
+        			directory = Files.createTempDirectory("store").toFile();
+        			file = new File(directory, "abcd");
+        			FileUtils.writeStringToFile(file, "Hello content world!");
+
+        			entity = new TestEntity("abcd");
+        			entity.setContentLen(20L);
+        			other = new TestEntity("efgh");
+
+        			for (String location : new String[] {"abcd", "efgh"}) {
+        				when(conversion.convert(eq(location), eq(String.class))).thenReturn(location);
+        				when(loader.getResource(eq(location))).thenAnswer((invocation) -> new FileSystemDeletableResource(new FileSystemResource(new File(directory, location))));
+        			}
+        		});
+        		AfterEach(() -> {
+        			FileUtils.deleteDirectory(directory);
+        		});
+        		Context("#copyContent", () -> {
+        			It("should copy the file and the content fields", () -> {
+        				assertThat(filesystemContentRepoImpl.copyContent(entity, other), is(true));
+
+        				assertThat(FileUtils.readFileToString(new File(directory, "efgh")), is("Hello content world!"));
+        				assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        				assertThat(other.getContentLen(), is(20L));
+        				assertThat(entity.getContentId(), is("abcd"));
+        			});
+        			It("should give a target without a content id one", () -> {
+        				other = new TestEntity();
+        				when(conversion.convert(anyObject(), eq(String.class))).thenAnswer((invocation) -> ("abcd".equals(invocation.getArguments()[0]) ? "abcd" : "efgh"));
+
+        				filesystemContentRepoImpl.copyContent(entity, other);
+
+        				assertThat(other.getContentId(), is(not(nullValue())));
+        				assertThat(FileUtils.readFileToString(new File(directory, "efgh")), is("Hello content world!"));
+        			});
+        			It("should leave the target unchanged when the source has no content", () -> {
+        				file.delete();
+
+        				assertThat(filesystemContentRepoImpl.copyContent(entity, other), is(false));
+
+        				assertThat(new File(directory, "efgh").exists(), is(false));
+        				assertThat(other.getContentLen(), is(0L));
+        			});
+        			Context("given packed segment storage", () -> {
+        				BeforeEach(() -> {
+        					segments = new PackedSegmentStorage(new File(directory, ".segments"));
+        					segments.setThreshold(16);
+        					segments.setCompactionIntervalSeconds(0);
+        					segments.afterPropertiesSet();
+        					filesystemContentRepoImpl.setPackedSegmentStorage(segments);
+        				});
+        				AfterEach(() -> {
+        					segments.destroy();
+        				});
+        				It("should copy packed content within the segments", () -> {
+        					filesystemContentRepoImpl.setContent(entity, new ByteArrayInputStream("Small content".getBytes()));
+
+        					filesystemContentRepoImpl.copyContent(entity, other);
+
+        					assertThat(segments.contains("efgh"), is(true));
+        					assertThat(other.getContentLen(), is(13L));
+        					assertThat(IOUtils.toString(filesystemContentRepoImpl.getContent(other)), is("Small content"));
+        				});
+        			});
+        		});
+        		Context("#moveContent", () -> {
+        			It("should hand the content to a target without a content id", () -> {
+        				other = new TestEntity();
+
+        				filesystemContentRepoImpl.moveContent(entity, other);
+
+        				assertThat(other.getContentId(), is("abcd"));
+        				assertThat(other.getContentLen(), is(20L));
+        				assertThat(entity.getContentId(), is(nullValue()));
+        				assertThat(entity.getContentLen(), is(0L));
+        				assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        			});
+        			It("should rename the file over the target's", () -> {
+        				FileUtils.writeStringToFile(new File(directory, "efgh"), "Old content");
+
+        				assertThat(filesystemContentRepoImpl.moveContent(entity, other), is(true));
+
+        				assertThat(FileUtils.readFileToString(new File(directory, "efgh")), is("Hello content world!"));
+        				assertThat(other.getContentLen(), is(20L));
+        				assertThat(file.exists(), is(false));
+        				assertThat(entity.getContentId(), is(nullValue()));
+        			});
+        			It("should keep the source's content when the file can't be moved", () -> {
+        				Mockito.doThrow(new IOException("badness")).when(fileService).mkdirs(anyObject());
+
+        				try {
+        					filesystemContentRepoImpl.moveContent(entity, other);
+        					fail("expected exception");
+        				} catch (StoreAccessException sae) {
+        					assertThat(FileUtils.readFileToString(file), is("Hello content world!"));
+        					assertThat(entity.getContentId(), is("abcd"));
+        				}
+        			});
+        		});
+        	});
+
+        	Describe("BulkContentStore", () -> {
+        		Context("#setContents", () -> {
+        			BeforeEach(() -> {
+        				entity = new TestEntity("abcd");
+        				other = new TestEntity("efgh");
+
+        				when(conversion.convert(eq("abcd"), eq(String.class))).thenReturn("/abcd");
+        				when(conversion.convert(eq("efgh"), eq(String.class))).thenReturn("/efgh");
+
+        				writeableResource = mock(WritableResource.class);
+        				when(writeableResource.exists()).thenReturn(true);
+        				when(writeableResource.getOutputStream()).thenReturn(mock(OutputStream.class));
+        				when(loader.getResource(eq("/abcd"))).thenReturn(writeableResource);
+
+        				WritableResource failingResource = mock(WritableResource.class);
+        				when(failingResource.exists()).thenReturn(true);
+        				when(failingResource.getOutputStream()).thenThrow(new IOException("badness"));
+        				when(loader.getResource(eq("/efgh"))).thenReturn(failingResource);
+        			});
+        			JustBeforeEach(() -> {
+        				Map<TestEntity, InputStream> contents = new LinkedHashMap<>();
+        				contents.put(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+        				contents.put(other, new ByteArrayInputStream("Hello content world!".getBytes()));
+        				results = filesystemContentRepoImpl.setContents(contents);
+        			});
+        			It("should report a result per entity in order", () -> {
+        				assertThat(results.size(), is(2));
+        				assertThat(results.get(0).getEntity(), is(entity));
+        				assertThat(results.get(1).getEntity(), is(other));
+        			});
+        			It("should write the content that can be written", () -> {
+        				assertThat(results.get(0).isSuccess(), is(true));
+        				assertThat(entity.getContentLen(), is(20L));
+        			});
+        			It("should report the failure of the content that can't", () -> {
+        				assertThat(results.get(1).isSuccess(), is(false));
+        				assertThat(results.get(1).getFailure() instanceof IOException, is(true));
+        			});
+        		});
+        		Context("#setContents given entities whose hash code includes their content id", () -> {
+        			BeforeEach(() -> {
+        				entity = new IdentifiedTestEntity();
+        				other = new IdentifiedTestEntity();
+
+        				when(conversion.convert(anyObject(), eq(String.class))).thenAnswer((invocation) -> "/" + invocation.getArguments()[0]);
+
+        				writeableResource = mock(WritableResource.class);
+        				when(writeableResource.exists()).thenReturn(true);
+        				when(writeableResource.getOutputStream()).thenAnswer((invocation) -> new ByteArrayOutputStream());
+        				when(loader.getResource(anyString())).thenReturn(writeableResource);
+        			});
+        			JustBeforeEach(() -> {
+        				Map<TestEntity, InputStream> contents = new HashMap<>();
+        				contents.put(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+        				contents.put(other, new ByteArrayInputStream("Hello!".getBytes()));
+        				results = filesystemContentRepoImpl.setContents(contents);
+        			});
+        			It("should write each entity's content after assigning its content id", () -> {
+        				assertThat(results.get(0).isSuccess(), is(true));
+        				assertThat(results.get(1).isSuccess(), is(true));
+        				assertThat(entity.getContentId(), is(not(nullValue())));
+        				assertThat(entity.getContentLen(), is(20L));
+        				assertThat(other.getContentId(), is(not(nullValue())));
+        				assertThat(other.getContentLen(), is(6L));
+        			});
+        		});
+        	});
     	});
     }
 
@@ -359,4 +710,17 @@ public class DefaultFilesystemStoresImplTest {
             this.contentLen = contentLen;
         }
     }
+
+    public static class IdentifiedTestEntity extends TestEntity {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentifiedTestEntity && Objects.equals(getContentId(), ((IdentifiedTestEntity) o).getContentId());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getContentId());
+        }
+    }
 	}
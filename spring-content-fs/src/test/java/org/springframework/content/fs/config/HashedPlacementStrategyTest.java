@@ -0,0 +1,47 @@
+package org.springframework.content.fs.config;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class HashedPlacementStrategyTest {
+
+	{
+		Describe("HashedPlacementStrategy", () -> {
+			Context("given no levels", () -> {
+				It("should leave the location unchanged", () -> {
+					assertThat(new HashedPlacementStrategy(0).getLocation("12345-67890"), is("12345-67890"));
+				});
+			});
+			Context("given two levels", () -> {
+				It("should prefix the location with two levels of its hash", () -> {
+					assertThat(new HashedPlacementStrategy(2).getLocation("12345-67890"), is("d3/2f/12345-67890"));
+				});
+			});
+			Context("given three levels and an absolute location", () -> {
+				It("should prefix the location relative to the root", () -> {
+					assertThat(new HashedPlacementStrategy(3).getLocation("/a/b/c"), is("77/e3/b8/a/b/c"));
+				});
+			});
+			Context("given too many levels", () -> {
+				It("should refuse them", () -> {
+					try {
+						new HashedPlacementStrategy(HashedPlacementStrategy.MAX_LEVELS + 1);
+						throw new AssertionError("expected exception");
+					} catch (IllegalArgumentException iae) {
+						assertThat(true, is(true));
+					}
+				});
+			});
+		});
+	}
+}
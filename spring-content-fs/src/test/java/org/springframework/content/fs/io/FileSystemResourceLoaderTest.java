@@ -11,12 +11,15 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.UUID;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.RangeableResource;
 import org.springframework.core.io.Resource;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
@@ -95,5 +98,28 @@ public class FileSystemResourceLoaderTest {
 				});
 			});
 		});
+
+		Describe("RangeableResource", () -> {
+			Context("#getInputStream(offset, length)", () -> {
+				BeforeEach(() -> {
+					parent = new File(Paths.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()).toAbsolutePath().toString());
+					location = "FileSystemResourceLoaderTest.tmp";
+					FileUtils.writeStringToFile(new File(parent, location), "Hello content world!");
+					loader = new FileSystemResourceLoader(parent.getPath() + "/");
+				});
+				It("should read only the requested range", () -> {
+					Resource resource = loader.getResource(location);
+					assertThat(resource, instanceOf(RangeableResource.class));
+					try (InputStream in = ((RangeableResource)resource).getInputStream(6, 7)) {
+						assertThat(IOUtils.toString(in), is("content"));
+					}
+				});
+				It("should stop at the end of the content", () -> {
+					try (InputStream in = ((RangeableResource)loader.getResource(location)).getInputStream(14, 100)) {
+						assertThat(IOUtils.toString(in), is("world!"));
+					}
+				});
+			});
+		});
 	}
 }
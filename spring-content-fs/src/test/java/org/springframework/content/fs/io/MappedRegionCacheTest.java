@@ -0,0 +1,97 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class MappedRegionCacheTest {
+
+	private MappedRegionCache cache;
+
+	private File directory;
+	private File file;
+
+	{
+		Describe("MappedRegionCache", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("mapped").toFile();
+				file = new File(directory, "content");
+				FileUtils.writeStringToFile(file, "Hello content world!");
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(directory);
+			});
+			Context("given a file", () -> {
+				BeforeEach(() -> {
+					cache = new MappedRegionCache(1024, 1024);
+				});
+				It("should map it on the first read and reuse the mapping after", () -> {
+					assertThat(IOUtils.toString(cache.getInputStream(file)), is("Hello content world!"));
+					assertThat(IOUtils.toString(cache.getInputStream(file)), is("Hello content world!"));
+
+					assertThat(cache.getMissCount(), is(1L));
+					assertThat(cache.getHitCount(), is(1L));
+					assertThat(cache.getRegionCount(), is(1));
+					assertThat(cache.getMappedBytes(), is(20L));
+				});
+				It("should remap the file once it has been invalidated", () -> {
+					cache.getInputStream(file).close();
+					FileUtils.writeStringToFile(file, "Goodbye");
+					cache.invalidate(file);
+
+					assertThat(IOUtils.toString(cache.getInputStream(file)), is("Goodbye"));
+					assertThat(cache.getMissCount(), is(2L));
+					assertThat(cache.getMappedBytes(), is(7L));
+				});
+				It("should not find a file that does not exist", () -> {
+					assertThat(cache.getInputStream(new File(directory, "missing")), is(nullValue()));
+				});
+			});
+			Context("given a file larger than the maximum region size", () -> {
+				BeforeEach(() -> {
+					cache = new MappedRegionCache(1024, 10);
+				});
+				It("should not map it", () -> {
+					assertThat(cache.getInputStream(file), is(nullValue()));
+					assertThat(cache.getRegionCount(), is(0));
+				});
+			});
+			Context("given more files than fit in the cache", () -> {
+				BeforeEach(() -> {
+					cache = new MappedRegionCache(30, 30);
+				});
+				It("should evict the least recently used", () -> {
+					File other = new File(directory, "other");
+					FileUtils.writeStringToFile(other, "Other content");
+
+					cache.getInputStream(file).close();
+					cache.getInputStream(other).close();
+
+					assertThat(cache.getRegionCount(), is(1));
+					assertThat(cache.getEvictionCount(), is(1L));
+					assertThat(cache.getMappedBytes(), is(13L));
+
+					cache.getInputStream(other).close();
+					assertThat(cache.getHitCount(), is(1L));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,259 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.fs.config.FsyncPolicy;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class PackedSegmentStorageTest {
+
+	private PackedSegmentStorage storage;
+
+	private File directory;
+
+	{
+		Describe("PackedSegmentStorage", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("segments").toFile();
+				storage = new PackedSegmentStorage(directory);
+				storage.setThreshold(32);
+				storage.setMaxSegmentSize(64);
+				storage.setCompactionIntervalSeconds(0);
+				storage.afterPropertiesSet();
+			});
+			AfterEach(() -> {
+				storage.destroy();
+				FileUtils.deleteDirectory(directory);
+			});
+			Context("given packed content", () -> {
+				BeforeEach(() -> {
+					put("a/b/one", "Hello content world!");
+					put("two", "Goodbye");
+				});
+				It("should read it back", () -> {
+					assertThat(get("a/b/one"), is("Hello content world!"));
+					assertThat(get("two"), is("Goodbye"));
+					assertThat(storage.length("two"), is(7L));
+					assertThat(storage.getEntryCount(), is(2));
+				});
+				It("should replace it", () -> {
+					put("two", "Hello again");
+					assertThat(get("two"), is("Hello again"));
+					assertThat(storage.getDeadBytes(), is(7L));
+				});
+				It("should remove it", () -> {
+					assertThat(storage.remove("two"), is(true));
+					assertThat(storage.get("two"), is(nullValue()));
+					assertThat(storage.contains("two"), is(false));
+					assertThat(storage.remove("two"), is(false));
+				});
+				It("should roll over to a new segment when one is full", () -> {
+					put("three", "Thirty-two bytes of more content");
+					assertThat(storage.getSegmentCount(), is(1));
+					put("four", "Thirty-two bytes of more content");
+					assertThat(storage.getSegmentCount(), is(2));
+					assertThat(get("four"), is("Thirty-two bytes of more content"));
+				});
+				It("should replay the index when reopened", () -> {
+					storage.remove("two");
+					put("a/b/one", "Replaced");
+					storage.destroy();
+
+					storage = new PackedSegmentStorage(directory);
+					storage.setCompactionIntervalSeconds(0);
+					storage.afterPropertiesSet();
+
+					assertThat(get("a/b/one"), is("Replaced"));
+					assertThat(storage.contains("two"), is(false));
+					assertThat(storage.getEntryCount(), is(1));
+				});
+				It("should ignore a torn final index record when reopened", () -> {
+					storage.destroy();
+					try (RandomAccessFile index = new RandomAccessFile(new File(directory, PackedSegmentStorage.INDEX), "rw")) {
+						index.setLength(index.length() - 3);
+					}
+
+					storage = new PackedSegmentStorage(directory);
+					storage.setCompactionIntervalSeconds(0);
+					storage.afterPropertiesSet();
+
+					assertThat(get("a/b/one"), is("Hello content world!"));
+					assertThat(storage.contains("two"), is(false));
+					put("two", "Goodbye again");
+					assertThat(get("two"), is("Goodbye again"));
+				});
+			});
+			Context("given storage holding its max entries", () -> {
+				BeforeEach(() -> {
+					storage.setMaxEntries(2);
+					put("one", "First");
+					put("two", "Second");
+				});
+				It("should pack no new content", () -> {
+					assertThat(storage.put("three", "Third".getBytes(), 5), is(false));
+					assertThat(storage.contains("three"), is(false));
+					assertThat(storage.getEntryCount(), is(2));
+				});
+				It("should still replace packed content", () -> {
+					assertThat(storage.put("two", "Again".getBytes(), 5), is(true));
+					assertThat(get("two"), is("Again"));
+				});
+				It("should pack new content again once some is removed", () -> {
+					storage.remove("one");
+					assertThat(storage.put("three", "Third".getBytes(), 5), is(true));
+					assertThat(get("three"), is("Third"));
+				});
+			});
+			Context("given the file and directory fsync policy", () -> {
+				BeforeEach(() -> {
+					storage.destroy();
+					storage = new PackedSegmentStorage(directory);
+					storage.setThreshold(32);
+					storage.setMaxSegmentSize(64);
+					storage.setCompactionIntervalSeconds(0);
+					storage.setFsyncPolicy(FsyncPolicy.FILE_AND_DIRECTORY);
+					storage.afterPropertiesSet();
+				});
+				It("should create segments and rewrite the journal", () -> {
+					put("one", "Thirty-two bytes of more content");
+					put("two", "Thirty-two bytes of more content");
+					put("three", "Thirty-two bytes of more content");
+					storage.remove("one");
+					storage.remove("two");
+
+					assertThat(storage.compact(), is(1));
+					assertThat(storage.getSegmentCount(), is(1));
+					assertThat(get("three"), is("Thirty-two bytes of more content"));
+				});
+			});
+			Context("given content larger than the threshold", () -> {
+				It("should refuse it", () -> {
+					try {
+						storage.put("big", new byte[33], 33);
+						throw new AssertionError("expected exception");
+					} catch (IllegalArgumentException iae) {
+						assertThat(storage.contains("big"), is(false));
+					}
+				});
+			});
+			Context("given a sealed segment that is mostly dead", () -> {
+				BeforeEach(() -> {
+					put("one", "Hello content world, number one");
+					put("two", "Goodbye content world, number 2");
+					put("one", "Replaced");
+				});
+				It("should compact it, keeping its live content", () -> {
+					assertThat(storage.getSegmentCount(), is(2));
+
+					assertThat(storage.compact(), is(1));
+
+					assertThat(storage.getSegmentCount(), is(1));
+					assertThat(storage.getDeadBytes(), is(0L));
+					assertThat(storage.getCompactionCount(), is(1L));
+					assertThat(get("one"), is("Replaced"));
+					assertThat(get("two"), is("Goodbye content world, number 2"));
+				});
+				It("should survive a reopen after compaction", () -> {
+					storage.compact();
+					storage.destroy();
+
+					storage = new PackedSegmentStorage(directory);
+					storage.setCompactionIntervalSeconds(0);
+					storage.afterPropertiesSet();
+
+					assertThat(get("one"), is("Replaced"));
+					assertThat(get("two"), is("Goodbye content world, number 2"));
+					assertThat(storage.getEntryCount(), is(2));
+				});
+			});
+			Context("given an index journal that has outgrown the index", () -> {
+				BeforeEach(() -> {
+					storage.destroy();
+					storage = new PackedSegmentStorage(directory);
+					storage.setThreshold(32);
+					storage.setCompactionIntervalSeconds(0);
+					storage.afterPropertiesSet();
+
+					for (int i = 0; i < 1100; i++) {
+						put("one", "Revision " + i);
+					}
+				});
+				It("should rewrite the journal even though no segment needs compacting", () -> {
+					assertThat(storage.compact(), is(0));
+
+					assertThat(indexLength(), is(1L + 2 + "one".length() + 24));
+					assertThat(get("one"), is("Revision 1099"));
+				});
+			});
+			Context("given background compaction", () -> {
+				BeforeEach(() -> {
+					storage.destroy();
+					storage = new PackedSegmentStorage(directory);
+					storage.setThreshold(32);
+					storage.setMaxSegmentSize(64);
+					storage.setCompactionIntervalSeconds(3600);
+					storage.afterPropertiesSet();
+				});
+				It("should compact a sealed segment as soon as it is mostly dead", () -> {
+					put("one", "Hello content world, number one");
+					put("two", "Goodbye content world, number 2");
+					put("one", "Replaced");
+
+					eventually(() -> storage.getCompactionCount() == 1L);
+					assertThat(storage.getSegmentCount(), is(1));
+					assertThat(get("one"), is("Replaced"));
+					assertThat(get("two"), is("Goodbye content world, number 2"));
+				});
+				It("should rewrite the journal once it has outgrown the index", () -> {
+					for (int i = 0; i < 1100; i++) {
+						put("one", "Revision " + i);
+					}
+
+					eventually(() -> indexLength() < 1024L * (1 + 2 + "one".length() + 24));
+					assertThat(get("one"), is("Revision 1099"));
+				});
+			});
+		});
+	}
+
+	private void put(String location, String content) throws Exception {
+		byte[] bytes = content.getBytes();
+		storage.put(location, bytes, bytes.length);
+	}
+
+	private String get(String location) throws Exception {
+		return new String(storage.get(location));
+	}
+
+	private long indexLength() {
+		return new File(directory, PackedSegmentStorage.INDEX).length();
+	}
+
+	private static void eventually(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("condition not met within 5 seconds");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
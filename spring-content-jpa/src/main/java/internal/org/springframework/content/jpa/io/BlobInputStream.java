@@ -0,0 +1,69 @@
+package internal.org.springframework.content.jpa.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Stream over a BLOB that keeps the connection, statement and result set the BLOB was
+ * selected through open until it is closed, so that content is read out of the database as
+ * it is consumed rather than copied into memory first.
+ * <p>
+ * The stream must be closed to give the connection back.  A connection bound to a Spring
+ * managed transaction stays open until the transaction completes, so the stream must be
+ * read before then.
+ */
+public class BlobInputStream extends FilterInputStream {
+
+	private static final Log logger = LogFactory.getLog(BlobInputStream.class);
+
+	private final DataSource dataSource;
+	private final Connection connection;
+	private final Statement statement;
+	private final ResultSet resultSet;
+	private final Blob blob;
+
+	private boolean closed;
+
+	public BlobInputStream(InputStream in, Blob blob, ResultSet resultSet, Statement statement, Connection connection, DataSource dataSource) {
+		super(in);
+		this.blob = blob;
+		this.resultSet = resultSet;
+		this.statement = statement;
+		this.connection = connection;
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			super.close();
+		} finally {
+			try {
+				blob.free();
+			} catch (SQLException | RuntimeException e) {
+				// some drivers don't support free, and release the BLOB with its result set
+				logger.debug("Unable to free BLOB", e);
+			}
+			JdbcUtils.closeResultSet(resultSet);
+			JdbcUtils.closeStatement(statement);
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package internal.org.springframework.content.jpa.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
+
+/**
+ * {@link RangeableResource} over a row of the BLOBS table.
+ */
+public class BlobResource extends AbstractResource implements RangeableResource {
+
+	private final JpaContentTemplate template;
+	private final Object id;
+
+	public BlobResource(JpaContentTemplate template, Object id) {
+		Assert.notNull(template, "template must not be null");
+		this.template = template;
+		this.id = id;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		InputStream in = template.getContent(id, 0, Long.MAX_VALUE);
+		if (in == null) {
+			throw new FileNotFoundException(getDescription() + " does not exist");
+		}
+		return in;
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		InputStream in = template.getContent(id, offset, length);
+		if (in == null) {
+			throw new FileNotFoundException(getDescription() + " does not exist");
+		}
+		return in;
+	}
+
+	@Override
+	public boolean exists() {
+		return template.getContentLength(id) != -1;
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		long length = template.getContentLength(id);
+		if (length == -1) {
+			throw new FileNotFoundException(getDescription() + " does not exist");
+		}
+		return length;
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		return -1;
+	}
+
+	@Override
+	public String getFilename() {
+		return String.valueOf(id);
+	}
+
+	@Override
+	public String getDescription() {
+		return String.format("BLOB resource [%s]", id);
+	}
+}
@@ -9,6 +9,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -19,18 +24,26 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.utils.BeanUtils;
 
-import internal.org.springframework.content.jpa.utils.InputStreamEx;
+import internal.org.springframework.content.commons.io.CountingInputStream;
+import internal.org.springframework.content.commons.utils.ContentDigests;
+import internal.org.springframework.content.jpa.io.BlobInputStream;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
 
 public class JpaContentTemplate implements InitializingBean {
 
 	private static Log logger = LogFactory.getLog(JpaContentTemplate.class);
+
+	private static final String SELECT_BLOB = "SELECT blob FROM BLOBS WHERE id=?";
 	
 	private DataSource datasource;
 
@@ -99,14 +112,16 @@ public class JpaContentTemplate implements InitializingBean {
                     int id = 0;
                     int rc = 0;
                     try {
-                        InputStreamEx in = new InputStreamEx(content);
+                        InputStream digesting = ContentDigests.digesting(metadata, content);
+                        CountingInputStream in = new CountingInputStream(digesting);
                         ps.setBinaryStream(1, in);
                         rc = ps.executeUpdate();
                         set = ps.getGeneratedKeys();
                         set.next();
                         id = set.getInt("ID");
                         BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, id);
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
+                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getCount());
+                        ContentDigests.setDigest(metadata, digesting);
                         return rc;
                     } catch (SQLException sqle) {
                         logger.error("Error inserting content", sqle);
@@ -129,10 +144,12 @@ public class JpaContentTemplate implements InitializingBean {
                 public Object doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
                     int rc = 0;
                     try {
-                        InputStreamEx in = new InputStreamEx(content);
+                        InputStream digesting = ContentDigests.digesting(metadata, content);
+                        CountingInputStream in = new CountingInputStream(digesting);
                         ps.setBinaryStream(1, in);
                         rc = ps.executeUpdate();
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
+                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getCount());
+                        ContentDigests.setDigest(metadata, digesting);
                     } catch (SQLException sqle) {
                         logger.error(String.format("Error updating content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
                     }
@@ -152,6 +169,7 @@ public class JpaContentTemplate implements InitializingBean {
                     rc = ps.executeUpdate();
                     BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, null);
                     BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, 0);
+                    ContentDigests.unsetDigest(metadata);
                 } catch (SQLException sqle) {
                     logger.error(String.format("Error deleting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
                 }
@@ -160,38 +178,325 @@ public class JpaContentTemplate implements InitializingBean {
         });
 	}
 
+	/**
+	 * Copies the source's BLOB to the target inside the database, with an
+	 * {@code INSERT ... SELECT} for a target without content and an {@code UPDATE} from a
+	 * sub-select otherwise, so that the content is not read into the application.
+	 *
+	 * @return whether there was content to copy
+	 * @throws StoreAccessException if the content could not be copied
+	 */
+	public <T> boolean copyContent(T source, T target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null) {
+			return false;
+		}
+		Object targetId = BeanUtils.getFieldWithAnnotation(target, ContentId.class);
+		if (sourceId.equals(targetId)) {
+			return false;
+		}
+
+		Integer rc;
+		try {
+			if (targetId == null) {
+				String sql = "INSERT INTO BLOBS (blob) SELECT blob FROM BLOBS WHERE id=?";
+				rc = this.template.execute(new PreparedStatementCreator() {
+					@Override
+					public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+						return con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+					}
+				}, new PreparedStatementCallback<Integer>() {
+					@Override
+					public Integer doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+						ps.setObject(1, sourceId);
+						int rc = ps.executeUpdate();
+						if (rc > 0) {
+							try (ResultSet set = ps.getGeneratedKeys()) {
+								set.next();
+								BeanUtils.setFieldWithAnnotation(target, ContentId.class, set.getInt("ID"));
+							}
+						}
+						return rc;
+					}
+				});
+			} else {
+				String sql = "UPDATE BLOBS SET blob=(SELECT b.blob FROM BLOBS b WHERE b.id=?) WHERE id=? AND EXISTS (SELECT 1 FROM BLOBS b WHERE b.id=?)";
+				rc = this.template.execute(sql, new PreparedStatementCallback<Integer>() {
+					@Override
+					public Integer doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+						ps.setObject(1, sourceId);
+						ps.setObject(2, targetId);
+						ps.setObject(3, sourceId);
+						return ps.executeUpdate();
+					}
+				});
+			}
+		} catch (DataAccessException dae) {
+			throw new StoreAccessException(String.format("Unable to copy content %s", sourceId), dae);
+		}
+
+		if (rc == null || rc == 0) {
+			return false;
+		}
+		BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+		ContentDigests.copyDigest(source, target);
+		return true;
+	}
+
+	/**
+	 * Hands the source's content id to a target without content, so that no row is touched,
+	 * and otherwise copies the source's BLOB to the target and deletes the source's.
+	 *
+	 * @return whether there was content to move
+	 * @throws StoreAccessException if the content could not be copied
+	 */
+	public <T> boolean moveContent(T source, T target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null) {
+			return false;
+		}
+		if (BeanUtils.getFieldWithAnnotation(target, ContentId.class) == null) {
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, sourceId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+			ContentDigests.copyDigest(source, target);
+			BeanUtils.setFieldWithAnnotation(source, ContentId.class, null);
+			BeanUtils.setFieldWithAnnotation(source, ContentLength.class, 0);
+			ContentDigests.unsetDigest(source);
+			return true;
+		}
+		if (copyContent(source, target)) {
+			unsetContent(source);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Streams the content out of its BLOB as it is read rather than copying it into memory
+	 * first.  The stream holds a connection until it is closed; see {@link BlobInputStream}.
+	 *
+	 * @return the content, or null if there is none
+	 */
 	public <T> InputStream getContent(T metadata) {
-		String sql = "SELECT blob FROM BLOBS WHERE id='" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class) + "'";
-        return this.template.execute(sql, new PreparedStatementCallback<InputStream>() {
-            @Override
-            public InputStream doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
-                ResultSet set = null;
-                try {
-                    set = ps.executeQuery();
-                    if(!set.next()) return null;
-                    Blob b = set.getBlob("blob");
+		Object id = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		if (id == null) {
+			return null;
+		}
+		try {
+			return openBlob(id, 0, Long.MAX_VALUE);
+		} catch (SQLException sqle) {
+			logger.error(String.format("Error getting content %s", id), sqle);
+			return null;
+		}
+	}
 
-                    // yowchie...don't want to copy the content into memory however as the binarystream
-                    // is not available past connection.close() we have no choice.  This is the easiest thing to do with the current API
-                    // but we should investigate other alternatives.  Suspect we should pass in the OutputStream to write to.
-                    try {
-                        byte[] bytes = IOUtils.toByteArray(b.getBinaryStream());
-                        return new ByteArrayInputStream(bytes);
-                    } catch (IOException ioe) {
-                        return null;
-                    }
-                } catch (SQLException sqle) {
-                    logger.error(String.format("Error getting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
-                } finally {
-                    if (set != null)
-                        try {
-                            set.close();
-                        } catch (SQLException sqle) {
-                            logger.error(String.format("Error closing resultset for content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
-                        }
-                }
-            return null;
-            }
-        });
+	/**
+	 * Streams part of a BLOB with {@link Blob#getBinaryStream(long, long)} so that only the
+	 * requested range is read out of the database.
+	 *
+	 * @return the range, or null if there is no content with that id
+	 */
+	public InputStream getContent(Object id, long offset, long length) {
+		try {
+			return openBlob(id, offset, length);
+		} catch (SQLException sqle) {
+			throw this.template.getExceptionTranslator().translate("Getting content", SELECT_BLOB, sqle);
+		}
+	}
+
+	// selects the BLOB on a connection that the returned stream releases when it is closed
+	private InputStream openBlob(Object id, long offset, long length) throws SQLException {
+		DataSource dataSource = this.template.getDataSource();
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		PreparedStatement ps = null;
+		ResultSet set = null;
+		InputStream content = null;
+		try {
+			ps = con.prepareStatement(SELECT_BLOB);
+			ps.setObject(1, id);
+			set = ps.executeQuery();
+			if (!set.next()) {
+				return null;
+			}
+			Blob b = set.getBlob("blob");
+			if (offset == 0 && length == Long.MAX_VALUE) {
+				content = new BlobInputStream(b.getBinaryStream(), b, set, ps, con, dataSource);
+				return content;
+			}
+			long available = Math.max(0L, Math.min(length, b.length() - offset));
+			if (available == 0) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			content = new BlobInputStream(b.getBinaryStream(offset + 1, available), b, set, ps, con, dataSource);
+			return content;
+		} finally {
+			if (content == null) {
+				JdbcUtils.closeResultSet(set);
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, dataSource);
+			}
+		}
+	}
+
+	/**
+	 * @return the length of the content with that id, or -1 if there is none
+	 */
+	public long getContentLength(Object id) {
+		return this.template.execute(SELECT_BLOB, new PreparedStatementCallback<Long>() {
+			@Override
+			public Long doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+				ps.setObject(1, id);
+				try (ResultSet set = ps.executeQuery()) {
+					if (!set.next()) {
+						return -1L;
+					}
+					return set.getBlob("blob").length();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the content of every entity on a single connection.  New content is inserted
+	 * through one reused statement, so that generated keys can be read back per row, and
+	 * existing content is updated in one JDBC batch.
+	 */
+	public <T> List<BulkContentResult<T>> setContents(Map<T, InputStream> contents) {
+		List<T> entities = new ArrayList<>(contents.keySet());
+		@SuppressWarnings("unchecked")
+		BulkContentResult<T>[] results = new BulkContentResult[entities.size()];
+
+		this.template.execute(new ConnectionCallback<Object>() {
+			@Override
+			public Object doInConnection(Connection con) throws SQLException, DataAccessException {
+				List<Integer> updates = new ArrayList<>();
+
+				try (PreparedStatement insert = con.prepareStatement("INSERT INTO BLOBS VALUES(NULL, ?);", Statement.RETURN_GENERATED_KEYS)) {
+					for (int i = 0; i < entities.size(); i++) {
+						T entity = entities.get(i);
+						if (BeanUtils.getFieldWithAnnotation(entity, ContentId.class) != null) {
+							updates.add(i);
+							continue;
+						}
+						try {
+							InputStream digesting = ContentDigests.digesting(entity, contents.get(entity));
+							CountingInputStream in = new CountingInputStream(digesting);
+							insert.setBinaryStream(1, in);
+							insert.executeUpdate();
+							try (ResultSet set = insert.getGeneratedKeys()) {
+								set.next();
+								BeanUtils.setFieldWithAnnotation(entity, ContentId.class, set.getInt("ID"));
+							}
+							BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, in.getCount());
+							ContentDigests.setDigest(entity, digesting);
+							results[i] = BulkContentResult.success(entity);
+						} catch (SQLException sqle) {
+							logger.error("Error inserting content", sqle);
+							results[i] = BulkContentResult.failure(entity, sqle);
+						}
+					}
+				}
+
+				if (updates.isEmpty()) {
+					return null;
+				}
+
+				try (PreparedStatement update = con.prepareStatement("UPDATE BLOBS SET blob=? WHERE id=?")) {
+					InputStream[] digesting = new InputStream[updates.size()];
+					CountingInputStream[] streams = new CountingInputStream[updates.size()];
+					for (int j = 0; j < updates.size(); j++) {
+						T entity = entities.get(updates.get(j));
+						digesting[j] = ContentDigests.digesting(entity, contents.get(entity));
+						streams[j] = new CountingInputStream(digesting[j]);
+						update.setBinaryStream(1, streams[j]);
+						update.setObject(2, BeanUtils.getFieldWithAnnotation(entity, ContentId.class));
+						update.addBatch();
+					}
+					try {
+						update.executeBatch();
+						for (int j = 0; j < updates.size(); j++) {
+							T entity = entities.get(updates.get(j));
+							BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, streams[j].getCount());
+							ContentDigests.setDigest(entity, digesting[j]);
+							results[updates.get(j)] = BulkContentResult.success(entity);
+						}
+					} catch (SQLException sqle) {
+						logger.error(String.format("Error updating content of %d entities", updates.size()), sqle);
+						for (Integer index : updates) {
+							results[index] = BulkContentResult.failure(entities.get(index), sqle);
+						}
+					}
+				}
+				return null;
+			}
+		});
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Deletes the content of every entity in one JDBC batch.
+	 */
+	public <T> List<BulkContentResult<T>> unsetContents(Collection<T> metadata) {
+		List<T> entities = new ArrayList<>(metadata);
+		List<BulkContentResult<T>> results = new ArrayList<>(entities.size());
+
+		try {
+			this.template.execute("DELETE FROM BLOBS WHERE id=?", new PreparedStatementCallback<int[]>() {
+				@Override
+				public int[] doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+					for (T entity : entities) {
+						ps.setObject(1, BeanUtils.getFieldWithAnnotation(entity, ContentId.class));
+						ps.addBatch();
+					}
+					return ps.executeBatch();
+				}
+			});
+		} catch (DataAccessException dae) {
+			logger.error(String.format("Error deleting content of %d entities", entities.size()), dae);
+			for (T entity : entities) {
+				results.add(BulkContentResult.failure(entity, dae));
+			}
+			return results;
+		}
+
+		for (T entity : entities) {
+			BeanUtils.setFieldWithAnnotation(entity, ContentId.class, null);
+			BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, 0);
+			ContentDigests.unsetDigest(entity);
+			results.add(BulkContentResult.success(entity));
+		}
+		return results;
+	}
+
+	/**
+	 * Reads the content of every entity through one reused statement on a single connection.
+	 * Each entity's content is copied into memory before the statement moves on, so large
+	 * content is better read one entity at a time with {@link #getContent(Object)}.
+	 */
+	public <T> List<BulkContentResult<T>> getContents(Collection<T> metadata) {
+		return this.template.execute(SELECT_BLOB, new PreparedStatementCallback<List<BulkContentResult<T>>>() {
+			@Override
+			public List<BulkContentResult<T>> doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+				List<BulkContentResult<T>> results = new ArrayList<>(metadata.size());
+				for (T entity : metadata) {
+					Object contentId = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+					try {
+						ps.setObject(1, contentId);
+						try (ResultSet set = ps.executeQuery()) {
+							InputStream content = null;
+							if (set.next()) {
+								Blob b = set.getBlob("blob");
+								content = new ByteArrayInputStream(IOUtils.toByteArray(b.getBinaryStream()));
+							}
+							results.add(BulkContentResult.success(entity, content));
+						}
+					} catch (SQLException | IOException e) {
+						logger.error(String.format("Error getting content %s", contentId), e);
+						results.add(BulkContentResult.failure(entity, e));
+					}
+				}
+				return results;
+			}
+		});
 	}
 }
@@ -2,12 +2,21 @@ package internal.org.springframework.content.jpa.repository;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.core.io.Resource;
 
+import internal.org.springframework.content.jpa.io.BlobResource;
 import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
 
-public class DefaultJpaStoreImpl<S, SID extends Serializable> implements ContentStore<S,SID> {
+public class DefaultJpaStoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID>, BulkContentStore<S,SID>, CopyableContentStore<S,SID> {
 
 	private JpaContentTemplate template;
 	
@@ -15,6 +24,11 @@ public class DefaultJpaStoreImpl<S, SID extends Serializable> implements Content
 		this.template = template;
 	}
 
+	@Override
+	public Resource getResource(SID id) {
+		return new BlobResource(template, id);
+	}
+
 	@Override
 	public void setContent(S metadata, InputStream content) {
 		this.template.setContent(metadata, content);
@@ -30,4 +44,28 @@ public class DefaultJpaStoreImpl<S, SID extends Serializable> implements Content
 		return this.template.getContent(metadata);
 	}
 
+	@Override
+	public List<BulkContentResult<S>> setContents(Map<S, InputStream> contents) {
+		return this.template.setContents(contents);
+	}
+
+	@Override
+	public List<BulkContentResult<S>> unsetContents(Collection<S> metadata) {
+		return this.template.unsetContents(metadata);
+	}
+
+	@Override
+	public List<BulkContentResult<S>> getContents(Collection<S> metadata) {
+		return this.template.getContents(metadata);
+	}
+
+	@Override
+	public boolean copyContent(S source, S target) {
+		return this.template.copyContent(source, target);
+	}
+
+	@Override
+	public boolean moveContent(S source, S target) {
+		return this.template.moveContent(source, target);
+	}
 }
@@ -5,7 +5,6 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
-import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -15,6 +14,7 @@ import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,14 +25,19 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.sql.DataSource;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.BulkContentResult;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
@@ -59,6 +64,9 @@ public class JpaContentTemplateTest {
 
     private Blob blob;
 
+    private TestEntity other;
+    private List<BulkContentResult<TestEntity>> results;
+
     {
         Describe("JpaContentTemplate", () -> {
             Describe("#afterPropertiesSet", () -> {
@@ -221,6 +229,145 @@ public class JpaContentTemplateTest {
                 });
             });
 
+            Describe("#unsetContents", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    entity = new TestEntity(12345);
+                    other = new TestEntity(67890);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    results = template.unsetContents(Arrays.asList(entity, other));
+                });
+                It("deletes all content in a single batch", () -> {
+                    verify(connection, times(1)).prepareStatement(eq("DELETE FROM BLOBS WHERE id=?"));
+                    verify(statement).setObject(1, 12345);
+                    verify(statement).setObject(1, 67890);
+                    verify(statement, times(2)).addBatch();
+                    verify(statement, times(1)).executeBatch();
+                });
+                It("should reset the metadata of every entity", () -> {
+                    assertThat(results.size(), is(2));
+                    assertThat(results.get(0).isSuccess(), is(true));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is(nullValue()));
+                });
+                Context("given the batch fails", () -> {
+                    BeforeEach(() -> {
+                        when(statement.executeBatch()).thenThrow(new SQLException("badness"));
+                    });
+                    It("should report the failure for every entity", () -> {
+                        assertThat(results.get(0).isSuccess(), is(false));
+                        assertThat(results.get(1).isSuccess(), is(false));
+                        assertThat(entity.getContentId(), is(12345));
+                    });
+                });
+            });
+
+            Describe("#copyContent", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    resultSet = mock(ResultSet.class);
+                    entity = new TestEntity(12345);
+                    entity.setContentLen(20L);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(statement.executeUpdate()).thenReturn(1);
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    template.copyContent(entity, other);
+                });
+                Context("given a target without content", () -> {
+                    BeforeEach(() -> {
+                        other = new TestEntity();
+                        when(connection.prepareStatement(anyObject(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(statement);
+                        when(statement.getGeneratedKeys()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(true);
+                        when(resultSet.getInt(eq("ID"))).thenReturn(67890);
+                    });
+                    It("should copy the blob with an INSERT ... SELECT", () -> {
+                        verify(connection).prepareStatement(eq("INSERT INTO BLOBS (blob) SELECT blob FROM BLOBS WHERE id=?"), eq(Statement.RETURN_GENERATED_KEYS));
+                        verify(statement).setObject(1, 12345);
+                        verify(statement, never()).setBinaryStream(eq(1), anyObject());
+                    });
+                    It("should give the target the new id and the source's length", () -> {
+                        assertThat(other.getContentId(), is(67890));
+                        assertThat(other.getContentLen(), is(20L));
+                    });
+                });
+                Context("given a target with content", () -> {
+                    BeforeEach(() -> {
+                        other = new TestEntity(67890);
+                        when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                    });
+                    It("should replace the target's blob from a sub-select", () -> {
+                        verify(connection).prepareStatement(startsWith("UPDATE BLOBS SET blob=(SELECT b.blob FROM BLOBS b WHERE b.id=?) WHERE id=?"));
+                        verify(statement).setObject(2, 67890);
+                        assertThat(other.getContentLen(), is(20L));
+                    });
+                });
+            });
+
+            Describe("#moveContent", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    entity = new TestEntity(12345);
+                    entity.setContentLen(20L);
+                    other = new TestEntity();
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    template.moveContent(entity, other);
+                });
+                It("should hand the content to a target without content", () -> {
+                    verify(datasource, never()).getConnection();
+                    assertThat(other.getContentId(), is(12345));
+                    assertThat(other.getContentLen(), is(20L));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                });
+            });
+
+            Describe("#getContent(id, offset, length)", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    resultSet = mock(ResultSet.class);
+                    blob = mock(Blob.class);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                    when(statement.executeQuery()).thenReturn(resultSet);
+                    when(resultSet.next()).thenReturn(true);
+                    when(resultSet.getBlob(anyObject())).thenReturn(blob);
+                    when(blob.length()).thenReturn(20L);
+                    when(blob.getBinaryStream(7L, 7L)).thenReturn(new ByteArrayInputStream("content".getBytes()));
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    inputStream = template.getContent(12345, 6, 7);
+                });
+                It("should read only the range from the blob", () -> {
+                    verify(blob).getBinaryStream(7L, 7L);
+                    verify(blob, never()).getBinaryStream();
+                    assertThat(IOUtils.toString(inputStream), is("content"));
+                });
+                It("should close the connection when the range is closed", () -> {
+                    verify(connection, never()).close();
+                    inputStream.close();
+                    verify(connection).close();
+                });
+            });
+
             Describe("#getContent", () -> {
                 BeforeEach(() -> {
                     datasource = mock(DataSource.class);
@@ -247,21 +394,58 @@ public class JpaContentTemplateTest {
                     });
 
                     It("should execute sql SELECT statement", () -> {
-                        verify(connection).prepareStatement(eq("SELECT blob FROM BLOBS WHERE id='12345'"));
+                        verify(connection).prepareStatement(eq("SELECT blob FROM BLOBS WHERE id=?"));
+                        verify(statement).setObject(1, 12345);
                     });
 
-                    It("should return a content stream", () -> {
-                        assertThat(inputStream, is(not(nullValue())));
+                    It("should stream the content from the blob", () -> {
+                        assertThat(IOUtils.toString(inputStream), is("Hello content world!"));
+                        verify(blob, never()).length();
                     });
 
-                    It("should close the resultset", () -> {
+                    It("should keep the resultset, statement and connection open while the content is read", () -> {
+                        verify(resultSet, never()).close();
+                        verify(statement, never()).close();
+                        verify(connection, never()).close();
+                    });
+
+                    It("should close the resultset, statement and connection when the content is closed", () -> {
+                        inputStream.close();
+                        verify(blob).free();
                         verify(resultSet).close();
+                        verify(statement).close();
+                        verify(connection).close();
                     });
-                    It("should close the statement", () -> {
+                });
+
+                Context("given no content", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity(12345);
+                        when(datasource.getConnection()).thenReturn(connection);
+                        when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                        when(statement.executeQuery()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(false);
+                    });
+
+                    It("should return null and close the connection", () -> {
+                        assertThat(inputStream, is(nullValue()));
+                        verify(resultSet).close();
                         verify(statement).close();
+                        verify(connection).close();
                     });
+                });
 
-                    It("should close the connection", () -> {
+                Context("given the query fails", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity(12345);
+                        when(datasource.getConnection()).thenReturn(connection);
+                        when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                        when(statement.executeQuery()).thenThrow(new SQLException("badness"));
+                    });
+
+                    It("should return null and close the connection", () -> {
+                        assertThat(inputStream, is(nullValue()));
+                        verify(statement).close();
                         verify(connection).close();
                     });
                 });
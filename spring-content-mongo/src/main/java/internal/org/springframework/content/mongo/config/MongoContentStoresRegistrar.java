@@ -2,11 +2,24 @@ package internal.org.springframework.content.mongo.config;
 
 import java.lang.annotation.Annotation;
 
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.content.commons.config.AbstractStoreBeanDefinitionRegistrar;
 import org.springframework.content.mongo.config.EnableMongoStores;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.util.StringUtils;
 
 public class MongoContentStoresRegistrar extends AbstractStoreBeanDefinitionRegistrar {
 
+	@Override
+	protected void customizeStoreBeanDefinition(BeanDefinitionBuilder builder, AnnotationAttributes attributes) {
+		if (attributes.containsKey("bucket") && StringUtils.hasText(attributes.getString("bucket"))) {
+			builder.addPropertyValue("bucket", attributes.getString("bucket"));
+		}
+		if (attributes.containsKey("chunkSize")) {
+			builder.addPropertyValue("chunkSize", attributes.getNumber("chunkSize"));
+		}
+	}
+
 	@Override
 	protected Class<? extends Annotation> getAnnotation() {
 		return EnableMongoStores.class;
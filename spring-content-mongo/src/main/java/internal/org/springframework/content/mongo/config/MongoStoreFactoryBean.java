@@ -1,16 +1,56 @@
 package internal.org.springframework.content.mongo.config;
 
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.util.StringUtils;
 
+import com.mongodb.DB;
+import com.mongodb.gridfs.GridFS;
+
+import internal.org.springframework.content.mongo.io.GridFsBucket;
+import internal.org.springframework.content.mongo.io.GridFsChunkCopier;
 import internal.org.springframework.content.mongo.repository.DefaultMongoStoreImpl;
 
 public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
 
-	@Autowired private GridFsTemplate gridFs;
+	@Autowired private MongoDbFactory mongoDbFactory;
 	@Autowired private ConversionService mongoStoreConverter;
+	@Autowired private ObjectProvider<GridFsTemplate> gridFsTemplate;
+
+	private String bucket;
+	private int chunkSize = GridFsBucket.DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * Sets the GridFS bucket to keep content in.  When not set the bucket of the
+	 * application's GridFsTemplate is used, so that content it stored stays visible, and
+	 * otherwise GridFS's default bucket.
+	 */
+	public void setBucket(String bucket) {
+		this.bucket = bucket;
+	}
+
+	/* package */ String getBucket() {
+		if (StringUtils.hasText(bucket)) {
+			return bucket;
+		}
+		GridFsTemplate template = (gridFsTemplate != null ? gridFsTemplate.getIfUnique() : null);
+		if (template != null) {
+			Object templateBucket = new DirectFieldAccessor(template).getPropertyValue("bucket");
+			if (templateBucket instanceof String && StringUtils.hasText((String) templateBucket)) {
+				return (String) templateBucket;
+			}
+		}
+		return GridFS.DEFAULT_BUCKET;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -19,6 +59,11 @@ public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
 
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultMongoStoreImpl(gridFs, mongoStoreConverter);
+		DB db = mongoDbFactory.getDb();
+		GridFsBucket gridFs = new GridFsBucket(db, getBucket(), chunkSize);
+		DefaultMongoStoreImpl store = new DefaultMongoStoreImpl(gridFs, mongoStoreConverter);
+		store.setChunkCopier(new GridFsChunkCopier(gridFs));
+		store.ensureIndexes();
+		return store;
 	}
 }
@@ -0,0 +1,200 @@
+package internal.org.springframework.content.mongo.io;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.types.BSONTimestamp;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.gridfs.GridFS;
+import com.mongodb.gridfs.GridFSDBFile;
+import com.mongodb.gridfs.GridFSFile;
+import com.mongodb.gridfs.GridFSInputFile;
+
+/**
+ * A GridFS bucket that stores files with a fixed chunk size.
+ * <p>
+ * Unlike GridFsTemplate, which opens the bucket afresh, and so counts both of its
+ * collections, on every operation, the bucket is opened once, on first use.  Files are
+ * found by name only to resolve their newest revision; everything after that, reading
+ * chunks and removing files, is addressed by the file's {@code _id}.
+ * <p>
+ * Revisions are ordered by a timestamp the server sets when the revision is committed,
+ * after all of its chunks have been written, rather than by the upload date the writing
+ * client sets, so that clock skew between application nodes cannot make an older
+ * revision look newer.  Revisions written before revisions were committed have no commit
+ * timestamp and sort before any that do.
+ */
+public class GridFsBucket {
+
+	public static final int DEFAULT_CHUNK_SIZE = GridFS.DEFAULT_CHUNKSIZE;
+
+	static final String COMMITTED = "committed";
+
+	private static final DBObject LATEST_FIRST = new BasicDBObject(COMMITTED, -1).append("_id", -1);
+
+	private final DB db;
+	private final String bucket;
+	private final int chunkSize;
+
+	private volatile GridFS gridFs;
+
+	public GridFsBucket(DB db) {
+		this(db, GridFS.DEFAULT_BUCKET, DEFAULT_CHUNK_SIZE);
+	}
+
+	public GridFsBucket(DB db, String bucket, int chunkSize) {
+		Assert.notNull(db, "db must not be null");
+		Assert.hasText(bucket, "bucket must not be empty");
+		Assert.isTrue(chunkSize > 0 && chunkSize <= GridFS.MAX_CHUNKSIZE, String.format("chunkSize must be between 1 and %d", GridFS.MAX_CHUNKSIZE));
+		this.db = db;
+		this.bucket = bucket;
+		this.chunkSize = chunkSize;
+	}
+
+	public String getBucketName() {
+		return bucket;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Creates the indexes that looking files up by name and reading their chunks rely on.
+	 * GridFS only creates them itself while the bucket's collections are small.  The files
+	 * index matches the order revisions are resolved in, so the newest is read off its end.
+	 */
+	public void ensureIndexes() {
+		files().createIndex(new BasicDBObject("filename", 1).append(COMMITTED, 1).append("_id", 1));
+		chunks().createIndex(new BasicDBObject("files_id", 1).append("n", 1), new BasicDBObject("unique", true));
+	}
+
+	/**
+	 * Resolves the newest revision's id with a query the files index covers, limited to
+	 * one result, and then reads the revision by its id, so that a read neither loads nor
+	 * sorts the file's other revisions.
+	 *
+	 * @return the newest revision of the file with the name, or null if there is none
+	 */
+	public GridFSDBFile findLatest(String filename) {
+		DBCursor cursor = files().find(new BasicDBObject("filename", filename), new BasicDBObject("_id", 1))
+				.sort(LATEST_FIRST)
+				.limit(1);
+		try {
+			if (!cursor.hasNext()) {
+				return null;
+			}
+			return gridFs().findOne(new BasicDBObject("_id", cursor.next().get("_id")));
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Stores the content as a new file with the name, in chunks of the bucket's chunk size.
+	 *
+	 * @return the stored file
+	 */
+	public GridFSFile store(InputStream content, String filename) {
+		GridFSInputFile file = gridFs().createFile(content, filename);
+		file.put(COMMITTED, false);
+		file.save(chunkSize);
+		commit(file, null);
+		return file;
+	}
+
+	/**
+	 * Removes the revisions of the file that were committed before the given one, and any
+	 * that were never committed because they predate commit timestamps.  Revisions still
+	 * being written are left alone.
+	 *
+	 * @return the number of revisions removed
+	 */
+	public int removeOlderRevisions(DBObject revision) {
+		Object committed = revision.get(COMMITTED);
+		if (!(committed instanceof BSONTimestamp)) {
+			return 0;
+		}
+		return remove(new BasicDBObject("filename", revision.get("filename"))
+				.append("_id", new BasicDBObject("$ne", revision.get("_id")))
+				.append("$or", Arrays.asList(
+						new BasicDBObject(COMMITTED, new BasicDBObject("$lt", committed)),
+						new BasicDBObject(COMMITTED, new BasicDBObject("$exists", false)))));
+	}
+
+	/**
+	 * Removes every revision of the files with the names.
+	 *
+	 * @return the number of revisions removed
+	 */
+	public int remove(Collection<String> filenames) {
+		return remove(new BasicDBObject("filename", new BasicDBObject("$in", filenames)));
+	}
+
+	// removes the files document before the chunks, as GridFS does, so that readers never
+	// find a file without its chunks
+	private int remove(DBObject query) {
+		List<Object> ids = new ArrayList<>();
+		DBCursor cursor = files().find(query, new BasicDBObject("_id", 1));
+		try {
+			while (cursor.hasNext()) {
+				ids.add(cursor.next().get("_id"));
+			}
+		} finally {
+			cursor.close();
+		}
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		files().remove(new BasicDBObject("_id", new BasicDBObject("$in", ids)));
+		chunks().remove(new BasicDBObject("files_id", new BasicDBObject("$in", ids)));
+		return ids.size();
+	}
+
+	/**
+	 * Commits the file, applying any other changes given, by having the server stamp it with
+	 * the current timestamp, which makes it the newest revision of its name.  The file is
+	 * given the timestamp.
+	 */
+	void commit(DBObject file, DBObject changes) {
+		BasicDBObject update = new BasicDBObject("$currentDate", new BasicDBObject(COMMITTED, new BasicDBObject("$type", "timestamp")));
+		if (changes != null) {
+			update.append("$set", changes);
+		}
+		DBObject committed = files().findAndModify(new BasicDBObject("_id", file.get("_id")), new BasicDBObject(COMMITTED, 1), null, false, update, true, false);
+		if (committed != null) {
+			file.put(COMMITTED, committed.get(COMMITTED));
+		}
+	}
+
+	private GridFS gridFs() {
+		GridFS gridFs = this.gridFs;
+		if (gridFs == null) {
+			synchronized (this) {
+				gridFs = this.gridFs;
+				if (gridFs == null) {
+					gridFs = new GridFS(db, bucket);
+					this.gridFs = gridFs;
+				}
+			}
+		}
+		return gridFs;
+	}
+
+	DBCollection files() {
+		return db.getCollection(bucket + ".files");
+	}
+
+	DBCollection chunks() {
+		return db.getCollection(bucket + ".chunks");
+	}
+}
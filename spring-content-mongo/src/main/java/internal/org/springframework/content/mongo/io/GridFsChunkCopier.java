@@ -0,0 +1,122 @@
+package internal.org.springframework.content.mongo.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+/**
+ * Copies and renames GridFS files by working on their files and chunks documents directly,
+ * so that content is neither reassembled into a stream nor, for a rename, copied at all.
+ * <p>
+ * Both work on the newest revision of the source.  A copy inserts the chunks under a new
+ * file id before inserting the file document that makes them visible, and commits it as
+ * the newest revision of the target; only then are the target's older revisions removed,
+ * so that readers of the target see either its old or its new content.  A copy that fails
+ * before it is committed removes whatever it wrote under the new file id.
+ */
+public class GridFsChunkCopier {
+
+	private static final Log logger = LogFactory.getLog(GridFsChunkCopier.class);
+
+	// chunks are inserted in batches of this many, about 4MB at the default chunk size
+	private static final int CHUNK_BATCH_SIZE = 16;
+
+	private final GridFsBucket bucket;
+
+	public GridFsChunkCopier(GridFsBucket bucket) {
+		Assert.notNull(bucket, "bucket must not be null");
+		this.bucket = bucket;
+	}
+
+	/**
+	 * Copies the file with the source name to the target name, replacing any file with
+	 * the target name.
+	 *
+	 * @return the length of the file copied, or -1 if there is no file with the source name
+	 */
+	public long copy(String source, String target) {
+		DBObject file = bucket.findLatest(source);
+		if (file == null) {
+			return -1;
+		}
+
+		DBCollection chunks = bucket.chunks();
+		ObjectId id = new ObjectId();
+		BasicDBObject copy = new BasicDBObject();
+		try {
+			DBCursor cursor = chunks.find(new BasicDBObject("files_id", file.get("_id"))).sort(new BasicDBObject("n", 1));
+			try {
+				List<DBObject> batch = new ArrayList<>(CHUNK_BATCH_SIZE);
+				while (cursor.hasNext()) {
+					DBObject chunk = cursor.next();
+					batch.add(new BasicDBObject("files_id", id).append("n", chunk.get("n")).append("data", chunk.get("data")));
+					if (batch.size() == CHUNK_BATCH_SIZE) {
+						chunks.insert(batch);
+						batch = new ArrayList<>(CHUNK_BATCH_SIZE);
+					}
+				}
+				if (!batch.isEmpty()) {
+					chunks.insert(batch);
+				}
+			} finally {
+				cursor.close();
+			}
+
+			for (String key : file.keySet()) {
+				copy.put(key, file.get(key));
+			}
+			copy.put("_id", id);
+			copy.put("filename", target);
+			copy.put("uploadDate", new Date());
+			copy.put(GridFsBucket.COMMITTED, false);
+			bucket.files().insert(copy);
+			bucket.commit(copy, null);
+		} catch (RuntimeException e) {
+			discard(id);
+			throw e;
+		}
+		bucket.removeOlderRevisions(copy);
+
+		Object length = file.get("length");
+		return (length instanceof Number ? ((Number) length).longValue() : 0L);
+	}
+
+	// removes what a failed copy wrote under the id, which nothing refers to
+	private void discard(ObjectId id) {
+		try {
+			bucket.files().remove(new BasicDBObject("_id", id));
+			bucket.chunks().remove(new BasicDBObject("files_id", id));
+		} catch (RuntimeException e) {
+			logger.error(String.format("Unable to remove the chunks of failed copy %s", id), e);
+		}
+	}
+
+	/**
+	 * Renames the newest revision of the file with the source name to the target name,
+	 * replacing any file with the target name, and removes the source's older revisions.
+	 *
+	 * @return whether there was a file with the source name
+	 */
+	public boolean rename(String source, String target) {
+		DBObject file = bucket.findLatest(source);
+		if (file == null) {
+			return false;
+		}
+		BasicDBObject renamed = new BasicDBObject("_id", file.get("_id")).append("filename", target);
+		bucket.commit(renamed, new BasicDBObject("filename", target));
+		bucket.removeOlderRevisions(renamed);
+		bucket.remove(Collections.singletonList(source));
+		return true;
+	}
+}
@@ -0,0 +1,68 @@
+package internal.org.springframework.content.mongo.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.Assert;
+
+import com.mongodb.gridfs.GridFSDBFile;
+
+import internal.org.springframework.content.commons.io.BoundedInputStream;
+
+/**
+ * {@link RangeableResource} over a GridFS file.  Unlike GridFsResource it can be read more
+ * than once, and ranged reads skip straight to the chunk holding the first byte rather
+ * than fetching every chunk before it.
+ */
+public class GridFsStoreResource extends AbstractResource implements RangeableResource {
+
+	private final GridFSDBFile file;
+
+	public GridFsStoreResource(GridFSDBFile file) {
+		Assert.notNull(file, "file must not be null");
+		this.file = file;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return file.getInputStream();
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		InputStream in = file.getInputStream();
+		long skipped = in.skip(offset);
+		if (skipped < offset) {
+			in.close();
+			throw new IOException(String.format("Offset %d is beyond the end of %s", offset, file.getFilename()));
+		}
+		return new BoundedInputStream(in, length);
+	}
+
+	@Override
+	public boolean exists() {
+		return true;
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return file.getLength();
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		return (file.getUploadDate() != null ? file.getUploadDate().getTime() : -1);
+	}
+
+	@Override
+	public String getFilename() {
+		return file.getFilename();
+	}
+
+	@Override
+	public String getDescription() {
+		return String.format("GridFS resource [%s]", file.getFilename());
+	}
+}
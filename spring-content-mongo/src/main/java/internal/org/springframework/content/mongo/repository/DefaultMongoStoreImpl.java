@@ -1,39 +1,119 @@
 package internal.org.springframework.content.mongo.repository;
 
-import static org.springframework.data.mongodb.core.query.Query.query;
-import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilename;
-
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
+import org.springframework.content.commons.repository.ContentCopies;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
-public class DefaultMongoStoreImpl<S, SID extends Serializable> implements ContentStore<S,SID> {
+import com.mongodb.gridfs.GridFSDBFile;
+import com.mongodb.gridfs.GridFSFile;
+
+import internal.org.springframework.content.commons.io.CountingInputStream;
+import internal.org.springframework.content.commons.repository.BulkOperations;
+import internal.org.springframework.content.commons.utils.ContentDigests;
+import internal.org.springframework.content.mongo.io.GridFsBucket;
+import internal.org.springframework.content.mongo.io.GridFsChunkCopier;
+import internal.org.springframework.content.mongo.io.GridFsStoreResource;
+
+public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID>, BulkContentStore<S,SID>, CopyableContentStore<S,SID> {
 
 	private static Log logger = LogFactory.getLog(DefaultMongoStoreImpl.class);
 
-	private GridFsTemplate gridFs;
+	private GridFsBucket gridFs;
 	private ConversionService converter;
+	private GridFsChunkCopier chunkCopier;
+	private Executor revisionCleanupExecutor;
 
-	public DefaultMongoStoreImpl(GridFsTemplate gridFs, ConversionService converter) {
+	public DefaultMongoStoreImpl(GridFsBucket gridFs, ConversionService converter) {
 		Assert.notNull(gridFs, "gridFs cannot be null");
 		Assert.notNull(converter, "converter cannot be null");
 
 		this.gridFs = gridFs;
 		this.converter = converter;
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gridfs-cleanup-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		this.revisionCleanupExecutor = executor;
 	}
 
+	/**
+	 * Removes the revisions that writes replace, and creates the bucket's indexes, on the
+	 * given executor.
+	 */
+	public void setRevisionCleanupExecutor(Executor revisionCleanupExecutor) {
+		Assert.notNull(revisionCleanupExecutor, "revisionCleanupExecutor must not be null");
+		this.revisionCleanupExecutor = revisionCleanupExecutor;
+	}
+
+	/**
+	 * Creates the indexes the store's lookups rely on, in the background so that an
+	 * unavailable server does not hold up the application's startup.
+	 */
+	public void ensureIndexes() {
+		try {
+			revisionCleanupExecutor.execute(() -> {
+				try {
+					gridFs.ensureIndexes();
+				} catch (RuntimeException e) {
+					logger.warn(String.format("Unable to create the indexes of GridFS bucket %s", gridFs.getBucketName()), e);
+				}
+			});
+		} catch (RejectedExecutionException ree) {
+			logger.warn(String.format("Unable to schedule creation of the indexes of GridFS bucket %s", gridFs.getBucketName()), ree);
+		}
+	}
+
+	/**
+	 * Copies and moves content chunk by chunk with the given copier rather than by reading
+	 * the source's content and storing it again.
+	 */
+	public void setChunkCopier(GridFsChunkCopier chunkCopier) {
+		this.chunkCopier = chunkCopier;
+	}
+
+	@Override
+	public Resource getResource(SID id) {
+		String location = converter.convert(id, String.class);
+		GridFSDBFile file = gridFs.findLatest(location);
+		return (file != null ? new GridFsStoreResource(file) : null);
+	}
+
+	/**
+	 * Stores the content as a new revision, under a new GridFS file id, rather than deleting
+	 * the current revision first.  Readers switch to the new revision once it is committed,
+	 * after all of its chunks are written, so they never find the content missing, and older
+	 * revisions are removed afterwards, off the writer's thread.
+	 */
 	@Override
 	public void setContent(S property, InputStream content) {
 		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
@@ -43,21 +123,29 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 		}
 
 		String location = converter.convert(contentId, String.class);
-		Resource resource = gridFs.getResource(location);
-		if (resource != null && resource.exists()) {
-			gridFs.delete(query(whereFilename().is(resource.getFilename())));
-		}
+		InputStream digesting = ContentDigests.digesting(property, content);
+		CountingInputStream in = new CountingInputStream(digesting);
+		GridFSFile revision = gridFs.store(in, location);
 
-		gridFs.store(content, location);
-		resource = gridFs.getResource(location);
+		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, in.getCount());
+		ContentDigests.setDigest(property, digesting);
 
-		long contentLen = 0L;
+		removeOlderRevisions(location, revision);
+	}
+
+	private void removeOlderRevisions(String location, GridFSFile revision) {
 		try {
-			contentLen = resource.contentLength();
-		} catch (IOException ioe) {
-			logger.debug(String.format("Unable to retrieve content length for %s", contentId));
+			revisionCleanupExecutor.execute(() -> {
+				try {
+					gridFs.removeOlderRevisions(revision);
+				} catch (RuntimeException e) {
+					// the next write of the content removes them
+					logger.warn(String.format("Unable to remove older revisions of %s", location), e);
+				}
+			});
+		} catch (RejectedExecutionException ree) {
+			logger.warn(String.format("Unable to schedule removal of older revisions of %s", location), ree);
 		}
-		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, contentLen);
 	}
 
 	@Override
@@ -69,15 +157,9 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 			return null;
 
 		String location = converter.convert(contentId, String.class);
-		Resource resource = gridFs.getResource(location);
-		try {
-			if (resource != null && resource.exists()) {
-				return resource.getInputStream();
-			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
-		}
-		return null;
+		// the newest revision, which is what readers see while older ones await removal
+		GridFSDBFile file = gridFs.findLatest(location);
+		return (file != null ? file.getInputStream() : null);
 	}
 
 	@Override
@@ -90,16 +172,144 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 
 		try {
 			String location = converter.convert(contentId, String.class);
-			Resource resource = gridFs.getResource(location);
-			if (resource != null && resource.exists()) {
-				gridFs.delete(query(whereFilename().is(resource.getFilename())));
-
-				// reset content fields
-				BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
-				BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+			if (gridFs.remove(Collections.singletonList(location)) > 0) {
+				resetContentFields(property);
 			}
 		} catch (Exception ase) {
 			logger.error(String.format("Unexpected error unsetting content %s", contentId.toString()), ase);
 		}
 	}
+
+	@Override
+	public List<BulkContentResult<S>> setContents(Map<S, InputStream> contents) {
+		return BulkOperations.forEachParallel(contents.keySet(), (property) -> {
+			setContent(property, contents.get(property));
+			return BulkContentResult.success(property);
+		});
+	}
+
+	@Override
+	public List<BulkContentResult<S>> getContents(Collection<S> properties) {
+		return BulkOperations.forEach(properties, (property) -> BulkContentResult.success(property, getContent(property)));
+	}
+
+	/**
+	 * Removes the content of every entity with a single lookup of their GridFS file ids and a
+	 * single delete by id, rather than a lookup and a delete per entity.
+	 */
+	@Override
+	public List<BulkContentResult<S>> unsetContents(Collection<S> properties) {
+		Set<S> withContent = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<String> locations = new ArrayList<>();
+		for (S property : properties) {
+			Object contentId = (property != null ? BeanUtils.getFieldWithAnnotation(property, ContentId.class) : null);
+			if (contentId != null) {
+				withContent.add(property);
+				locations.add(converter.convert(contentId, String.class));
+			}
+		}
+
+		Exception failure = null;
+		if (!locations.isEmpty()) {
+			try {
+				gridFs.remove(locations);
+			} catch (Exception e) {
+				logger.error(String.format("Unexpected error unsetting content of %d entities", locations.size()), e);
+				failure = e;
+			}
+		}
+
+		List<BulkContentResult<S>> results = new ArrayList<>(properties.size());
+		for (S property : properties) {
+			if (failure != null && withContent.contains(property)) {
+				results.add(BulkContentResult.failure(property, failure));
+				continue;
+			}
+			if (withContent.contains(property)) {
+				resetContentFields(property);
+			}
+			results.add(BulkContentResult.success(property));
+		}
+		return results;
+	}
+
+	@Override
+	public boolean copyContent(S source, S target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null) {
+			return false;
+		}
+		Object targetId = BeanUtils.getFieldWithAnnotation(target, ContentId.class);
+		if (sourceId.equals(targetId)) {
+			return false;
+		}
+
+		if (chunkCopier == null) {
+			return ContentCopies.stream(this, source, this, target);
+		}
+
+		if (targetId == null) {
+			targetId = UUID.randomUUID().toString();
+		}
+		try {
+			long length = chunkCopier.copy(converter.convert(sourceId, String.class), converter.convert(targetId, String.class));
+			if (length == -1) {
+				return false;
+			}
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, targetId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, length);
+			ContentDigests.copyDigest(source, target);
+			return true;
+		} catch (RuntimeException e) {
+			throw new StoreAccessException(String.format("Unable to copy content %s to %s", sourceId.toString(), targetId.toString()), e);
+		}
+	}
+
+	/**
+	 * Hands the source's content id to a target without one, so that the move costs no I/O,
+	 * and otherwise renames the source's GridFS file over the target's.
+	 */
+	@Override
+	public boolean moveContent(S source, S target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null) {
+			return false;
+		}
+		Object targetId = BeanUtils.getFieldWithAnnotation(target, ContentId.class);
+		if (targetId == null) {
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, sourceId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+			ContentDigests.copyDigest(source, target);
+			resetContentFields(source);
+			return true;
+		}
+		if (sourceId.equals(targetId)) {
+			return false;
+		}
+
+		if (chunkCopier == null) {
+			if (copyContent(source, target)) {
+				unsetContent(source);
+				return true;
+			}
+			return false;
+		}
+		try {
+			if (!chunkCopier.rename(converter.convert(sourceId, String.class), converter.convert(targetId, String.class))) {
+				return false;
+			}
+		} catch (RuntimeException e) {
+			throw new StoreAccessException(String.format("Unable to move content %s to %s", sourceId.toString(), targetId.toString()), e);
+		}
+		BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+		ContentDigests.copyDigest(source, target);
+		resetContentFields(source);
+		return true;
+	}
+
+	private void resetContentFields(S property) {
+		BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
+		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+		ContentDigests.unsetDigest(property);
+	}
 }
@@ -49,4 +49,21 @@ public @interface EnableMongoStores {
 	 */
 	Class<?> storeFactoryBeanClass() default MongoStoreFactoryBean.class;
 
+	/**
+	 * The GridFS bucket the stores keep content in.  Defaults to the bucket of the
+	 * application's {@code GridFsTemplate}, if it has one, and otherwise to {@code fs}.
+	 *
+	 * @return the bucket name
+	 */
+	String bucket() default "";
+
+	/**
+	 * The size, in bytes, of the chunks the stores split content into.  Larger chunks mean
+	 * fewer documents, and fewer round trips, per file, so suit large content such as video;
+	 * smaller ones waste less of a read that needs only part of a file.  At most 3,500,000
+	 * bytes.  Defaults to 255KB.
+	 *
+	 * @return the chunk size
+	 */
+	int chunkSize() default 255 * 1024;
 }
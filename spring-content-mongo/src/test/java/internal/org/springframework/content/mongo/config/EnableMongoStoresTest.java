@@ -16,6 +16,7 @@ import java.util.UUID;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
@@ -57,6 +58,9 @@ public class EnableMongoStoresTest {
 				It("should have a mongo store converter", () -> {
 					assertThat(context.getBean("mongoStoreConverter"), is(not(nullValue())));
 				});
+				It("should keep content in the default bucket", () -> {
+					assertThat(storeFactory().getBucket(), is("fs"));
+				});
 			});
 
 			Context("given a context with a custom converter", () -> {
@@ -74,6 +78,43 @@ public class EnableMongoStoresTest {
 				});
 			});
 
+			Context("given a context with a bucket and chunk size", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(BucketConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should pass them to each store", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					BeanDefinition definition = context.getBeanDefinition(name);
+					assertThat(definition.getPropertyValues().getPropertyValue("bucket").getValue(), is("videos"));
+					assertThat(definition.getPropertyValues().getPropertyValue("chunkSize").getValue(), is(1024 * 1024));
+				});
+				It("should have a mongo content repository bean", () -> {
+					assertThat(context.getBean(TestEntityContentRepository.class), is(not(nullValue())));
+				});
+				It("should keep content in that bucket", () -> {
+					assertThat(storeFactory().getBucket(), is("videos"));
+				});
+			});
+
+			Context("given a context with a GridFsTemplate for a custom bucket", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(TemplateBucketConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should keep content in the template's bucket", () -> {
+					assertThat(storeFactory().getBucket(), is("mybucket"));
+				});
+			});
+
 			Context("given an enabled configuration with no mongo content repository beans", () -> {
 				BeforeEach(() -> {
 					context = new AnnotationConfigApplicationContext();
@@ -114,6 +155,11 @@ public class EnableMongoStoresTest {
 		});
 	}
 
+	private MongoStoreFactoryBean storeFactory() {
+		String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+		return context.getBean("&" + name, MongoStoreFactoryBean.class);
+	}
+
 	@Test
 	public void noop() {
 		// noop
@@ -133,6 +179,20 @@ public class EnableMongoStoresTest {
 		//
 	}
 
+	@Configuration
+	@EnableMongoStores(bucket="videos", chunkSize=1024 * 1024)
+	@Import(InfrastructureConfig.class)
+	public static class BucketConfig {
+		//
+	}
+
+	@Configuration
+	@EnableMongoStores
+	@Import(TemplateBucketInfrastructureConfig.class)
+	public static class TemplateBucketConfig {
+		//
+	}
+
 	@Configuration
 	@EnableMongoContentRepositories
 	@Import(InfrastructureConfig.class)
@@ -177,6 +237,15 @@ public class EnableMongoStoresTest {
 		}
 	}
 
+	@Configuration
+	public static class TemplateBucketInfrastructureConfig extends InfrastructureConfig {
+		@Bean
+		@Override
+		public GridFsTemplate gridFsTemplate() throws Exception {
+			return new GridFsTemplate(mongoDbFactory(), mappingMongoConverter(), "mybucket");
+		}
+	}
+
 	@Content
 	public class TestEntity {
 		@Id
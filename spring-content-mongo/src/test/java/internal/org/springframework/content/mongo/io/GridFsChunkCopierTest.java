@@ -0,0 +1,144 @@
+package internal.org.springframework.content.mongo.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.gridfs.GridFSDBFile;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class GridFsChunkCopierTest {
+
+	private GridFsChunkCopier copier;
+	private GridFsBucket bucket;
+	private DBCollection files;
+	private DBCollection chunks;
+	private DBCursor chunkCursor;
+
+	private ObjectId sourceId;
+
+	{
+		Describe("GridFsChunkCopier", () -> {
+			BeforeEach(() -> {
+				bucket = mock(GridFsBucket.class);
+				files = mock(DBCollection.class);
+				chunks = mock(DBCollection.class);
+				when(bucket.files()).thenReturn(files);
+				when(bucket.chunks()).thenReturn(chunks);
+
+				chunkCursor = mock(DBCursor.class);
+				when(chunks.find(anyObject())).thenReturn(chunkCursor);
+				when(chunkCursor.sort(anyObject())).thenReturn(chunkCursor);
+
+				copier = new GridFsChunkCopier(bucket);
+			});
+			Context("given a source file", () -> {
+				BeforeEach(() -> {
+					sourceId = new ObjectId();
+					GridFSDBFile latest = new GridFSDBFile();
+					latest.put("_id", sourceId);
+					latest.put("filename", "source");
+					latest.put("length", 20L);
+					latest.put("chunkSize", 255 * 1024L);
+					when(bucket.findLatest("source")).thenReturn(latest);
+					when(chunkCursor.hasNext()).thenReturn(true, true, false);
+					when(chunkCursor.next()).thenReturn(
+							new BasicDBObject("files_id", sourceId).append("n", 0).append("data", new byte[] {1}),
+							new BasicDBObject("files_id", sourceId).append("n", 1).append("data", new byte[] {2}));
+				});
+				It("should copy the chunks of the newest revision under a new file with the target name", () -> {
+					assertThat(copier.copy("source", "target"), is(20L));
+
+					ArgumentCaptor<List> inserted = ArgumentCaptor.forClass(List.class);
+					verify(chunks).insert(inserted.capture());
+					assertThat(inserted.getValue().size(), is(2));
+					Object id = ((DBObject) inserted.getValue().get(0)).get("files_id");
+					assertThat(id, is(not(sourceId)));
+
+					ArgumentCaptor<DBObject> file = ArgumentCaptor.forClass(DBObject.class);
+					verify(files).insert(file.capture());
+					assertThat(file.getValue().get("_id"), is(id));
+					assertThat(file.getValue().get("filename"), is("target"));
+					assertThat(file.getValue().get("chunkSize"), is(255 * 1024L));
+					verify(chunkCursor).close();
+				});
+				It("should commit the copy before removing the target's older revisions", () -> {
+					copier.copy("source", "target");
+
+					ArgumentCaptor<DBObject> file = ArgumentCaptor.forClass(DBObject.class);
+					InOrder inOrder = Mockito.inOrder(files, bucket);
+					inOrder.verify(files).insert(file.capture());
+					inOrder.verify(bucket).commit(file.getValue(), null);
+					inOrder.verify(bucket).removeOlderRevisions(file.getValue());
+				});
+				Context("when the copy fails before it is committed", () -> {
+					BeforeEach(() -> {
+						doThrow(new MongoException("badness")).when(bucket).commit(anyObject(), eq(null));
+					});
+					It("should remove the chunks and file it wrote", () -> {
+						try {
+							copier.copy("source", "target");
+							fail("expected exception");
+						} catch (MongoException me) {
+							ArgumentCaptor<DBObject> file = ArgumentCaptor.forClass(DBObject.class);
+							verify(files).insert(file.capture());
+							Object id = file.getValue().get("_id");
+							verify(chunks).remove(new BasicDBObject("files_id", id));
+							verify(files).remove(new BasicDBObject("_id", id));
+							verify(bucket, never()).removeOlderRevisions(anyObject());
+						}
+					});
+				});
+				It("should rename the newest revision without touching its chunks", () -> {
+					assertThat(copier.rename("source", "target"), is(true));
+
+					ArgumentCaptor<DBObject> renamed = ArgumentCaptor.forClass(DBObject.class);
+					InOrder inOrder = Mockito.inOrder(bucket);
+					inOrder.verify(bucket).commit(renamed.capture(), eq(new BasicDBObject("filename", "target")));
+					inOrder.verify(bucket).removeOlderRevisions(renamed.getValue());
+					inOrder.verify(bucket).remove(Collections.singletonList("source"));
+					assertThat(renamed.getValue().get("_id"), is(sourceId));
+					verify(chunks, never()).find(anyObject());
+					verify(chunks, never()).insert(anyListOf(DBObject.class));
+				});
+			});
+			Context("given no source file", () -> {
+				It("should copy nothing", () -> {
+					assertThat(copier.copy("source", "target"), is(-1L));
+					assertThat(copier.rename("source", "target"), is(false));
+					verify(chunks, never()).find(anyObject());
+				});
+			});
+		});
+	}
+}
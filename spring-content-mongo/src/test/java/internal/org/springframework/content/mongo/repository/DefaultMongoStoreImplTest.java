@@ -8,57 +8,76 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.data.mongodb.gridfs.GridFsResource;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+import com.mongodb.gridfs.GridFSDBFile;
 import com.mongodb.gridfs.GridFSFile;
 
+import internal.org.springframework.content.mongo.io.GridFsBucket;
+import internal.org.springframework.content.mongo.io.GridFsChunkCopier;
+
 
 @RunWith(Ginkgo4jRunner.class)
 public class DefaultMongoStoreImplTest {
     private DefaultMongoStoreImpl<TestEntity, String> mongoContentRepoImpl;
-    private GridFsTemplate gridFsTemplate;
+    private GridFsBucket gridFs;
     private GridFSFile gridFSFile;
     private TestEntity property;
-    private GridFsResource resource;
     private ConversionService converter;
 
     private InputStream content;
     private InputStream result;
 
+    private TestEntity other;
+    private List<BulkContentResult<TestEntity>> results;
+    private GridFsChunkCopier chunkCopier;
+
     {
         Describe("DefaultMongoContentRepositoryImpl", () -> {
 
         	BeforeEach(() -> {
             	converter = mock(ConversionService.class);
-                gridFsTemplate = mock(GridFsTemplate.class);
+                gridFs = mock(GridFsBucket.class);
                 gridFSFile = mock(GridFSFile.class);
-                resource = mock(GridFsResource.class);
-                mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(gridFsTemplate, converter);
+                mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(gridFs, converter);
+                mongoContentRepoImpl.setRevisionCleanupExecutor(Runnable::run);
             });
 
             Context("#setContent", () -> {
                 BeforeEach(() -> {
                     property = new TestEntity();
 
-                    content = mock(InputStream.class);
+                    content = new ByteArrayInputStream("x".getBytes());
                 });
 
                 JustBeforeEach(() -> {
@@ -68,9 +87,7 @@ public class DefaultMongoStoreImplTest {
                 Context("when content is new", () -> {
                 	BeforeEach(() -> {
                 		when(converter.convert(isA(UUID.class), eq(String.class))).thenReturn("12345-67890");
-                		when(gridFsTemplate.getResource(anyString())).thenReturn(null).thenReturn(resource);
-                		when(gridFsTemplate.store(anyObject(), anyString())).thenReturn(gridFSFile);
-                		when(resource.contentLength()).thenReturn(1L);
+                		when(gridFs.store(anyObject(), anyString())).thenAnswer(storeContent());
                 	});
 
                 	It("should use the mongoStoreConverter to find the resource path", () -> {
@@ -78,11 +95,12 @@ public class DefaultMongoStoreImplTest {
                 	});
 
                 	It("should store content in GridFS", () -> {
-                		verify(gridFsTemplate).store(eq(content), eq("12345-67890"));
+                		verify(gridFs).store(isA(InputStream.class), eq("12345-67890"));
                 	});
 
-                	It("should update the content length", () -> {
+                	It("should update the content length from the bytes written", () -> {
                 		assertThat(property.getContentLen(), is(1L));
+                		verify(gridFs, never()).findLatest(anyString());
                 	});
             	});
 
@@ -91,27 +109,36 @@ public class DefaultMongoStoreImplTest {
                 		property.setContentId("abcd-efghi");
 
                 		when(converter.convert(eq("abcd-efghi"), eq(String.class))).thenReturn("abcd-efghi");
-                		when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                		when(gridFsTemplate.store(anyObject(), anyString())).thenReturn(gridFSFile);
-                		when(resource.exists()).thenReturn(true);
-                		when(resource.contentLength()).thenReturn(1L);
+                		when(gridFs.store(anyObject(), anyString())).thenAnswer(storeContent());
                 	});
 
                 	It("should use the mongoStoreConverter to find the resource path", () -> {
                 		verify(converter).convert(eq("abcd-efghi"), eq(String.class));
                 	});
 
-                	It("should delete the exsting resource", () -> {
-                		verify(gridFsTemplate).delete(anyObject());
+                	It("should store the new revision before removing the older ones", () -> {
+                		InOrder inOrder = Mockito.inOrder(gridFs);
+                		inOrder.verify(gridFs).store(isA(InputStream.class), eq("abcd-efghi"));
+                		inOrder.verify(gridFs).removeOlderRevisions(gridFSFile);
                 	});
 
-                	It("should store content in GridFS", () -> {
-                		verify(gridFsTemplate).store(eq(content), eq("abcd-efghi"));
+                	It("should not look the existing content up", () -> {
+                		verify(gridFs, never()).findLatest(anyString());
                 	});
 
-                	It("should update the content length", () -> {
+                	It("should update the content length from the bytes written", () -> {
                 		assertThat(property.getContentLen(), is(1L));
                 	});
+
+                	Context("when the older revisions can't be removed", () -> {
+                		BeforeEach(() -> {
+                			doThrow(new IllegalStateException("badness")).when(gridFs).removeOlderRevisions(anyObject());
+                		});
+
+                		It("should still set the content", () -> {
+                			assertThat(property.getContentLen(), is(1L));
+                		});
+                	});
                 });
             });
 
@@ -123,36 +150,36 @@ public class DefaultMongoStoreImplTest {
                     content = mock(InputStream.class);
 
             		when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
-                    when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                    when(resource.getInputStream()).thenReturn(content);
                 });
 
                 JustBeforeEach(() -> {
                 	result = mongoContentRepoImpl.getContent(property);
                 });
 
-                Context("when the resource exists", () -> {
+                Context("when the content exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(true);
+                        GridFSDBFile latest = mock(GridFSDBFile.class);
+                        when(latest.getInputStream()).thenReturn(content);
+                        when(gridFs.findLatest("abcd")).thenReturn(latest);
                     });
 
                     It("should use the converter to get the resource path", () -> {
                     	verify(converter).convert(eq("abcd"), eq(String.class));
                     });
 
-                    It("should fetch the resource from that path", () -> {
-                    	verify(gridFsTemplate).getResource("abcd");
+                    It("should look up the newest revision at that path", () -> {
+                    	verify(gridFs).findLatest("abcd");
                     });
 
-                    It("should get content", () -> {
+                    It("should get the newest revision's content", () -> {
                         assertThat(result, is(content));
                     });
                 });
 
 
-                Context("when the resource does not exists", () -> {
+                Context("when the content does not exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(false);
+                        when(gridFs.findLatest("abcd")).thenReturn(null);
                     });
 
                     It("should not find the content", () -> {
@@ -167,8 +194,7 @@ public class DefaultMongoStoreImplTest {
                     property.setContentId("abcd");
 
             		when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
-                    when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                    when(resource.exists()).thenReturn(true);
+                    when(gridFs.remove(anyObject())).thenReturn(1);
                 });
 
                 JustBeforeEach(() -> {
@@ -179,22 +205,207 @@ public class DefaultMongoStoreImplTest {
                 	verify(converter).convert(eq("abcd"), eq(String.class));
                 });
 
-                It("should fetch the resource from that path", () -> {
-                	verify(gridFsTemplate).getResource(eq("abcd"));
-                });
-
-                It("should unset content", () -> {
-                    verify(gridFsTemplate).delete(anyObject());
+                It("should remove the content at that path without looking it up first", () -> {
+                    verify(gridFs).remove(Collections.singletonList("abcd"));
+                    verify(gridFs, never()).findLatest(anyString());
                 });
 
                 It("should reset the metadata", () -> {
                     assertThat(property.getContentId(), is(nullValue()));
                     assertThat(property.getContentLen(), is(0L));
                 });
+
+                Context("when there is no content at that path", () -> {
+                    BeforeEach(() -> {
+                        when(gridFs.remove(anyObject())).thenReturn(0);
+                    });
+
+                    It("should leave the metadata", () -> {
+                        assertThat(property.getContentId(), is("abcd"));
+                    });
+                });
+            });
+
+            Context("when the content of several entities is unset", () -> {
+                BeforeEach(() -> {
+                    property = new TestEntity("abcd");
+                    other = new TestEntity("efgh");
+
+                    when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
+                    when(converter.convert(eq("efgh"), eq(String.class))).thenReturn("efgh");
+                });
+
+                JustBeforeEach(() -> {
+                    results = mongoContentRepoImpl.unsetContents(Arrays.asList(property, other, new TestEntity()));
+                });
+
+                It("should delete all content with a single query", () -> {
+                    verify(gridFs, times(1)).remove(Arrays.asList("abcd", "efgh"));
+                    verify(gridFs, never()).findLatest(anyString());
+                });
+
+                It("should reset the metadata and report success for every entity", () -> {
+                    assertThat(results.size(), is(3));
+                    for (BulkContentResult<TestEntity> result : results) {
+                        assertThat(result.isSuccess(), is(true));
+                        assertThat(result.getEntity().getContentId(), is(nullValue()));
+                    }
+                });
+
+                Context("when the delete fails", () -> {
+                    BeforeEach(() -> {
+                        doThrow(new IllegalStateException("badness")).when(gridFs).remove(anyObject());
+                    });
+
+                    It("should report the failure for entities with content and leave their metadata", () -> {
+                        assertThat(results.get(0).isSuccess(), is(false));
+                        assertThat(results.get(1).isSuccess(), is(false));
+                        assertThat(results.get(2).isSuccess(), is(true));
+                        assertThat(property.getContentId(), is("abcd"));
+                    });
+                });
+            });
+
+            Context("#ensureIndexes", () -> {
+                It("should create the bucket's indexes", () -> {
+                    mongoContentRepoImpl.ensureIndexes();
+
+                    verify(gridFs).ensureIndexes();
+                });
+
+                It("should tolerate the server being unavailable", () -> {
+                    doThrow(new IllegalStateException("badness")).when(gridFs).ensureIndexes();
+
+                    mongoContentRepoImpl.ensureIndexes();
+                });
+            });
+
+            Context("#copyContent", () -> {
+                BeforeEach(() -> {
+                    property = new TestEntity("abcd");
+                    other = new TestEntity("efgh");
+
+                    when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
+                    when(converter.convert(eq("efgh"), eq(String.class))).thenReturn("efgh");
+                });
+
+                Context("given a chunk copier", () -> {
+                    BeforeEach(() -> {
+                        chunkCopier = mock(GridFsChunkCopier.class);
+                        when(chunkCopier.copy("abcd", "efgh")).thenReturn(20L);
+                        mongoContentRepoImpl.setChunkCopier(chunkCopier);
+                    });
+
+                    It("should copy the chunks rather than the content", () -> {
+                        assertThat(mongoContentRepoImpl.copyContent(property, other), is(true));
+
+                        verify(chunkCopier).copy("abcd", "efgh");
+                        verify(gridFs, never()).store(anyObject(), anyString());
+                        assertThat(other.getContentLen(), is(20L));
+                    });
+
+                    It("should fail when the chunks can't be copied", () -> {
+                        when(chunkCopier.copy("abcd", "efgh")).thenThrow(new IllegalStateException("badness"));
+
+                        try {
+                            mongoContentRepoImpl.copyContent(property, other);
+                            fail("expected exception");
+                        } catch (StoreAccessException sae) {
+                            assertThat(other.getContentLen(), is(0L));
+                        }
+                    });
+                });
+
+                Context("given no chunk copier", () -> {
+                    BeforeEach(() -> {
+                        GridFSDBFile file = mock(GridFSDBFile.class);
+                        when(file.getInputStream()).thenReturn(new ByteArrayInputStream("x".getBytes()));
+                        when(gridFs.findLatest("abcd")).thenReturn(file);
+                        when(gridFs.store(anyObject(), anyString())).thenAnswer(storeContent());
+                        GridFSDBFile copy = mock(GridFSDBFile.class);
+                        when(copy.getInputStream()).thenReturn(new ByteArrayInputStream("x".getBytes()));
+                        when(gridFs.findLatest("efgh")).thenReturn(copy);
+                    });
+
+                    It("should stream the content to the target", () -> {
+                        assertThat(mongoContentRepoImpl.copyContent(property, other), is(true));
+
+                        verify(gridFs).store(isA(InputStream.class), eq("efgh"));
+                        assertThat(other.getContentLen(), is(1L));
+                    });
+
+                    It("should fail when the content is not written", () -> {
+                        when(gridFs.findLatest("efgh")).thenReturn(null);
+
+                        try {
+                            mongoContentRepoImpl.copyContent(property, other);
+                            fail("expected exception");
+                        } catch (StoreAccessException sae) {
+                            // expected
+                        }
+                    });
+                });
+            });
+
+            Context("#moveContent", () -> {
+                BeforeEach(() -> {
+                    property = new TestEntity("abcd");
+                    property.setContentLen(20L);
+                    chunkCopier = mock(GridFsChunkCopier.class);
+                    mongoContentRepoImpl.setChunkCopier(chunkCopier);
+                });
+
+                It("should hand the content to a target without a content id", () -> {
+                    other = new TestEntity();
+
+                    assertThat(mongoContentRepoImpl.moveContent(property, other), is(true));
+
+                    verify(chunkCopier, never()).rename(anyString(), anyString());
+                    assertThat(other.getContentId(), is("abcd"));
+                    assertThat(other.getContentLen(), is(20L));
+                    assertThat(property.getContentId(), is(nullValue()));
+                });
+
+                It("should rename the source's file over the target's otherwise", () -> {
+                    other = new TestEntity("efgh");
+                    when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
+                    when(converter.convert(eq("efgh"), eq(String.class))).thenReturn("efgh");
+                    when(chunkCopier.rename("abcd", "efgh")).thenReturn(true);
+
+                    assertThat(mongoContentRepoImpl.moveContent(property, other), is(true));
+
+                    verify(chunkCopier).rename("abcd", "efgh");
+                    verify(chunkCopier, never()).copy(anyString(), anyString());
+                    assertThat(other.getContentLen(), is(20L));
+                    assertThat(property.getContentId(), is(nullValue()));
+                });
+
+                It("should leave the source's content in place when it can't be renamed", () -> {
+                    other = new TestEntity("efgh");
+                    when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
+                    when(converter.convert(eq("efgh"), eq(String.class))).thenReturn("efgh");
+                    when(chunkCopier.rename("abcd", "efgh")).thenThrow(new IllegalStateException("badness"));
+
+                    try {
+                        mongoContentRepoImpl.moveContent(property, other);
+                        fail("expected exception");
+                    } catch (StoreAccessException sae) {
+                        assertThat(property.getContentId(), is("abcd"));
+                        assertThat(property.getContentLen(), is(20L));
+                    }
+                });
             });
         });
     }
 
+    // reads the stored content as GridFS would
+    private Answer<GridFSFile> storeContent() {
+        return (invocation) -> {
+            IOUtils.toByteArray((InputStream) invocation.getArguments()[0]);
+            return gridFSFile;
+        };
+    }
+
     @Test
     public void test() {
     	//noop
@@ -1,17 +1,28 @@
 package internal.org.springframework.content.rest.controllers;
 
+import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.net.URL;
 import java.util.Collection;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.io.PresignableResource;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.io.Resource;
 import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.PersistentProperty;
 import org.springframework.data.mapping.PersistentPropertyAccessor;
 import org.springframework.data.repository.core.RepositoryInformation;
 import org.springframework.data.repository.support.Repositories;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 
@@ -63,6 +74,51 @@ public abstract class AbstractContentPropertyController {
 		return contentPropertyObject;
 	}
 
+	/**
+	 * Redirects the client to a presigned URL for the content entity's content, when its
+	 * store's resources hand them out.  The URL answers with the entity's mime type.
+	 *
+	 * @return true if the response is a redirect
+	 */
+	protected boolean redirectToPresignedUrl(ContentStoreInfo info, Object contentEntity, HttpServletResponse response) {
+		Object cid = BeanUtils.getFieldWithAnnotation(contentEntity, ContentId.class);
+		Store<Serializable> store = info.getImplementation(Store.class);
+		if (cid == null || store == null) {
+			return false;
+		}
+		Resource r = store.getResource((Serializable) cid);
+		return r != null && redirectToPresignedUrl(r, mimeTypeOf(contentEntity), null, response);
+	}
+
+	/**
+	 * Redirects the client to a presigned URL for the resource's content, when the resource
+	 * hands them out, so that the content is read directly from its backing storage rather
+	 * than through the application.
+	 *
+	 * @param contentType the Content-Type the URL should answer with, or null for the stored one
+	 * @param filename the name the client should save the content under, or null
+	 * @return true if the response is a redirect
+	 */
+	protected boolean redirectToPresignedUrl(Resource r, String contentType, String filename, HttpServletResponse response) {
+		if (r instanceof PresignableResource == false) {
+			return false;
+		}
+		URL url = ((PresignableResource)r).getPresignedGetUrl(contentType, filename);
+		if (url == null) {
+			return false;
+		}
+		response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+		response.setHeader(HttpHeaders.LOCATION, url.toString());
+		// the URL expires, so the redirect must not outlive it
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+		return true;
+	}
+
+	protected static String mimeTypeOf(Object contentEntity) {
+		Object mimeType = BeanUtils.getFieldWithAnnotation(contentEntity, MimeType.class);
+		return (mimeType != null ? mimeType.toString() : null);
+	}
+
 	protected PersistentProperty<?> getContentPropertyDefinition(PersistentEntity<?, ?> persistentEntity, String contentProperty) {
 		PersistentProperty<?> prop = persistentEntity.getPersistentProperty(contentProperty);
 		if (null == prop)
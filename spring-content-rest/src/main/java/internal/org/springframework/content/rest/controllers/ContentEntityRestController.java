@@ -39,6 +39,7 @@ import internal.org.springframework.content.rest.annotations.ContentRestControll
 import internal.org.springframework.content.rest.mappings.ContentHandlerMapping.StoreType;
 import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
 import internal.org.springframework.content.rest.utils.ContentStoreUtils;
+import internal.org.springframework.content.rest.utils.ETagUtils;
 
 @ContentRestController
 public class ContentEntityRestController extends AbstractContentPropertyController {
@@ -77,6 +78,10 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			throw new IllegalArgumentException("Entity not a content repository");
 		}
 
+		if (!ETagUtils.checkPreconditions(request, response, domainObj)) {
+			return;
+		}
+
 		Serializable cid = (Serializable) BeanUtils.getFieldWithAnnotation(domainObj, ContentId.class);
 		
 		Resource r = ((Store)info.getImpementation()).getResource(cid);
@@ -84,6 +89,10 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			throw new ResourceNotFoundException();
 		}
 
+		if (redirectToPresignedUrl(r, mimeTypeOf(domainObj), null, response)) {
+			return;
+		}
+
 		request.setAttribute("SPRING_CONTENT_RESOURCE", r);
 
 		if (BeanUtils.hasFieldWithAnnotation(domainObj, MimeType.class)) {
@@ -101,7 +110,9 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 	}
 	
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.GET, headers="accept!=application/hal+json")
-	public ResponseEntity<InputStreamResource> getContent(@PathVariable String repository, 
+	public ResponseEntity<InputStreamResource> getContent(HttpServletRequest request,
+														  HttpServletResponse response,
+														  @PathVariable String repository, 
 														  @PathVariable String id, 
 														  @RequestHeader(value="Accept", required=false) String mimeType) 
 			throws HttpRequestMethodNotSupportedException {
@@ -113,14 +124,24 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			throw new IllegalArgumentException("Entity not a content repository");
 		}
 
+		Object contentTypeObj = BeanUtils.getFieldWithAnnotation(domainObj, MimeType.class);
+		String contentType = contentTypeObj != null ? contentTypeObj.toString() : null;
+		boolean original = (mimeType == null || mimeType.contains("*/*") || mimeType.equals(contentType));
+
+		if (original && !ETagUtils.checkPreconditions(request, response, domainObj)) {
+			return null;
+		}
+
+		if (original && redirectToPresignedUrl(info, domainObj, response)) {
+			return null;
+		}
+
 		InputStream content = info.getImpementation().getContent(domainObj);
 		if (content == null) {
 			throw new ResourceNotFoundException();
 		}
 		
-		Object contentTypeObj = BeanUtils.getFieldWithAnnotation(domainObj, MimeType.class);
-		String contentType = contentTypeObj != null ? contentTypeObj.toString() : null;
-		if (mimeType == null || mimeType.contains("*/*") || mimeType.equals(contentType)) {
+		if (original) {
 			final HttpHeaders headers = new HttpHeaders();
 			if (BeanUtils.hasFieldWithAnnotation(domainObj, MimeType.class)) {
 				headers.add("Content-Type", BeanUtils.getFieldWithAnnotation(domainObj, MimeType.class).toString());
@@ -128,9 +149,17 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			if (BeanUtils.hasFieldWithAnnotation(domainObj, ContentLength.class))
 				headers.add("Content-Length", BeanUtils.getFieldWithAnnotation(domainObj, ContentLength.class).toString());
 			
-			InputStreamResource inputStreamResource = new InputStreamResource(info.getImpementation().getContent(domainObj));
+			InputStreamResource inputStreamResource = new InputStreamResource(content);
 			return new ResponseEntity<InputStreamResource>(inputStreamResource, headers, HttpStatus.OK);
 		} else {
+			// the content was only opened to check it exists, and some stores hold a connection
+			// until their content is closed
+			try {
+				content.close();
+			} catch (IOException ioe) {
+				// ignore
+			}
+
 			final HttpHeaders headers = new HttpHeaders();
 			headers.add("Content-Type", mimeType);
 //			if (BeanUtils.hasFieldWithAnnotation(contentPropertyValue, ContentLength.class))
@@ -167,12 +196,17 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			throw new IllegalArgumentException("Entity not a content repository");
 		}
 
+		if (!ETagUtils.checkPreconditions(request, response, domainObj)) {
+			return;
+		}
+
 		boolean isNew = true;
 		if (BeanUtils.hasFieldWithAnnotation(domainObj, ContentId.class)) {
 			isNew = (BeanUtils.getFieldWithAnnotation(domainObj, ContentId.class) == null);
 		}
 		
 		info.getImpementation().setContent(domainObj, request.getInputStream());
+		ETagUtils.setETag(response, domainObj);
 		
 		if (BeanUtils.hasFieldWithAnnotation(domainObj, MimeType.class)) {
 			BeanUtils.setFieldWithAnnotation(domainObj, MimeType.class, request.getHeader("Content-Type"));
@@ -209,7 +243,8 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 	
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.DELETE, headers="accept!=application/hal+json")
-	public void deleteContent(HttpServletResponse response,
+	public void deleteContent(HttpServletRequest request,
+							  HttpServletResponse response,
 							  @PathVariable String repository, 
 							  @PathVariable String id) 
 			throws HttpRequestMethodNotSupportedException {
@@ -221,9 +256,20 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 			throw new IllegalArgumentException("Entity not a content repository");
 		}
 
-		if (info.getImpementation().getContent(domainObj) == null) {
+		if (!ETagUtils.checkPreconditions(request, response, domainObj)) {
+			return;
+		}
+
+		InputStream content = info.getImpementation().getContent(domainObj);
+		if (content == null) {
 			throw new ResourceNotFoundException();
 		}
+		// some stores hold a connection until their content is closed
+		try {
+			content.close();
+		} catch (IOException ioe) {
+			// ignore
+		}
 		
 		info.getImpementation().unsetContent(domainObj);
 		
@@ -247,6 +293,7 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 		}
 
 		info.getImpementation().setContent(domainObj, multiPart.getInputStream());
+		ETagUtils.setETag(response, domainObj);
 		
 		if (BeanUtils.hasFieldWithAnnotation(domainObj, MimeType.class)) {
 			BeanUtils.setFieldWithAnnotation(domainObj, MimeType.class, multiPart.getContentType());
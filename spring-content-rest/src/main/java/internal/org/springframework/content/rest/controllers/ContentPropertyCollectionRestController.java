@@ -4,8 +4,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.UUID;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -14,7 +17,9 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.io.PresignableResource;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
@@ -38,10 +43,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
+import internal.org.springframework.content.commons.utils.ContentDigests;
 import internal.org.springframework.content.rest.annotations.ContentRestController;
 import internal.org.springframework.content.rest.mappings.ContentHandlerMapping.StoreType;
 import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
 import internal.org.springframework.content.rest.utils.ContentStoreUtils;
+import internal.org.springframework.content.rest.utils.ETagUtils;
 import internal.org.springframework.content.rest.utils.PersistentEntityUtils;
 
 @ContentRestController
@@ -102,6 +109,10 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 			return;
 		}
 
+		if (!ETagUtils.checkPreconditions(request, response, propVal)) {
+			return;
+		}
+
 		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, propVal.getClass());
 		if (info == null)
 			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
@@ -112,6 +123,10 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 			return;
 		}
 
+		if (redirectToPresignedUrl(r, mimeTypeOf(propVal), null, response)) {
+			return;
+		}
+
 		request.setAttribute("SPRING_CONTENT_RESOURCE", r);
 
 		if (BeanUtils.hasFieldWithAnnotation(propVal, MimeType.class)) {
@@ -138,7 +153,7 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 												  @PathVariable String contentProperty) 
 									throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 		
-		Object newContent = this.saveContentInternal(repositories, storeService, repository, id, contentProperty, request.getRequestURI(), request.getHeader("Content-Type"), request.getInputStream());
+		Object newContent = this.saveContentInternal(request, response, repositories, storeService, repository, id, contentProperty, request.getHeader("Content-Type"), request.getInputStream());
 		if (newContent != null) {
 			Resource<?> contentResource = toResource(request, newContent);
 			return new ResponseEntity<Resource<?>>(contentResource, HttpStatus.CREATED);
@@ -156,7 +171,7 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 												   @PathVariable String contentProperty) 
 									throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 		
-		Object newContent = this.saveContentInternal(repositories, storeService, repository, id, contentProperty, request.getRequestURI(), request.getHeader("Content-Type"), request.getInputStream());
+		Object newContent = this.saveContentInternal(request, response, repositories, storeService, repository, id, contentProperty, request.getHeader("Content-Type"), request.getInputStream());
 		if (newContent != null) {
 			Resource<?> contentResource = toResource(request, newContent);
 			return new ResponseEntity<Resource<?>>(contentResource, HttpStatus.CREATED);
@@ -175,7 +190,7 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 															@RequestParam("file") MultipartFile multiPart)
 											 throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 
-		Object newContent = this.saveContentInternal(repositories, storeService, repository, id, contentProperty, request.getRequestURI(), multiPart.getContentType(), multiPart.getInputStream());
+		Object newContent = this.saveContentInternal(request, response, repositories, storeService, repository, id, contentProperty, multiPart.getContentType(), multiPart.getInputStream());
 		if (newContent != null) {
 			Resource<?> contentResource = toResource(request, newContent);
 			return new ResponseEntity<Resource<?>>(contentResource, HttpStatus.CREATED);
@@ -183,6 +198,117 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		return null;
 	}
 	
+	/**
+	 * Hands out a presigned URL, as the content's {@code upload} link, through which the
+	 * client PUTs the content directly to the store's backing storage.  The content property
+	 * is given a content id if it has none.  Once the upload is done the client POSTs to
+	 * {@code ?uploaded} so that the content's length is recorded.
+	 */
+	@StoreType("contentstore")
+	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.POST, params = "presign")
+	@ResponseBody
+	public ResponseEntity<Resource<?>> presignUpload(HttpServletRequest request,
+													 HttpServletResponse response,
+													 @PathVariable String repository,
+													 @PathVariable String id,
+													 @PathVariable String contentProperty)
+			throws HttpRequestMethodNotSupportedException {
+
+		Object domainObj = findOne(repositories, repository, id);
+
+		PersistentEntity<?,?> entity = repositories.getPersistentEntity(domainObj.getClass());
+		if (null == entity)
+			throw new ResourceNotFoundException();
+
+		PersistentProperty<?> property = this.getContentPropertyDefinition(entity, contentProperty);
+		if (PersistentEntityUtils.isPropertyMultiValued(property)) {
+			return new ResponseEntity<Resource<?>>(HttpStatus.METHOD_NOT_ALLOWED);
+		}
+
+		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, property.getActualType());
+		if (info == null)
+			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
+
+		PersistentPropertyAccessor accessor = property.getOwner().getPropertyAccessor(domainObj);
+		Object propVal = accessor.getProperty(property);
+		if (propVal == null) {
+			propVal = instantiate(info.getDomainObjectClass());
+			accessor.setProperty(property, propVal);
+		}
+
+		Object cid = BeanUtils.getFieldWithAnnotation(propVal, ContentId.class);
+		if (cid == null) {
+			// assigned the way the stores assign ids to new content
+			cid = UUID.randomUUID().toString();
+			BeanUtils.setFieldWithAnnotation(propVal, ContentId.class, cid);
+		}
+
+		org.springframework.core.io.Resource r = info.getImplementation(Store.class).getResource((Serializable) cid);
+		URL url = (r instanceof PresignableResource ? ((PresignableResource)r).getPresignedPutUrl() : null);
+		if (url == null) {
+			return new ResponseEntity<Resource<?>>(HttpStatus.METHOD_NOT_ALLOWED);
+		}
+
+		// the content is about to be replaced outside the store
+		ContentDigests.unsetDigest(propVal);
+		save(repositories, repository, domainObj);
+
+		Link self = new Link(StringUtils.trimTrailingCharacter(request.getRequestURL().toString(), '/') + "/" + cid);
+		Resource<?> contentResource = new Resource<Object>(propVal, Arrays.asList(self, new Link(url.toString(), "upload")));
+		return new ResponseEntity<Resource<?>>(contentResource, HttpStatus.OK);
+	}
+
+	/**
+	 * Records the length of content the client uploaded through a presigned URL.
+	 */
+	@StoreType("contentstore")
+	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.POST, params = "uploaded")
+	@ResponseBody
+	public ResponseEntity<Resource<?>> completeUpload(HttpServletRequest request,
+													  HttpServletResponse response,
+													  @PathVariable String repository,
+													  @PathVariable String id,
+													  @PathVariable String contentProperty)
+			throws IOException, HttpRequestMethodNotSupportedException {
+
+		Object domainObj = findOne(repositories, repository, id);
+
+		PersistentEntity<?,?> entity = repositories.getPersistentEntity(domainObj.getClass());
+		if (null == entity)
+			throw new ResourceNotFoundException();
+
+		PersistentProperty<?> property = this.getContentPropertyDefinition(entity, contentProperty);
+		if (PersistentEntityUtils.isPropertyMultiValued(property)) {
+			return new ResponseEntity<Resource<?>>(HttpStatus.METHOD_NOT_ALLOWED);
+		}
+
+		PersistentPropertyAccessor accessor = property.getOwner().getPropertyAccessor(domainObj);
+		Object propVal = accessor.getProperty(property);
+		if (propVal == null)
+			throw new ResourceNotFoundException("No content");
+
+		Serializable cid = (Serializable) BeanUtils.getFieldWithAnnotation(propVal, ContentId.class);
+		if (cid == null)
+			throw new ResourceNotFoundException("No content");
+
+		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, propVal.getClass());
+		if (info == null)
+			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
+
+		org.springframework.core.io.Resource r = info.getImplementation(Store.class).getResource(cid);
+		if (r instanceof PresignableResource) {
+			// the upload bypassed the store, so whatever it cached about the content is stale
+			((PresignableResource)r).refresh();
+		}
+		if (r == null || !r.exists())
+			throw new ResourceNotFoundException("Content not uploaded");
+
+		BeanUtils.setFieldWithAnnotation(propVal, ContentLength.class, r.contentLength());
+		save(repositories, repository, domainObj);
+
+		return new ResponseEntity<Resource<?>>(toResource(request, propVal), HttpStatus.CREATED);
+	}
+
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.DELETE, headers = "accept!=application/hal+json")
 	public void delete(HttpServletRequest request, 
@@ -218,6 +344,10 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 			return;
 		}
 		
+		if (!ETagUtils.checkPreconditions(request, response, propVal)) {
+			return;
+		}
+
 		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, propVal.getClass());
 		if (info == null)
 			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
@@ -241,12 +371,17 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		return contentResource;
 	}	
 
-	private Object saveContentInternal(Repositories repositories,
+	/**
+	 * @return the content property that was written, or null if the request's preconditions
+	 * failed against the existing content
+	 */
+	private Object saveContentInternal(HttpServletRequest request,
+									   HttpServletResponse response,
+									   Repositories repositories,
 									   ContentStoreService stores,
 									   String repository,
 									   String id, 
 									   String contentProperty,  
-									   String requestUri,
 									   String mimeType,
 									   InputStream stream) 
 			throws HttpRequestMethodNotSupportedException {
@@ -281,6 +416,13 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		if (info == null)
 			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
 
+		// existing single-valued content property, about to be replaced
+		if (propVal != null && !PersistentEntityUtils.isPropertyMultiValued(property)) {
+			if (!ETagUtils.checkPreconditions(request, response, propVal)) {
+				return null;
+			}
+		}
+
 		// null single-valued content property
 		if (propVal == null && !PersistentEntityUtils.isPropertyMultiValued(property)) {
 			propVal = instantiate(info.getDomainObjectClass());
@@ -318,6 +460,7 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		}
 		
 		info.getImpementation().setContent(propVal, stream);
+		ETagUtils.setETag(response, propVal);
 		
 		save(repositories, repository, domainObj);
 		
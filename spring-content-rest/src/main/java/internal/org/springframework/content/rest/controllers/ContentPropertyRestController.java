@@ -42,6 +42,7 @@ import internal.org.springframework.content.rest.mappings.ContentHandlerMapping.
 import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
 import internal.org.springframework.content.rest.utils.ContentPropertyUtils;
 import internal.org.springframework.content.rest.utils.ContentStoreUtils;
+import internal.org.springframework.content.rest.utils.ETagUtils;
 
 @ContentRestController
 public class ContentPropertyRestController extends AbstractContentPropertyController {
@@ -87,6 +88,10 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 			contentPropertyValue = getContentProperty(domainObj, property, contentId);
 		}
 		
+		if (!ETagUtils.checkPreconditions(request, response, contentPropertyValue)) {
+			return;
+		}
+
 		Serializable cid = (Serializable) BeanUtils.getFieldWithAnnotation(contentPropertyValue, ContentId.class);
 		
 		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, contentEntityClass);
@@ -99,6 +104,10 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 			throw new ResourceNotFoundException();
 		}
 
+		if (redirectToPresignedUrl(r, mimeTypeOf(contentPropertyValue), null, response)) {
+			return;
+		}
+
 		request.setAttribute("SPRING_CONTENT_RESOURCE", r);
 
 		if (BeanUtils.hasFieldWithAnnotation(contentPropertyValue, MimeType.class)) {
@@ -117,7 +126,9 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 	
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.GET, headers={"accept!=application/hal+json"})
-	public ResponseEntity<InputStreamResource> getContent(@PathVariable String repository, 
+	public ResponseEntity<InputStreamResource> getContent(HttpServletRequest request,
+														  HttpServletResponse response,
+														  @PathVariable String repository, 
 														  @PathVariable String id, 
 														  @PathVariable String contentProperty,
 														  @PathVariable String contentId,
@@ -144,6 +155,15 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 		Object contentTypeObj = BeanUtils.getFieldWithAnnotation(contentPropertyValue, MimeType.class);
 		String contentType = contentTypeObj != null ? contentTypeObj.toString() : null;
 		if (mimeType == null || mimeType.contains("*/*") || mimeType.equals(contentType)) {
+			if (!ETagUtils.checkPreconditions(request, response, contentPropertyValue)) {
+				return null;
+			}
+
+			ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, contentEntityClass);
+			if (redirectToPresignedUrl(info, contentPropertyValue, response)) {
+				return null;
+			}
+
 			final HttpHeaders headers = new HttpHeaders();
 			if (BeanUtils.hasFieldWithAnnotation(contentPropertyValue, MimeType.class)) {
 				headers.add("Content-Type", BeanUtils.getFieldWithAnnotation(contentPropertyValue, MimeType.class).toString());
@@ -151,7 +171,6 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 			if (BeanUtils.hasFieldWithAnnotation(contentPropertyValue, ContentLength.class))
 				headers.add("Content-Length", BeanUtils.getFieldWithAnnotation(contentPropertyValue, ContentLength.class).toString());
 			
-			ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, contentEntityClass);
 			InputStream is = info.getImpementation().getContent(contentPropertyValue);
 			if (is == null) {
 				throw new ResourceNotFoundException();
@@ -186,45 +205,51 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.PUT)
 	@ResponseBody
 	public void setContent(HttpServletRequest request,
+						   HttpServletResponse response,
 	        			   @PathVariable String repository, 
 						   @PathVariable String id, 
 						   @PathVariable String contentProperty,
 						   @PathVariable String contentId) 
 			throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 		
-		this.replaceContentInternal(repositories, storeService, repository, id, contentProperty, contentId, request.getHeader("Content-Type"), request.getInputStream());
+		this.replaceContentInternal(request, response, repository, id, contentProperty, contentId, request.getHeader("Content-Type"), request.getInputStream());
 	}	
 	
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.POST, headers = "content-type!=multipart/form-data")
 	@ResponseBody
 	public void postContent(HttpServletRequest request,
+							HttpServletResponse response,
 							@PathVariable String repository, 
 							@PathVariable String id, 
 							@PathVariable String contentProperty,
 							@PathVariable String contentId) 
 			throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 		
-		this.replaceContentInternal(repositories, storeService, repository, id, contentProperty, contentId, request.getHeader("Content-Type"), request.getInputStream());
+		this.replaceContentInternal(request, response, repository, id, contentProperty, contentId, request.getHeader("Content-Type"), request.getInputStream());
 	}	
 
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.POST, headers = "content-type=multipart/form-data")
 	@ResponseBody
-	public void postMultipartContent(@PathVariable String repository, 
+	public void postMultipartContent(HttpServletRequest request,
+									 HttpServletResponse response,
+									 @PathVariable String repository, 
 									 @PathVariable String id, 
 									 @PathVariable String contentProperty,
 									 @PathVariable String contentId,
 									 @RequestParam("file") MultipartFile multiPart)
 										throws IOException, HttpRequestMethodNotSupportedException, InstantiationException, IllegalAccessException {
 
-		this.replaceContentInternal(repositories, storeService, repository, id, contentProperty, contentId, multiPart.getContentType(), multiPart.getInputStream());
+		this.replaceContentInternal(request, response, repository, id, contentProperty, contentId, multiPart.getContentType(), multiPart.getInputStream());
 	}
 
 	@StoreType("contentstore")
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.DELETE)
 	@ResponseBody
-	public ResponseEntity<?> deleteContent(@PathVariable String repository, 
+	public ResponseEntity<?> deleteContent(HttpServletRequest request,
+										   HttpServletResponse response,
+										   @PathVariable String repository, 
 										   @PathVariable String id, 
 										   @PathVariable String contentProperty,
 										   @PathVariable String contentId) 
@@ -236,6 +261,10 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 
 		Object contentPropertyValue = getContentProperty(domainObj, property, contentId); 
 		
+		if (!ETagUtils.checkPreconditions(request, response, contentPropertyValue)) {
+			return null;
+		}
+
 		Class<?> contentEntityClass = ContentPropertyUtils.getContentPropertyType(property);
 		
 		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, contentEntityClass);
@@ -249,8 +278,8 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 		return new ResponseEntity<Object>(HttpStatus.NO_CONTENT);
 	}
 
-	private void replaceContentInternal(Repositories repositories,
-										ContentStoreService stores,
+	private void replaceContentInternal(HttpServletRequest request,
+										HttpServletResponse response,
 										String repository,
 										String id, 
 										String contentProperty, 
@@ -265,6 +294,10 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 		
 		Object contentPropertyValue = this.getContentProperty(domainObj, property, contentId); 
 		
+		if (!ETagUtils.checkPreconditions(request, response, contentPropertyValue)) {
+			return;
+		}
+
 		if (BeanUtils.hasFieldWithAnnotation(contentPropertyValue, MimeType.class)) {
 			BeanUtils.setFieldWithAnnotation(contentPropertyValue, MimeType.class, mimeType);
 		}
@@ -273,6 +306,7 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 		
 		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, contentEntityClass);
 		info.getImpementation().setContent(contentPropertyValue, stream);
+		ETagUtils.setETag(response, contentPropertyValue);
 		
 		save(repositories, repository, domainObj);
 	}
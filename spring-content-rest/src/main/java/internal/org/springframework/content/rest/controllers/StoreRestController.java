@@ -3,6 +3,7 @@ package internal.org.springframework.content.rest.controllers;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -11,11 +12,13 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.FileChannelResource;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
+import org.springframework.util.StringUtils;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -25,6 +28,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UrlPathHelper;
 
+import internal.org.springframework.content.commons.io.FileChannels;
 import internal.org.springframework.content.rest.annotations.ContentRestController;
 import internal.org.springframework.content.rest.mappings.ContentHandlerMapping.StoreType;
 import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
@@ -61,10 +65,14 @@ public class StoreRestController extends AbstractContentPropertyController {
 		String pathToUse = path.substring(ContentStoreUtils.storePath(info).length() + 1);
 
 		Resource r = ((Store)info.getImpementation()).getResource(pathToUse);
-		if (r == null) {
+		if (r == null || !r.exists()) {
 			throw new ResourceNotFoundException();
 		}
 
+		if (redirectToPresignedUrl(r, null, StringUtils.getFilename(pathToUse), response)) {
+			return;
+		}
+
 		request.setAttribute("SPRING_CONTENT_RESOURCE", r);
 
 		handler.handleRequest(request, response);
@@ -95,11 +103,7 @@ public class StoreRestController extends AbstractContentPropertyController {
 		if (r instanceof WritableResource == false) {
 			throw new UnsupportedOperationException();
 		}
-		InputStream in = request.getInputStream();
-		OutputStream out = ((WritableResource)r).getOutputStream();
-		IOUtils.copy(in, out);
-		IOUtils.closeQuietly(out);
-		IOUtils.closeQuietly(in);
+		writeResource(r, request.getInputStream());
 	}
 
 	@StoreType("store")
@@ -168,10 +172,28 @@ public class StoreRestController extends AbstractContentPropertyController {
 		if (r instanceof WritableResource == false) {
 			throw new UnsupportedOperationException();
 		}
-		InputStream in = multiPart.getInputStream();
-		OutputStream out = ((WritableResource)r).getOutputStream();
-		IOUtils.copy(in, out);
-		IOUtils.closeQuietly(out);
-		IOUtils.closeQuietly(in);
+		writeResource(r, multiPart.getInputStream());
+	}
+
+	/**
+	 * Writes file backed resources with {@link FileChannel#transferFrom}, which avoids copying
+	 * through a heap buffer, and other resources through their output stream.  Filesystem
+	 * store resources only replace their file when the channel or stream is closed, so a
+	 * failure to close is reported rather than ignored.
+	 */
+	private void writeResource(Resource r, InputStream in) throws IOException {
+		if (r instanceof FileChannelResource) {
+			try (FileChannel out = ((FileChannelResource)r).writableChannel()) {
+				FileChannels.transferFrom(in, out);
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			return;
+		}
+		try (OutputStream out = ((WritableResource)r).getOutputStream()) {
+			IOUtils.copy(in, out);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
 	}
 }
@@ -0,0 +1,31 @@
+package internal.org.springframework.content.rest.mappings;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import org.springframework.content.commons.io.FileChannelResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import internal.org.springframework.content.commons.io.FileChannels;
+
+/**
+ * Writes file backed resources with {@link FileChannel#transferTo}, so their content
+ * is not copied through a heap buffer.  Other resources are written as before.
+ */
+class FileChannelResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+	@Override
+	protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+		if (!(resource instanceof FileChannelResource)) {
+			super.writeContent(resource, outputMessage);
+			return;
+		}
+
+		try (FileChannel channel = ((FileChannelResource)resource).readableChannel()) {
+			FileChannels.transferTo(channel, 0, channel.size(), outputMessage.getBody());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package internal.org.springframework.content.rest.mappings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+import org.springframework.content.commons.io.FileChannelResource;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import internal.org.springframework.content.commons.io.FileChannels;
+
+/**
+ * Writes a single-range response by asking a {@link RangeableResource} for just that
+ * range, so the store never reads the content before it.  File backed ranges are
+ * transferred straight from their channel.  Other resources, and
+ * multi-range requests, are written by skipping through the full stream as before.
+ */
+class RangeableResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+	@Override
+	protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+		Resource resource = region.getResource();
+		if (!(resource instanceof RangeableResource)) {
+			super.writeResourceRegion(region, outputMessage);
+			return;
+		}
+
+		long resourceLength = resource.contentLength();
+		long start = region.getPosition();
+		long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+		long rangeLength = end - start + 1;
+
+		HttpHeaders responseHeaders = outputMessage.getHeaders();
+		responseHeaders.add("Content-Range", "bytes " + start + '-' + end + '/' + resourceLength);
+		responseHeaders.setContentLength(rangeLength);
+
+		if (resource instanceof FileChannelResource) {
+			try (FileChannel channel = ((FileChannelResource)resource).readableChannel()) {
+				FileChannels.transferTo(channel, start, rangeLength, outputMessage.getBody());
+			}
+			return;
+		}
+
+		InputStream in = ((RangeableResource)resource).getInputStream(start, rangeLength);
+		try {
+			StreamUtils.copy(in, outputMessage.getBody());
+		} finally {
+			try {
+				in.close();
+			} catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+}
@@ -1,16 +1,107 @@
 package internal.org.springframework.content.rest.mappings;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.content.commons.io.FileChannelResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 
 public class StoreByteRangeHttpRequestHandler extends ResourceHttpRequestHandler {
 
+	static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
 	public StoreByteRangeHttpRequestHandler() {
+		setResourceHttpMessageConverter(new FileChannelResourceHttpMessageConverter());
+		setResourceRegionHttpMessageConverter(new RangeableResourceRegionHttpMessageConverter());
+	}
+
+	/**
+	 * Hands whole file backed resources to the container's sendfile support when it offers
+	 * it, so the content never passes through the application.  Everything else is served
+	 * as usual.
+	 * <p>
+	 * The container opens the file by path once the headers are written, so the headers and
+	 * the length sent are taken from a single stat of the file, and the file is served as
+	 * usual instead if it has been replaced by the time the headers are ready.
+	 */
+	@Override
+	public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		Resource resource = getResource(request);
+		if (resource instanceof FileChannelResource && isSendfileCandidate(request, response) && resource.exists()) {
+			File file = resource.getFile();
+			BasicFileAttributes attributes = stat(file);
+			if (attributes != null) {
+				if (new ServletWebRequest(request, response).checkNotModified(attributes.lastModifiedTime().toMillis())) {
+					return;
+				}
+				if (isSameFile(attributes, stat(file))) {
+					setSendfileHeaders(response, attributes.size(), getMediaType(request, resource));
+					response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+					request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+					request.setAttribute(SENDFILE_START, 0L);
+					request.setAttribute(SENDFILE_END, attributes.size());
+					return;
+				}
+			}
+		}
+		super.handleRequest(request, response);
+	}
+
+	/**
+	 * Like Tomcat's own default servlet, only the container's own request and response are
+	 * candidates.  A wrapper, such as one caching the body to compute an ETag, would never
+	 * see the content the container sends.
+	 */
+	private static boolean isSendfileCandidate(HttpServletRequest request, HttpServletResponse response) {
+		return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+				&& !(request instanceof ServletRequestWrapper)
+				&& !(response instanceof ServletResponseWrapper)
+				&& HttpMethod.GET.matches(request.getMethod())
+				&& request.getHeader(HttpHeaders.RANGE) == null;
+	}
+
+	private static BasicFileAttributes stat(File file) {
+		try {
+			return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static boolean isSameFile(BasicFileAttributes attributes, BasicFileAttributes current) {
+		return current != null
+				&& ObjectUtils.nullSafeEquals(attributes.fileKey(), current.fileKey())
+				&& attributes.size() == current.size()
+				&& attributes.lastModifiedTime().equals(current.lastModifiedTime());
+	}
+
+	private static void setSendfileHeaders(HttpServletResponse response, long length, MediaType mediaType) {
+		if (length > Integer.MAX_VALUE) {
+			response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
+		} else {
+			response.setContentLength((int) length);
+		}
+		if (mediaType != null) {
+			response.setContentType(mediaType.toString());
+		}
 	}
 
     @Override
@@ -5,6 +5,7 @@ import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.content.commons.storeservice.StorePathResolver;
 import org.springframework.content.rest.StoreRestResource;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.StringUtils;
@@ -13,38 +14,35 @@ import internal.org.springframework.content.rest.annotations.ContentStoreRestRes
 
 public final class ContentStoreUtils {
 
+	/**
+	 * Resolves paths with {@link #storePath(ContentStoreInfo)}.  Registered with the store
+	 * service so that lookups passing this same instance are served from its path index.
+	 */
+	public static final StorePathResolver STORE_PATH_RESOLVER = ContentStoreUtils::storePath;
+
 	private ContentStoreUtils() {}
 	
 	public static ContentStoreInfo findContentStore(ContentStoreService stores, Class<?> contentEntityClass) {
 		
-		for (ContentStoreInfo info : stores.getStores(ContentStore.class)) {
+		for (ContentStoreInfo info : stores.getStoresByDomainClass(contentEntityClass)) {
+			if (info.getImplementation(ContentStore.class) == null)
+				continue;
 			ContentStoreRestResource restResource = (ContentStoreRestResource) info.getInterface().getAnnotation(ContentStoreRestResource.class);
-			if (restResource != null && contentEntityClass.equals(info.getDomainObjectClass()))
+			if (restResource != null)
 				return info;
 			StoreRestResource storeRestResource = (StoreRestResource) info.getInterface().getAnnotation(StoreRestResource.class);
-			if (storeRestResource != null && contentEntityClass.equals(info.getDomainObjectClass()))
+			if (storeRestResource != null)
 				return info;
 		}
 		return null;
 	}
 
 	public static ContentStoreInfo findContentStore(ContentStoreService stores, String store) {
-		
-		for (ContentStoreInfo info : stores.getStores(ContentStore.class)) {
-			if (store.equals(storePath(info))) {
-				return info;
-			}
-		}
-		return null;
+		return stores.getStoreByPath(ContentStore.class, store, STORE_PATH_RESOLVER);
 	}
 
 	public static ContentStoreInfo findStore(ContentStoreService stores, String store) {
-		for (ContentStoreInfo info : stores.getStores(Store.class)) {
-			if (store.equals(storePath(info))) {
-				return info;
-			}
-		}
-		return null;
+		return stores.getStoreByPath(Store.class, store, STORE_PATH_RESOLVER);
 	}
 	
 	public static String storePath(ContentStoreInfo info) {
@@ -64,7 +62,11 @@ public final class ContentStoreUtils {
 	
 	public static String getSimpleName(ContentStoreInfo info) {
 		Class<?> clazz = info.getDomainObjectClass();
-		return clazz != null ? clazz.getSimpleName() : stripStoreName(info.getImplementation(Store.class));
+		if (clazz != null) {
+			return clazz.getSimpleName();
+		}
+		Store implementation = info.getImplementation(Store.class);
+		return implementation != null ? stripStoreName(implementation) : info.getInterface().getSimpleName().replaceAll("Store", "");
 	}
 
 	public static String stripStoreName(Store implementation) {
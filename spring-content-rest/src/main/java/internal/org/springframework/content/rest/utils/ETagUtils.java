@@ -0,0 +1,106 @@
+package internal.org.springframework.content.rest.utils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.content.commons.annotations.ContentDigest;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+
+/**
+ * Derives strong entity tags from {@link ContentDigest} fields and evaluates
+ * {@code If-Match} and {@code If-None-Match} against them, so conditional requests
+ * are answered from the entity alone without reading content from the store.
+ */
+public final class ETagUtils {
+
+	private static final String WEAK_PREFIX = "W/";
+
+	private ETagUtils() {}
+
+	/**
+	 * @param contentEntity the entity holding the content's metadata
+	 * @return the quoted strong entity tag for the entity's content, or null if it has no digest
+	 */
+	public static String eTagFor(Object contentEntity) {
+		if (contentEntity == null || !BeanUtils.hasFieldWithAnnotation(contentEntity, ContentDigest.class)) {
+			return null;
+		}
+		Object digest = BeanUtils.getFieldWithAnnotation(contentEntity, ContentDigest.class);
+		return (digest != null ? "\"" + digest.toString() + "\"" : null);
+	}
+
+	/**
+	 * Evaluates the request's preconditions against the content entity's entity tag.  When the
+	 * request should not proceed the response status is set to {@code 304} or {@code 412}.
+	 * Entities without a {@link ContentDigest} field are not subject to preconditions.
+	 *
+	 * @return true if the request should proceed
+	 */
+	public static boolean checkPreconditions(HttpServletRequest request, HttpServletResponse response, Object contentEntity) {
+		if (contentEntity == null || !BeanUtils.hasFieldWithAnnotation(contentEntity, ContentDigest.class)) {
+			return true;
+		}
+
+		String eTag = eTagFor(contentEntity);
+		HttpStatus status = evaluate(request.getMethod(), request.getHeader(HttpHeaders.IF_MATCH), request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag);
+		if (eTag != null) {
+			response.setHeader(HttpHeaders.ETAG, eTag);
+		}
+		if (status != null) {
+			response.setStatus(status.value());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the response's {@code ETag} header from the content entity, if it has a digest.
+	 */
+	public static void setETag(HttpServletResponse response, Object contentEntity) {
+		String eTag = eTagFor(contentEntity);
+		if (eTag != null) {
+			response.setHeader(HttpHeaders.ETAG, eTag);
+		}
+	}
+
+	/**
+	 * @return null if the request should proceed, otherwise the status to answer with
+	 */
+	static HttpStatus evaluate(String method, String ifMatch, String ifNoneMatch, String eTag) {
+		if (ifMatch != null) {
+			if (eTag == null || !matches(ifMatch, eTag, true)) {
+				return HttpStatus.PRECONDITION_FAILED;
+			}
+		}
+		if (ifNoneMatch != null && eTag != null && matches(ifNoneMatch, eTag, false)) {
+			if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+				return HttpStatus.NOT_MODIFIED;
+			}
+			return HttpStatus.PRECONDITION_FAILED;
+		}
+		return null;
+	}
+
+	private static boolean matches(String header, String eTag, boolean strong) {
+		for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+			candidate = candidate.trim();
+			if ("*".equals(candidate)) {
+				return true;
+			}
+			if (candidate.startsWith(WEAK_PREFIX)) {
+				if (strong) {
+					continue;
+				}
+				candidate = candidate.substring(WEAK_PREFIX.length());
+			}
+			if (candidate.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
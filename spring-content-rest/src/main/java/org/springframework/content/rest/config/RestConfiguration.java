@@ -2,6 +2,7 @@ package org.springframework.content.rest.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.content.commons.storeservice.StorePathResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,7 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 
 import internal.org.springframework.content.rest.mappings.ContentHandlerMapping;
 import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
+import internal.org.springframework.content.rest.utils.ContentStoreUtils;
 
 @Configuration
 @ComponentScan("internal.org.springframework.content.rest.controllers")
@@ -18,6 +20,12 @@ public class RestConfiguration extends HateoasAwareSpringDataWebConfiguration {
 	@Autowired 
 	ContentStoreService stores;
 	
+	// static so that the store service can be indexed without creating this configuration
+	@Bean
+	static StorePathResolver storePathResolver() {
+		return ContentStoreUtils.STORE_PATH_RESOLVER;
+	}
+
 	@Bean
 	RequestMappingHandlerMapping contentHandlerMapping() {
 		return new ContentHandlerMapping(stores);
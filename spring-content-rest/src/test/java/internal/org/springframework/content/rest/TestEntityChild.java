@@ -4,6 +4,7 @@ import java.util.UUID;
 
 import javax.persistence.Embeddable;
 
+import org.springframework.content.commons.annotations.ContentDigest;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.annotations.MimeType;
@@ -13,6 +14,7 @@ public class TestEntityChild {
 	@ContentId public UUID contentId;
 	@ContentLength public Long contentLen;
 	@MimeType public String mimeType;
+	@ContentDigest public String contentDigest;
 	public UUID getContentId() {
 		return contentId;
 	}
@@ -31,4 +33,10 @@ public class TestEntityChild {
 	public void setMimeType(String mimeType) {
 		this.mimeType = mimeType;
 	}
+	public String getContentDigest() {
+		return contentDigest;
+	}
+	public void setContentDigest(String contentDigest) {
+		this.contentDigest = contentDigest;
+	}
 }
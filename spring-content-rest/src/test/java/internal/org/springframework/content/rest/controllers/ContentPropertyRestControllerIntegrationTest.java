@@ -184,6 +184,52 @@ public class ContentPropertyRestControllerIntegrationTest {
 							assertThat(fetched.child.mimeType, is("text/plain"));
 							assertThat(IOUtils.toString(contentRepository2.getContent(fetched.child)), is("Hello New Spring Content World!"));
 						});
+						It("should return the new content's ETag", () -> {
+							MockHttpServletResponse response = mvc.perform(put("/files/" + testEntity2.id.toString() + "/child")
+									.content("Hello New Spring Content World!")
+									.contentType("text/plain"))
+									.andExpect(status().is2xxSuccessful())
+									.andReturn().getResponse();
+
+							TestEntity2 fetched = repository2.findOne(testEntity2.id);
+							assertThat(response.getHeader("ETag"), is("\"" + fetched.child.contentDigest + "\""));
+						});
+					});
+					Context("a PUT to /{repository}/{id}/{contentProperty} matching the content's ETag", () -> {
+						It("should overwrite the content", () -> {
+							mvc.perform(put("/files/" + testEntity2.id.toString() + "/child")
+									.header("If-Match", "\"" + testEntity2.child.contentDigest + "\"")
+									.content("Hello New Spring Content World!")
+									.contentType("text/plain"))
+									.andExpect(status().is2xxSuccessful());
+
+							TestEntity2 fetched = repository2.findOne(testEntity2.id);
+							assertThat(IOUtils.toString(contentRepository2.getContent(fetched.child)), is("Hello New Spring Content World!"));
+						});
+					});
+					Context("a PUT to /{repository}/{id}/{contentProperty} with a stale ETag", () -> {
+						It("should return 412 and leave the content alone", () -> {
+							mvc.perform(put("/files/" + testEntity2.id.toString() + "/child")
+									.header("If-Match", "\"stale\"")
+									.content("Hello New Spring Content World!")
+									.contentType("text/plain"))
+									.andExpect(status().isPreconditionFailed());
+
+							TestEntity2 fetched = repository2.findOne(testEntity2.id);
+							assertThat(IOUtils.toString(contentRepository2.getContent(fetched.child)), is("Hello Spring Content World!"));
+						});
+					});
+					Context("a POST to /{repository}/{id}/{contentProperty} with a stale ETag", () -> {
+						It("should return 412 and leave the content alone", () -> {
+							mvc.perform(post("/files/" + testEntity2.id.toString() + "/child")
+									.header("If-Match", "\"stale\"")
+									.content("Hello New Spring Content World!")
+									.contentType("text/plain"))
+									.andExpect(status().isPreconditionFailed());
+
+							TestEntity2 fetched = repository2.findOne(testEntity2.id);
+							assertThat(IOUtils.toString(contentRepository2.getContent(fetched.child)), is("Hello Spring Content World!"));
+						});
 					});
 					Context("a PUT to /{repository}/{id}/{contentProperty}/{contentId}", () -> {
 						It("should overwrite the content", () -> {
@@ -15,6 +15,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
@@ -74,7 +75,9 @@ public class StoreRestControllerIntegrationTest {
     				request = "/teststore" + path;
     				Resource r = store.getResource(path);
     				if (r instanceof WritableResource) {
-    					IOUtils.copy(new ByteArrayInputStream("Existing content".getBytes()), ((WritableResource)r).getOutputStream());
+    					try (OutputStream out = ((WritableResource)r).getOutputStream()) {
+    						IOUtils.copy(new ByteArrayInputStream("Existing content".getBytes()), out);
+    					}
     				}
     			});
     			It("should return the resource's content", () -> {
@@ -125,6 +128,29 @@ public class StoreRestControllerIntegrationTest {
 					assertThat(r.exists(), is(false));
     			});
 			});
+			Context("given a path that does not exist yet", () -> {
+				BeforeEach(() -> {
+					path = "/" + UUID.randomUUID() + "/c/d/new.txt";
+					request = "/teststore" + path;
+				});
+				It("should create the resource and its directories on PUT", () -> {
+					mvc.perform(put(request)
+							.content("New content")
+							.contentType("text/plain"))
+							.andExpect(status().isOk());
+
+					Resource r = store.getResource(path);
+					assertThat(IOUtils.contentEquals(new ByteArrayInputStream("New content".getBytes()), r.getInputStream()), is(true));
+				});
+				It("should create the resource and its directories on a multi-part POST", () -> {
+					mvc.perform(fileUpload(request)
+							.file(new MockMultipartFile("file", "test-file.txt", "text/plain", "New multi-part content".getBytes())))
+							.andExpect(status().isOk());
+
+					Resource r = store.getResource(path);
+					assertThat(IOUtils.contentEquals(new ByteArrayInputStream("New multi-part content".getBytes()), r.getInputStream()), is(true));
+				});
+			});
 		});
 	}
 
@@ -0,0 +1,113 @@
+package internal.org.springframework.content.rest.controllers;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.net.URL;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.io.PresignableResource;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.rest.TestStore;
+import internal.org.springframework.content.rest.mappings.StoreByteRangeHttpRequestHandler;
+import internal.org.springframework.content.rest.utils.ContentStoreUtils;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class StoreRestControllerTest {
+
+	private StoreRestController controller;
+	private ContentStoreService storeService;
+	private StoreByteRangeHttpRequestHandler handler;
+	private Store<String> store;
+
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	private Exception thrown;
+
+	{
+		Describe("StoreRestController", () -> {
+			BeforeEach(() -> {
+				storeService = mock(ContentStoreService.class);
+				handler = mock(StoreByteRangeHttpRequestHandler.class);
+				controller = new StoreRestController(storeService, handler);
+
+				store = mock(Store.class, withSettings().extraInterfaces(ContentStore.class));
+				ContentStoreInfo info = mock(ContentStoreInfo.class);
+				doReturn(TestStore.class).when(info).getInterface();
+				doReturn(store).when(info).getImpementation();
+				when(storeService.getStoreByPath(Store.class, "teststore", ContentStoreUtils.STORE_PATH_RESOLVER)).thenReturn(info);
+
+				request = new MockHttpServletRequest("GET", "/teststore/a/b.txt");
+				response = new MockHttpServletResponse();
+			});
+			JustBeforeEach(() -> {
+				thrown = null;
+				try {
+					controller.getContent(request, response, "teststore");
+				} catch (Exception e) {
+					thrown = e;
+				}
+			});
+			Context("given a resource that hands out presigned URLs", () -> {
+				BeforeEach(() -> {
+					PresignableResource resource = mock(PresignableResource.class);
+					when(resource.exists()).thenReturn(true);
+					when(resource.getPresignedGetUrl(null, "b.txt")).thenReturn(new URL("https://some-bucket.s3.amazonaws.com/a/b.txt?X-Amz-Signature=abc"));
+					when(store.getResource(eq("/a/b.txt"))).thenReturn(resource);
+				});
+				It("should redirect the client to the presigned URL", () -> {
+					assertThat(response.getStatus(), is(307));
+					assertThat(response.getHeader("Location"), is("https://some-bucket.s3.amazonaws.com/a/b.txt?X-Amz-Signature=abc"));
+					assertThat(response.getHeader("Cache-Control"), is("no-store"));
+					verify(handler, never()).handleRequest(request, response);
+				});
+			});
+			Context("given a resource that hands out presigned URLs but does not exist", () -> {
+				BeforeEach(() -> {
+					PresignableResource resource = mock(PresignableResource.class);
+					when(resource.getPresignedGetUrl(null, "b.txt")).thenReturn(new URL("https://some-bucket.s3.amazonaws.com/a/b.txt?X-Amz-Signature=abc"));
+					when(store.getResource(eq("/a/b.txt"))).thenReturn(resource);
+				});
+				It("should not be found rather than redirect", () -> {
+					assertThat(thrown instanceof ResourceNotFoundException, is(true));
+					assertThat(response.getHeader("Location"), is(nullValue()));
+					verify(handler, never()).handleRequest(request, response);
+				});
+			});
+			Context("given a resource that does not hand out presigned URLs", () -> {
+				BeforeEach(() -> {
+					Resource resource = mock(Resource.class);
+					when(resource.exists()).thenReturn(true);
+					when(store.getResource(eq("/a/b.txt"))).thenReturn(resource);
+				});
+				It("should serve the content through the handler", () -> {
+					verify(handler).handleRequest(request, response);
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,87 @@
+package internal.org.springframework.content.rest.mappings;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.content.fs.io.FileSystemDeletableResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class RangeableResourceRegionHttpMessageConverterTest {
+
+	private RangeableResourceRegionHttpMessageConverter converter;
+	private Resource resource;
+	private MockHttpOutputMessage output;
+
+	{
+		Describe("RangeableResourceRegionHttpMessageConverter", () -> {
+			BeforeEach(() -> {
+				converter = new RangeableResourceRegionHttpMessageConverter();
+				output = new MockHttpOutputMessage();
+			});
+			JustBeforeEach(() -> {
+				converter.write(new ResourceRegion(resource, 6, 7), MediaType.TEXT_PLAIN, output);
+			});
+			Context("given a rangeable resource", () -> {
+				BeforeEach(() -> {
+					resource = mock(RangeableResource.class);
+					when(resource.contentLength()).thenReturn(20L);
+					when(((RangeableResource)resource).getInputStream(6, 7)).thenReturn(new ByteArrayInputStream("content".getBytes()));
+				});
+				It("should read only the range from the resource", () -> {
+					verify((RangeableResource)resource).getInputStream(6, 7);
+					verify(resource, never()).getInputStream();
+					assertThat(output.getBodyAsString(), is("content"));
+					assertThat(output.getHeaders().getFirst("Content-Range"), is("bytes 6-12/20"));
+					assertThat(output.getHeaders().getContentLength(), is(7L));
+				});
+			});
+			Context("given a file backed resource", () -> {
+				BeforeEach(() -> {
+					File file = File.createTempFile("region", ".txt");
+					file.deleteOnExit();
+					FileUtils.writeStringToFile(file, "Hello content world!");
+					resource = new FileSystemDeletableResource(new FileSystemResource(file));
+				});
+				It("should transfer the range from the file", () -> {
+					assertThat(output.getBodyAsString(), is("content"));
+					assertThat(output.getHeaders().getFirst("Content-Range"), is("bytes 6-12/20"));
+					assertThat(output.getHeaders().getContentLength(), is(7L));
+				});
+			});
+			Context("given any other resource", () -> {
+				BeforeEach(() -> {
+					resource = new ByteArrayResource("Hello content world!".getBytes());
+				});
+				It("should skip to the range", () -> {
+					assertThat(output.getBodyAsString(), is("content"));
+					assertThat(output.getHeaders().getFirst("Content-Range"), is("bytes 6-12/20"));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,104 @@
+package internal.org.springframework.content.rest.mappings;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.fs.io.FileSystemDeletableResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class StoreByteRangeHttpRequestHandlerTest {
+
+	private StoreByteRangeHttpRequestHandler handler;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	private ContentCachingResponseWrapper wrapped;
+	private File file;
+
+	{
+		Describe("StoreByteRangeHttpRequestHandler", () -> {
+			BeforeEach(() -> {
+				StaticWebApplicationContext context = new StaticWebApplicationContext();
+				context.setServletContext(new MockServletContext());
+				handler = new StoreByteRangeHttpRequestHandler();
+				handler.setApplicationContext(context);
+				handler.afterPropertiesSet();
+
+				file = File.createTempFile("handler", ".txt");
+				file.deleteOnExit();
+				FileUtils.writeStringToFile(file, "Hello content world!");
+
+				request = new MockHttpServletRequest("GET", "/content");
+				request.setAttribute("SPRING_CONTENT_RESOURCE", new FileSystemDeletableResource(new FileSystemResource(file)));
+				request.setAttribute("SPRING_CONTENT_CONTENTTYPE", "text/plain");
+				response = new MockHttpServletResponse();
+				wrapped = null;
+			});
+			JustBeforeEach(() -> {
+				handler.handleRequest(request, (wrapped != null ? wrapped : response));
+			});
+			Context("given a file backed resource", () -> {
+				It("should transfer the file to the response", () -> {
+					assertThat(response.getContentAsString(), is("Hello content world!"));
+					assertThat(response.getContentLength(), is(20));
+				});
+			});
+			Context("given a file backed resource and a container supporting sendfile", () -> {
+				BeforeEach(() -> {
+					request.setAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_SUPPORT, Boolean.TRUE);
+				});
+				It("should hand the file to the container", () -> {
+					assertThat(request.getAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_FILENAME), is(file.getAbsolutePath()));
+					assertThat(request.getAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_START), is(0L));
+					assertThat(request.getAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_END), is(20L));
+					assertThat(response.getContentLength(), is(20));
+					assertThat(response.getContentType(), is("text/plain"));
+					assertThat(response.getContentAsString(), is(""));
+				});
+				Context("when the response is wrapped", () -> {
+					BeforeEach(() -> {
+						response = new MockHttpServletResponse();
+						wrapped = new ContentCachingResponseWrapper(response);
+					});
+					JustBeforeEach(() -> {
+						wrapped.copyBodyToResponse();
+					});
+					It("should write the file itself", () -> {
+						assertThat(request.getAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_FILENAME), is(nullValue()));
+						assertThat(response.getContentAsString(), is("Hello content world!"));
+						assertThat(response.getContentLength(), is(20));
+					});
+				});
+				Context("when a range is requested", () -> {
+					BeforeEach(() -> {
+						request.addHeader("Range", "bytes=6-12");
+					});
+					It("should write the range itself", () -> {
+						assertThat(request.getAttribute(StoreByteRangeHttpRequestHandler.SENDFILE_FILENAME), is(nullValue()));
+						assertThat(response.getStatus(), is(206));
+						assertThat(response.getContentAsString(), is("content"));
+					});
+				});
+			});
+		});
+	}
+}
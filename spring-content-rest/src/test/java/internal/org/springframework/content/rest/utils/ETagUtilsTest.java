@@ -0,0 +1,92 @@
+package internal.org.springframework.content.rest.utils;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentDigest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class ETagUtilsTest {
+
+	private DigestedEntity entity;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+
+	{
+		Describe("ETagUtils", () -> {
+			BeforeEach(() -> {
+				entity = new DigestedEntity();
+				entity.digest = "abc123";
+				request = new MockHttpServletRequest("GET", "/");
+				response = new MockHttpServletResponse();
+			});
+			Context("#eTagFor", () -> {
+				It("should quote the digest", () -> {
+					assertThat(ETagUtils.eTagFor(entity), is("\"abc123\""));
+				});
+				It("should return null when there is no digest", () -> {
+					entity.digest = null;
+					assertThat(ETagUtils.eTagFor(entity), is(nullValue()));
+					assertThat(ETagUtils.eTagFor(new Object()), is(nullValue()));
+				});
+			});
+			Context("#checkPreconditions", () -> {
+				It("should proceed and set the ETag without conditional headers", () -> {
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(true));
+					assertThat(response.getHeader("ETag"), is("\"abc123\""));
+				});
+				It("should answer a matching If-None-Match GET with 304", () -> {
+					request.addHeader("If-None-Match", "\"other\", W/\"abc123\"");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(false));
+					assertThat(response.getStatus(), is(304));
+				});
+				It("should proceed with a GET whose If-None-Match does not match", () -> {
+					request.addHeader("If-None-Match", "\"other\"");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(true));
+				});
+				It("should answer If-None-Match * on a PUT with 412 when content exists", () -> {
+					request.setMethod("PUT");
+					request.addHeader("If-None-Match", "*");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(false));
+					assertThat(response.getStatus(), is(412));
+				});
+				It("should proceed with a strongly matching If-Match", () -> {
+					request.setMethod("PUT");
+					request.addHeader("If-Match", "\"abc123\"");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(true));
+				});
+				It("should answer a weak or stale If-Match with 412", () -> {
+					request.setMethod("DELETE");
+					request.addHeader("If-Match", "W/\"abc123\", \"stale\"");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(false));
+					assertThat(response.getStatus(), is(412));
+				});
+				It("should answer If-Match with 412 when there is no content", () -> {
+					entity.digest = null;
+					request.addHeader("If-Match", "*");
+					assertThat(ETagUtils.checkPreconditions(request, response, entity), is(false));
+					assertThat(response.getStatus(), is(412));
+				});
+				It("should ignore preconditions for entities without a @ContentDigest field", () -> {
+					request.addHeader("If-Match", "\"stale\"");
+					assertThat(ETagUtils.checkPreconditions(request, response, new Object()), is(true));
+				});
+			});
+		});
+	}
+
+	public static class DigestedEntity {
+		@ContentDigest
+		public String digest;
+	}
+}
@@ -11,6 +11,7 @@ import org.springframework.content.rest.StoreRestResource;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.mockito.Matchers.eq;
@@ -51,7 +52,7 @@ public class StoreUtilsTest {
 					BeforeEach(() -> {
 						ContentStore storeImpl = mock(ContentStoreWithDeprecatedAnnotation.class);
 						info = new ContentStoreInfoImpl(ContentStoreWithDeprecatedAnnotation.class, TestEntity.class, storeImpl);
-						when(stores.getStores(eq(ContentStore.class))).thenReturn(new ContentStoreInfo[]{info});
+						when(stores.getStoresByDomainClass(eq(TestEntity.class))).thenReturn(new ContentStoreInfo[]{info});
 					});
 					It("should find the content store", () -> {
 						assertThat(result, is(info));
@@ -61,12 +62,22 @@ public class StoreUtilsTest {
 					BeforeEach(() -> {
 						ContentStore storeImpl = mock(ContentStoreWithAnnotation.class);
 						info = new ContentStoreInfoImpl(ContentStoreWithAnnotation.class, TestEntity.class, storeImpl);
-						when(stores.getStores(eq(ContentStore.class))).thenReturn(new ContentStoreInfo[]{info});
+						when(stores.getStoresByDomainClass(eq(TestEntity.class))).thenReturn(new ContentStoreInfo[]{info});
 					});
 					It("should find the content store", () -> {
 						assertThat(result, is(info));
 					});
 				});
+				Context("given a content store service with a store that is not exported", () -> {
+					BeforeEach(() -> {
+						ContentStore storeImpl = mock(ContentStoreWithoutAnnotation.class);
+						info = new ContentStoreInfoImpl(ContentStoreWithoutAnnotation.class, TestEntity.class, storeImpl);
+						when(stores.getStoresByDomainClass(eq(TestEntity.class))).thenReturn(new ContentStoreInfo[]{info});
+					});
+					It("should not find the content store", () -> {
+						assertThat(result, is(nullValue()));
+					});
+				});
 			});
 		});
 		Context("#findContentStore (by path name)", () -> {
@@ -81,7 +92,7 @@ public class StoreUtilsTest {
 				BeforeEach(() -> {
 					ContentStore storeImpl = mock(ContentStoreWithAnnotation.class);
 					info = new ContentStoreInfoImpl(ContentStoreWithAnnotation.class, TestEntity.class, storeImpl);
-					when(stores.getStores(eq(ContentStore.class))).thenReturn(new ContentStoreInfo[]{info});
+					when(stores.getStoreByPath(eq(ContentStore.class), eq("testEntities"), eq(ContentStoreUtils.STORE_PATH_RESOLVER))).thenReturn(info);
 				});
 				It("should return the content store", () -> {
 					assertThat(result, is(info));
@@ -131,6 +142,10 @@ public class StoreUtilsTest {
 		});
 	}
 	
+	public static interface ContentStoreWithoutAnnotation extends ContentStore<TestEntity, UUID> {
+		//
+	}
+
 	@ContentStoreRestResource
 	public static interface ContentStoreWithDeprecatedAnnotation extends ContentStore<TestEntity, UUID> {
 		//
@@ -44,6 +44,7 @@ public class S3ContentAutoConfigureRegistrar extends S3StoresRegistrar {
 
 			builder.getRawBeanDefinition().setSource(importingClassMetadata);
 			builder.addPropertyValue(AbstractStoreBeanDefinitionRegistrar.STORE_INTERFACE_PROPERTY, definition.getBeanClassName());
+			customizeStoreBeanDefinition(builder, attributes);
 
 			registry.registerBeanDefinition(StoreUtils.getStoreBeanName(definition), builder.getBeanDefinition());
 		}
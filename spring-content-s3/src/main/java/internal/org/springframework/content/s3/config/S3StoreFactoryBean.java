@@ -1,17 +1,23 @@
 package internal.org.springframework.content.s3.config;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.aws.core.io.s3.SimpleStorageResourceLoader;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
+import org.springframework.content.s3.config.HashedPrefixKeyStrategy;
+import org.springframework.content.s3.config.S3KeyStrategy;
 import org.springframework.core.convert.ConversionService;
 
 import com.amazonaws.services.s3.AmazonS3;
 
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelRangeDownloader;
+import internal.org.springframework.content.s3.io.S3ObjectMetadataCache;
 import internal.org.springframework.content.s3.store.DefaultS3StoreImpl;
 
 @SuppressWarnings("rawtypes")
-public class S3StoreFactoryBean extends AbstractStoreFactoryBean {
+public class S3StoreFactoryBean extends AbstractStoreFactoryBean implements DisposableBean {
 
 	@Autowired
 	private AmazonS3 client; 
@@ -22,11 +28,118 @@ public class S3StoreFactoryBean extends AbstractStoreFactoryBean {
 	@Autowired
 	private ConversionService s3StoreConverter;
 
+	@Autowired(required=false)
+	private S3KeyStrategy keyStrategy;
+
 	@Value("${spring.content.s3.bucket:#{environment.AWS_BUCKET}}")
 	private String bucket;
+
+	private long multipartPartSize = MultipartUploader.DEFAULT_PART_SIZE;
+	private int uploadThreads = MultipartUploader.DEFAULT_UPLOAD_THREADS;
+	private long uploadBufferSize = MultipartUploader.DEFAULT_MAX_BUFFER_SIZE;
+	private long downloadRangeSize = ParallelRangeDownloader.DEFAULT_RANGE_SIZE;
+	private int downloadThreads = 0;
+	private int metadataCacheSize = 0;
+	private int keyHashPrefixLength = 0;
+	private int presignedUrlExpirySeconds = 0;
+
+	private MultipartUploader multipartUploader;
+	private ParallelRangeDownloader rangeDownloader;
+
+	public void setMultipartPartSize(long multipartPartSize) {
+		this.multipartPartSize = multipartPartSize;
+	}
+
+	/**
+	 * @param uploadThreads the number of parts each store uploads at once, or 0 to upload
+	 * through the resource's output stream
+	 */
+	public void setUploadThreads(int uploadThreads) {
+		this.uploadThreads = uploadThreads;
+	}
+
+	/**
+	 * @param uploadBufferSize the number of bytes of parts all of each store's uploads may
+	 * buffer at once
+	 */
+	public void setUploadBufferSize(long uploadBufferSize) {
+		this.uploadBufferSize = uploadBufferSize;
+	}
+
+	public void setDownloadRangeSize(long downloadRangeSize) {
+		this.downloadRangeSize = downloadRangeSize;
+	}
+
+	/**
+	 * @param downloadThreads the number of ranges each store downloads at once, or 0 to
+	 * download over a single connection
+	 */
+	public void setDownloadThreads(int downloadThreads) {
+		this.downloadThreads = downloadThreads;
+	}
+
+	/**
+	 * @param metadataCacheSize the number of objects whose metadata each store caches, or 0
+	 * to ask S3 each time
+	 */
+	public void setMetadataCacheSize(int metadataCacheSize) {
+		this.metadataCacheSize = metadataCacheSize;
+	}
+
+	public void setKeyHashPrefixLength(int keyHashPrefixLength) {
+		this.keyHashPrefixLength = keyHashPrefixLength;
+	}
+
+	/**
+	 * @param presignedUrlExpirySeconds how long the presigned URLs each store's resources
+	 * hand out are valid for, or 0 to hand out none
+	 */
+	public void setPresignedUrlExpirySeconds(int presignedUrlExpirySeconds) {
+		this.presignedUrlExpirySeconds = presignedUrlExpirySeconds;
+	}
 	
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultS3StoreImpl(loader, s3StoreConverter, client, bucket);
+		DefaultS3StoreImpl store = new DefaultS3StoreImpl(loader, s3StoreConverter, client, bucket);
+		store.setKeyStrategy(getKeyStrategy());
+		store.setPresignedUrlExpiryMillis(presignedUrlExpirySeconds * 1000L);
+		if (uploadThreads > 0) {
+			multipartUploader = new MultipartUploader(client, multipartPartSize, uploadThreads, uploadBufferSize);
+			store.setMultipartUploader(multipartUploader);
+		}
+		if (downloadThreads > 0) {
+			rangeDownloader = new ParallelRangeDownloader(client, downloadRangeSize, downloadThreads);
+			store.setRangeDownloader(rangeDownloader);
+		}
+		if (metadataCacheSize > 0) {
+			store.setMetadataCache(new S3ObjectMetadataCache(metadataCacheSize, S3ObjectMetadataCache.DEFAULT_TIME_TO_LIVE_MILLIS));
+		}
+		return store;
+	}
+
+	MultipartUploader getMultipartUploader() {
+		return multipartUploader;
+	}
+
+	ParallelRangeDownloader getRangeDownloader() {
+		return rangeDownloader;
+	}
+
+	@Override
+	public void destroy() {
+		if (multipartUploader != null) {
+			multipartUploader.shutdown();
+		}
+		if (rangeDownloader != null) {
+			rangeDownloader.shutdown();
+		}
+	}
+
+	// an application defined strategy takes precedence over the configured hash prefix length
+	private S3KeyStrategy getKeyStrategy() {
+		if (keyStrategy != null) {
+			return keyStrategy;
+		}
+		return (keyHashPrefixLength > 0 ? new HashedPrefixKeyStrategy(keyHashPrefixLength) : null);
 	}
 }
@@ -2,9 +2,11 @@ package internal.org.springframework.content.s3.config;
 
 import java.lang.annotation.Annotation;
 
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.content.commons.config.AbstractStoreBeanDefinitionRegistrar;
 import org.springframework.content.s3.config.EnableS3Stores;
+import org.springframework.core.annotation.AnnotationAttributes;
 
 public class S3StoresRegistrar extends AbstractStoreBeanDefinitionRegistrar {
 
@@ -12,6 +14,34 @@ public class S3StoresRegistrar extends AbstractStoreBeanDefinitionRegistrar {
 	protected void createOperationsBean(BeanDefinitionRegistry registry) {
 	}
 
+	@Override
+	protected void customizeStoreBeanDefinition(BeanDefinitionBuilder builder, AnnotationAttributes attributes) {
+		if (attributes.containsKey("multipartPartSize")) {
+			builder.addPropertyValue("multipartPartSize", attributes.getNumber("multipartPartSize"));
+		}
+		if (attributes.containsKey("uploadThreads")) {
+			builder.addPropertyValue("uploadThreads", attributes.getNumber("uploadThreads"));
+		}
+		if (attributes.containsKey("uploadBufferSize")) {
+			builder.addPropertyValue("uploadBufferSize", attributes.getNumber("uploadBufferSize"));
+		}
+		if (attributes.containsKey("downloadRangeSize")) {
+			builder.addPropertyValue("downloadRangeSize", attributes.getNumber("downloadRangeSize"));
+		}
+		if (attributes.containsKey("downloadThreads")) {
+			builder.addPropertyValue("downloadThreads", attributes.getNumber("downloadThreads"));
+		}
+		if (attributes.containsKey("metadataCacheSize")) {
+			builder.addPropertyValue("metadataCacheSize", attributes.getNumber("metadataCacheSize"));
+		}
+		if (attributes.containsKey("keyHashPrefixLength")) {
+			builder.addPropertyValue("keyHashPrefixLength", attributes.getNumber("keyHashPrefixLength"));
+		}
+		if (attributes.containsKey("presignedUrlExpirySeconds")) {
+			builder.addPropertyValue("presignedUrlExpirySeconds", attributes.getNumber("presignedUrlExpirySeconds"));
+		}
+	}
+
 	@Override
 	protected Class<? extends Annotation> getAnnotation() {
 		return EnableS3Stores.class;
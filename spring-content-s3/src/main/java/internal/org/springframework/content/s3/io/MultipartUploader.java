@@ -0,0 +1,337 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Uploads content to S3 in parts, several at a time, while the content is still being read.
+ * <p>
+ * Content that fits in a single part is uploaded with one put.  Otherwise each part is read
+ * into one of up to {@code uploadThreads + 1} buffers and uploaded on the uploader's pool;
+ * reading waits for a free buffer.  If reading or any part fails the multipart upload is
+ * aborted so that S3 does not keep its parts.
+ * <p>
+ * The part buffers of all the uploads in progress share a budget of {@code maxBufferSize}
+ * bytes.  Each upload waits for one buffer's worth of the budget before it buffers a part,
+ * and only takes further buffers while the budget allows, so concurrent uploads slow down,
+ * rather than exhaust memory, once it is spent.  The pool is stopped by {@link #shutdown()}.
+ * <p>
+ * S3 accepts at most {@value #MAX_PARTS} parts per upload.  As the length of the content is
+ * not known up front, the part size doubles every {@code MAX_PARTS / 10} parts, up to the
+ * size of the whole budget, so that large content still fits.  Content larger than
+ * {@link #getMaxUploadSize()} fails, and is aborted, as soon as the part after the last
+ * one S3 accepts is read, rather than when the upload is completed.
+ */
+public class MultipartUploader {
+
+	private static final Log logger = LogFactory.getLog(MultipartUploader.class);
+
+	// the smallest part S3 accepts, other than the last
+	public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+	// the largest part S3 accepts
+	public static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+	// the most parts S3 accepts in one upload
+	public static final int MAX_PARTS = 10000;
+
+	public static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;
+	public static final int DEFAULT_UPLOAD_THREADS = 2;
+	public static final long DEFAULT_MAX_BUFFER_SIZE = 32L * 1024 * 1024;
+
+	private static final int FIRST_READ_SIZE = 64 * 1024;
+
+	private final AmazonS3 client;
+	private final int partSize;
+	private final int uploadThreads;
+	private final Semaphore buffers;
+	private final ThreadPoolExecutor executor;
+	private final int maxParts;
+	// parts uploaded at each part size before it doubles
+	private final int partsPerSize;
+	// the largest part, in multiples of partSize
+	private final int maxScale;
+	private final long maxUploadSize;
+
+	public MultipartUploader(AmazonS3 client) {
+		this(client, DEFAULT_PART_SIZE, DEFAULT_UPLOAD_THREADS, DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	public MultipartUploader(AmazonS3 client, long partSize, int uploadThreads, long maxBufferSize) {
+		this(client, partSize, uploadThreads, maxBufferSize, MAX_PARTS);
+	}
+
+	/* package */ MultipartUploader(AmazonS3 client, long partSize, int uploadThreads, long maxBufferSize, int maxParts) {
+		Assert.notNull(client, "client must not be null");
+		Assert.isTrue(partSize >= MIN_PART_SIZE && partSize <= Math.min(MAX_PART_SIZE, Integer.MAX_VALUE - 8),
+				String.format("partSize must be between %d and %d", MIN_PART_SIZE, Integer.MAX_VALUE - 8));
+		Assert.isTrue(uploadThreads > 0, "uploadThreads must be positive");
+		Assert.isTrue(maxBufferSize >= partSize, "maxBufferSize must be at least partSize");
+		this.client = client;
+		this.partSize = (int) partSize;
+		this.uploadThreads = uploadThreads;
+		int budget = (int) Math.min(maxBufferSize / partSize, Integer.MAX_VALUE);
+		this.buffers = new Semaphore(budget);
+		this.maxParts = maxParts;
+		this.partsPerSize = Math.max(1, maxParts / 10);
+		this.maxScale = (int) Math.max(1, Math.min(budget, Math.min(MAX_PART_SIZE, Integer.MAX_VALUE - 8) / partSize));
+		long maxUploadSize = 0;
+		for (int partNumber = 1; partNumber <= maxParts; partNumber++) {
+			maxUploadSize += partSize(partNumber);
+		}
+		this.maxUploadSize = maxUploadSize;
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-upload-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public long getPartSize() {
+		return partSize;
+	}
+
+	public int getUploadThreads() {
+		return uploadThreads;
+	}
+
+	/**
+	 * @return the length of the largest content that fits in {@value #MAX_PARTS} parts
+	 */
+	public long getMaxUploadSize() {
+		return maxUploadSize;
+	}
+
+	/**
+	 * @return the number of part buffers the budget has left for uploads to take
+	 */
+	public int getAvailableBuffers() {
+		return buffers.availablePermits();
+	}
+
+	/**
+	 * Stops the upload threads, failing, and aborting, any upload still in progress.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	/**
+	 * Uploads the content to the key, replacing any object already there.
+	 *
+	 * @return the number of bytes uploaded
+	 * @throws IOException if the content cannot be read or uploaded
+	 */
+	public long upload(String bucket, String key, InputStream content) throws IOException {
+		byte[] first = new byte[Math.min(FIRST_READ_SIZE, partSize)];
+		int read = readFully(content, first, 0);
+		if (read < first.length) {
+			put(bucket, key, first, read);
+			return read;
+		}
+
+		PartBuffers partBuffers = new PartBuffers();
+		try {
+			byte[] part;
+			try {
+				part = partBuffers.take(partSize);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(String.format("Interrupted waiting to upload s3://%s/%s", bucket, key));
+			}
+			System.arraycopy(first, 0, part, 0, read);
+			read = readFully(content, part, read);
+			if (read < partSize) {
+				put(bucket, key, part, read);
+				return read;
+			}
+
+			String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key)).getUploadId();
+			List<Future<PartETag>> parts = new ArrayList<>();
+			try {
+				long total = 0;
+				int partNumber = 1;
+				while (read > 0) {
+					if (partNumber > maxParts) {
+						throw new IOException(String.format("Unable to upload s3://%s/%s: content exceeds %d bytes, the most that fits in %d parts", bucket, key, maxUploadSize, maxParts));
+					}
+					parts.add(uploadPart(bucket, key, uploadId, partNumber, part, read, partBuffers));
+					total += read;
+					failFast(parts);
+
+					partNumber++;
+					part = partBuffers.take(partSize(partNumber));
+					read = readFully(content, part, 0);
+				}
+
+				List<PartETag> eTags = new ArrayList<>(parts.size());
+				for (Future<PartETag> future : parts) {
+					eTags.add(future.get());
+				}
+				client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, eTags));
+				return total;
+			} catch (Exception e) {
+				abort(bucket, key, uploadId, parts);
+				if (e instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
+				Throwable cause = (e instanceof ExecutionException ? e.getCause() : e);
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw new IOException(String.format("Unable to upload s3://%s/%s", bucket, key), cause);
+			}
+		} finally {
+			partBuffers.release();
+		}
+	}
+
+	/**
+	 * @return the size of the given part, which doubles every {@code partsPerSize} parts until
+	 * it would exceed the budget or the largest part S3 accepts
+	 */
+	/* package */ int partSize(int partNumber) {
+		int doublings = Math.min((partNumber - 1) / partsPerSize, 30);
+		return (int) (Math.min(1L << doublings, maxScale) * partSize);
+	}
+
+	private void put(String bucket, String key, byte[] content, int length) {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(length);
+		client.putObject(new PutObjectRequest(bucket, key, new ByteArrayInputStream(content, 0, length), metadata));
+	}
+
+	private Future<PartETag> uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] part, int length, PartBuffers buffers) {
+		return executor.submit(() -> {
+			try {
+				UploadPartRequest request = new UploadPartRequest()
+						.withBucketName(bucket)
+						.withKey(key)
+						.withUploadId(uploadId)
+						.withPartNumber(partNumber)
+						.withInputStream(new ByteArrayInputStream(part, 0, length))
+						.withPartSize(length);
+				return client.uploadPart(request).getPartETag();
+			} finally {
+				buffers.offer(part);
+			}
+		});
+	}
+
+	// stops reading the content as soon as a part has failed
+	private static void failFast(List<Future<PartETag>> parts) throws InterruptedException, ExecutionException {
+		for (Future<PartETag> part : parts) {
+			if (part.isDone()) {
+				part.get();
+			}
+		}
+	}
+
+	private void abort(String bucket, String key, String uploadId, List<Future<PartETag>> parts) {
+		for (Future<PartETag> part : parts) {
+			part.cancel(true);
+		}
+		try {
+			client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+		} catch (RuntimeException e) {
+			logger.error(String.format("Unable to abort multipart upload %s of s3://%s/%s", uploadId, bucket, key), e);
+		}
+	}
+
+	/**
+	 * The part buffers of one upload, each holding its size's worth of the budget.  Once the
+	 * part size grows, buffers of the smaller size are dropped, and their share of the budget
+	 * given back, as they are returned by the upload threads.
+	 */
+	private class PartBuffers {
+
+		// buffers returned by the upload threads
+		private final BlockingQueue<byte[]> free = new LinkedBlockingQueue<>();
+		// buffers allocated and not yet dropped
+		private int allocated;
+		// permits taken from the budget for the allocated buffers
+		private int held;
+
+		/**
+		 * Takes a free buffer of the given size, allocating one while fewer than
+		 * {@code uploadThreads + 1} are allocated and the budget allows, and otherwise waiting
+		 * for one to be returned.
+		 */
+		private byte[] take(int size) throws InterruptedException {
+			int permits = size / partSize;
+			while (true) {
+				byte[] buffer = free.poll();
+				if (buffer == null) {
+					if (allocated == 0) {
+						buffers.acquire(permits);
+						return allocate(size, permits);
+					}
+					if (allocated <= uploadThreads && buffers.tryAcquire(permits)) {
+						return allocate(size, permits);
+					}
+					buffer = free.take();
+				}
+				if (buffer.length == size) {
+					return buffer;
+				}
+				allocated--;
+				held -= buffer.length / partSize;
+				buffers.release(buffer.length / partSize);
+			}
+		}
+
+		private byte[] allocate(int size, int permits) {
+			allocated++;
+			held += permits;
+			return new byte[size];
+		}
+
+		// called by the upload threads
+		private void offer(byte[] buffer) {
+			free.offer(buffer);
+		}
+
+		private void release() {
+			buffers.release(held);
+		}
+	}
+
+	private static int readFully(InputStream in, byte[] buffer, int offset) throws IOException {
+		int read = offset;
+		while (read < buffer.length) {
+			int n = in.read(buffer, read, buffer.length - read);
+			if (n == -1) {
+				break;
+			}
+			read += n;
+		}
+		return read;
+	}
+}
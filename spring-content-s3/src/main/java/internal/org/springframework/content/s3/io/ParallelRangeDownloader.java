@@ -0,0 +1,270 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+
+/**
+ * Downloads large S3 objects as a sequence of ranges fetched concurrently.
+ * <p>
+ * Objects larger than one range are read through a stream that keeps up to
+ * {@code downloadThreads + 1} ranges ahead of the reader in flight, or buffered, and hands
+ * them to the reader in order.  Every range after the first is requested with the object's
+ * ETag so that an object replaced mid-download fails the read rather than mixing versions.
+ * Smaller objects are read with a single GET.
+ * <p>
+ * The ranges are fetched on a pool of {@code downloadThreads} threads, which
+ * {@link #shutdown()} stops once the downloader is no longer needed.
+ */
+public class ParallelRangeDownloader {
+
+	private static final Log logger = LogFactory.getLog(ParallelRangeDownloader.class);
+
+	public static final long DEFAULT_RANGE_SIZE = 8L * 1024 * 1024;
+	public static final int DEFAULT_DOWNLOAD_THREADS = 4;
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final AmazonS3 client;
+	private final int rangeSize;
+	private final int downloadThreads;
+	private final ThreadPoolExecutor executor;
+
+	public ParallelRangeDownloader(AmazonS3 client) {
+		this(client, DEFAULT_RANGE_SIZE, DEFAULT_DOWNLOAD_THREADS);
+	}
+
+	public ParallelRangeDownloader(AmazonS3 client, long rangeSize, int downloadThreads) {
+		Assert.notNull(client, "client must not be null");
+		Assert.isTrue(rangeSize > 0 && rangeSize <= Integer.MAX_VALUE - 8, "rangeSize must be positive and fit in an array");
+		Assert.isTrue(downloadThreads > 0, "downloadThreads must be positive");
+		this.client = client;
+		this.rangeSize = (int) rangeSize;
+		this.downloadThreads = downloadThreads;
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-download-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(downloadThreads, downloadThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Stops the download threads, failing any download still in progress.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	/**
+	 * Reads the object starting with a ranged GET of its first range, so that objects of no
+	 * more than one range cost a single request and no HEAD is needed to learn the size of
+	 * larger ones.
+	 *
+	 * @return a stream over the object, or null if there is no such object
+	 * @throws IOException if the object cannot be read
+	 */
+	public InputStream getInputStream(String bucket, String key) throws IOException {
+		S3Object first;
+		try {
+			first = client.getObject(new GetObjectRequest(bucket, key).withRange(0, rangeSize - 1));
+		} catch (AmazonS3Exception e) {
+			if (e.getStatusCode() == 404) {
+				return null;
+			} else if (e.getStatusCode() == 416) {
+				// an empty object has no first range
+				first = client.getObject(bucket, key);
+			} else {
+				throw new IOException(String.format("Unable to read s3://%s/%s", bucket, key), e);
+			}
+		}
+		if (first == null) {
+			throw new IOException(String.format("Unable to read s3://%s/%s", bucket, key));
+		}
+
+		ObjectMetadata metadata = first.getObjectMetadata();
+		long length = metadata.getInstanceLength();
+		if (length <= rangeSize) {
+			return first.getObjectContent();
+		}
+		return new RangeInputStream(bucket, key, metadata.getETag(), length, first);
+	}
+
+	private byte[] fetch(String bucket, String key, String eTag, long start, int length) throws IOException {
+		IOException failure = null;
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			GetObjectRequest request = new GetObjectRequest(bucket, key).withRange(start, start + length - 1);
+			if (eTag != null) {
+				request = request.withMatchingETagConstraint(eTag);
+			}
+			S3Object object = client.getObject(request);
+			if (object == null) {
+				throw new IOException(String.format("s3://%s/%s changed while it was being downloaded", bucket, key));
+			}
+			try {
+				return readRange(object, bucket, key, start, length);
+			} catch (IOException e) {
+				logger.debug(String.format("Unable to read range of s3://%s/%s at %d, attempt %d", bucket, key, start, attempt + 1), e);
+				failure = e;
+			}
+		}
+		throw failure;
+	}
+
+	private static byte[] readRange(S3Object object, String bucket, String key, long start, int length) throws IOException {
+		try (InputStream in = object.getObjectContent()) {
+			byte[] range = new byte[length];
+			int read = 0;
+			while (read < length) {
+				int n = in.read(range, read, length - read);
+				if (n == -1) {
+					throw new EOFException(String.format("Range of s3://%s/%s at %d ended after %d of %d bytes", bucket, key, start, read, length));
+				}
+				read += n;
+			}
+			return range;
+		}
+	}
+
+	private class RangeInputStream extends InputStream {
+
+		private final String bucket;
+		private final String key;
+		private final String eTag;
+		private final long length;
+		private final S3Object first;
+
+		private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+		private long next;
+
+		private byte[] current;
+		private int position;
+		private boolean closed;
+
+		private RangeInputStream(String bucket, String key, String eTag, long length, S3Object first) throws IOException {
+			this.bucket = bucket;
+			this.key = key;
+			this.eTag = eTag;
+			this.length = length;
+			this.first = first;
+			next = 0;
+			submit(() -> readRange(first, bucket, key, 0, rangeSize), rangeSize);
+			fill();
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!ensureCurrent()) {
+				return -1;
+			}
+			return current[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!ensureCurrent()) {
+				return -1;
+			}
+			int read = Math.min(len, current.length - position);
+			System.arraycopy(current, position, b, off, read);
+			position += read;
+			return read;
+		}
+
+		@Override
+		public int available() {
+			return (current != null ? current.length - position : 0);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			for (Future<byte[]> range : pending) {
+				range.cancel(true);
+			}
+			pending.clear();
+			current = null;
+			try {
+				first.close();
+			} catch (IOException ioe) {
+				// ignore
+			}
+		}
+
+		// makes sure the current range has bytes left, moving on to the next if not
+		private boolean ensureCurrent() throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			if (current != null && position < current.length) {
+				return true;
+			}
+			Future<byte[]> range = pending.poll();
+			if (range == null) {
+				return false;
+			}
+			try {
+				current = range.get();
+				position = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new InterruptedIOException(String.format("Interrupted reading s3://%s/%s", bucket, key));
+			} catch (ExecutionException e) {
+				close();
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw new IOException(String.format("Unable to read s3://%s/%s", bucket, key), cause);
+			}
+			fill();
+			return true;
+		}
+
+		private void fill() throws IOException {
+			while (pending.size() <= downloadThreads && next < length) {
+				long start = next;
+				int size = (int) Math.min(rangeSize, length - start);
+				submit(() -> fetch(bucket, key, eTag, start, size), size);
+			}
+		}
+
+		private void submit(Callable<byte[]> range, int size) throws IOException {
+			try {
+				pending.add(executor.submit(range));
+			} catch (RejectedExecutionException e) {
+				close();
+				throw new IOException(String.format("Unable to read s3://%s/%s, the downloader has been shut down", bucket, key), e);
+			}
+			next += size;
+		}
+	}
+}
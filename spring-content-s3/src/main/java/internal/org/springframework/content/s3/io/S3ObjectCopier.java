@@ -0,0 +1,120 @@
+package internal.org.springframework.content.s3.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+
+/**
+ * Copies S3 objects within a bucket server-side, so that the content is not downloaded and
+ * uploaded again.
+ * <p>
+ * Objects no larger than the multipart threshold are copied with a single copy request;
+ * larger ones, which S3 will not copy in one request, are copied part by part with a
+ * multipart upload.  Every part is copied from the ETag the source had when the copy began.
+ */
+public class S3ObjectCopier {
+
+	private static final Log logger = LogFactory.getLog(S3ObjectCopier.class);
+
+	// the largest object S3 copies in a single request
+	public static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+	public static final long DEFAULT_PART_SIZE = 512L * 1024 * 1024;
+
+	private final AmazonS3 client;
+	private final long partSize;
+	private final long multipartThreshold;
+
+	public S3ObjectCopier(AmazonS3 client) {
+		this(client, DEFAULT_PART_SIZE, MAX_SINGLE_COPY_SIZE);
+	}
+
+	public S3ObjectCopier(AmazonS3 client, long partSize, long multipartThreshold) {
+		Assert.notNull(client, "client must not be null");
+		Assert.isTrue(partSize >= MultipartUploader.MIN_PART_SIZE && partSize <= MultipartUploader.MAX_PART_SIZE,
+				String.format("partSize must be between %d and %d", MultipartUploader.MIN_PART_SIZE, MultipartUploader.MAX_PART_SIZE));
+		Assert.isTrue(multipartThreshold > 0 && multipartThreshold <= MAX_SINGLE_COPY_SIZE,
+				String.format("multipartThreshold must be positive and at most %d", MAX_SINGLE_COPY_SIZE));
+		this.client = client;
+		this.partSize = partSize;
+		this.multipartThreshold = multipartThreshold;
+	}
+
+	/**
+	 * Copies the source object over the target key.
+	 *
+	 * @return the length of the object copied, or -1 if there is no source object
+	 */
+	public long copy(String bucket, String sourceKey, String targetKey) {
+		ObjectMetadata metadata;
+		try {
+			metadata = client.getObjectMetadata(bucket, sourceKey);
+		} catch (AmazonS3Exception e) {
+			if (e.getStatusCode() == 404) {
+				return -1;
+			}
+			throw e;
+		}
+
+		long length = metadata.getContentLength();
+		if (length <= multipartThreshold) {
+			CopyObjectResult result = client.copyObject(new CopyObjectRequest(bucket, sourceKey, bucket, targetKey)
+					.withMatchingETagConstraint(metadata.getETag()));
+			if (result == null) {
+				throw changed(bucket, sourceKey);
+			}
+			return length;
+		}
+
+		String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, targetKey)).getUploadId();
+		try {
+			List<PartETag> eTags = new ArrayList<>();
+			for (long start = 0; start < length; start += partSize) {
+				CopyPartRequest request = new CopyPartRequest()
+						.withSourceBucketName(bucket)
+						.withSourceKey(sourceKey)
+						.withDestinationBucketName(bucket)
+						.withDestinationKey(targetKey)
+						.withUploadId(uploadId)
+						.withPartNumber(eTags.size() + 1)
+						.withFirstByte(start)
+						.withLastByte(Math.min(start + partSize, length) - 1)
+						.withMatchingETagConstraint(metadata.getETag());
+				CopyPartResult result = client.copyPart(request);
+				if (result == null) {
+					throw changed(bucket, sourceKey);
+				}
+				eTags.add(result.getPartETag());
+			}
+			client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, targetKey, uploadId, eTags));
+			return length;
+		} catch (RuntimeException e) {
+			try {
+				client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, targetKey, uploadId));
+			} catch (RuntimeException abortFailure) {
+				logger.error(String.format("Unable to abort multipart copy %s of s3://%s/%s", uploadId, bucket, targetKey), abortFailure);
+			}
+			throw e;
+		}
+	}
+
+	// the SDK answers a failed ETag constraint with no result rather than an exception
+	private static IllegalStateException changed(String bucket, String key) {
+		return new IllegalStateException(String.format("s3://%s/%s changed while it was being copied", bucket, key));
+	}
+}
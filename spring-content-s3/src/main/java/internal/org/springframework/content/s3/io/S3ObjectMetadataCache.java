@@ -0,0 +1,117 @@
+package internal.org.springframework.content.s3.io;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+
+/**
+ * Small, least recently used cache of the size, ETag and last modified time of S3 objects,
+ * keyed by object key, so that resource metadata does not cost a HEAD request each time it
+ * is asked for.
+ * <p>
+ * The store invalidates an object's entry whenever it writes or deletes the object.  Entries
+ * also expire after a time to live, bounding how stale they can be when objects are changed
+ * by other writers.
+ */
+public class S3ObjectMetadataCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 60 * 1000;
+
+	private final int maxEntries;
+	private final long timeToLiveMillis;
+
+	// guarded by itself
+	private final Map<String, Metadata> entries;
+
+	public S3ObjectMetadataCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_MILLIS);
+	}
+
+	public S3ObjectMetadataCache(int maxEntries, long timeToLiveMillis) {
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		Assert.isTrue(timeToLiveMillis > 0, "timeToLiveMillis must be positive");
+		this.maxEntries = maxEntries;
+		this.timeToLiveMillis = timeToLiveMillis;
+		this.entries = new LinkedHashMap<String, Metadata>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Metadata> eldest) {
+				return size() > S3ObjectMetadataCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return the cached metadata of the object, or null if there is none or it has expired
+	 */
+	public Metadata get(String key) {
+		synchronized (entries) {
+			Metadata metadata = entries.get(key);
+			if (metadata != null && metadata.expires < System.currentTimeMillis()) {
+				entries.remove(key);
+				return null;
+			}
+			return metadata;
+		}
+	}
+
+	/**
+	 * Caches the metadata S3 returned for the object.
+	 *
+	 * @return the cached metadata
+	 */
+	public Metadata put(String key, ObjectMetadata objectMetadata) {
+		Date lastModified = objectMetadata.getLastModified();
+		Metadata metadata = new Metadata(objectMetadata.getInstanceLength(), objectMetadata.getETag(),
+				(lastModified != null ? lastModified.getTime() : 0), System.currentTimeMillis() + timeToLiveMillis);
+		synchronized (entries) {
+			entries.put(key, metadata);
+		}
+		return metadata;
+	}
+
+	public void invalidate(String key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public static class Metadata {
+
+		private final long contentLength;
+		private final String eTag;
+		private final long lastModified;
+		private final long expires;
+
+		private Metadata(long contentLength, String eTag, long lastModified, long expires) {
+			this.contentLength = contentLength;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.expires = expires;
+		}
+
+		public long getContentLength() {
+			return contentLength;
+		}
+
+		public String getETag() {
+			return eTag;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package internal.org.springframework.content.s3.io;
+
+import java.net.URL;
+import java.util.Date;
+
+import org.springframework.content.commons.io.PresignableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
+
+/**
+ * An {@link S3RangeableResource} that also hands out presigned URLs for the object, letting
+ * clients read and write it directly against S3.
+ */
+public class S3PresignableResource extends S3RangeableResource implements PresignableResource {
+
+	private final AmazonS3 client;
+	private final String bucket;
+	private final String key;
+	private final S3ObjectMetadataCache metadataCache;
+	private final long expiryMillis;
+
+	public S3PresignableResource(Resource delegate, AmazonS3 client, String bucket, String key, ParallelRangeDownloader downloader, S3ObjectMetadataCache metadataCache, long expiryMillis) {
+		super(delegate, client, bucket, key, downloader, metadataCache);
+		Assert.isTrue(expiryMillis > 0, "expiryMillis must be positive");
+		this.client = client;
+		this.bucket = bucket;
+		this.key = key;
+		this.metadataCache = metadataCache;
+		this.expiryMillis = expiryMillis;
+	}
+
+	/**
+	 * Content is uploaded without a Content-Type, so the URL overrides the one S3 answers
+	 * with, and the Content-Disposition, through the response header overrides it is signed with.
+	 */
+	@Override
+	public URL getPresignedGetUrl(String contentType, String filename) {
+		GeneratePresignedUrlRequest request = request(HttpMethod.GET);
+		if (contentType != null || filename != null) {
+			ResponseHeaderOverrides overrides = new ResponseHeaderOverrides();
+			if (contentType != null) {
+				overrides.setContentType(contentType);
+			}
+			if (filename != null) {
+				overrides.setContentDisposition(String.format("attachment; filename=\"%s\"", filename.replace("\"", "")));
+			}
+			request.setResponseHeaders(overrides);
+		}
+		return client.generatePresignedUrl(request);
+	}
+
+	/**
+	 * The object is written without the store's knowledge so any metadata cached for it is
+	 * dropped now; entries cached again before the client's PUT lands expire as usual.
+	 */
+	@Override
+	public URL getPresignedPutUrl() {
+		if (metadataCache != null) {
+			metadataCache.invalidate(key);
+		}
+		return client.generatePresignedUrl(request(HttpMethod.PUT));
+	}
+
+	@Override
+	public void refresh() {
+		if (metadataCache != null) {
+			metadataCache.invalidate(key);
+		}
+	}
+
+	private GeneratePresignedUrlRequest request(HttpMethod method) {
+		return new GeneratePresignedUrlRequest(bucket, key, method)
+				.withExpiration(new Date(System.currentTimeMillis() + expiryMillis));
+	}
+}
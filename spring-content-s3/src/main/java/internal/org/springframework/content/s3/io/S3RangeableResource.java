@@ -0,0 +1,241 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+
+/**
+ * Decorates an S3 resource so that ranges of the object are fetched with a ranged GET
+ * rather than by downloading, and discarding, everything before the range.  Given a
+ * {@link ParallelRangeDownloader} the whole object is also read with parallel ranged GETs,
+ * and given a {@link S3ObjectMetadataCache} the object's existence, length and last modified
+ * time are answered from the cache rather than with a HEAD each time.
+ * <p>
+ * As the cached metadata may be stale, reads through a cache are pinned to the cached ETag.
+ * An object that has since been replaced or deleted fails the read, and its metadata is
+ * invalidated, rather than serving new content under the old length.
+ */
+public class S3RangeableResource implements WritableResource, RangeableResource {
+
+	private final Resource delegate;
+	private final AmazonS3 client;
+	private final String bucket;
+	private final String key;
+	private final ParallelRangeDownloader downloader;
+	private final S3ObjectMetadataCache metadataCache;
+
+	public S3RangeableResource(Resource delegate, AmazonS3 client, String bucket, String key) {
+		this(delegate, client, bucket, key, null, null);
+	}
+
+	public S3RangeableResource(Resource delegate, AmazonS3 client, String bucket, String key, ParallelRangeDownloader downloader, S3ObjectMetadataCache metadataCache) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.notNull(client, "client must not be null");
+		this.delegate = delegate;
+		this.client = client;
+		this.bucket = bucket;
+		this.key = key;
+		this.downloader = downloader;
+		this.metadataCache = metadataCache;
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		if (length <= 0) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		return get(new GetObjectRequest(bucket, key).withRange(offset, offset + length - 1));
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		if (downloader != null) {
+			InputStream content = downloader.getInputStream(bucket, key);
+			if (content == null) {
+				throw new FileNotFoundException(String.format("s3://%s/%s does not exist", bucket, key));
+			}
+			return content;
+		}
+		if (metadataCache != null) {
+			return get(new GetObjectRequest(bucket, key));
+		}
+		return delegate.getInputStream();
+	}
+
+	private InputStream get(GetObjectRequest request) throws IOException {
+		String eTag = null;
+		if (metadataCache != null) {
+			eTag = existingMetadata().getETag();
+			if (eTag != null) {
+				request = request.withMatchingETagConstraint(eTag);
+			}
+		}
+		S3Object object;
+		try {
+			object = client.getObject(request);
+		} catch (AmazonS3Exception e) {
+			if (metadataCache != null && e.getStatusCode() == 404) {
+				metadataCache.invalidate(key);
+				throw new FileNotFoundException(String.format("s3://%s/%s does not exist", bucket, key));
+			}
+			throw e;
+		}
+		if (object == null) {
+			if (eTag != null) {
+				// the ETag constraint failed, the object changed since its metadata was cached
+				metadataCache.invalidate(key);
+				throw new IOException(String.format("s3://%s/%s changed while being read", bucket, key));
+			}
+			throw new IOException(String.format("Unable to read s3://%s/%s", bucket, key));
+		}
+		return object.getObjectContent();
+	}
+
+	@Override
+	public boolean isWritable() {
+		return (delegate instanceof WritableResource && ((WritableResource)delegate).isWritable());
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException {
+		Assert.state(delegate instanceof WritableResource, "resource is not writable");
+		if (metadataCache == null) {
+			return ((WritableResource)delegate).getOutputStream();
+		}
+		metadataCache.invalidate(key);
+		return new FilterOutputStream(((WritableResource)delegate).getOutputStream()) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					metadataCache.invalidate(key);
+				}
+			}
+		};
+	}
+
+	@Override
+	public boolean exists() {
+		if (metadataCache == null) {
+			return delegate.exists();
+		}
+		return metadata() != null;
+	}
+
+	@Override
+	public boolean isReadable() {
+		return delegate.isReadable();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return delegate.isOpen();
+	}
+
+	@Override
+	public URL getURL() throws IOException {
+		return delegate.getURL();
+	}
+
+	@Override
+	public URI getURI() throws IOException {
+		return delegate.getURI();
+	}
+
+	@Override
+	public File getFile() throws IOException {
+		return delegate.getFile();
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		if (metadataCache == null) {
+			return delegate.contentLength();
+		}
+		return existingMetadata().getContentLength();
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		if (metadataCache == null) {
+			return delegate.lastModified();
+		}
+		return existingMetadata().getLastModified();
+	}
+
+	// the cached metadata, or that of a HEAD request which is then cached; null if there is no object
+	private S3ObjectMetadataCache.Metadata metadata() {
+		S3ObjectMetadataCache.Metadata metadata = metadataCache.get(key);
+		if (metadata != null) {
+			return metadata;
+		}
+		try {
+			return metadataCache.put(key, client.getObjectMetadata(bucket, key));
+		} catch (AmazonS3Exception e) {
+			if (e.getStatusCode() == 404) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private S3ObjectMetadataCache.Metadata existingMetadata() throws IOException {
+		S3ObjectMetadataCache.Metadata metadata = metadata();
+		if (metadata == null) {
+			throw new FileNotFoundException(String.format("s3://%s/%s does not exist", bucket, key));
+		}
+		return metadata;
+	}
+
+	@Override
+	public Resource createRelative(String relativePath) throws IOException {
+		return delegate.createRelative(relativePath);
+	}
+
+	@Override
+	public String getFilename() {
+		return delegate.getFilename();
+	}
+
+	@Override
+	public String getDescription() {
+		return delegate.getDescription();
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return delegate.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return delegate.hashCode();
+	}
+}
@@ -4,6 +4,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
@@ -11,9 +17,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.BulkContentStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.CopyableContentStore;
 import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.s3.config.S3KeyStrategy;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
@@ -21,26 +32,113 @@ import org.springframework.core.io.WritableResource;
 import org.springframework.util.Assert;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.S3Object;
 
-public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID> {
+import internal.org.springframework.content.commons.io.CountingInputStream;
+import internal.org.springframework.content.commons.repository.BulkOperations;
+import internal.org.springframework.content.commons.utils.ContentDigests;
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelRangeDownloader;
+import internal.org.springframework.content.s3.io.S3ObjectCopier;
+import internal.org.springframework.content.s3.io.S3ObjectMetadataCache;
+import internal.org.springframework.content.s3.io.S3PresignableResource;
+import internal.org.springframework.content.s3.io.S3RangeableResource;
+
+public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID>, BulkContentStore<S,SID>, CopyableContentStore<S,SID> {
 
 	private static Log logger = LogFactory.getLog(DefaultS3StoreImpl.class);
 
+	// the most keys S3 accepts in one multi-object delete
+	static final int MAX_DELETE_KEYS = 1000;
+
 	private ResourceLoader loader;
 	private ConversionService converter;
 	private AmazonS3 client;
 	private String bucket;
+	private MultipartUploader uploader;
+	private ParallelRangeDownloader downloader;
+	private S3ObjectCopier copier;
+	private S3ObjectMetadataCache metadataCache;
+	private S3KeyStrategy keyStrategy;
+	private long presignedUrlExpiryMillis;
 
 	public DefaultS3StoreImpl(ResourceLoader loader, ConversionService converter, AmazonS3 client, String bucket) {
 		this.loader = loader;
 		this.converter = converter;
 		this.client = client;
 		this.bucket = bucket;
+		this.copier = new S3ObjectCopier(client);
+	}
+
+	/**
+	 * Uploads content with the given uploader, in parallel parts, rather than through the
+	 * resource's output stream.
+	 */
+	public void setMultipartUploader(MultipartUploader uploader) {
+		this.uploader = uploader;
+	}
+
+	/**
+	 * Downloads large content with the given downloader, as ranges fetched in parallel, rather
+	 * than over a single connection.
+	 */
+	public void setRangeDownloader(ParallelRangeDownloader downloader) {
+		this.downloader = downloader;
+	}
+
+	/**
+	 * Copies content server-side with the given copier.
+	 */
+	public void setObjectCopier(S3ObjectCopier copier) {
+		Assert.notNull(copier, "copier must not be null");
+		this.copier = copier;
+	}
+
+	/**
+	 * Stores content under the keys the given strategy chooses rather than directly under
+	 * the locations converted from content ids.
+	 */
+	public void setKeyStrategy(S3KeyStrategy keyStrategy) {
+		this.keyStrategy = keyStrategy;
+	}
+
+	/**
+	 * Has the store's resources hand out presigned URLs, valid for the given time, through
+	 * which clients transfer content directly with S3.  0, the default, hands out none.
+	 */
+	public void setPresignedUrlExpiryMillis(long presignedUrlExpiryMillis) {
+		Assert.isTrue(presignedUrlExpiryMillis >= 0, "presignedUrlExpiryMillis must not be negative");
+		this.presignedUrlExpiryMillis = presignedUrlExpiryMillis;
+	}
+
+	/**
+	 * Answers the metadata questions asked of the store's resources from the given cache,
+	 * which the store invalidates as it writes and deletes content.
+	 */
+	public void setMetadataCache(S3ObjectMetadataCache metadataCache) {
+		this.metadataCache = metadataCache;
 	}
 
 	@Override
 	public void setContent(S property, InputStream content) {
+		try {
+			writeContent(property, content);
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error setting content %s", BeanUtils.getFieldWithAnnotation(property, ContentId.class)), e);
+		}
+	}
+
+	/**
+	 * Writes content to the property's object, then sets the property's length and digest
+	 * from what was written.
+	 */
+	private void writeContent(S property, InputStream content) throws IOException {
 		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
 		if (contentId == null) {
 			contentId = UUID.randomUUID().toString();
@@ -48,16 +146,30 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 		}
 
 		String location = converter.convert(contentId, String.class);
+		InputStream digesting = ContentDigests.digesting(property, content);
+		CountingInputStream in = new CountingInputStream(digesting);
+		// metadata cached by a read racing the write is dropped again once the write is done
+		String key = toKey(location);
+		invalidate(key);
+		if (uploader != null) {
+			try {
+				uploader.upload(bucket, key, in);
+			} finally {
+				invalidate(key);
+			}
+			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, in.getCount());
+			ContentDigests.setDigest(property, digesting);
+			return;
+		}
+
 		location = absolutify(location);
 		Resource resource = loader.getResource(location);
 		OutputStream os = null;
 		try {
 			if (resource instanceof WritableResource) {
 				os = ((WritableResource)resource).getOutputStream();
-				IOUtils.copy(content, os);
+				IOUtils.copy(in, os);
 			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
 		} finally {
 	        try {
 	            if (os != null) {
@@ -66,13 +178,11 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 	        } catch (IOException ioe) {
 	            // ignore
 	        }
+	        invalidate(key);
 		}
-			
-		try {
-			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, resource.contentLength());
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error setting content length for content %s", contentId.toString()), e);
-		}
+
+		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, in.getCount());
+		ContentDigests.setDigest(property, digesting);
 	}
 
 	@Override
@@ -84,14 +194,29 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 			return null;
 
 		String location = converter.convert(contentId, String.class);
-		location = absolutify(location);
-		Resource resource = loader.getResource(location);
+		if (downloader != null) {
+			try {
+				return downloader.getInputStream(bucket, toKey(location));
+			} catch (IOException e) {
+				logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
+				return null;
+			}
+		}
+
+		// go straight to the GET, a missing object is a 404 rather than a prior HEAD
+		String key = toKey(location);
 		try {
-			if (resource.exists()) {
-				return resource.getInputStream();
+			S3Object object = client.getObject(bucket, key);
+			if (object != null) {
+				if (metadataCache != null) {
+					metadataCache.put(key, object.getObjectMetadata());
+				}
+				return object.getObjectContent();
+			}
+		} catch (AmazonS3Exception e) {
+			if (e.getStatusCode() != 404) {
+				logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
 			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
 		}
 		
 		return null;
@@ -105,45 +230,191 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 		if (contentId == null)
 			return;
 
-		// delete any existing content object
+		// delete any existing content object, deleting a missing object is not an error
 		try {
-			String location = converter.convert(contentId, String.class);
-			location = absolutify(location);
-			Resource resource = loader.getResource(location);
-			if (resource.exists()) {
-				this.delete(resource);
-			}
+			String key = toKey(converter.convert(contentId, String.class));
+			client.deleteObject(new DeleteObjectRequest(bucket, key));
+			invalidate(key);
 
 			// reset content fields
 	        BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
 	        BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+	        ContentDigests.unsetDigest(property);
 		} catch (Exception ase) {
 			logger.error(String.format("Unexpected error unsetting content %s", contentId.toString()), ase);
 		}
 	}
 
+	@Override
+	public List<BulkContentResult<S>> setContents(Map<S, InputStream> contents) {
+		// assigning a content id may change an entity's hash code, so entities are not looked up in the given map
+		List<S> properties = new ArrayList<>(contents.size());
+		Map<S, InputStream> streams = new IdentityHashMap<>(contents.size());
+		for (Map.Entry<S, InputStream> entry : contents.entrySet()) {
+			properties.add(entry.getKey());
+			streams.put(entry.getKey(), entry.getValue());
+		}
+		return BulkOperations.forEachParallel(properties, (property) -> {
+			writeContent(property, streams.get(property));
+			return BulkContentResult.success(property);
+		});
+	}
+
+	@Override
+	public List<BulkContentResult<S>> getContents(Collection<S> properties) {
+		return BulkOperations.forEachParallel(properties, (property) -> BulkContentResult.success(property, getContent(property)));
+	}
+
+	/**
+	 * Deletes content with multi-object delete requests of up to {@value #MAX_DELETE_KEYS} keys
+	 * rather than a request per entity.  Keys that S3 reports as not deleted fail individually.
+	 */
+	@Override
+	public List<BulkContentResult<S>> unsetContents(Collection<S> properties) {
+		Map<String, Throwable> failures = new HashMap<>();
+		List<String> keys = new ArrayList<>();
+		for (S property : properties) {
+			String key = keyOf(property);
+			if (key != null) {
+				keys.add(key);
+			}
+		}
+
+		for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+			List<String> chunk = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()));
+			List<KeyVersion> keyVersions = new ArrayList<>(chunk.size());
+			for (String key : chunk) {
+				keyVersions.add(new KeyVersion(key));
+				invalidate(key);
+			}
+			try {
+				client.deleteObjects(new DeleteObjectsRequest(bucket).withKeys(keyVersions).withQuiet(true));
+			} catch (MultiObjectDeleteException mode) {
+				for (DeleteError error : mode.getErrors()) {
+					failures.put(error.getKey(), new IllegalStateException(String.format("Unable to delete %s: %s", error.getKey(), error.getMessage())));
+				}
+			} catch (RuntimeException e) {
+				logger.error(String.format("Unexpected error unsetting content of %d entities", chunk.size()), e);
+				for (String key : chunk) {
+					failures.put(key, e);
+				}
+			}
+		}
+
+		List<BulkContentResult<S>> results = new ArrayList<>(properties.size());
+		for (S property : properties) {
+			String key = keyOf(property);
+			if (key != null && failures.containsKey(key)) {
+				results.add(BulkContentResult.failure(property, failures.get(key)));
+				continue;
+			}
+			if (key != null) {
+				BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
+				BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+				ContentDigests.unsetDigest(property);
+			}
+			results.add(BulkContentResult.success(property));
+		}
+		return results;
+	}
+
+	/**
+	 * Copies the source's object server-side, with a multipart copy for objects too large
+	 * for a single copy request.
+	 */
+	@Override
+	public boolean copyContent(S source, S target) {
+		String sourceKey = keyOf(source);
+		if (sourceKey == null) {
+			return false;
+		}
+		Object targetId = BeanUtils.getFieldWithAnnotation(target, ContentId.class);
+		if (targetId == null) {
+			targetId = UUID.randomUUID().toString();
+		}
+		String targetKey = toKey(converter.convert(targetId, String.class));
+		if (sourceKey.equals(targetKey)) {
+			return false;
+		}
+
+		try {
+			invalidate(targetKey);
+			long length = copier.copy(bucket, sourceKey, targetKey);
+			if (length == -1) {
+				return false;
+			}
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, targetId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, length);
+			ContentDigests.copyDigest(source, target);
+			return true;
+		} catch (RuntimeException e) {
+			throw new StoreAccessException(String.format("Unable to copy content %s to %s", sourceKey, targetKey), e);
+		} finally {
+			invalidate(targetKey);
+		}
+	}
+
+	/**
+	 * Hands the source's content id to a target without one, so that the move costs no
+	 * request, and otherwise copies the source's object server-side and deletes it.
+	 */
+	@Override
+	public boolean moveContent(S source, S target) {
+		Object sourceId = BeanUtils.getFieldWithAnnotation(source, ContentId.class);
+		if (sourceId == null) {
+			return false;
+		}
+		if (BeanUtils.getFieldWithAnnotation(target, ContentId.class) == null) {
+			BeanUtils.setFieldWithAnnotation(target, ContentId.class, sourceId);
+			BeanUtils.setFieldWithAnnotation(target, ContentLength.class, BeanUtils.getFieldWithAnnotation(source, ContentLength.class));
+			ContentDigests.copyDigest(source, target);
+			BeanUtils.setFieldWithAnnotation(source, ContentId.class, null);
+			BeanUtils.setFieldWithAnnotation(source, ContentLength.class, 0);
+			ContentDigests.unsetDigest(source);
+			return true;
+		}
+
+		if (copyContent(source, target)) {
+			unsetContent(source);
+			return true;
+		}
+		return false;
+	}
+
+	private String keyOf(S property) {
+		Object contentId = (property != null ? BeanUtils.getFieldWithAnnotation(property, ContentId.class) : null);
+		if (contentId == null) {
+			return null;
+		}
+		return toKey(converter.convert(contentId, String.class));
+	}
+
+	private String toKey(String location) {
+		String key = (location.startsWith("/") ? location.substring(1) : location);
+		return (keyStrategy != null ? keyStrategy.getKey(key) : key);
+	}
+
 	private String absolutify(String location) {
-		String locationToUse = null;
 		Assert.state(location.startsWith("s3://") == false);
-		if (location.startsWith("/")) {
-			locationToUse = location.substring(1);
-		} else {
-			locationToUse = location;
-		}
-		return String.format("s3://%s/%s", bucket, locationToUse);
+		return String.format("s3://%s/%s", bucket, toKey(location));
 	}
 	
-	private void delete(Resource resource) {
-		if (resource.exists()) {
-			client.deleteObject(new DeleteObjectRequest(bucket, resource.getFilename()));
+	private void invalidate(String key) {
+		if (metadataCache != null) {
+			metadataCache.invalidate(key);
 		}
 	}
 
 	@Override
 	public Resource getResource(SID id) {
 		String location = converter.convert(id, String.class);
-		location = absolutify(location);
-		Resource resource = loader.getResource(location);
-		return resource;
+		Resource resource = loader.getResource(absolutify(location));
+		if (resource == null) {
+			return null;
+		}
+		if (presignedUrlExpiryMillis > 0) {
+			return new S3PresignableResource(resource, client, bucket, toKey(location), downloader, metadataCache, presignedUrlExpiryMillis);
+		}
+		return new S3RangeableResource(resource, client, bucket, toKey(location), downloader, metadataCache);
 	}
 }
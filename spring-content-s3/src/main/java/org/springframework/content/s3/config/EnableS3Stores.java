@@ -54,4 +54,83 @@ public @interface EnableS3Stores {
 	 * @return s3 store factory bean
 	 */
 	Class<?> storeFactoryBeanClass() default S3StoreFactoryBean.class;
+
+	/**
+	 * The size, in bytes, of each part of a multipart upload.  Content no larger than one part
+	 * is uploaded with a single request.  Must be at least 5MB, the smallest part S3 accepts.
+	 * Defaults to 8MB.
+	 *
+	 * @return the multipart upload part size
+	 */
+	long multipartPartSize() default 8L * 1024 * 1024;
+
+	/**
+	 * The number of parts each store uploads at once.  An upload holds up to one more part
+	 * than this in memory, within the {@link #uploadBufferSize()}.  0 uploads content through
+	 * the resource's output stream instead.  Defaults to 2.
+	 *
+	 * @return the number of upload threads
+	 */
+	int uploadThreads() default 2;
+
+	/**
+	 * The size, in bytes, of the memory that all of each store's uploads in progress may
+	 * buffer parts in at once.  Every upload of content larger than 64KB needs one part's
+	 * worth and waits for it once the budget is spent.  Must be at least
+	 * {@link #multipartPartSize()}.  Defaults to 32MB.
+	 *
+	 * @return the upload buffer size
+	 */
+	long uploadBufferSize() default 32L * 1024 * 1024;
+
+	/**
+	 * The size, in bytes, of each range of a parallel download.  Content no larger than one
+	 * range is downloaded with a single request.  Only used when {@link #downloadThreads()}
+	 * is set.  Defaults to 8MB.
+	 *
+	 * @return the download range size
+	 */
+	long downloadRangeSize() default 8L * 1024 * 1024;
+
+	/**
+	 * The number of ranges each store downloads at once.  A download holds up to one more
+	 * range than this in memory, ahead of the reader, besides the range being read.
+	 * Defaults to 0, downloading content over a single connection.
+	 *
+	 * @return the number of download threads
+	 */
+	int downloadThreads() default 0;
+
+	/**
+	 * The number of objects whose size, ETag and last modified time each store caches, saving
+	 * a HEAD request whenever a resource is asked for them.  The store invalidates an object's
+	 * entry when it writes or deletes the object, and entries expire after a minute, so an
+	 * object another application replaces or deletes may be seen stale for up to a minute.
+	 * Reads are pinned to the cached ETag and fail, rather than mix versions, when the
+	 * object has changed.  Defaults to 0, asking S3 each time.
+	 *
+	 * @return the metadata cache size
+	 */
+	int metadataCacheSize() default 0;
+
+	/**
+	 * The number of hex digits, of a hash of each content id, that the stores prefix keys
+	 * with to spread objects across many key prefixes; see {@link HashedPrefixKeyStrategy}.
+	 * Defaults to 0, storing content directly under its converted location.  Ignored when
+	 * the application defines a {@link S3KeyStrategy} bean.
+	 *
+	 * @return the hash prefix length
+	 */
+	int keyHashPrefixLength() default 0;
+
+	/**
+	 * How long, in seconds, the presigned URLs that the stores' resources hand out are valid
+	 * for.  When set, the REST endpoints redirect content downloads to a presigned GET URL,
+	 * and hand out presigned PUT URLs for uploads, so that content is transferred directly
+	 * with S3 rather than through the application.  Defaults to 0, handing out no URLs and
+	 * serving content through the application.
+	 *
+	 * @return the presigned URL expiry
+	 */
+	int presignedUrlExpirySeconds() default 0;
 }
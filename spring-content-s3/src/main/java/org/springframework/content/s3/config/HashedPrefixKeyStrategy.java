@@ -0,0 +1,35 @@
+package org.springframework.content.s3.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Prefixes each key with leading hex digits of an MD5 hash of its location, spreading a
+ * store's objects evenly across {@code 16^prefixLength} key prefixes so that request rates
+ * can scale past S3's per-prefix limits.  With a prefix length of 4, for example,
+ * {@code 12345-67890} is stored under {@code d32f/12345-67890}.
+ */
+public class HashedPrefixKeyStrategy implements S3KeyStrategy {
+
+	/** longer prefixes than this do not fit in an MD5 hash */
+	public static final int MAX_PREFIX_LENGTH = 32;
+
+	private final int prefixLength;
+
+	public HashedPrefixKeyStrategy(int prefixLength) {
+		Assert.isTrue(prefixLength >= 0 && prefixLength <= MAX_PREFIX_LENGTH, String.format("prefixLength must be between 0 and %d", MAX_PREFIX_LENGTH));
+		this.prefixLength = prefixLength;
+	}
+
+	@Override
+	public String getKey(String location) {
+		if (prefixLength == 0) {
+			return location;
+		}
+
+		String hash = DigestUtils.md5DigestAsHex(location.getBytes(StandardCharsets.UTF_8));
+		return hash.substring(0, prefixLength) + "/" + location;
+	}
+}
@@ -0,0 +1,18 @@
+package org.springframework.content.s3.config;
+
+/**
+ * Decides the key, within the store's bucket, that content is stored under.  Applied to the
+ * location the {@link S3StoreConverter}s produce for a content id, with any leading slash
+ * removed.
+ * <p>
+ * Changing the strategy of a store that already holds content leaves that content under
+ * the keys the old strategy chose.
+ */
+public interface S3KeyStrategy {
+
+	/**
+	 * @param location the location converted from a content id
+	 * @return the key to store the content under
+	 */
+	String getKey(String location);
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.cloud.aws.core.io.s3.SimpleStorageResourceLoader;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
@@ -23,6 +24,8 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import internal.org.springframework.content.s3.io.MultipartUploader;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -80,6 +83,59 @@ public class EnableS3StoresTest {
 				});
 			});
 
+			Context("given a context with upload and download settings", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(MultipartConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should pass them to each store", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					BeanDefinition definition = context.getBeanDefinition(name);
+					assertThat(definition.getPropertyValues().getPropertyValue("multipartPartSize").getValue(), is(32L * 1024 * 1024));
+					assertThat(definition.getPropertyValues().getPropertyValue("uploadThreads").getValue(), is(8));
+					assertThat(definition.getPropertyValues().getPropertyValue("uploadBufferSize").getValue(), is(64L * 1024 * 1024));
+					assertThat(definition.getPropertyValues().getPropertyValue("downloadThreads").getValue(), is(2));
+					assertThat(definition.getPropertyValues().getPropertyValue("metadataCacheSize").getValue(), is(500));
+					assertThat(definition.getPropertyValues().getPropertyValue("keyHashPrefixLength").getValue(), is(2));
+					assertThat(definition.getPropertyValues().getPropertyValue("presignedUrlExpirySeconds").getValue(), is(300));
+				});
+				It("should shut each store's uploader and downloader down when the context is closed", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					S3StoreFactoryBean factory = context.getBean("&" + name, S3StoreFactoryBean.class);
+					assertThat(factory.getMultipartUploader().isShutdown(), is(false));
+					assertThat(factory.getRangeDownloader().isShutdown(), is(false));
+
+					context.close();
+
+					assertThat(factory.getMultipartUploader().isShutdown(), is(true));
+					assertThat(factory.getRangeDownloader().isShutdown(), is(true));
+				});
+			});
+
+			Context("given a context with default upload and download settings", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(TestConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should download content over a single connection", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					assertThat(context.getBean("&" + name, S3StoreFactoryBean.class).getRangeDownloader(), is(nullValue()));
+				});
+				It("should buffer no more than 32MB of upload parts", () -> {
+					String name = context.getBeanNamesForType(TestEntityContentRepository.class)[0];
+					MultipartUploader uploader = context.getBean("&" + name, S3StoreFactoryBean.class).getMultipartUploader();
+					assertThat(uploader.getPartSize() * uploader.getAvailableBuffers(), is(32L * 1024 * 1024));
+				});
+			});
+
 			Context("given a context with an empty configuration", () -> {
 				BeforeEach(() -> {
 					context = new AnnotationConfigApplicationContext();
@@ -150,6 +206,12 @@ public class EnableS3StoresTest {
 		}
 	}
 
+	@Configuration
+	@EnableS3Stores(multipartPartSize=32L * 1024 * 1024, uploadThreads=8, uploadBufferSize=64L * 1024 * 1024, downloadThreads=2, metadataCacheSize=500, keyHashPrefixLength=2, presignedUrlExpirySeconds=300)
+	@Import(InfrastructureConfig.class)
+	public static class MultipartConfig {
+	}
+
 	@Configuration
 	@EnableS3ContentRepositories
 //	@EnableContextResourceLoader
@@ -0,0 +1,207 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class MultipartUploaderTest {
+
+	private static final int PART_SIZE = (int) MultipartUploader.MIN_PART_SIZE;
+
+	private MultipartUploader uploader;
+	private AmazonS3 client;
+
+	private List<Integer> partSizes;
+
+	{
+		Describe("MultipartUploader", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				uploader = new MultipartUploader(client, PART_SIZE, 2, PART_SIZE * 3L);
+
+				InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+				initiated.setUploadId("upload-1");
+				when(client.initiateMultipartUpload(anyObject())).thenReturn(initiated);
+
+				partSizes = Collections.synchronizedList(new ArrayList<>());
+				when(client.uploadPart(anyObject())).thenAnswer(invocation -> {
+					UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+					partSizes.add(IOUtils.toByteArray(request.getInputStream()).length);
+					UploadPartResult result = new UploadPartResult();
+					result.setPartNumber(request.getPartNumber());
+					result.setETag("etag-" + request.getPartNumber());
+					return result;
+				});
+			});
+			Context("given content smaller than a part", () -> {
+				It("should upload it with a single put", () -> {
+					long length = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream("Hello content world!".getBytes()));
+
+					assertThat(length, is(20L));
+					ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+					verify(client).putObject(put.capture());
+					assertThat(put.getValue().getKey(), is("some-key"));
+					assertThat(put.getValue().getMetadata().getContentLength(), is(20L));
+					verify(client, never()).initiateMultipartUpload(anyObject());
+				});
+			});
+			Context("given content spanning several parts", () -> {
+				It("should upload each part and complete the upload in part order", () -> {
+					long length = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 2 + 100]));
+
+					assertThat(length, is(PART_SIZE * 2 + 100L));
+					verify(client).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+					verify(client, times(3)).uploadPart(anyObject());
+					assertThat(partSizes.contains(100), is(true));
+
+					ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+					verify(client).completeMultipartUpload(complete.capture());
+					assertThat(complete.getValue().getUploadId(), is("upload-1"));
+					assertThat(complete.getValue().getPartETags().size(), is(3));
+					for (int i = 0; i < 3; i++) {
+						assertThat(complete.getValue().getPartETags().get(i).getPartNumber(), is(i + 1));
+						assertThat(complete.getValue().getPartETags().get(i).getETag(), is("etag-" + (i + 1)));
+					}
+					verify(client, never()).abortMultipartUpload(anyObject());
+				});
+				It("should give the part buffers back to the budget", () -> {
+					uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 2 + 100]));
+
+					assertThat(uploader.getAvailableBuffers(), is(3));
+				});
+				Context("given a budget of a single part", () -> {
+					BeforeEach(() -> {
+						uploader = new MultipartUploader(client, PART_SIZE, 2, PART_SIZE);
+					});
+					It("should upload every part through that one buffer", () -> {
+						long length = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 2 + 100]));
+
+						assertThat(length, is(PART_SIZE * 2 + 100L));
+						verify(client, times(3)).uploadPart(anyObject());
+						verify(client).completeMultipartUpload(anyObject());
+						assertThat(uploader.getAvailableBuffers(), is(1));
+					});
+				});
+				Context("when the uploader has been shut down", () -> {
+					BeforeEach(() -> {
+						uploader.shutdown();
+					});
+					It("should abort the upload", () -> {
+						try {
+							uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 2 + 100]));
+							fail("expected exception");
+						} catch (IOException ioe) {
+							verify(client).abortMultipartUpload(anyObject());
+							verify(client, never()).completeMultipartUpload(anyObject());
+							assertThat(uploader.getAvailableBuffers(), is(3));
+						}
+					});
+				});
+			});
+			Context("given content that needs more parts than S3 accepts at the configured part size", () -> {
+				BeforeEach(() -> {
+					uploader = new MultipartUploader(client, PART_SIZE, 2, PART_SIZE * 3L, 4);
+				});
+				It("should grow the part size as far as the budget allows", () -> {
+					assertThat(uploader.partSize(1), is(PART_SIZE));
+					assertThat(uploader.partSize(2), is(PART_SIZE * 2));
+					assertThat(uploader.partSize(3), is(PART_SIZE * 3));
+					assertThat(uploader.partSize(4), is(PART_SIZE * 3));
+					assertThat(uploader.getMaxUploadSize(), is(PART_SIZE * 9L));
+				});
+				It("should upload it in larger parts", () -> {
+					long length = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 3 + 100]));
+
+					assertThat(length, is(PART_SIZE * 3 + 100L));
+					assertThat(partSizes.size(), is(3));
+					assertThat(partSizes.contains(PART_SIZE), is(true));
+					assertThat(partSizes.contains(PART_SIZE * 2), is(true));
+					assertThat(partSizes.contains(100), is(true));
+					verify(client).completeMultipartUpload(anyObject());
+					assertThat(uploader.getAvailableBuffers(), is(3));
+				});
+				Context("when the content exceeds the most that fits", () -> {
+					It("should abort the upload without completing it", () -> {
+						try {
+							uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 9 + 1]));
+							fail("expected exception");
+						} catch (IOException ioe) {
+							verify(client, times(4)).uploadPart(anyObject());
+							verify(client).abortMultipartUpload(anyObject());
+							verify(client, never()).completeMultipartUpload(anyObject());
+							assertThat(uploader.getAvailableBuffers(), is(3));
+						}
+					});
+				});
+			});
+			Context("given a part that fails to upload", () -> {
+				BeforeEach(() -> {
+					doThrow(new AmazonServiceException("badness")).when(client).uploadPart(anyObject());
+				});
+				It("should abort the upload", () -> {
+					try {
+						uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(new byte[PART_SIZE * 2]));
+						fail("expected exception");
+					} catch (IOException ioe) {
+						ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+						verify(client).abortMultipartUpload(abort.capture());
+						assertThat(abort.getValue().getUploadId(), is("upload-1"));
+						verify(client, never()).completeMultipartUpload(anyObject());
+					}
+				});
+			});
+			Context("given content that fails to read part way through", () -> {
+				It("should abort the upload", () -> {
+					InputStream failing = mock(InputStream.class);
+					when(failing.read(any(byte[].class), org.mockito.Matchers.anyInt(), org.mockito.Matchers.anyInt())).thenThrow(new IOException("badness"));
+					try {
+						uploader.upload("some-bucket", "some-key", new SequenceInputStream(new ByteArrayInputStream(new byte[PART_SIZE + 1]), failing));
+						fail("expected exception");
+					} catch (IOException ioe) {
+						assertThat(ioe.getMessage(), is("badness"));
+						verify(client).abortMultipartUpload(anyObject());
+						verify(client, never()).completeMultipartUpload(anyObject());
+					}
+				});
+			});
+		});
+	}
+}
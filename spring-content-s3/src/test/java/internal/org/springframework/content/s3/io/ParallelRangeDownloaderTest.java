@@ -0,0 +1,164 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class ParallelRangeDownloaderTest {
+
+	private static final int RANGE_SIZE = 1024;
+
+	private ParallelRangeDownloader downloader;
+	private AmazonS3 client;
+
+	private byte[] content;
+	private String eTag;
+	private String firstETag;
+
+	{
+		Describe("ParallelRangeDownloader", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				downloader = new ParallelRangeDownloader(client, RANGE_SIZE, 2);
+			});
+			Context("given an object larger than two ranges", () -> {
+				BeforeEach(() -> {
+					content = new byte[RANGE_SIZE * 5 + 17];
+					new Random(42).nextBytes(content);
+					eTag = "some-etag";
+					firstETag = "some-etag";
+
+					when(client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+						GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+						boolean first = request.getMatchingETagConstraints().isEmpty();
+						if (!first && !request.getMatchingETagConstraints().contains(eTag)) {
+							return null;
+						}
+						long[] range = request.getRange();
+						long end = Math.min(range[1], content.length - 1);
+						ObjectMetadata metadata = new ObjectMetadata();
+						metadata.setContentLength(end - range[0] + 1);
+						metadata.setHeader("Content-Range", String.format("bytes %d-%d/%d", range[0], end, content.length));
+						metadata.setHeader("ETag", (first ? firstETag : eTag));
+						S3Object object = new S3Object();
+						object.setObjectMetadata(metadata);
+						object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(content, (int) range[0], (int) end + 1)));
+						return object;
+					});
+				});
+				It("should reassemble the ranges in order", () -> {
+					try (InputStream in = downloader.getInputStream("some-bucket", "some-key")) {
+						assertThat(Arrays.equals(IOUtils.toByteArray(in), content), is(true));
+					}
+					verify(client, times(6)).getObject(any(GetObjectRequest.class));
+					verify(client, never()).getObject(eq("some-bucket"), eq("some-key"));
+				});
+				It("should learn the object's size from the first range rather than a HEAD", () -> {
+					try (InputStream in = downloader.getInputStream("some-bucket", "some-key")) {
+						IOUtils.toByteArray(in);
+					}
+					verify(client, never()).getObjectMetadata(any(String.class), any(String.class));
+				});
+				Context("when the downloader has been shut down", () -> {
+					BeforeEach(() -> {
+						downloader.shutdown();
+					});
+					It("should fail the read rather than return part of the object", () -> {
+						try {
+							downloader.getInputStream("some-bucket", "some-key");
+							fail("expected exception");
+						} catch (IOException ioe) {
+							assertThat(ioe.getMessage().contains("shut down"), is(true));
+						}
+					});
+				});
+				Context("when the object changes part way through", () -> {
+					BeforeEach(() -> {
+						firstETag = "old-etag";
+					});
+					It("should fail the read", () -> {
+						try (InputStream in = downloader.getInputStream("some-bucket", "some-key")) {
+							IOUtils.toByteArray(in);
+							fail("expected exception");
+						} catch (IOException ioe) {
+							assertThat(ioe.getMessage().contains("changed"), is(true));
+						}
+					});
+				});
+			});
+			Context("given a small object", () -> {
+				BeforeEach(() -> {
+					ObjectMetadata metadata = new ObjectMetadata();
+					metadata.setContentLength(20);
+					metadata.setHeader("Content-Range", "bytes 0-19/20");
+
+					S3Object object = new S3Object();
+					object.setObjectMetadata(metadata);
+					object.setObjectContent(new ByteArrayInputStream("Hello content world!".getBytes()));
+					when(client.getObject(any(GetObjectRequest.class))).thenReturn(object);
+				});
+				It("should read it with a single ranged GET", () -> {
+					assertThat(IOUtils.toString(downloader.getInputStream("some-bucket", "some-key")), is("Hello content world!"));
+					verify(client, times(1)).getObject(any(GetObjectRequest.class));
+					verify(client, never()).getObjectMetadata(any(String.class), any(String.class));
+				});
+			});
+			Context("given an empty object", () -> {
+				BeforeEach(() -> {
+					AmazonS3Exception notSatisfiable = new AmazonS3Exception("Requested Range Not Satisfiable");
+					notSatisfiable.setStatusCode(416);
+					when(client.getObject(any(GetObjectRequest.class))).thenThrow(notSatisfiable);
+
+					S3Object object = new S3Object();
+					object.setObjectMetadata(new ObjectMetadata());
+					object.setObjectContent(new ByteArrayInputStream(new byte[0]));
+					when(client.getObject("some-bucket", "some-key")).thenReturn(object);
+				});
+				It("should read it with a plain GET", () -> {
+					assertThat(IOUtils.toByteArray(downloader.getInputStream("some-bucket", "some-key")).length, is(0));
+				});
+			});
+			Context("given no object", () -> {
+				BeforeEach(() -> {
+					AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+					notFound.setStatusCode(404);
+					when(client.getObject(any(GetObjectRequest.class))).thenThrow(notFound);
+				});
+				It("should return null", () -> {
+					assertThat(downloader.getInputStream("some-bucket", "some-key"), is(nullValue()));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,119 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class S3ObjectCopierTest {
+
+	private static final long PART_SIZE = MultipartUploader.MIN_PART_SIZE;
+
+	private S3ObjectCopier copier;
+	private AmazonS3 client;
+	private ObjectMetadata metadata;
+
+	{
+		Describe("S3ObjectCopier", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				copier = new S3ObjectCopier(client, PART_SIZE, PART_SIZE);
+
+				metadata = new ObjectMetadata();
+				metadata.setHeader("ETag", "etag");
+				when(client.getObjectMetadata("some-bucket", "source")).thenReturn(metadata);
+				when(client.copyObject(anyObject())).thenReturn(new CopyObjectResult());
+
+				InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+				initiated.setUploadId("upload-1");
+				when(client.initiateMultipartUpload(anyObject())).thenReturn(initiated);
+				when(client.copyPart(anyObject())).thenAnswer(invocation -> {
+					CopyPartRequest request = (CopyPartRequest) invocation.getArguments()[0];
+					CopyPartResult result = new CopyPartResult();
+					result.setPartNumber(request.getPartNumber());
+					result.setETag("etag-" + request.getPartNumber());
+					return result;
+				});
+			});
+			Context("given an object no larger than the threshold", () -> {
+				It("should copy it with a single request", () -> {
+					metadata.setContentLength(PART_SIZE);
+
+					assertThat(copier.copy("some-bucket", "source", "target"), is(PART_SIZE));
+					verify(client).copyObject(anyObject());
+					verify(client, never()).initiateMultipartUpload(anyObject());
+				});
+			});
+			Context("given an object larger than the threshold", () -> {
+				BeforeEach(() -> {
+					metadata.setContentLength(2 * PART_SIZE + 1);
+				});
+				It("should copy it part by part", () -> {
+					assertThat(copier.copy("some-bucket", "source", "target"), is(2 * PART_SIZE + 1));
+
+					ArgumentCaptor<CopyPartRequest> parts = ArgumentCaptor.forClass(CopyPartRequest.class);
+					verify(client, times(3)).copyPart(parts.capture());
+					List<CopyPartRequest> requests = parts.getAllValues();
+					assertThat(requests.get(0).getFirstByte(), is(0L));
+					assertThat(requests.get(0).getLastByte(), is(PART_SIZE - 1));
+					assertThat(requests.get(2).getFirstByte(), is(2 * PART_SIZE));
+					assertThat(requests.get(2).getLastByte(), is(2 * PART_SIZE));
+					assertThat(requests.get(2).getMatchingETagConstraints().get(0), is("etag"));
+
+					ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+					verify(client).completeMultipartUpload(complete.capture());
+					assertThat(complete.getValue().getPartETags().size(), is(3));
+					verify(client, never()).copyObject(anyObject());
+				});
+				It("should abort the copy when the source changes", () -> {
+					doReturn(null).when(client).copyPart(anyObject());
+					try {
+						copier.copy("some-bucket", "source", "target");
+						fail("expected the copy to fail");
+					} catch (IllegalStateException ise) {
+						verify(client).abortMultipartUpload(anyObject());
+						verify(client, never()).completeMultipartUpload(anyObject());
+					}
+				});
+			});
+			Context("given no source object", () -> {
+				It("should copy nothing", () -> {
+					AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+					notFound.setStatusCode(404);
+					when(client.getObjectMetadata("some-bucket", "source")).thenThrow(notFound);
+
+					assertThat(copier.copy("some-bucket", "source", "target"), is(-1L));
+					verify(client, never()).copyObject(anyObject());
+				});
+			});
+		});
+	}
+}
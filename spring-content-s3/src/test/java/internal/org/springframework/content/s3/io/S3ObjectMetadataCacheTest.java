@@ -0,0 +1,71 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Date;
+
+import org.junit.runner.RunWith;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class S3ObjectMetadataCacheTest {
+
+	private S3ObjectMetadataCache cache;
+
+	{
+		Describe("S3ObjectMetadataCache", () -> {
+			BeforeEach(() -> {
+				cache = new S3ObjectMetadataCache(2, 60 * 1000);
+			});
+			Context("given cached metadata", () -> {
+				BeforeEach(() -> {
+					ObjectMetadata metadata = new ObjectMetadata();
+					metadata.setContentLength(20);
+					metadata.setHeader("ETag", "some-etag");
+					metadata.setLastModified(new Date(1000L));
+					cache.put("some-key", metadata);
+				});
+				It("should return it", () -> {
+					S3ObjectMetadataCache.Metadata metadata = cache.get("some-key");
+					assertThat(metadata.getContentLength(), is(20L));
+					assertThat(metadata.getETag(), is("some-etag"));
+					assertThat(metadata.getLastModified(), is(1000L));
+				});
+				It("should forget it once invalidated", () -> {
+					cache.invalidate("some-key");
+					assertThat(cache.get("some-key"), is(nullValue()));
+				});
+				It("should evict the least recently used entry when full", () -> {
+					cache.put("other-key", new ObjectMetadata());
+					cache.get("some-key");
+					cache.put("third-key", new ObjectMetadata());
+					assertThat(cache.size(), is(2));
+					assertThat(cache.get("some-key"), is(not(nullValue())));
+					assertThat(cache.get("other-key"), is(nullValue()));
+				});
+			});
+			Context("given metadata older than the time to live", () -> {
+				BeforeEach(() -> {
+					cache = new S3ObjectMetadataCache(2, 1);
+					cache.put("some-key", new ObjectMetadata());
+					Thread.sleep(10);
+				});
+				It("should have expired it", () -> {
+					assertThat(cache.get("some-key"), is(nullValue()));
+					assertThat(cache.size(), is(0));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,103 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.springframework.core.io.Resource;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class S3RangeableResourceTest {
+
+	private S3RangeableResource resource;
+
+	private AmazonS3 client;
+	private S3ObjectMetadataCache metadataCache;
+
+	{
+		Describe("S3RangeableResource", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				metadataCache = new S3ObjectMetadataCache();
+				ObjectMetadata metadata = new ObjectMetadata();
+				metadata.setContentLength(20);
+				metadata.setHeader("ETag", "some-etag");
+				metadataCache.put("some-key", metadata);
+				resource = new S3RangeableResource(mock(Resource.class), client, "some-bucket", "some-key", null, metadataCache);
+			});
+			Context("given cached metadata", () -> {
+				It("should pin a range read to the cached ETag", () -> {
+					S3Object object = new S3Object();
+					object.setObjectContent(new ByteArrayInputStream("Hello".getBytes()));
+					when(client.getObject(Matchers.<GetObjectRequest>anyObject())).thenReturn(object);
+
+					assertThat(IOUtils.toString(resource.getInputStream(0, 5)), is("Hello"));
+
+					ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+					verify(client).getObject(captor.capture());
+					assertThat(captor.getValue().getMatchingETagConstraints().get(0), is("some-etag"));
+					assertThat(captor.getValue().getRange()[1], is(4L));
+				});
+				It("should pin a full read to the cached ETag", () -> {
+					S3Object object = new S3Object();
+					object.setObjectContent(new ByteArrayInputStream("Hello".getBytes()));
+					when(client.getObject(Matchers.<GetObjectRequest>anyObject())).thenReturn(object);
+
+					assertThat(IOUtils.toString(resource.getInputStream()), is("Hello"));
+
+					ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+					verify(client).getObject(captor.capture());
+					assertThat(captor.getValue().getMatchingETagConstraints().get(0), is("some-etag"));
+				});
+				It("should fail the read and invalidate the metadata when the object has changed", () -> {
+					// the client answers a failed ETag constraint with no object
+					when(client.getObject(Matchers.<GetObjectRequest>anyObject())).thenReturn(null);
+
+					try {
+						resource.getInputStream(0, 5);
+						fail("expected exception");
+					} catch (IOException ioe) {
+						assertThat(metadataCache.get("some-key"), is(nullValue()));
+					}
+				});
+				It("should fail the read and invalidate the metadata when the object has been deleted", () -> {
+					AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+					notFound.setStatusCode(404);
+					when(client.getObject(Matchers.<GetObjectRequest>anyObject())).thenThrow(notFound);
+
+					try {
+						resource.getInputStream(0, 5);
+						fail("expected exception");
+					} catch (FileNotFoundException fnfe) {
+						assertThat(metadataCache.get("some-key"), is(nullValue()));
+					}
+				});
+			});
+		});
+	}
+}
@@ -9,9 +9,12 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.endsWith;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -20,22 +23,51 @@ import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.io.PresignableResource;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.content.commons.repository.BulkContentResult;
+import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.WritableResource;
 
+import com.amazonaws.HttpMethod;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelRangeDownloader;
+import internal.org.springframework.content.s3.io.S3ObjectMetadataCache;
+
 
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads=1)
@@ -47,7 +79,6 @@ public class DefaultS3StoreImplTest {
     private TestEntity entity;
     
     private WritableResource resource;
-    private Resource nonExistentResource;
 
     private InputStream content;
     private OutputStream output;
@@ -55,6 +86,12 @@ public class DefaultS3StoreImplTest {
     private File parent;
 
     private InputStream result;
+
+    private TestEntity other;
+    private MultipartUploader uploader;
+    private ParallelRangeDownloader downloader;
+    private S3ObjectMetadataCache metadataCache;
+    private List<BulkContentResult<TestEntity>> results;
     
     {
         Describe("DefaultS3StoreImplTest", () -> {
@@ -88,8 +125,6 @@ public class DefaultS3StoreImplTest {
                         output = mock(OutputStream.class);
                         when(resource.getOutputStream()).thenReturn(output);
 
-                        when(resource.contentLength()).thenReturn(20L);
-
                         
                         when(resource.exists()).thenReturn(true);
                     });
@@ -103,8 +138,9 @@ public class DefaultS3StoreImplTest {
                     	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
                     });
                     
-                    It("should change the content length", () -> {
+                    It("should change the content length from the bytes written", () -> {
                         assertThat(entity.getContentLen(), is(20L));
+                        verify(resource, never()).contentLength();
                     });
 
                     It("should write to the resource's outputstream", () -> {
@@ -123,8 +159,6 @@ public class DefaultS3StoreImplTest {
                         output = mock(OutputStream.class);
                         when(resource.getOutputStream()).thenReturn(output);
 
-                        when(resource.contentLength()).thenReturn(20L);
-
                         
                         File resourceFile = mock(File.class);
                         parent = mock(File.class);
@@ -146,6 +180,55 @@ public class DefaultS3StoreImplTest {
                         verify(output, times(1)).write(Matchers.<byte[]>any(), eq(0), eq(20));
                     });
                 });
+
+                Context("given a multipart uploader", () -> {
+                    BeforeEach(() -> {
+                        entity.setContentId("abcd-efgh");
+                        when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+
+                        uploader = mock(MultipartUploader.class);
+                        when(uploader.upload(eq("some-bucket"), eq("abcd-efgh"), anyObject())).thenAnswer(invocation -> {
+                            return (long) IOUtils.toByteArray((InputStream) invocation.getArguments()[2]).length;
+                        });
+                        s3StoreImpl.setMultipartUploader(uploader);
+                    });
+
+                    It("should upload the content with the uploader", () -> {
+                        verify(uploader).upload(eq("some-bucket"), eq("abcd-efgh"), anyObject());
+                        verify(loader, never()).getResource(anyObject());
+                    });
+
+                    It("should change the content length from the bytes uploaded", () -> {
+                        assertThat(entity.getContentLen(), is(20L));
+                    });
+
+                    Context("given a metadata cache", () -> {
+                        BeforeEach(() -> {
+                            metadataCache = new S3ObjectMetadataCache();
+                            metadataCache.put("abcd-efgh", new ObjectMetadata());
+                            s3StoreImpl.setMetadataCache(metadataCache);
+                        });
+
+                        It("should invalidate the object's metadata", () -> {
+                            assertThat(metadataCache.get("abcd-efgh"), is(nullValue()));
+                        });
+                    });
+
+                    Context("given metadata cached while the upload is in progress", () -> {
+                        BeforeEach(() -> {
+                            metadataCache = new S3ObjectMetadataCache();
+                            s3StoreImpl.setMetadataCache(metadataCache);
+                            doAnswer(invocation -> {
+                                metadataCache.put("abcd-efgh", new ObjectMetadata());
+                                return (long) IOUtils.toByteArray((InputStream) invocation.getArguments()[2]).length;
+                            }).when(uploader).upload(eq("some-bucket"), eq("abcd-efgh"), anyObject());
+                        });
+
+                        It("should invalidate it once the upload is done", () -> {
+                            assertThat(metadataCache.get("abcd-efgh"), is(nullValue()));
+                        });
+                    });
+                });
             });
 
             Context("#getContent", () -> {
@@ -154,53 +237,73 @@ public class DefaultS3StoreImplTest {
                     content = mock(InputStream.class);
                     entity.setContentId("abcd-efgh");
                   
-//                    when(placement.getLocation(eq("abcd-efgh"))).thenReturn("/abcd/efgh");
                     when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
-
-                    when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-                    when(resource.getInputStream()).thenReturn(content);
                 });
 
                 JustBeforeEach(() -> {
                 	result = s3StoreImpl.getContent(entity);
                 });
-                Context("when the resource exists", () -> {
+                Context("when the object exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(true);
+                        content = new ByteArrayInputStream("Hello content world!".getBytes());
+                        S3Object object = new S3Object();
+                        ObjectMetadata metadata = new ObjectMetadata();
+                        metadata.setContentLength(100L);
+                        metadata.setHeader("ETag", "some-etag");
+                        object.setObjectMetadata(metadata);
+                        object.setObjectContent(content);
+                        when(client.getObject(eq("some-bucket"), eq("abcd-efgh"))).thenReturn(object);
                     });
 
                     It("should use the converter to establish a resource path", () -> {
                       verify(converter).convert(eq("abcd-efgh"),eq(String.class));
                     });
 
-	                It("should fetch the resource", () -> {
-	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-	                });
+                    It("should get the object without a HEAD request", () -> {
+                        verify(client).getObject(eq("some-bucket"), eq("abcd-efgh"));
+                        verify(client, never()).getObjectMetadata(anyString(), anyString());
+                        verify(loader, never()).getResource(anyObject());
+                    });
                   
                     It("should get content", () -> {
-                        assertThat(result, is(content));
+                        assertThat(IOUtils.toString(result), is("Hello content world!"));
+                    });
+
+                    Context("given a metadata cache", () -> {
+                        BeforeEach(() -> {
+                            metadataCache = new S3ObjectMetadataCache();
+                            s3StoreImpl.setMetadataCache(metadataCache);
+                        });
+
+                        It("should cache the object's metadata", () -> {
+                            assertThat(metadataCache.get("abcd-efgh").getContentLength(), is(100L));
+                            assertThat(metadataCache.get("abcd-efgh").getETag(), is("some-etag"));
+                        });
                     });
                 });
-                Context("when the resource does not exist", () -> {
+                Context("when the object does not exist", () -> {
                     BeforeEach(() -> {
-                		nonExistentResource = mock(Resource.class);
-                		when(resource.exists()).thenReturn(true);
-
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(nonExistentResource);
+                        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+                        notFound.setStatusCode(404);
+                        when(client.getObject(eq("some-bucket"), eq("abcd-efgh"))).thenThrow(notFound);
                     });
 
-                    It("should use the converter to establish a resource path", () -> {
-                        verify(converter).convert(eq("abcd-efgh"),eq(String.class));
-                      });
-
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-  	                });
-                    
                     It("should not find the content", () -> {
                         assertThat(result, is(nullValue()));
                     });
                 });
+                Context("given a range downloader", () -> {
+                    BeforeEach(() -> {
+                        downloader = mock(ParallelRangeDownloader.class);
+                        when(downloader.getInputStream(eq("some-bucket"), eq("abcd-efgh"))).thenReturn(content);
+                        s3StoreImpl.setRangeDownloader(downloader);
+                    });
+
+                    It("should get content from the downloader", () -> {
+                        assertThat(result, is(content));
+                        verify(loader, never()).getResource(anyObject());
+                    });
+                });
             });
 
             Context("#unsetContent", () -> {
@@ -218,51 +321,337 @@ public class DefaultS3StoreImplTest {
                 Context("when the content exists", () -> {
                 	
                 	BeforeEach(() -> {
-//                        when(placement.getLocation("abcd-efgh")).thenReturn("/abcd/efgh");
                         when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
-                		
-	            		when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-	            		when(resource.exists()).thenReturn(true);
                 	});
                 	
                     It("should use the converter to establish a resource path", () -> {
                         verify(converter).convert(eq("abcd-efgh"),eq(String.class));
                       });
 
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
+  	                It("should delete the object without checking it exists", () -> {
+                        ArgumentCaptor<DeleteObjectRequest> captor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                	    verify(client).deleteObject(captor.capture());
+                        assertThat(captor.getValue().getBucketName(), is("some-bucket"));
+                        assertThat(captor.getValue().getKey(), is("abcd-efgh"));
+                        verify(client, never()).getObjectMetadata(anyString(), anyString());
+                        verify(loader, never()).getResource(anyObject());
   	                });
 
   	                It("should unset content", () -> {
-                	    verify(client).deleteObject(anyObject());
                 		assertThat(entity.getContentId(), is(nullValue()));
                 		assertThat(entity.getContentLen(), is(0L));
                 	});
+
+                    Context("given a metadata cache", () -> {
+                        BeforeEach(() -> {
+                            metadataCache = new S3ObjectMetadataCache();
+                            metadataCache.put("abcd-efgh", new ObjectMetadata());
+                            s3StoreImpl.setMetadataCache(metadataCache);
+                        });
+
+                        It("should invalidate the object's metadata", () -> {
+                            assertThat(metadataCache.get("abcd-efgh"), is(nullValue()));
+                        });
+                    });
+                });
+            });
+            Context("#getResource", () -> {
+                BeforeEach(() -> {
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("/abcd-efgh");
+                    when(loader.getResource(eq("s3://some-bucket/abcd-efgh"))).thenReturn(resource);
+                    S3Object object = new S3Object();
+                    object.setObjectContent(new ByteArrayInputStream("content".getBytes()));
+                    when(client.getObject(Matchers.<GetObjectRequest>anyObject())).thenReturn(object);
                 });
-                
-                Context("when the content doesnt exist", () -> {
-                	BeforeEach(() -> {
-//                        when(placement.getLocation("abcd-efgh")).thenReturn("/abcd/efgh");
-                        when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
 
-                		nonExistentResource = mock(Resource.class);
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(nonExistentResource);
-                        when(nonExistentResource.exists()).thenReturn(false);
-                	});
-                	
-                    It("should use the converter to establish a resource path", () -> {
-                        verify(converter).convert(eq("abcd-efgh"),eq(String.class));
-                      });
+                It("should not hand out presigned URLs", () -> {
+                    assertThat(s3StoreImpl.getResource("abcd-efgh") instanceof PresignableResource, is(false));
+                });
 
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-  	                });
+                Context("given a presigned URL expiry", () -> {
+                    BeforeEach(() -> {
+                        s3StoreImpl.setPresignedUrlExpiryMillis(60 * 1000);
+                        when(client.generatePresignedUrl(anyObject())).thenReturn(new URL("https://some-bucket.s3.amazonaws.com/abcd-efgh"));
+                    });
 
-  	                It("should unset the content", () -> {
-                		verify(client, never()).deleteObject(anyObject());
-                		assertThat(entity.getContentId(), is(nullValue()));
-                		assertThat(entity.getContentLen(), is(0L));
-                	});
+                    It("should presign GETs of the object for that long", () -> {
+                        Resource r = s3StoreImpl.getResource("abcd-efgh");
+                        assertThat(((PresignableResource)r).getPresignedGetUrl().toString(), is("https://some-bucket.s3.amazonaws.com/abcd-efgh"));
+
+                        ArgumentCaptor<GeneratePresignedUrlRequest> captor = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                        verify(client).generatePresignedUrl(captor.capture());
+                        assertThat(captor.getValue().getBucketName(), is("some-bucket"));
+                        assertThat(captor.getValue().getKey(), is("abcd-efgh"));
+                        assertThat(captor.getValue().getMethod(), is(HttpMethod.GET));
+                        long expiresIn = captor.getValue().getExpiration().getTime() - System.currentTimeMillis();
+                        assertThat(expiresIn > 50 * 1000 && expiresIn <= 60 * 1000, is(true));
+                    });
+
+                    It("should presign GETs that answer with the given content type and filename", () -> {
+                        Resource r = s3StoreImpl.getResource("abcd-efgh");
+                        ((PresignableResource)r).getPresignedGetUrl("text/plain", "b.txt");
+
+                        ArgumentCaptor<GeneratePresignedUrlRequest> captor = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                        verify(client).generatePresignedUrl(captor.capture());
+                        assertThat(captor.getValue().getResponseHeaders().getContentType(), is("text/plain"));
+                        assertThat(captor.getValue().getResponseHeaders().getContentDisposition(), is("attachment; filename=\"b.txt\""));
+                    });
+
+                    It("should presign PUTs of the object and forget its cached metadata", () -> {
+                        metadataCache = new S3ObjectMetadataCache();
+                        metadataCache.put("abcd-efgh", new ObjectMetadata());
+                        s3StoreImpl.setMetadataCache(metadataCache);
+
+                        ((PresignableResource)s3StoreImpl.getResource("abcd-efgh")).getPresignedPutUrl();
+
+                        ArgumentCaptor<GeneratePresignedUrlRequest> captor = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                        verify(client).generatePresignedUrl(captor.capture());
+                        assertThat(captor.getValue().getMethod(), is(HttpMethod.PUT));
+                        assertThat(metadataCache.get("abcd-efgh"), is(nullValue()));
+                    });
+
+                    It("should forget its cached metadata when refreshed after an upload", () -> {
+                        metadataCache = new S3ObjectMetadataCache();
+                        s3StoreImpl.setMetadataCache(metadataCache);
+                        Resource r = s3StoreImpl.getResource("abcd-efgh");
+                        metadataCache.put("abcd-efgh", new ObjectMetadata());
+
+                        ((PresignableResource)r).refresh();
+
+                        assertThat(metadataCache.get("abcd-efgh"), is(nullValue()));
+                    });
+                });
+
+                It("should read ranges with a ranged GET", () -> {
+                    Resource r = s3StoreImpl.getResource("abcd-efgh");
+                    assertThat(r instanceof RangeableResource, is(true));
+                    ((RangeableResource)r).getInputStream(6, 7);
+
+                    ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+                    verify(client).getObject(captor.capture());
+                    assertThat(captor.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(captor.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(captor.getValue().getRange()[0], is(6L));
+                    assertThat(captor.getValue().getRange()[1], is(12L));
+                });
+            });
+            Context("given a key strategy", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("/abcd-efgh");
+                    s3StoreImpl.setKeyStrategy(location -> "ab/" + location);
+                });
+
+                It("should write content under the strategy's key", () -> {
+                    uploader = mock(MultipartUploader.class);
+                    s3StoreImpl.setMultipartUploader(uploader);
+                    s3StoreImpl.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+                    verify(uploader).upload(eq("some-bucket"), eq("ab/abcd-efgh"), anyObject());
+                });
+
+                It("should read content from the strategy's key", () -> {
+                    s3StoreImpl.getContent(entity);
+                    verify(client).getObject(eq("some-bucket"), eq("ab/abcd-efgh"));
+                });
+
+                It("should delete content at the strategy's key", () -> {
+                    s3StoreImpl.unsetContent(entity);
+                    ArgumentCaptor<DeleteObjectRequest> captor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(captor.capture());
+                    assertThat(captor.getValue().getKey(), is("ab/abcd-efgh"));
+                });
+
+                It("should resolve resources at the strategy's key", () -> {
+                    s3StoreImpl.getResource("abcd-efgh");
+                    verify(loader).getResource(eq("s3://some-bucket/ab/abcd-efgh"));
+                });
+            });
+            Context("#copyContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    other = new TestEntity("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(20L);
+                    metadata.setHeader("ETag", "etag");
+                    when(client.getObjectMetadata("some-bucket", "abcd-efgh")).thenReturn(metadata);
+                    when(client.copyObject(anyObject())).thenReturn(new CopyObjectResult());
+                });
+
+                It("should copy the object server-side", () -> {
+                    assertThat(s3StoreImpl.copyContent(entity, other), is(true));
+
+                    ArgumentCaptor<CopyObjectRequest> captor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+                    verify(client).copyObject(captor.capture());
+                    assertThat(captor.getValue().getSourceKey(), is("abcd-efgh"));
+                    assertThat(captor.getValue().getDestinationKey(), is("ijkl-mnop"));
+                    assertThat(captor.getValue().getMatchingETagConstraints().get(0), is("etag"));
+                    verify(client, never()).getObject(anyString(), anyString());
+                    assertThat(other.getContentLen(), is(20L));
+                });
+
+                It("should invalidate metadata of the target cached while the copy is in progress", () -> {
+                    metadataCache = new S3ObjectMetadataCache();
+                    s3StoreImpl.setMetadataCache(metadataCache);
+                    when(client.copyObject(anyObject())).thenAnswer(invocation -> {
+                        metadataCache.put("ijkl-mnop", new ObjectMetadata());
+                        return new CopyObjectResult();
+                    });
+
+                    s3StoreImpl.copyContent(entity, other);
+
+                    assertThat(metadataCache.get("ijkl-mnop"), is(nullValue()));
+                });
+
+                Context("when the source object does not exist", () -> {
+                    BeforeEach(() -> {
+                        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+                        notFound.setStatusCode(404);
+                        when(client.getObjectMetadata("some-bucket", "abcd-efgh")).thenThrow(notFound);
+                        when(converter.convert(anyObject(), eq(String.class))).thenAnswer((invocation) -> invocation.getArguments()[0].toString());
+                        other = new TestEntity();
+                    });
+
+                    It("should leave the target unchanged", () -> {
+                        assertThat(s3StoreImpl.copyContent(entity, other), is(false));
+
+                        verify(client, never()).copyObject(anyObject());
+                        assertThat(other.getContentId(), is(nullValue()));
+                    });
+                });
+            });
+            Context("#moveContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    entity.setContentLen(20L);
+                });
+
+                It("should hand the content to a target without a content id", () -> {
+                    other = new TestEntity();
+
+                    s3StoreImpl.moveContent(entity, other);
+
+                    verify(client, never()).copyObject(anyObject());
+                    verify(client, never()).deleteObject(anyObject());
+                    assertThat(other.getContentId(), is("abcd-efgh"));
+                    assertThat(other.getContentLen(), is(20L));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                });
+
+                It("should copy the object and delete the source otherwise", () -> {
+                    other = new TestEntity("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(20L);
+                    when(client.getObjectMetadata("some-bucket", "abcd-efgh")).thenReturn(metadata);
+                    when(client.copyObject(anyObject())).thenReturn(new CopyObjectResult());
+
+                    assertThat(s3StoreImpl.moveContent(entity, other), is(true));
+
+                    verify(client).copyObject(anyObject());
+                    ArgumentCaptor<DeleteObjectRequest> captor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(captor.capture());
+                    assertThat(captor.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentLen(), is(20L));
+                });
+
+                It("should leave the source's object in place when it can't be copied", () -> {
+                    other = new TestEntity("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(20L);
+                    when(client.getObjectMetadata("some-bucket", "abcd-efgh")).thenReturn(metadata);
+                    when(client.copyObject(anyObject())).thenThrow(new AmazonS3Exception("badness"));
+
+                    try {
+                        s3StoreImpl.moveContent(entity, other);
+                        fail("expected exception");
+                    } catch (StoreAccessException sae) {
+                        verify(client, never()).deleteObject(anyObject());
+                        assertThat(entity.getContentId(), is("abcd-efgh"));
+                    }
+                });
+            });
+            Context("#setContents", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    other = new TestEntity("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+
+                    uploader = mock(MultipartUploader.class);
+                    when(uploader.upload(eq("some-bucket"), eq("abcd-efgh"), anyObject())).thenAnswer(invocation -> {
+                        return (long) IOUtils.toByteArray((InputStream) invocation.getArguments()[2]).length;
+                    });
+                    when(uploader.upload(eq("some-bucket"), eq("ijkl-mnop"), anyObject())).thenThrow(new IOException("badness"));
+                    s3StoreImpl.setMultipartUploader(uploader);
+                });
+
+                JustBeforeEach(() -> {
+                    Map<TestEntity, InputStream> contents = new LinkedHashMap<>();
+                    contents.put(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+                    contents.put(other, new ByteArrayInputStream("Goodbye".getBytes()));
+                    results = s3StoreImpl.setContents(contents);
+                });
+
+                It("should succeed for the uploaded content", () -> {
+                    assertThat(results.get(0).isSuccess(), is(true));
+                    assertThat(entity.getContentLen(), is(20L));
+                });
+
+                It("should fail for the content that could not be uploaded", () -> {
+                    assertThat(results.get(1).isSuccess(), is(false));
+                    assertThat(results.get(1).getFailure().getMessage(), is("badness"));
+                    assertThat(other.getContentLen(), is(0L));
+                });
+            });
+            Context("#unsetContents", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    other = new TestEntity("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("/abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+                });
+
+                JustBeforeEach(() -> {
+                    results = s3StoreImpl.unsetContents(Arrays.asList(entity, other));
+                });
+
+                It("should delete all objects with one request", () -> {
+                    ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+                    verify(client, times(1)).deleteObjects(captor.capture());
+                    verify(client, never()).deleteObject(anyObject());
+                    verify(loader, never()).getResource(anyObject());
+                    assertThat(captor.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(captor.getValue().getKeys().get(0).getKey(), is("abcd-efgh"));
+                    assertThat(captor.getValue().getKeys().get(1).getKey(), is("ijkl-mnop"));
+                });
+
+                It("should reset the metadata of every entity", () -> {
+                    assertThat(results.get(0).isSuccess(), is(true));
+                    assertThat(results.get(1).isSuccess(), is(true));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is(nullValue()));
+                });
+
+                Context("when S3 fails to delete one of the objects", () -> {
+                    BeforeEach(() -> {
+                        DeleteError error = new DeleteError();
+                        error.setKey("ijkl-mnop");
+                        error.setMessage("AccessDenied");
+                        when(client.deleteObjects(anyObject())).thenThrow(new MultiObjectDeleteException(Collections.singletonList(error), Collections.emptyList()));
+                    });
+
+                    It("should fail only that entity", () -> {
+                        assertThat(results.get(0).isSuccess(), is(true));
+                        assertThat(results.get(1).isSuccess(), is(false));
+                        assertThat(other.getContentId(), is("ijkl-mnop"));
+                    });
                 });
             });
         });
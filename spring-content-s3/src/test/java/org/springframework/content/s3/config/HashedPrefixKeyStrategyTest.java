@@ -0,0 +1,42 @@
+package org.springframework.content.s3.config;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class HashedPrefixKeyStrategyTest {
+
+	{
+		Describe("HashedPrefixKeyStrategy", () -> {
+			Context("given no prefix", () -> {
+				It("should leave the key unchanged", () -> {
+					assertThat(new HashedPrefixKeyStrategy(0).getKey("12345-67890"), is("12345-67890"));
+				});
+			});
+			Context("given a prefix of four digits", () -> {
+				It("should prefix the key with four digits of its hash", () -> {
+					assertThat(new HashedPrefixKeyStrategy(4).getKey("12345-67890"), is("d32f/12345-67890"));
+				});
+			});
+			Context("given too long a prefix", () -> {
+				It("should refuse it", () -> {
+					try {
+						new HashedPrefixKeyStrategy(HashedPrefixKeyStrategy.MAX_PREFIX_LENGTH + 1);
+						throw new AssertionError("expected exception");
+					} catch (IllegalArgumentException iae) {
+						assertThat(true, is(true));
+					}
+				});
+			});
+		});
+	}
+}
@@ -48,11 +48,12 @@ public class SolrIndexer extends AbstractStoreEventListener<Object> {
 		if (properties.getUser() != null) {
 			up.setBasicAuthCredentials(properties.getUser(), properties.getPassword());
 		}
-		up.addContentStream(new ContentEntityStream(event.getStore().getContent(contentEntity)));
 		String id = BeanUtils.getFieldWithAnnotation(contentEntity, ContentId.class).toString();
 	    up.setParam("literal.id", contentEntity.getClass().getCanonicalName() + ":" + id);
 	    up.setAction(org.apache.solr.client.solrj.request.AbstractUpdateRequest.ACTION.COMMIT, true, true);
-	    try {
+	    // the content may hold resources, such as a JDBC connection, until it is closed
+	    try (InputStream content = event.getStore().getContent(contentEntity)) {
+			up.addContentStream(new ContentEntityStream(content));
 			/*NamedList<Object> request = */solrClient.request(up, null);
 		} catch (SolrServerException e) {
 			throw new StoreAccessException(String.format("Error updating entry in solr index %s", id), e);